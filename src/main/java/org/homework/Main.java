@@ -1,28 +1,261 @@
 package org.homework;
 
 import org.homework.bot.Bot;
+import org.homework.broadcast.BroadcastJob;
+import org.homework.broadcast.BroadcastSpool;
+import org.homework.catalog.TravelCatalog;
 import org.homework.di.DIContainer;
+import org.homework.experiments.Experiments;
+import org.homework.intent.CommandRouter;
+import org.homework.intent.IntentMatcher;
+import org.homework.jfr.FlightRecording;
+import org.homework.send.OutboundSender;
+import org.homework.send.Priority;
+import org.homework.send.SendGate;
+import org.homework.stats.ClickTracker;
+import org.homework.subscribers.SubscriberRegistry;
+import org.homework.updates.IncomingUpdate;
+import org.homework.updates.PipelinedBotSession;
+import org.homework.updates.UpdateCapture;
+import org.homework.updates.UpdateRecorder;
+import org.homework.updates.UpdateReplayer;
+import org.homework.updates.UpdateStreamParser;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotSession;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
 /**
  * Главный класс приложения, который запускает Telegram-бота.
+ *
+ * <p>С аргументами {@code broadcast <файл получателей> <файл с текстом>} вместо запуска бота
+ * массовая рассылка ставится в очередь заявок ({@link BroadcastSpool}) запущенного бота,
+ * который выполняет ее с общим бюджетом отправки, а с аргументами
+ * {@code export-subscribers <дней> <файл получателей>} - выгрузка активных за эти дни
+ * подписчиков в файл получателей.</p>
+ *
+ * <p>С аргументами {@code replay <файл записи> [скорость|max]} бот обрабатывает записанные
+ * свойством {@code bot.capture.file} обновления без обращения к Telegram и печатает задержки
+ * по командам.</p>
+ *
+ * <p>С аргументами {@code train [--rescan]} выполняется обучающий запуск для профиля {@code fast-start}:
+ * собирается граф зависимостей и несколько типичных обновлений проходят через бота
+ * с заглушкой отправки, после чего печатается время до первого ответа и JVM завершается
+ * (с {@code -XX:ArchiveClassesAtExit} загруженные классы сохраняются в архив CDS).
+ * С {@code --rescan} список DI-компонентов ({@code bot.di.index}) строится заново.</p>
  */
 public class Main {
+
+    /** Обновления обучающего запуска: команды, согласие, свободный текст, нажатия и inline-запрос */
+    private static final String[] TRAINING_UPDATES = {
+            message(1, "/start"), message(2, "да"), message(3, "/help"), message(4, "Может быть"),
+            callback(5, "go:hotels"), callback(6, "menu"),
+            "{\"update_id\":7,\"inline_query\":{\"id\":\"iq\",\"from\":{\"id\":7,\"language_code\":\"ru\"},"
+                    + "\"query\":\"круиз\"}}"
+    };
+
     public static void main(String[] args) {
+        if (args.length > 1 && "train".equals(args[0]) && "--rescan".equals(args[1])
+                && System.getProperty(DIContainer.INDEX_PROPERTY) != null) {
+            // Список DI-компонентов строится заново, чтобы не остался от прошлой сборки
+            try {
+                Files.deleteIfExists(Paths.get(System.getProperty(DIContainer.INDEX_PROPERTY)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         // Создаем контейнер для управления зависимостями
         DIContainer container = new DIContainer();
+        if (args.length > 0 && "broadcast".equals(args[0])) {
+            runBroadcast(args);
+            return;
+        }
+        if (args.length > 0 && "export-subscribers".equals(args[0])) {
+            exportSubscribers(container, args);
+            return;
+        }
+        if (args.length > 0 && "replay".equals(args[0])) {
+            replay(container, args);
+            return;
+        }
+        if (args.length > 0 && "train".equals(args[0])) {
+            train(container);
+            return;
+        }
         try {
             // Создаем экземпляр TelegramBotsApi для работы с API Telegram
             TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
 
-            // Регистрируем бота в TelegramBotsApi, получая его из DI-контейнера
-            botsApi.registerBot(container.resolve(Bot.class));
+            // Включаем горячую перезагрузку каталога путешествий
+            container.resolve(TravelCatalog.class).startWatching();
+
+            // Включаем выгрузку статистики нажатий (если учет включен свойством bot.clicks.tracked)
+            container.resolve(ClickTracker.class).startFlushing();
+
+            // Включаем сводку A/B-экспериментов (если они включены свойством bot.experiments)
+            container.resolve(Experiments.class).startReporting();
+
+            // Включаем сводку ожидания отправки по приоритетам
+            container.resolve(SendGate.class).startReporting();
+
+            // Включаем периодическое сохранение реестра подписчиков
+            container.resolve(SubscriberRegistry.class).startPersisting();
+
+            // Включаем запись входящих обновлений (если задан файл свойством bot.capture.file)
+            container.resolve(UpdateRecorder.class).startFlushing();
+
+            // Включаем события JFR о глубине очередей и запись (если задан файл свойством bot.jfr.file)
+            container.resolve(FlightRecording.class).start();
+
+            // Собираем таблицу команд до первого сообщения (ошибки в обработчиках - при запуске)
+            container.resolve(CommandRouter.class).compile();
+
+            Bot bot = container.resolve(Bot.class);
+
+            // Включаем выполнение заявок на рассылку (если задан каталог свойством bot.broadcast.dir)
+            container.resolve(BroadcastSpool.class).start(bot);
+
+            if (Boolean.parseBoolean(System.getProperty(PipelinedBotSession.ENABLED_PROPERTY, "true"))) {
+                // Получаем обновления через конвейерную сессию: следующий getUpdates не ждет обработки
+                bot.clearWebhook();
+                BotSession session = container.resolve(BotSession.class);
+                session.setToken(bot.getBotToken());
+                session.setOptions(bot.getOptions());
+                session.setCallback(bot);
+                session.start();
+                // При остановке процесса сессия подтверждает обработанное и закрывает очередь на диске
+                Runtime.getRuntime().addShutdownHook(new Thread(session::stop, "updates-shutdown"));
+            } else {
+                // Регистрируем бота в TelegramBotsApi со стандартной сессией библиотеки
+                botsApi.registerBot(bot);
+            }
 
         } catch (TelegramApiException e) {
             // Обработка исключений, возникающих при регистрации бота
             e.printStackTrace();
         }
     }
+
+    /**
+     * Ставит массовую рассылку в очередь заявок запущенного бота. Рассылка выполняется в его
+     * процессе, в классе {@link Priority#BROADCAST} общего с ответами бюджета отправки;
+     * отдельный процесс со своим бюджетом превысил бы общее ограничение Telegram.
+     */
+    private static void runBroadcast(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Использование: broadcast <файл получателей> <файл с текстом>");
+            return;
+        }
+        String directory = System.getProperty(BroadcastSpool.DIR_PROPERTY);
+        if (directory == null) {
+            System.err.println("Не задан каталог заявок на рассылку: -D" + BroadcastSpool.DIR_PROPERTY
+                    + " (тот же, что у запущенного бота)");
+            return;
+        }
+        try {
+            Path request = BroadcastSpool.submit(Paths.get(directory), Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Заявка на рассылку создана: " + request);
+        } catch (IOException e) {
+            // Обработка ошибок записи заявки
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Воспроизводит запись обновлений через полный путь обработки бота. Запросы к Telegram
+     * заменяются заглушкой {@link OutboundSender#STUB_PROPERTY} (по умолчанию без задержки),
+     * а бюджет отправки, если он не задан явно, снимается, чтобы не маскировать время обработки.
+     * Ограничение частоты по чатам остается: при ускоренном воспроизведении его можно
+     * ослабить свойством {@code bot.flood.limit}.
+     */
+    private static void replay(DIContainer container, String[] args) {
+        if (args.length < 2) {
+            System.err.println("Использование: replay <файл записи> [скорость|max]");
+            return;
+        }
+        double speed = args.length > 2 && !"max".equals(args[2]) ? Double.parseDouble(args[2]) : 0;
+        if (System.getProperty(OutboundSender.STUB_PROPERTY) == null) {
+            System.setProperty(OutboundSender.STUB_PROPERTY, "0");
+        }
+        if (System.getProperty(SendGate.RATE_PROPERTY) == null) {
+            System.setProperty(SendGate.RATE_PROPERTY, String.valueOf(Integer.MAX_VALUE));
+        }
+        try {
+            List<UpdateCapture.Entry> capture = UpdateCapture.read(Paths.get(args[1]));
+            UpdateReplayer replayer = new UpdateReplayer(container.resolve(Bot.class),
+                    UpdateReplayer.byIntent(container.resolve(IntentMatcher.class)));
+            System.out.print(replayer.replay(capture, speed).format());
+        } catch (IOException e) {
+            // Обработка ошибок чтения файла записи
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Обучающий запуск: загружает и связывает все, что нужно для первого ответа, не обращаясь
+     * к Telegram. Каждое обновление проходит и разбором потока, и полным декодированием.
+     */
+    private static void train(DIContainer container) {
+        if (System.getProperty(OutboundSender.STUB_PROPERTY) == null) {
+            System.setProperty(OutboundSender.STUB_PROPERTY, "0");
+        }
+        if (System.getProperty(SendGate.RATE_PROPERTY) == null) {
+            System.setProperty(SendGate.RATE_PROPERTY, String.valueOf(Integer.MAX_VALUE));
+        }
+        try {
+            container.resolve(CommandRouter.class).compile();
+            container.resolve(BotSession.class);
+            Bot bot = container.resolve(Bot.class);
+            for (String json : TRAINING_UPDATES) {
+                IncomingUpdate update = UpdateStreamParser.parseUpdate(json.getBytes(StandardCharsets.UTF_8));
+                bot.onIncomingUpdate(update);
+                bot.onUpdateReceived(update.toUpdate());
+            }
+            System.out.println("Первый ответ через " + container.resolve(OutboundSender.class).getFirstReplyMillis()
+                    + " мс после запуска JVM");
+        } catch (TelegramApiException e) {
+            // Обработка ошибок разбора обучающих обновлений
+            e.printStackTrace();
+        }
+        // Архив CDS пишется при выходе из JVM, а потоки библиотеки не дают ей завершиться самой
+        System.exit(0);
+    }
+
+    private static String message(long chatId, String text) {
+        return "{\"update_id\":" + chatId + ",\"message\":{\"message_id\":1,\"from\":{\"id\":" + chatId
+                + ",\"language_code\":\"ru\"},\"chat\":{\"id\":" + chatId + "},\"text\":\"" + text + "\"}}";
+    }
+
+    private static String callback(long chatId, String data) {
+        return "{\"update_id\":" + chatId + ",\"callback_query\":{\"id\":\"cb\",\"from\":{\"id\":" + chatId
+                + ",\"language_code\":\"ru\"},\"message\":{\"message_id\":5,\"chat\":{\"id\":" + chatId
+                + "}},\"data\":\"" + data + "\"}}";
+    }
+
+    /**
+     * Выгружает активных подписчиков в файл получателей для {@link BroadcastJob}.
+     */
+    private static void exportSubscribers(DIContainer container, String[] args) {
+        if (args.length < 3) {
+            System.err.println("Использование: export-subscribers <дней> <файл получателей>");
+            return;
+        }
+        try {
+            int count = container.resolve(SubscriberRegistry.class)
+                    .exportRecipients(Paths.get(args[2]), Integer.parseInt(args[1]));
+            System.out.println("Выгружено получателей: " + count);
+        } catch (IOException e) {
+            // Обработка ошибок записи файла получателей
+            e.printStackTrace();
+        }
+    }
 }
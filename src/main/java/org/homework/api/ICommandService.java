@@ -1,11 +1,17 @@
 package org.homework.api;
 
+import org.homework.i18n.Language;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 
 /**
  * Интерфейс CommandService определяет контракт для сервиса обработки команд Telegram-бота.
  * Предоставляет методы для обработки различных команд и взаимодействия с пользователем.
+ *
+ * <p>Каждый метод принимает язык пользователя; варианты без языка отвечают на
+ * {@link Language#DEFAULT}.</p>
  */
 public interface ICommandService {
 
@@ -13,41 +19,156 @@ public interface ICommandService {
      * Обрабатывает команду /start - приветственное сообщение и начальную настройку.
      *
      * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
      * @return SendMessage объект с приветственным сообщением
      */
-    SendMessage startCommand(String chatId);
+    SendMessage startCommand(String chatId, Language language);
+
+    /**
+     * То же, что и {@link #startCommand(String, Language)}, на языке по умолчанию.
+     */
+    default SendMessage startCommand(String chatId) {
+        return startCommand(chatId, Language.DEFAULT);
+    }
 
     /**
      * Обрабатывает ответы пользователя на предыдущие запросы бота.
      *
      * @param chatId идентификатор чата с пользователем
      * @param text текст сообщения от пользователя
+     * @param language язык пользователя
      * @return SendMessage объект с ответом на пользовательский ввод
      */
-    SendMessage handleUserResponse(String chatId, String text);
+    SendMessage handleUserResponse(String chatId, String text, Language language);
+
+    /**
+     * То же, что и {@link #handleUserResponse(String, String, Language)}, на языке по умолчанию.
+     */
+    default SendMessage handleUserResponse(String chatId, String text) {
+        return handleUserResponse(chatId, text, Language.DEFAULT);
+    }
 
     /**
      * Показывает пользователю доступные варианты путешествий.
      *
      * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
      * @param bot экземпляр бота для выполнения дополнительных действий
      * @return SendMessage объект с информацией о вариантах путешествий
      */
-    SendMessage showTravelOptions(String chatId, AbsSender bot);
+    SendMessage showTravelOptions(String chatId, Language language, AbsSender bot);
+
+    /**
+     * То же, что и {@link #showTravelOptions(String, Language, AbsSender)}, на языке по умолчанию.
+     */
+    default SendMessage showTravelOptions(String chatId, AbsSender bot) {
+        return showTravelOptions(chatId, Language.DEFAULT, bot);
+    }
+
+    /**
+     * Обрабатывает нажатие на отслеживаемую кнопку варианта путешествия:
+     * учитывает нажатие и возвращает сообщение со ссылкой на выбранный вариант.
+     *
+     * @param chatId идентификатор чата с пользователем
+     * @param optionId идентификатор варианта из каталога
+     * @param language язык пользователя
+     * @return SendMessage объект со ссылкой или, если вариант уже удален из каталога,
+     * с актуальным меню
+     */
+    SendMessage openTravelOption(String chatId, String optionId, Language language);
+
+    /**
+     * Отвечает на согласие пользователя одним сообщением: текст ответа и меню вариантов
+     * с callback-кнопками. Дальнейшая навигация правит это сообщение на месте.
+     *
+     * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
+     * @return SendMessage объект с ответом и меню
+     */
+    SendMessage showTravelMenu(String chatId, Language language);
+
+    /**
+     * Заменяет меню в сообщении карточкой выбранного варианта: ссылка, кнопка возврата
+     * к меню и прощальная подпись.
+     *
+     * @param chatId идентификатор чата с пользователем
+     * @param messageId номер сообщения с меню
+     * @param optionId идентификатор варианта из каталога
+     * @param language язык пользователя
+     * @return EditMessageText объект с карточкой или, если вариант уже удален из каталога,
+     * с актуальным меню
+     */
+    EditMessageText openTravelOptionInPlace(String chatId, Integer messageId, String optionId, Language language);
+
+    /**
+     * Возвращает в сообщение меню вариантов путешествий.
+     *
+     * @param chatId идентификатор чата с пользователем
+     * @param messageId номер сообщения
+     * @param language язык пользователя
+     * @return EditMessageText объект с меню
+     */
+    EditMessageText backToTravelMenu(String chatId, Integer messageId, Language language);
+
+    /**
+     * Отвечает на inline-запрос ({@code @bot текст} в любом чате) вариантами путешествий,
+     * подходящими под текст запроса.
+     *
+     * @param inlineQueryId идентификатор inline-запроса
+     * @param query текст запроса
+     * @param language язык пользователя
+     * @return AnswerInlineQuery объект с карточками вариантов
+     */
+    AnswerInlineQuery answerInlineQuery(String inlineQueryId, String query, Language language);
+
+    /**
+     * Создает сообщение массовой рассылки (например, о горящих турах) для одного чата.
+     *
+     * @param chatId идентификатор чата получателя
+     * @param text текст рассылки
+     * @return SendMessage объект с сообщением рассылки
+     */
+    SendMessage broadcastMessage(String chatId, String text);
 
     /**
      * Отправляет прощальное сообщение при завершении взаимодействия.
      *
      * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
      * @return SendMessage объект с прощальным сообщением
      */
-    SendMessage sendGoodbyeMessage(String chatId);
+    SendMessage sendGoodbyeMessage(String chatId, Language language);
+
+    /**
+     * То же, что и {@link #sendGoodbyeMessage(String, Language)}, на языке по умолчанию.
+     */
+    default SendMessage sendGoodbyeMessage(String chatId) {
+        return sendGoodbyeMessage(chatId, Language.DEFAULT);
+    }
 
     /**
      * Обрабатывает команду /help - показывает справку по доступным командам.
      *
      * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
      * @return SendMessage объект со справочной информацией
      */
-    SendMessage getHelp(String chatId);
+    SendMessage getHelp(String chatId, Language language);
+
+    /**
+     * То же, что и {@link #getHelp(String, Language)}, на языке по умолчанию.
+     */
+    default SendMessage getHelp(String chatId) {
+        return getHelp(chatId, Language.DEFAULT);
+    }
+
+    /**
+     * Создает короткий ответ "бот занят" для режима перегрузки. Не обращается к каталогу,
+     * экспериментам и статистике.
+     *
+     * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
+     * @return SendMessage объект с просьбой написать позже
+     */
+    SendMessage busyReply(String chatId, Language language);
 }
@@ -1,22 +1,60 @@
 package org.homework.bot;
 
 import org.homework.api.ICommandService;
+import org.homework.catalog.CatalogSnapshot;
+import org.homework.dispatch.Dispatcher;
+import org.homework.dispatch.ReplyScope;
+import org.homework.flood.FloodControl;
+import org.homework.i18n.Language;
+import org.homework.intent.Command;
+import org.homework.intent.CommandRouter;
+import org.homework.intent.Intent;
+import org.homework.jfr.HandlerEvent;
+import org.homework.jfr.UpdateReceivedEvent;
+import org.homework.load.LoadShedder;
 import org.homework.logger.ILogger;
 import org.homework.di.annotations.Register;
 import org.homework.di.annotations.Resolve;
+import org.homework.send.MessageCoalescer;
+import org.homework.send.OutboundSender;
+import org.homework.updates.IncomingUpdate;
+import org.homework.updates.IncomingUpdateHandler;
+import org.homework.updates.UpdateRecorder;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.util.Arrays;
+
 /**
  * Основной класс Telegram-бота, реализующий долгополлющую (long-polling) версию бота.
  * Обрабатывает входящие сообщения и делегирует выполнение команд сервису CommandService.
  *
  * <p>Использует DI-аннотации ({@code @Register} и {@code @Resolve}) для автоматического
  * управления зависимостями.</p>
+ *
+ * <p>Маршрутизация использует только поля {@link IncomingUpdate}, поэтому обновления от
+ * {@code PipelinedBotSession} обрабатываются без полного декодирования.</p>
+ *
+ * <p>По умолчанию меню работает на месте: ответ на согласие приходит одним сообщением вместе
+ * с меню, а выбор варианта и возврат к меню правят это сообщение. Свойство
+ * {@value #INPLACE_MENU_PROPERTY}{@code =false} возвращает прежний порядок: ответ, меню
+ * и прощание отдельными сообщениями.</p>
+ *
+ * <p>Текстовые сообщения маршрутизирует {@link CommandRouter}: команды бота - методы
+ * с аннотацией {@link Command} в этом классе; новые команды можно добавлять методами
+ * с этой аннотацией в любом зарегистрированном сервисе.</p>
+ *
+ * <p>Текстовые ответы проходят через {@link MessageCoalescer}: сообщения одного ответа
+ * (например, ответ и меню в прежнем порядке) при включенной склейке уходят одним вызовом API.</p>
  */
 @Register
-public class Bot extends TelegramLongPollingBot {
+public class Bot extends TelegramLongPollingBot implements IncomingUpdateHandler {
+
+    /** Системное свойство: false - меню и ответы отдельными сообщениями вместо правки на месте */
+    public static final String INPLACE_MENU_PROPERTY = "bot.menu.inplace";
 
     /** Сервис для обработки команд бота, внедряемый через DI */
     @Resolve
@@ -26,6 +64,37 @@ public class Bot extends TelegramLongPollingBot {
     @Resolve
     private ILogger logger;
 
+    /** Отправка запросов в Telegram API с повторами и учетом ограничений, внедряемая через DI */
+    @Resolve
+    private OutboundSender outboundSender;
+
+    /** Склейка идущих подряд сообщений в один чат, внедряемая через DI */
+    @Resolve
+    private MessageCoalescer messageCoalescer;
+
+    /** Маршрутизация текстовых сообщений к обработчикам {@link Command}, внедряемая через DI */
+    @Resolve
+    private CommandRouter commandRouter;
+
+    /** Ограничение частоты запросов от одного чата, внедряемое через DI */
+    @Resolve
+    private FloodControl floodControl;
+
+    /** Защита от перегрузки, внедряемая через DI */
+    @Resolve
+    private LoadShedder loadShedder;
+
+    /** Режим выполнения (параллельная отправка независимых запросов ответа), внедряемый через DI */
+    @Resolve
+    private Dispatcher dispatcher;
+
+    /** Запись входящих обновлений для воспроизведения, внедряемая через DI */
+    @Resolve
+    private UpdateRecorder updateRecorder;
+
+    /** Работает ли меню правкой сообщения на месте */
+    private boolean inPlaceMenu = Boolean.parseBoolean(System.getProperty(INPLACE_MENU_PROPERTY, "true"));
+
     /**
      * Возвращает имя бота, заданное при регистрации в Telegram.
      *
@@ -54,33 +123,225 @@ public class Bot extends TelegramLongPollingBot {
      */
     @Override
     public void onUpdateReceived(Update update) {
+        onIncomingUpdate(IncomingUpdate.of(update));
+    }
+
+    /**
+     * Обработка входящего обновления по извлеченным полям: чату, тексту, языку и данным нажатия.
+     *
+     * @param update входящее обновление
+     */
+    @Override
+    public void onIncomingUpdate(IncomingUpdate update) {
+        updateRecorder.record(update);
+        UpdateReceivedEvent.emit(update);
+
+        // Запросы сверх ограничения отбрасываются до сервиса команд и бюджета отправки.
+        // Обновления из очереди на диске уже подтверждены и не отбрасываются. Inline-запросы
+        // Telegram шлет на каждое нажатие клавиши; они отвечаются из кеша и не расходуют лимит чата
+        if (update.getChatId() != null && !update.isAcknowledged() && !update.isInlineQuery()
+                && !floodControl.tryAcquire(update.getChatId())) {
+            logger.debug("Отброшен запрос сверх ограничения частоты из чата: " + update.getChatId());
+            if (update.isCallbackQuery()) {
+                // Без ответа на нажатие клиент показывает индикатор загрузки до таймаута
+                answerCallback(update, null);
+            }
+            return;
+        }
+
+        switch (loadShedder.level(update.isAcknowledged())) {
+            case REJECT:
+                // Перегрузка: новые запросы не обрабатываются
+                return;
+            case BUSY_REPLY:
+                replyBusy(update);
+                return;
+            default:
+                break;
+        }
+
+        if (update.isCallbackQuery()) {
+            onCallbackQuery(update);
+            return;
+        }
+
+        if (update.isInlineQuery()) {
+            onInlineQuery(update);
+            return;
+        }
+
         // Игнорируем сообщения без текста
-        if (!update.hasMessage() || !update.getMessage().hasText()) {
+        if (update.getText() == null || update.getChatId() == null) {
             return;
         }
 
-        String messageText = update.getMessage().getText();
-        String chatId = update.getMessage().getChatId().toString();
+        String chatId = update.getChatId().toString();
+        Language language = Language.fromCode(update.getLanguageCode());
+        try {
+            commandRouter.route(update, chatId, language);
+        } catch (TelegramApiException e) {
+            logger.error("Ошибка при отправке сообщения: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Команда /start и ее синонимы: приветствие.
+     */
+    @Command(Intent.START)
+    void onStart(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+        messageCoalescer.send(this, commandService.startCommand(chatId, language));
+    }
 
+    /**
+     * Команда /help и ее синонимы: справка.
+     */
+    @Command(Intent.HELP)
+    void onHelp(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+        messageCoalescer.send(this, commandService.getHelp(chatId, language));
+    }
+
+    /**
+     * Положительный ответ: показ вариантов путешествий.
+     */
+    @Command(Intent.YES)
+    void onYes(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+        if (inPlaceMenu) {
+            messageCoalescer.send(this, commandService.showTravelMenu(chatId, language));
+        } else {
+            messageCoalescer.send(this, Arrays.asList(
+                    commandService.handleUserResponse(chatId, update.getText(), language),
+                    commandService.showTravelOptions(chatId, language, this)));
+        }
+    }
+
+    /**
+     * Все остальные текстовые сообщения (в том числе отрицательный ответ).
+     */
+    @Command(Intent.UNKNOWN)
+    void onOtherText(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+        messageCoalescer.send(this, commandService.handleUserResponse(chatId, update.getText(), language));
+    }
+
+    /**
+     * Обработка нажатия на callback-кнопку меню. Telegram получает ответ на callback
+     * (у кнопки пропадает индикатор загрузки), нажатие учитывается и сообщение
+     * с меню правится на месте: вариант заменяет меню, кнопка "Назад" возвращает его.
+     * В режиме виртуальных потоков ответ и правка отправляются параллельно.
+     * Без правки на месте пользователю отправляется отдельное сообщение со ссылкой.
+     *
+     * @param query обновление с данными нажатия
+     */
+    private void onCallbackQuery(IncomingUpdate query) {
+        String data = query.getCallbackData();
+        if (data == null || query.getChatId() == null) {
+            return;
+        }
+        boolean back = CatalogSnapshot.MENU_CALLBACK.equals(data);
+        if (!back && !data.startsWith(CatalogSnapshot.TRACKED_CALLBACK_PREFIX)) {
+            return;
+        }
+
+        String chatId = query.getChatId().toString();
+        Language language = Language.fromCode(query.getLanguageCode());
+        boolean inPlace = query.getMessageId() != null && (inPlaceMenu || back);
+
+        HandlerEvent event = HandlerEvent.start("callback", query.getChatId());
+        AnswerCallbackQuery answer = new AnswerCallbackQuery();
+        answer.setCallbackQueryId(query.getCallbackQueryId());
+        // Ответ на callback и правка (или отправка) сообщения друг от друга не зависят
+        try (ReplyScope scope = dispatcher.openScope()) {
+            scope.fork(() -> outboundSender.execute(this, answer));
+            if (back) {
+                if (inPlace) {
+                    scope.fork(() -> outboundSender.execute(this,
+                            commandService.backToTravelMenu(chatId, query.getMessageId(), language)));
+                }
+            } else {
+                String optionId = data.substring(CatalogSnapshot.TRACKED_CALLBACK_PREFIX.length());
+                if (inPlace) {
+                    scope.fork(() -> outboundSender.execute(this,
+                            commandService.openTravelOptionInPlace(chatId, query.getMessageId(), optionId, language)));
+                } else {
+                    scope.fork(() -> outboundSender.execute(this,
+                            commandService.openTravelOption(chatId, optionId, language)));
+                }
+            }
+            scope.join();
+        } catch (TelegramApiException e) {
+            logger.error("Ошибка при отправке сообщения: " + e.getMessage());
+        }
+        event.commit();
+    }
+
+    /**
+     * Заменяет маршрутизацию текстовых сообщений (для тестов).
+     */
+    void setCommandRouter(CommandRouter commandRouter) {
+        this.commandRouter = commandRouter;
+    }
+
+    /**
+     * Включает или выключает меню с правкой на месте (для тестов).
+     */
+    void setInPlaceMenu(boolean inPlaceMenu) {
+        this.inPlaceMenu = inPlaceMenu;
+    }
+
+    /**
+     * Ответ на inline-запрос вариантами путешествий из каталога.
+     *
+     * @param query обновление с текстом inline-запроса
+     */
+    private void onInlineQuery(IncomingUpdate query) {
+        HandlerEvent event = HandlerEvent.start("inline", query.getChatId() != null ? query.getChatId() : 0);
         try {
-            switch (messageText.toLowerCase()) {
-                case "/start":
-                    execute(commandService.startCommand(chatId));
-                    break;
-                case "/help":
-                    execute(commandService.getHelp(chatId));
-                    break;
-                case "да":
-                    // Обработка положительного ответа с показом вариантов
-                    execute(commandService.handleUserResponse(chatId, messageText));
-                    execute(commandService.showTravelOptions(chatId, this));
-                    break;
-                default:
-                    // Обработка всех остальных текстовых сообщений
-                    execute(commandService.handleUserResponse(chatId, messageText));
+            outboundSender.execute(this, commandService.answerInlineQuery(query.getInlineQueryId(),
+                    query.getText(), Language.fromCode(query.getLanguageCode())));
+        } catch (TelegramApiException e) {
+            logger.error("Ошибка при ответе на inline-запрос: " + e.getMessage());
+        }
+        event.commit();
+    }
+
+    /**
+     * Отвечает на запрос коротким сообщением "бот занят", не обращаясь к основной обработке.
+     * На нажатие кнопки ответ приходит во всплывающей подсказке.
+     *
+     * @param update входящее обновление
+     */
+    private void replyBusy(IncomingUpdate update) {
+        if (update.getChatId() == null) {
+            return;
+        }
+        SendMessage busy = commandService.busyReply(update.getChatId().toString(),
+                Language.fromCode(update.getLanguageCode()));
+        if (update.isCallbackQuery()) {
+            answerCallback(update, busy.getText());
+            return;
+        }
+        try {
+            if (update.getText() != null && !update.isInlineQuery()) {
+                outboundSender.execute(this, busy);
             }
         } catch (TelegramApiException e) {
             logger.error("Ошибка при отправке сообщения: " + e.getMessage());
         }
     }
+
+    /**
+     * Отвечает на нажатие кнопки без обработки: снимает индикатор загрузки у пользователя.
+     *
+     * @param update обновление с нажатием
+     * @param text текст всплывающей подсказки или null
+     */
+    private void answerCallback(IncomingUpdate update, String text) {
+        AnswerCallbackQuery answer = new AnswerCallbackQuery();
+        answer.setCallbackQueryId(update.getCallbackQueryId());
+        answer.setText(text);
+        try {
+            outboundSender.execute(this, answer);
+        } catch (TelegramApiException e) {
+            logger.error("Ошибка при отправке сообщения: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,320 @@
+package org.homework.broadcast;
+
+import org.homework.logger.ILogger;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Массовая рассылка сообщения по списку чатов с возобновлением после сбоя.
+ *
+ * <p>Файл получателей - по идентификатору чата в строке (пустые строки и строки с {@code #}
+ * пропускаются). Файл читается потоком пачками по {@value #BATCH_SIZE} строк, поэтому в памяти
+ * никогда не лежит весь список. Пачка раздается нескольким потокам отправки; сама скорость
+ * ограничивается вызывающей стороной (бюджетом отправки в классе рассылок).</p>
+ *
+ * <p>После каждой пачки в файл {@code <получатели>.checkpoint} атомарно записывается число
+ * обработанных строк и счетчики. При повторном запуске рассылка продолжается с сохраненной
+ * строки: после сбоя повторно может уйти не больше одной пачки, а завершенная рассылка
+ * не отправляется заново. Ход рассылки - скорость и оставшееся время - пишется в лог.</p>
+ *
+ * <p>Неудачной считается только отправка, которую Telegram отклонил для конкретного чата
+ * (ответ 4xx, кроме 429: бот заблокирован, чат не найден). Открытый предохранитель, долгое
+ * ограничение частоты, ответы 5xx и сетевые ошибки означают, что недоступен сам Telegram:
+ * рассылка останавливается без сохранения прогресса пачки и продолжается при следующем запуске.</p>
+ */
+public class BroadcastJob {
+
+    /** Число строк в пачке между сохранениями прогресса */
+    static final int BATCH_SIZE = 100;
+
+    /** Минимальный интервал между записями о ходе рассылки */
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** Код ответа Telegram при превышении ограничения частоты */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /** Суффикс файла с сохраненным прогрессом */
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final Path recipients;
+    private final Path checkpoint;
+    private final Delivery delivery;
+    private final int parallelism;
+    private final ILogger logger;
+
+    /**
+     * @param recipients файл с идентификаторами чатов
+     * @param delivery отправка сообщения одному чату
+     * @param parallelism число потоков отправки
+     * @param logger логгер для записи хода рассылки
+     */
+    public BroadcastJob(Path recipients, Delivery delivery, int parallelism, ILogger logger) {
+        this.recipients = recipients;
+        this.checkpoint = recipients.resolveSibling(recipients.getFileName() + CHECKPOINT_SUFFIX);
+        this.delivery = delivery;
+        this.parallelism = parallelism;
+        this.logger = logger;
+    }
+
+    /**
+     * Выполняет (или продолжает) рассылку до конца файла получателей.
+     *
+     * @return итоговый прогресс рассылки
+     * @throws IOException при ошибке чтения получателей или записи прогресса, а также если
+     * Telegram временно недоступен; прогресс незавершенной пачки при этом не сохраняется
+     * @throws IllegalStateException если отправка прервана непредвиденной ошибкой;
+     * прогресс незавершенной пачки при этом не сохраняется
+     */
+    public Progress run() throws IOException {
+        Progress progress = readCheckpoint();
+        long totalLines = countLines();
+        if (progress.lines >= totalLines) {
+            logger.info("Рассылка по " + recipients + " уже завершена: отправлено " + progress.sent
+                    + ", ошибок " + progress.failed);
+            return progress;
+        }
+        if (progress.lines > 0) {
+            logger.info("Продолжение рассылки по " + recipients + " со строки " + (progress.lines + 1));
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "broadcast-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startNanos = System.nanoTime();
+        long startLines = progress.lines;
+        long lastReport = startNanos;
+        try (BufferedReader reader = Files.newBufferedReader(recipients, StandardCharsets.UTF_8)) {
+            for (long skipped = 0; skipped < progress.lines; skipped++) {
+                reader.readLine();
+            }
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                batch.clear();
+                int lines = readBatch(reader, batch);
+                if (lines == 0) {
+                    break;
+                }
+                sendBatch(workers, batch, progress, lines);
+                progress.lines += lines;
+                writeCheckpoint(progress);
+
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    logProgress(progress, totalLines, progress.lines - startLines, now - startNanos);
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        logProgress(progress, totalLines, progress.lines - startLines, System.nanoTime() - startNanos);
+        return progress;
+    }
+
+    /**
+     * Читает до {@value #BATCH_SIZE} строк и добавляет идентификаторы чатов в пачку.
+     *
+     * @return число прочитанных строк, включая пропущенные
+     */
+    private static int readBatch(BufferedReader reader, List<String> batch) throws IOException {
+        int lines = 0;
+        String line;
+        while (lines < BATCH_SIZE && (line = reader.readLine()) != null) {
+            lines++;
+            line = line.strip();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                batch.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Отправляет пачку параллельно и ждет завершения всех отправок.
+     * Отказы Telegram для отдельных чатов учитываются как неудачные отправки; временная
+     * недоступность Telegram и любая другая ошибка прерывают рассылку.
+     */
+    private void sendBatch(ExecutorService workers, List<String> batch, Progress progress, int lines)
+            throws IOException {
+        CountDownLatch done = new CountDownLatch(batch.size());
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<TelegramApiException> unavailable = new AtomicReference<>();
+        AtomicReference<Throwable> abort = new AtomicReference<>();
+        for (String chatId : batch) {
+            workers.execute(() -> {
+                try {
+                    if (abort.get() == null && unavailable.get() == null) {
+                        delivery.deliver(chatId);
+                        sent.incrementAndGet();
+                    }
+                } catch (TelegramApiException e) {
+                    if (isRecipientFailure(e)) {
+                        failed.incrementAndGet();
+                        logger.warn("Не удалось отправить рассылку в чат " + chatId + ": " + e.getMessage());
+                    } else {
+                        unavailable.compareAndSet(null, e);
+                    }
+                } catch (RuntimeException | Error e) {
+                    abort.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Broadcast interrupted", e);
+        }
+        if (abort.get() != null) {
+            throw new IllegalStateException("Broadcast aborted at line " + (progress.lines + 1) + "+", abort.get());
+        }
+        if (unavailable.get() != null) {
+            throw new IOException("Broadcast paused at lines " + (progress.lines + 1) + "-" + (progress.lines + lines)
+                    + ", Telegram is unavailable: " + unavailable.get().getMessage(), unavailable.get());
+        }
+        progress.sent += sent.get();
+        progress.failed += failed.get();
+    }
+
+    /**
+     * @return true, если Telegram отклонил отправку именно этому чату (4xx, кроме 429)
+     */
+    static boolean isRecipientFailure(TelegramApiException e) {
+        if (!(e instanceof TelegramApiRequestException)) {
+            return false;
+        }
+        Integer code = ((TelegramApiRequestException) e).getErrorCode();
+        return code != null && code >= 400 && code < 500 && code != TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Пишет в лог ход рассылки: обработанные строки, скорость и оценку оставшегося времени.
+     */
+    private void logProgress(Progress progress, long totalLines, long processed, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        double rate = processed / seconds;
+        long remaining = totalLines - progress.lines;
+        String eta = rate > 0 ? formatDuration((long) (remaining / rate)) : "неизвестно";
+        logger.info(String.format(Locale.ROOT, "Рассылка: %d из %d строк, отправлено %d, ошибок %d, %.1f в секунду, осталось %s",
+                progress.lines, totalLines, progress.sent, progress.failed, rate, eta));
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    /**
+     * Считает строки файла получателей потоком, не сохраняя их.
+     */
+    private long countLines() throws IOException {
+        long lines = 0;
+        boolean pending = false;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(recipients)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                        pending = false;
+                    } else {
+                        pending = true;
+                    }
+                }
+            }
+        }
+        return pending ? lines + 1 : lines;
+    }
+
+    /**
+     * Читает сохраненный прогресс; без файла рассылка начинается с начала.
+     */
+    private Progress readCheckpoint() throws IOException {
+        Progress progress = new Progress();
+        if (!Files.isRegularFile(checkpoint)) {
+            return progress;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            progress.lines = Long.parseLong(properties.getProperty("lines", "0"));
+            progress.sent = Long.parseLong(properties.getProperty("sent", "0"));
+            progress.failed = Long.parseLong(properties.getProperty("failed", "0"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupted broadcast checkpoint: " + checkpoint, e);
+        }
+        return progress;
+    }
+
+    /**
+     * Атомарно заменяет файл прогресса: сначала пишется временный файл, затем он переименовывается.
+     */
+    private void writeCheckpoint(Progress progress) throws IOException {
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("lines=" + progress.lines + "\nsent=" + progress.sent + "\nfailed=" + progress.failed + "\n");
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Отправка сообщения рассылки одному чату.
+     */
+    @FunctionalInterface
+    public interface Delivery {
+        /**
+         * @param chatId идентификатор чата получателя
+         * @throws TelegramApiException если отправка не удалась: отказ 4xx учитывается как неудачный чат,
+         * остальные ошибки останавливают рассылку до следующего запуска
+         */
+        void deliver(String chatId) throws TelegramApiException;
+    }
+
+    /**
+     * Прогресс рассылки: обработанные строки файла и счетчики отправок.
+     */
+    public static final class Progress {
+        private long lines;
+        private long sent;
+        private long failed;
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.homework.broadcast;
+
+import org.homework.api.ICommandService;
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+import org.homework.send.OutboundSender;
+import org.homework.send.Priority;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Очередь заявок на рассылку, которые выполняет запущенный бот.
+ *
+ * <p>Рассылка идет в том же процессе, что и ответы пользователям, через тот же
+ * {@link OutboundSender} в классе {@link Priority#BROADCAST}: бюджет отправки у них общий,
+ * и рассылка не вытесняет интерактивные ответы. Заявка - файл {@code <имя>.broadcast}
+ * в каталоге {@value #DIR_PROPERTY} с путями к файлу получателей и файлу с текстом
+ * ({@link #submit(Path, Path, Path)}). Бот проверяет каталог раз в {@value #SCAN_INTERVAL_SECONDS}
+ * секунд и выполняет заявки по одной; выполненная заявка переименовывается в {@code .done}.
+ * Заявка, прерванная ошибкой, недоступностью Telegram или остановкой бота, выполняется снова
+ * и продолжается с сохраненного прогресса {@link BroadcastJob}.</p>
+ */
+@Register
+public class BroadcastSpool {
+
+    /** Системное свойство с каталогом заявок на рассылку */
+    public static final String DIR_PROPERTY = "bot.broadcast.dir";
+
+    /** Системное свойство с числом потоков отправки рассылки */
+    public static final String THREADS_PROPERTY = "bot.broadcast.threads";
+
+    /** Расширение файла заявки */
+    static final String REQUEST_SUFFIX = ".broadcast";
+
+    /** Расширение выполненной заявки */
+    static final String DONE_SUFFIX = ".done";
+
+    /** Период проверки каталога заявок */
+    private static final long SCAN_INTERVAL_SECONDS = 5;
+
+    /**
+     * Отправка запросов с повторами и учетом ограничений.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private OutboundSender outboundSender;
+
+    /**
+     * Сервис команд, формирующий сообщение рассылки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ICommandService commandService;
+
+    /**
+     * Логгер для записи хода рассылок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Каталог заявок; null, если рассылки выключены */
+    private final Path directory;
+
+    private final int parallelism;
+
+    /** Отправка текста одному чату (создается при запуске) */
+    private Sender sender;
+
+    /** Поток выполнения заявок (создается при запуске) */
+    private ScheduledExecutorService runner;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public BroadcastSpool() {
+        this(System.getProperty(DIR_PROPERTY) != null ? Paths.get(System.getProperty(DIR_PROPERTY)) : null,
+                null, Integer.getInteger(THREADS_PROPERTY, 8), null);
+    }
+
+    /**
+     * Создает очередь заявок с заданной отправкой.
+     *
+     * @param directory каталог заявок или null, чтобы не выполнять рассылки
+     * @param sender отправка текста одному чату (при создании через DI - через бота при запуске)
+     * @param parallelism число потоков отправки рассылки
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    BroadcastSpool(Path directory, Sender sender, int parallelism, ILogger logger) {
+        this.directory = directory;
+        this.sender = sender;
+        this.parallelism = parallelism;
+        this.logger = logger;
+    }
+
+    /**
+     * Ставит рассылку в очередь запущенного бота: атомарно создает файл заявки.
+     *
+     * @param directory каталог заявок
+     * @param recipients файл получателей
+     * @param text файл с текстом
+     * @return файл заявки
+     * @throws IOException при ошибке записи заявки
+     */
+    public static Path submit(Path directory, Path recipients, Path text) throws IOException {
+        Files.createDirectories(directory);
+        Properties request = new Properties();
+        request.setProperty("recipients", recipients.toAbsolutePath().toString());
+        request.setProperty("text", text.toAbsolutePath().toString());
+        Path file = directory.resolve(recipients.getFileName() + REQUEST_SUFFIX);
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            request.store(writer, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Запускает выполнение заявок через бота. Без каталога заявок ничего не делает.
+     *
+     * @param bot бот, через которого отправляются сообщения рассылки
+     */
+    public synchronized void start(AbsSender bot) {
+        if (directory == null || runner != null) {
+            return;
+        }
+        if (sender == null) {
+            sender = (chatId, text) -> outboundSender.execute(bot, commandService.broadcastMessage(chatId, text),
+                    Priority.BROADCAST);
+        }
+        runner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "broadcast-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        runner.scheduleWithFixedDelay(this::runPending, 0, SCAN_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Заявки на рассылку принимаются в " + directory);
+    }
+
+    /**
+     * Выполняет все заявки каталога по порядку имен.
+     */
+    void runPending() {
+        List<Path> requests = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(REQUEST_SUFFIX))
+                    .sorted()
+                    .forEach(requests::add);
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении каталога заявок на рассылку: " + e.getMessage());
+            return;
+        }
+        for (Path request : requests) {
+            try {
+                run(request);
+            } catch (IOException | RuntimeException e) {
+                // Заявка остается в каталоге и продолжится при следующей проверке
+                logger.error("Рассылка по заявке " + request.getFileName() + " прервана: " + e.getMessage());
+            }
+        }
+    }
+
+    private void run(Path request) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(request, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String recipients = properties.getProperty("recipients");
+        String textFile = properties.getProperty("text");
+        if (recipients == null || textFile == null) {
+            throw new IllegalArgumentException("Broadcast request must name recipients and text files");
+        }
+        String text = Files.readString(Paths.get(textFile), StandardCharsets.UTF_8).strip();
+        BroadcastJob.Progress progress = new BroadcastJob(Paths.get(recipients),
+                chatId -> sender.send(chatId, text), parallelism, logger).run();
+        Files.move(request, request.resolveSibling(request.getFileName() + DONE_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Рассылка по заявке " + request.getFileName() + " завершена: отправлено "
+                + progress.getSent() + ", ошибок " + progress.getFailed());
+    }
+
+    /**
+     * Отправка текста рассылки одному чату.
+     */
+    @FunctionalInterface
+    interface Sender {
+        void send(String chatId, String text) throws TelegramApiException;
+    }
+}
@@ -0,0 +1,324 @@
+package org.homework.catalog;
+
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.i18n.MessageId;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Неизменяемая скомпилированная версия каталога путешествий.
+ *
+ * <p>Клавиатура собирается один раз при загрузке версии каталога и дальше только читается:
+ * все сообщения с меню ссылаются на один и тот же объект, поэтому на горячем пути
+ * не создается ни одной кнопки.</p>
+ *
+ * <p>Для каждого оформления {@link MenuLayout} собираются два варианта клавиатуры: с обычными
+ * URL-кнопками и "отслеживаемый", где кнопки присылают боту callback-данные
+ * {@value #TRACKED_CALLBACK_PREFIX}{@code <id>}, чтобы бот мог учесть нажатие и ответить ссылкой.</p>
+ *
+ * <p>Там же строится поисковый индекс вариантов для inline-запросов ({@link #search(String)}).</p>
+ *
+ * <p>Тексты и клавиатуры меню на месте, зависящие от языка, - текст меню с ответом на согласие
+ * и карточки вариантов ({@link #localized(Language, MessageBundles)}), - собираются при первом
+ * обращении для каждого языка и дальше тоже только читаются.</p>
+ */
+public final class CatalogSnapshot {
+
+    /** Префикс callback-данных отслеживаемых кнопок */
+    public static final String TRACKED_CALLBACK_PREFIX = "go:";
+
+    /** Callback-данные кнопки возврата к меню */
+    public static final String MENU_CALLBACK = "menu";
+
+    /** Разделитель полей в строке файла каталога */
+    private static final String FIELD_SEPARATOR = "\\|";
+
+    /** Варианты в порядке файла */
+    private final List<TravelOption> options;
+
+    /** Варианты по идентификатору */
+    private final Map<String, TravelOption> optionsById;
+
+    /** Порядок сортировки названий для алфавитного меню */
+    private static final Locale LABEL_LOCALE = new Locale("ru");
+
+    /** Готовые клавиатуры: [оформление][0 - URL-кнопки, 1 - callback-кнопки] */
+    private final InlineKeyboardMarkup[][] keyboards;
+
+    /** Поисковый индекс по названиям и идентификаторам вариантов */
+    private final TravelSearchIndex searchIndex;
+
+    /** Номер версии каталога (растет при каждой перезагрузке) */
+    private final long version;
+
+    /** Тексты и карточки по языку (индекс - порядковый номер языка); собираются при первом обращении */
+    private final AtomicReferenceArray<Localized> localized = new AtomicReferenceArray<>(Language.values().length);
+
+    private CatalogSnapshot(List<TravelOption> options, Map<String, TravelOption> optionsById, long version) {
+        this.options = List.copyOf(options);
+        this.optionsById = Map.copyOf(optionsById);
+        this.version = version;
+        this.keyboards = new InlineKeyboardMarkup[MenuLayout.values().length][2];
+        for (MenuLayout layout : MenuLayout.values()) {
+            keyboards[layout.ordinal()][0] = compileKeyboard(this.options, layout, false);
+            keyboards[layout.ordinal()][1] = compileKeyboard(this.options, layout, true);
+        }
+        this.searchIndex = new TravelSearchIndex(this.options);
+    }
+
+    /**
+     * Разбирает файл каталога и компилирует новую версию.
+     * Формат строки: {@code идентификатор | название | ссылка}; пустые строки и строки,
+     * начинающиеся с {@code #}, пропускаются.
+     *
+     * @param reader источник текста каталога
+     * @param version номер версии
+     * @return скомпилированная версия каталога
+     * @throws IOException при ошибке чтения
+     * @throws IllegalArgumentException если файл содержит некорректные строки
+     */
+    public static CatalogSnapshot parse(Reader reader, long version) throws IOException {
+        List<TravelOption> options = new ArrayList<>();
+        Map<String, TravelOption> optionsById = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(FIELD_SEPARATOR);
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("Catalog line " + lineNumber + " must have 3 fields: " + line);
+            }
+            TravelOption option = new TravelOption(fields[0].strip(), fields[1].strip(), fields[2].strip());
+            if (optionsById.putIfAbsent(option.getId(), option) != null) {
+                throw new IllegalArgumentException("Duplicate catalog id at line " + lineNumber + ": " + option.getId());
+            }
+            options.add(option);
+        }
+        if (options.isEmpty()) {
+            throw new IllegalArgumentException("Catalog is empty");
+        }
+        return new CatalogSnapshot(options, optionsById, version);
+    }
+
+    /**
+     * Собирает клавиатуру: по одной кнопке в ряду.
+     *
+     * @param layout оформление: порядок кнопок и вид названий
+     * @param tracked true - callback-кнопки для учета нажатий, false - URL-кнопки
+     */
+    private static InlineKeyboardMarkup compileKeyboard(List<TravelOption> options, MenuLayout layout, boolean tracked) {
+        List<TravelOption> ordered = options;
+        if (layout == MenuLayout.ALPHABETICAL) {
+            Collator collator = Collator.getInstance(LABEL_LOCALE);
+            ordered = new ArrayList<>(options);
+            ordered.sort(Comparator.comparing(TravelOption::getLabel, collator));
+        }
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            TravelOption option = ordered.get(i);
+            String text = layout == MenuLayout.NUMBERED ? (i + 1) + ". " + option.getLabel() : option.getLabel();
+            rows.add(tracked
+                    ? createCallbackRow(text, TRACKED_CALLBACK_PREFIX + option.getId())
+                    : createButtonRow(text, option.getUrl()));
+        }
+        return new InlineKeyboardMarkup(List.copyOf(rows));
+    }
+
+    /**
+     * Создает ряд с одной кнопкой для интерактивной клавиатуры.
+     * @param text текст кнопки
+     * @param url URL для перехода при нажатии
+     * @return список с одной кнопкой (для совместимости с API Telegram)
+     */
+    public static List<InlineKeyboardButton> createButtonRow(String text, String url) {
+        InlineKeyboardButton button = new InlineKeyboardButton();
+        button.setText(text);
+        button.setUrl(url);
+        return List.of(button);
+    }
+
+    /**
+     * Создает ряд с одной callback-кнопкой.
+     * @param text текст кнопки
+     * @param callbackData данные, которые Telegram пришлет боту при нажатии
+     * @return список с одной кнопкой
+     */
+    public static List<InlineKeyboardButton> createCallbackRow(String text, String callbackData) {
+        InlineKeyboardButton button = new InlineKeyboardButton();
+        button.setText(text);
+        button.setCallbackData(callbackData);
+        return List.of(button);
+    }
+
+    public List<TravelOption> getOptions() {
+        return options;
+    }
+
+    /**
+     * Ищет вариант по идентификатору.
+     *
+     * @param id идентификатор варианта
+     * @return вариант или null, если в этой версии каталога его нет
+     */
+    public TravelOption findOption(String id) {
+        return optionsById.get(id);
+    }
+
+    /**
+     * Ищет варианты, в названии или идентификаторе которых есть все слова запроса
+     * (как начало слова или, если такого нет, как подстрока).
+     *
+     * @param query текст запроса; пустой запрос возвращает все варианты
+     * @return найденные варианты в порядке каталога
+     */
+    public List<TravelOption> search(String query) {
+        int[] hits = searchIndex.search(query);
+        List<TravelOption> found = new ArrayList<>(hits.length);
+        for (int index : hits) {
+            found.add(options.get(index));
+        }
+        return found;
+    }
+
+    /**
+     * @return клавиатура меню путешествий; объект общий для всех сообщений и не должен изменяться
+     */
+    public InlineKeyboardMarkup getKeyboard() {
+        return getKeyboard(MenuLayout.NUMBERED, false);
+    }
+
+    /**
+     * @return клавиатура с callback-кнопками для учета нажатий; объект общий и не должен изменяться
+     */
+    public InlineKeyboardMarkup getTrackedKeyboard() {
+        return getKeyboard(MenuLayout.NUMBERED, true);
+    }
+
+    /**
+     * Возвращает заранее собранную клавиатуру меню.
+     *
+     * @param layout оформление меню
+     * @param tracked true - callback-кнопки для учета нажатий, false - URL-кнопки
+     * @return клавиатура; объект общий для всех сообщений и не должен изменяться
+     */
+    public InlineKeyboardMarkup getKeyboard(MenuLayout layout, boolean tracked) {
+        return keyboards[layout.ordinal()][tracked ? 1 : 0];
+    }
+
+    /**
+     * Возвращает тексты и карточки меню на языке пользователя, собирая их при первом обращении.
+     *
+     * @param language язык пользователя
+     * @param messages локализованные тексты
+     * @return тексты и карточки; объект общий для всех сообщений и не должен изменяться
+     */
+    public Localized localized(Language language, MessageBundles messages) {
+        Localized result = localized.get(language.ordinal());
+        if (result == null) {
+            localized.compareAndSet(language.ordinal(), null, new Localized(options, language, messages));
+            result = localized.get(language.ordinal());
+        }
+        return result;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Тексты и карточки меню на одном языке.
+     */
+    public static final class Localized {
+
+        /** Ответ на согласие и заголовок меню одним текстом */
+        private final String menuText;
+
+        /** Карточки вариантов по идентификатору */
+        private final Map<String, Card> cards;
+
+        private Localized(List<TravelOption> options, Language language, MessageBundles messages) {
+            this.menuText = messages.text(language, MessageId.REPLY_YES) + "\n\n"
+                    + messages.text(language, MessageId.MENU_TITLE);
+            String open = messages.text(language, MessageId.BUTTON_OPEN);
+            List<InlineKeyboardButton> back = createCallbackRow(messages.text(language, MessageId.BUTTON_BACK),
+                    MENU_CALLBACK);
+            String goodbye = messages.text(language, MessageId.GOODBYE);
+            Map<String, Card> cards = new HashMap<>();
+            for (TravelOption option : options) {
+                List<InlineKeyboardButton> link = createButtonRow(open, option.getUrl());
+                cards.put(option.getId(), new Card(option.getLabel() + "\n\n" + goodbye,
+                        new InlineKeyboardMarkup(List.of(link, back)), new InlineKeyboardMarkup(List.of(link))));
+            }
+            this.cards = Map.copyOf(cards);
+        }
+
+        /**
+         * @return ответ на согласие вместе с заголовком меню
+         */
+        public String getMenuText() {
+            return menuText;
+        }
+
+        /**
+         * @param optionId идентификатор варианта
+         * @return карточка варианта или null, если в этой версии каталога его нет
+         */
+        public Card card(String optionId) {
+            return cards.get(optionId);
+        }
+    }
+
+    /**
+     * Карточка варианта: текст с прощанием и готовые клавиатуры.
+     */
+    public static final class Card {
+        private final String text;
+        private final InlineKeyboardMarkup keyboard;
+        private final InlineKeyboardMarkup linkKeyboard;
+
+        private Card(String text, InlineKeyboardMarkup keyboard, InlineKeyboardMarkup linkKeyboard) {
+            this.text = text;
+            this.keyboard = keyboard;
+            this.linkKeyboard = linkKeyboard;
+        }
+
+        /**
+         * @return название варианта с прощальной подписью
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return кнопка-ссылка и кнопка возврата к меню (для правки на месте)
+         */
+        public InlineKeyboardMarkup getKeyboard() {
+            return keyboard;
+        }
+
+        /**
+         * @return только кнопка-ссылка (для отдельного сообщения)
+         */
+        public InlineKeyboardMarkup getLinkKeyboard() {
+            return linkKeyboard;
+        }
+    }
+}
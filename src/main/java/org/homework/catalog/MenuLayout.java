@@ -0,0 +1,12 @@
+package org.homework.catalog;
+
+/**
+ * Вариант оформления клавиатуры меню путешествий.
+ * Клавиатуры всех вариантов заранее собираются в {@link CatalogSnapshot}.
+ */
+public enum MenuLayout {
+    /** Порядок файла каталога, названия с порядковыми номерами ("1. Экскурсии") */
+    NUMBERED,
+    /** Названия без номеров, по алфавиту */
+    ALPHABETICAL
+}
@@ -0,0 +1,174 @@
+package org.homework.catalog;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Каталог вариантов путешествий с горячей перезагрузкой.
+ *
+ * <p>Каталог читается из локального файла (свойство {@value #FILE_PROPERTY}), а если файла нет -
+ * из встроенного ресурса {@value #DEFAULT_RESOURCE}. После {@link #startWatching()} файл
+ * проверяется раз в несколько секунд; новая версия полностью компилируется в
+ * {@link CatalogSnapshot} в фоновом потоке и только затем публикуется одной записью
+ * в volatile-поле. Читатели на горячем пути ({@link #current()}) не берут блокировок
+ * и никогда не видят наполовину собранный каталог.</p>
+ */
+@Register
+public class TravelCatalog {
+
+    /** Системное свойство с путем к файлу каталога */
+    public static final String FILE_PROPERTY = "bot.catalog.file";
+
+    /** Встроенный каталог по умолчанию */
+    static final String DEFAULT_RESOURCE = "/travel-catalog.txt";
+
+    /** Период проверки файла на изменения */
+    private static final long POLL_INTERVAL_SECONDS = 2;
+
+    /**
+     * Логгер для записи событий и ошибок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Файл каталога */
+    private final Path file;
+
+    /** Текущая опубликованная версия каталога */
+    private volatile CatalogSnapshot snapshot;
+
+    /** Время изменения и размер файла, из которого собрана текущая версия */
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    /** Поток проверки изменений (создается при запуске наблюдения) */
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public TravelCatalog() {
+        this(Paths.get(System.getProperty(FILE_PROPERTY, "travel-catalog.txt")), null);
+    }
+
+    /**
+     * Создает каталог для указанного файла и сразу загружает первую версию.
+     *
+     * @param file путь к файлу каталога
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    TravelCatalog(Path file, ILogger logger) {
+        this.file = file;
+        this.logger = logger;
+        try {
+            if (Files.isRegularFile(file)) {
+                rememberAttributes(Files.readAttributes(file, BasicFileAttributes.class));
+                this.snapshot = loadFile(1);
+            } else {
+                this.snapshot = loadDefault();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load travel catalog: " + file, e);
+        }
+    }
+
+    /**
+     * Возвращает текущую версию каталога. Вызов не блокируется.
+     *
+     * @return текущая скомпилированная версия каталога
+     */
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Запускает фоновую проверку файла каталога на изменения.
+     */
+    public synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "travel-catalog-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged,
+                POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Перезагружает каталог, если файл изменился. При ошибке разбора
+     * остается предыдущая версия.
+     *
+     * @return true, если была опубликована новая версия
+     */
+    synchronized boolean reloadIfChanged() {
+        try {
+            if (!Files.isRegularFile(file)) {
+                return false;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (modified == loadedModified && attributes.size() == loadedSize) {
+                return false;
+            }
+            // Запоминаем отметки до разбора, чтобы битый файл не перечитывался на каждой проверке
+            rememberAttributes(attributes);
+            CatalogSnapshot next = loadFile(snapshot.getVersion() + 1);
+            snapshot = next; // Публикация готовой версии одной volatile-записью
+            logger.info("Каталог путешествий перезагружен: версия " + next.getVersion()
+                    + ", вариантов " + next.getOptions().size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Ошибка при перезагрузке каталога путешествий: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Читает и компилирует каталог из файла.
+     */
+    private CatalogSnapshot loadFile(long version) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return CatalogSnapshot.parse(reader, version);
+        }
+    }
+
+    /**
+     * Запоминает время изменения и размер файла, чтобы не перечитывать его без изменений.
+     */
+    private void rememberAttributes(BasicFileAttributes attributes) {
+        loadedModified = attributes.lastModifiedTime().toMillis();
+        loadedSize = attributes.size();
+    }
+
+    /**
+     * Читает встроенный каталог из ресурсов приложения.
+     */
+    private static CatalogSnapshot loadDefault() throws IOException {
+        InputStream stream = TravelCatalog.class.getResourceAsStream(DEFAULT_RESOURCE);
+        if (stream == null) {
+            throw new IOException("Resource not found: " + DEFAULT_RESOURCE);
+        }
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return CatalogSnapshot.parse(reader, 1);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.homework.catalog;
+
+/**
+ * Один вариант путешествия из каталога: стабильный идентификатор, название кнопки и ссылка.
+ * Объект неизменяемый и безопасно разделяется между потоками.
+ */
+public final class TravelOption {
+
+    /** Стабильный идентификатор варианта (используется в статистике и callback-данных) */
+    private final String id;
+
+    /** Название варианта без порядкового номера */
+    private final String label;
+
+    /** Партнерская ссылка */
+    private final String url;
+
+    /**
+     * @param id стабильный идентификатор варианта
+     * @param label название варианта
+     * @param url партнерская ссылка
+     */
+    public TravelOption(String id, String label, String url) {
+        this.id = id;
+        this.label = label;
+        this.url = url;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -0,0 +1,183 @@
+package org.homework.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Поисковый индекс вариантов каталога для inline-запросов.
+ *
+ * <p>Индекс строится один раз вместе с версией каталога. Названия и идентификаторы вариантов
+ * разбиваются на слова; для каждого префикса слова (до {@value #MAX_PREFIX} символов) заранее
+ * сохраняется готовый отсортированный список номеров вариантов, поэтому запрос из одного слова -
+ * одно чтение из таблицы. Слова запроса ищутся как префиксы слов варианта, а если префикса нет -
+ * как подстрока по индексу триграмм (например, "рабат" найдет "зарабатывать"). Результаты
+ * нескольких слов пересекаются.</p>
+ */
+final class TravelSearchIndex {
+
+    /** Самый длинный префикс, для которого хранится готовый результат */
+    static final int MAX_PREFIX = 12;
+
+    /** Длина n-граммы для поиска по подстроке */
+    private static final int GRAM = 3;
+
+    private static final int[] NONE = new int[0];
+
+    private final int size;
+
+    /** Нормализованные слова каждого варианта (для проверки длинных слов и подстрок) */
+    private final String[][] words;
+
+    /** Префикс слова -> номера вариантов по возрастанию */
+    private final Map<String, int[]> prefixes;
+
+    /** Триграмма -> номера вариантов по возрастанию */
+    private final Map<String, int[]> grams;
+
+    TravelSearchIndex(List<TravelOption> options) {
+        this.size = options.size();
+        this.words = new String[size][];
+        Map<String, TreeSet<Integer>> prefixSets = new HashMap<>();
+        Map<String, TreeSet<Integer>> gramSets = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            TravelOption option = options.get(i);
+            words[i] = tokenize(option.getLabel() + " " + option.getId());
+            for (String word : words[i]) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                    prefixSets.computeIfAbsent(word.substring(0, length), key -> new TreeSet<>()).add(i);
+                }
+                for (int start = 0; start + GRAM <= word.length(); start++) {
+                    gramSets.computeIfAbsent(word.substring(start, start + GRAM), key -> new TreeSet<>()).add(i);
+                }
+            }
+        }
+        this.prefixes = Map.copyOf(toArrays(prefixSets));
+        this.grams = Map.copyOf(toArrays(gramSets));
+    }
+
+    /**
+     * Ищет варианты, в которых есть все слова запроса.
+     *
+     * @param query текст запроса в любом регистре; пустой запрос подходит ко всем вариантам
+     * @return номера найденных вариантов по возрастанию (массив не изменять)
+     */
+    int[] search(String query) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            int[] all = new int[size];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] result = null;
+        for (String term : terms) {
+            int[] hits = match(term);
+            result = result == null ? hits : intersect(result, hits);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return варианты, у которых слово начинается с term или (если таких нет) содержит его
+     */
+    private int[] match(String term) {
+        if (term.length() <= MAX_PREFIX) {
+            int[] hits = prefixes.get(term);
+            if (hits != null) {
+                return hits;
+            }
+        } else {
+            int[] candidates = prefixes.get(term.substring(0, MAX_PREFIX));
+            if (candidates != null) {
+                int[] hits = filter(candidates, term, true);
+                if (hits.length > 0) {
+                    return hits;
+                }
+            }
+        }
+        if (term.length() < GRAM) {
+            return NONE;
+        }
+        int[] candidates = null;
+        for (int start = 0; start + GRAM <= term.length(); start++) {
+            int[] hits = grams.get(term.substring(start, start + GRAM));
+            if (hits == null) {
+                return NONE;
+            }
+            candidates = candidates == null ? hits : intersect(candidates, hits);
+        }
+        return filter(candidates, term, false);
+    }
+
+    /**
+     * Оставляет варианты, у которых есть слово, начинающееся с term (prefix) или содержащее его.
+     */
+    private int[] filter(int[] candidates, String term, boolean prefix) {
+        int[] kept = new int[candidates.length];
+        int count = 0;
+        for (int option : candidates) {
+            for (String word : words[option]) {
+                if (prefix ? word.startsWith(term) : word.contains(term)) {
+                    kept[count++] = option;
+                    break;
+                }
+            }
+        }
+        return count == kept.length ? candidates : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов.
+     */
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Приводит текст к нижнему регистру, заменяет "ё" на "е" и разбивает на слова из букв и цифр.
+     */
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c == 'ё' ? 'е' : c);
+            } else if (word.length() > 0) {
+                tokens.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, TreeSet<Integer>> sets) {
+        Map<String, int[]> arrays = new HashMap<>(sets.size() * 2);
+        for (Map.Entry<String, TreeSet<Integer>> entry : sets.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return arrays;
+    }
+}
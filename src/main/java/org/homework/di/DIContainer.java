@@ -6,18 +6,46 @@ import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
 
+import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Контейнер внедрения зависимостей (DI), который автоматически регистрирует и управляет
  * жизненным циклом сервисов.
  * Поддерживает автоматическое обнаружение компонентов с аннотацией @Register
  * и внедрение зависимостей через аннотацию @Resolve.
+ *
+ * <p>Если задано свойство {@value #INDEX_PROPERTY}, список найденных классов сохраняется
+ * в этот файл, а при следующих запусках читается из него вместо сканирования пакета
+ * (быстрый запуск, см. команду {@code train} в {@code Main}). В первой строке списка хранится
+ * отпечаток сборки - путь, размер и время изменения jar (для каталога классов - число файлов
+ * и самое позднее время изменения); список другой сборки не используется, и пакет сканируется
+ * заново, поэтому новые классы с {@code @Register} не пропадают.</p>
  */
 public class DIContainer {
+
+    /** Системное свойство с файлом списка зарегистрированных классов */
+    public static final String INDEX_PROPERTY = "bot.di.index";
+
+    /** Начало первой строки списка - отпечатка сборки */
+    private static final String BUILD_PREFIX = "# build ";
+
     // Кэш созданных экземпляров сервисов (синглтоны)
     private final Map<Class<?>, Object> createdServices = new HashMap<>();
 
@@ -27,9 +55,11 @@ public class DIContainer {
     /**
      * Конструктор контейнера. При создании автоматически сканирует пакет org.homework
      * и регистрирует все классы, помеченные аннотацией @Register.
+     * Сам контейнер тоже доступен для внедрения через @Resolve.
      */
     public DIContainer() {
         autoRegister();
+        registerInstance(DIContainer.class, this);
     }
 
     /**
@@ -37,13 +67,20 @@ public class DIContainer {
      * Находит все классы с аннотацией @Register в пакете org.homework и его подпакетах.
      */
     private void autoRegister() {
-        // Используем Reflections для сканирования классов
-        Reflections reflections = new Reflections("org.homework",
-                new SubTypesScanner(false),
-                new TypeAnnotationsScanner());
+        String index = System.getProperty(INDEX_PROPERTY);
+        Set<Class<?>> annotated = index != null ? readIndex(Paths.get(index)) : null;
+        if (annotated == null) {
+            // Используем Reflections для сканирования классов
+            Reflections reflections = new Reflections("org.homework",
+                    new SubTypesScanner(false),
+                    new TypeAnnotationsScanner());
 
-        // Получаем все классы с аннотацией @Register
-        Set<Class<?>> annotated = reflections.getTypesAnnotatedWith(Register.class);
+            // Получаем все классы с аннотацией @Register
+            annotated = reflections.getTypesAnnotatedWith(Register.class);
+            if (index != null) {
+                writeIndex(Paths.get(index), annotated);
+            }
+        }
 
         for (Class<?> clazz : annotated) {
             if (clazz.isInterface()) {
@@ -64,10 +101,89 @@ public class DIContainer {
                 }
             }
 
-            // Если у класса нет интерфейсов, регистрируем его как сам в себя
-            if (interfaces.length == 0) {
-                registeredImplementations.put(clazz, clazz);
+            // Класс регистрируется и как сам в себя, чтобы его можно было получить напрямую
+            // (например, бот, реализующий интерфейс обработчика обновлений)
+            registeredImplementations.putIfAbsent(clazz, clazz);
+        }
+    }
+
+    /**
+     * Читает список зарегистрированных классов.
+     * @param index файл списка
+     * @return классы или null, если файла нет, список записан другой сборкой
+     * или класс из списка не найден (список устарел)
+     */
+    private static Set<Class<?>> readIndex(Path index) {
+        String header = indexHeader();
+        if (header == null || !Files.isRegularFile(index)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !header.equals(lines.get(0))) {
+                return null;
+            }
+            Set<Class<?>> classes = new LinkedHashSet<>();
+            for (String name : lines.subList(1, lines.size())) {
+                if (!name.isBlank()) {
+                    classes.add(Class.forName(name.strip()));
+                }
             }
+            return classes;
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет список зарегистрированных классов. Ошибка записи не мешает работе:
+     * следующий запуск просто снова просканирует пакет.
+     * @param index файл списка
+     * @param classes найденные классы
+     */
+    private static void writeIndex(Path index, Set<Class<?>> classes) {
+        String header = indexHeader();
+        if (header == null) {
+            return; // Без отпечатка список нельзя было бы проверить
+        }
+        List<String> names = new ArrayList<>();
+        names.add(header);
+        for (Class<?> clazz : classes) {
+            names.add(clazz.getName());
+        }
+        try {
+            Files.write(index, names, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Без списка запуск лишь медленнее
+        }
+    }
+
+    /**
+     * Строит первую строку списка с отпечатком сборки, из которой загружен контейнер.
+     * @return строка отпечатка или null, если расположение классов определить не удалось
+     */
+    static String indexHeader() {
+        try {
+            CodeSource source = DIContainer.class.getProtectionDomain().getCodeSource();
+            if (source == null) {
+                return null;
+            }
+            Path location = Paths.get(source.getLocation().toURI());
+            if (!Files.isDirectory(location)) {
+                return BUILD_PREFIX + location + ";" + Files.size(location) + ";"
+                        + Files.getLastModifiedTime(location).toMillis();
+            }
+            long count = 0;
+            long newest = 0;
+            try (Stream<Path> files = Files.walk(location)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    count++;
+                    newest = Math.max(newest, Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+            return BUILD_PREFIX + location + ";" + count + ";" + newest;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return null;
         }
     }
 
@@ -93,6 +209,43 @@ public class DIContainer {
         return service;
     }
 
+    /**
+     * Регистрирует готовый экземпляр сервиса вместо найденной реализации (например, заглушку
+     * в тестах и инструментах). Зависимости экземпляра не внедряются; регистрировать нужно
+     * до создания сервисов, которые от него зависят.
+     * @param serviceClass класс или интерфейс сервиса
+     * @param instance экземпляр
+     * @param <T> тип сервиса
+     */
+    public <T> void registerInstance(Class<T> serviceClass, T instance) {
+        registeredImplementations.put(serviceClass, instance.getClass());
+        createdServices.put(serviceClass, instance);
+    }
+
+    /**
+     * Получает экземпляры всех зарегистрированных сервисов, у классов которых есть методы
+     * с указанной аннотацией (например, обработчики команд).
+     * @param annotation аннотация методов
+     * @return экземпляры сервисов, по одному на класс реализации
+     */
+    public List<Object> resolveWithMethodsAnnotated(Class<? extends Annotation> annotation) {
+        // Один класс может быть зарегистрирован под несколькими интерфейсами: берется первый
+        Map<Class<?>, Class<?>> keys = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, Class<?>> entry : registeredImplementations.entrySet()) {
+            keys.putIfAbsent(entry.getValue(), entry.getKey());
+        }
+        List<Object> services = new ArrayList<>();
+        for (Map.Entry<Class<?>, Class<?>> entry : keys.entrySet()) {
+            for (Method method : entry.getKey().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(annotation)) {
+                    services.add(resolve(entry.getValue()));
+                    break;
+                }
+            }
+        }
+        return services;
+    }
+
     /**
      * Создает экземпляр сервиса указанного типа.
      * @param serviceClass класс или интерфейс сервиса
@@ -118,7 +271,16 @@ public class DIContainer {
         if (implementationClass == null) {
             throw new IllegalStateException("No implementation registered for interface: " + serviceClass.getName());
         }
-        return createServiceFromClass(implementationClass.asSubclass(serviceClass));
+
+        // Реализация могла быть уже создана через другой интерфейс или напрямую
+        T service = serviceClass.cast(createdServices.get(implementationClass));
+        if (service == null) {
+            service = createServiceFromClass(implementationClass.asSubclass(serviceClass));
+        }
+
+        // Кэшируем и под ключом интерфейса, чтобы все потребители получали один и тот же синглтон
+        createdServices.put(serviceClass, service);
+        return service;
     }
 
     /**
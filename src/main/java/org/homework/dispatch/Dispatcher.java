@@ -0,0 +1,203 @@
+package org.homework.dispatch;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Режим выполнения обработки обновлений.
+ *
+ * <p>По умолчанию обновления обрабатываются по одному в потоке обработки сессии, а запросы
+ * ответа отправляются последовательно. Со свойством {@value #VIRTUAL_PROPERTY} каждое
+ * обновление выполняется в своем виртуальном потоке: заблокированный в HTTP-вызове обработчик
+ * не занимает поток платформы. Обновления одного чата по-прежнему обрабатываются по порядку
+ * (цепочкой), разные чаты - параллельно, а независимые запросы одного ответа отправляются
+ * параллельно через {@link ReplyScope}.</p>
+ *
+ * <p>Проект компилируется под Java 16, поэтому виртуальные потоки создаются через отражение
+ * ({@code Thread.ofVirtual()}, JDK 21+). На более старой JDK режим работает на кэшируемом пуле
+ * потоков платформы и предупреждает об этом в логе.</p>
+ */
+@Register
+public class Dispatcher {
+
+    /** Системное свойство, включающее выполнение в виртуальных потоках */
+    public static final String VIRTUAL_PROPERTY = "bot.dispatch.virtual";
+
+    /** Системное свойство: число потоков отложенной отправки в обычном режиме */
+    public static final String SEND_THREADS_PROPERTY = "bot.dispatch.sendThreads";
+
+    /**
+     * Логгер для записи ошибок обработки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Включено ли выполнение в виртуальных потоках */
+    private final boolean virtual;
+
+    /** Исполнитель (создается при первой задаче) */
+    private ExecutorService executor;
+
+    /** Потоки отложенной отправки в обычном режиме (создаются при первой задаче) */
+    private ExecutorService sendExecutor;
+
+    /** Последняя задача каждого чата, за которой выстраивается следующая */
+    private final Map<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public Dispatcher() {
+        this(Boolean.getBoolean(VIRTUAL_PROPERTY), null);
+    }
+
+    /**
+     * Создает диспетчер в заданном режиме.
+     *
+     * @param virtual true - выполнять обновления в виртуальных потоках
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    public Dispatcher(boolean virtual, ILogger logger) {
+        this.virtual = virtual;
+        this.logger = logger;
+    }
+
+    /**
+     * @return true, если обновления выполняются в виртуальных потоках
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Выполняет обработку обновления: в обычном режиме - сразу в вызывающем потоке,
+     * в виртуальном - в отдельном потоке после предыдущих задач того же чата.
+     * Исключения задачи записываются в лог и не прерывают цепочку чата; в виртуальном режиме
+     * это относится и к ошибкам ({@link Error}), иначе следующие задачи чата не выполнились бы.
+     *
+     * @param chatId чат обновления или null (такие задачи не упорядочиваются)
+     * @param task обработка
+     */
+    public void execute(Long chatId, Runnable task) {
+        Runnable guarded = guard(task);
+        if (!virtual) {
+            guarded.run();
+            return;
+        }
+        Runnable isolated = () -> {
+            try {
+                guarded.run();
+            } catch (Error e) {
+                // Задача завершается штатно: цепочка чата пропустила бы все следующие задачи
+                logger.error("Ошибка при обработке обновления: " + e);
+            }
+        };
+        ExecutorService workers = executor();
+        if (chatId == null) {
+            workers.execute(isolated);
+            return;
+        }
+        CompletableFuture<Void> next = tails.compute(chatId, (id, tail) -> tail == null
+                ? CompletableFuture.runAsync(isolated, workers)
+                : tail.thenRunAsync(isolated, workers));
+        next.whenComplete((result, error) -> tails.remove(chatId, next));
+    }
+
+    /**
+     * Выполняет задачу не в вызывающем потоке. Используется для отправок, запланированных
+     * таймером: поток таймера только передает задачу и не блокируется в HTTP-вызове.
+     * В виртуальном режиме задача встает в цепочку чата, как обновление; в обычном - выполняется
+     * в небольшом пуле потоков отправки ({@value #SEND_THREADS_PROPERTY}, по умолчанию 2).
+     *
+     * @param chatId чат задачи или null (такие задачи не упорядочиваются)
+     * @param task задача
+     */
+    public void submit(Long chatId, Runnable task) {
+        if (virtual) {
+            execute(chatId, task);
+        } else {
+            sendExecutor().execute(guard(task));
+        }
+    }
+
+    /**
+     * Открывает область отправки запросов одного ответа.
+     *
+     * @return область; в обычном режиме запросы выполняются в вызывающем потоке
+     */
+    public ReplyScope openScope() {
+        return new ReplyScope(virtual ? executor() : null);
+    }
+
+    /**
+     * @return число чатов, у которых есть незавершенные задачи
+     */
+    public int activeChats() {
+        return tails.size();
+    }
+
+    /**
+     * Оборачивает задачу: исключение записывается в лог и не уходит в поток исполнителя.
+     */
+    private Runnable guard(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Ошибка при обработке обновления: " + e.getMessage());
+            }
+        };
+    }
+
+    private synchronized ExecutorService sendExecutor() {
+        if (sendExecutor == null) {
+            sendExecutor = Executors.newFixedThreadPool(Integer.getInteger(SEND_THREADS_PROPERTY, 2), r -> {
+                Thread thread = new Thread(r, "dispatch-send");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sendExecutor;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = newVirtualThreadExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * Создает исполнитель "поток на задачу" с виртуальными потоками или, если JDK их не
+     * поддерживает, кэшируемый пул потоков-демонов.
+     */
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object named = builder.getMethod("name", String.class, long.class)
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null), "dispatch-", 0L);
+            ThreadFactory factory = (ThreadFactory) builder.getMethod("factory").invoke(named);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                 | InvocationTargetException e) {
+            logger.warn("Виртуальные потоки недоступны в JDK " + Runtime.version().feature()
+                    + ", обработка выполняется в пуле потоков платформы");
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "dispatch-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.homework.dispatch;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Область параллельной отправки независимых запросов одного ответа.
+ *
+ * <p>Повторяет порядок работы {@code StructuredTaskScope.ShutdownOnFailure}: запросы
+ * запускаются {@link #fork(Send)}, {@link #join()} ждет их все, первая ошибка отменяет
+ * остальные и выбрасывается из {@code join}, а {@link #close()} отменяет все, что не
+ * завершилось. Сам {@code StructuredTaskScope} - preview API, недоступный при компиляции под
+ * Java 16, поэтому область построена на исполнителе {@link Dispatcher}.</p>
+ *
+ * <p>Без исполнителя (обычный режим) запросы выполняются сразу в вызывающем потоке по порядку,
+ * а после первой ошибки остальные пропускаются - как при последовательных вызовах.</p>
+ *
+ * <p>Параллельно можно отправлять только запросы, порядок которых пользователю не важен:
+ * например, ответ на callback и правку сообщения. Сообщения одного чата, идущие друг за
+ * другом, отправляются последовательно.</p>
+ */
+public final class ReplyScope implements AutoCloseable {
+
+    /** Исполнитель запросов; null - выполнение в вызывающем потоке */
+    private final ExecutorService executor;
+
+    private final CompletionService<Void> completions;
+    private final List<Future<Void>> forks = new ArrayList<>();
+
+    /** Первая ошибка при выполнении в вызывающем потоке */
+    private TelegramApiException failure;
+
+    ReplyScope(ExecutorService executor) {
+        this.executor = executor;
+        this.completions = executor != null ? new ExecutorCompletionService<>(executor) : null;
+    }
+
+    /**
+     * Запускает запрос.
+     *
+     * @param send запрос
+     */
+    public void fork(Send send) {
+        if (executor == null) {
+            if (failure == null) {
+                try {
+                    send.run();
+                } catch (TelegramApiException e) {
+                    failure = e;
+                }
+            }
+            return;
+        }
+        forks.add(completions.submit(() -> {
+            send.run();
+            return null;
+        }));
+    }
+
+    /**
+     * Ждет завершения всех запросов.
+     *
+     * @throws TelegramApiException первая ошибка запросов (остальные запросы отменяются)
+     */
+    public void join() throws TelegramApiException {
+        if (executor == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            return;
+        }
+        try {
+            for (int i = 0; i < forks.size(); i++) {
+                completions.take().get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll();
+            Throwable cause = e.getCause();
+            if (cause instanceof TelegramApiException) {
+                throw (TelegramApiException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TelegramApiException("Reply request failed", cause);
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting for reply requests", e);
+        }
+    }
+
+    /**
+     * Отменяет незавершенные запросы.
+     */
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        for (Future<Void> fork : forks) {
+            fork.cancel(true);
+        }
+    }
+
+    /**
+     * Один запрос к Telegram API.
+     */
+    @FunctionalInterface
+    public interface Send {
+        void run() throws TelegramApiException;
+    }
+}
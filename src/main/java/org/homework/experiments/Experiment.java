@@ -0,0 +1,44 @@
+package org.homework.experiments;
+
+/**
+ * A/B-эксперимент и названия его вариантов.
+ * Вариант с номером 0 - контрольный: он же показывается, когда эксперименты выключены.
+ */
+public enum Experiment {
+    /** Оформление меню путешествий (см. {@link org.homework.catalog.MenuLayout}); нажатие - выбор варианта */
+    MENU_LAYOUT("menu", "numbered", "alphabetical"),
+    /** Текст приветствия; нажатие - положительный ответ на приветствие */
+    GREETING("greeting", "control", "short");
+
+    /** Имя эксперимента в отчетах */
+    private final String key;
+
+    /** Имена вариантов в отчетах */
+    private final String[] variants;
+
+    /** Соль хеша: у разных экспериментов независимое разбиение пользователей */
+    private final long salt;
+
+    Experiment(String key, String... variants) {
+        this.key = key;
+        this.variants = variants;
+        // hashCode строки задан спецификацией, поэтому соль одинакова при каждом запуске
+        this.salt = key.hashCode() * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getVariantCount() {
+        return variants.length;
+    }
+
+    public String getVariantName(int variant) {
+        return variants[variant];
+    }
+
+    long getSalt() {
+        return salt;
+    }
+}
@@ -0,0 +1,168 @@
+package org.homework.experiments;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Движок A/B-экспериментов.
+ *
+ * <p>Вариант определяется хешем идентификатора чата с солью эксперимента, поэтому один и тот же
+ * пользователь всегда видит один вариант, а состояние по пользователям нигде не хранится.
+ * Сами варианты - заранее собранные шаблоны (клавиатуры в каталоге, тексты в таблице сообщений),
+ * так что выбор варианта добавляет к ответу только несколько арифметических операций.</p>
+ *
+ * <p>Показы и нажатия считаются в {@link LongAdder} по эксперименту и варианту без блокировок;
+ * после {@link #startReporting()} сводка периодически пишется в лог. Эксперименты включаются
+ * системным свойством {@value #ENABLED_PROPERTY}; без него всем показывается вариант 0.</p>
+ */
+@Register
+public class Experiments {
+
+    /** Системное свойство, включающее эксперименты */
+    public static final String ENABLED_PROPERTY = "bot.experiments";
+
+    /** Период записи сводки в лог */
+    private static final long REPORT_INTERVAL_MINUTES = 10;
+
+    /**
+     * Логгер для записи сводки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Включены ли эксперименты */
+    private final boolean enabled;
+
+    /** Счетчики показов и нажатий: [эксперимент][вариант] */
+    private final LongAdder[][] impressions;
+    private final LongAdder[][] clicks;
+
+    /** Поток отчетов (создается при запуске) */
+    private ScheduledExecutorService reporter;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public Experiments() {
+        this(Boolean.getBoolean(ENABLED_PROPERTY), null);
+    }
+
+    /**
+     * Создает движок экспериментов.
+     *
+     * @param enabled включены ли эксперименты
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    Experiments(boolean enabled, ILogger logger) {
+        this.enabled = enabled;
+        this.logger = logger;
+        Experiment[] experiments = Experiment.values();
+        impressions = new LongAdder[experiments.length][];
+        clicks = new LongAdder[experiments.length][];
+        for (Experiment experiment : experiments) {
+            impressions[experiment.ordinal()] = newCounters(experiment.getVariantCount());
+            clicks[experiment.ordinal()] = newCounters(experiment.getVariantCount());
+        }
+    }
+
+    private static LongAdder[] newCounters(int count) {
+        LongAdder[] counters = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    /**
+     * Определяет вариант эксперимента для чата, ничего не учитывая.
+     *
+     * @param experiment эксперимент
+     * @param chatId идентификатор чата
+     * @return номер варианта; 0, если эксперименты выключены
+     */
+    public int variant(Experiment experiment, String chatId) {
+        if (!enabled) {
+            return 0;
+        }
+        // Перемешивание битов (финализатор SplitMix64), чтобы соседние идентификаторы
+        // равномерно расходились по вариантам
+        long hash = chatId.hashCode() * 0x9E3779B97F4A7C15L ^ experiment.getSalt();
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (int) Long.remainderUnsigned(hash, experiment.getVariantCount());
+    }
+
+    /**
+     * Определяет вариант для чата и учитывает его показ.
+     *
+     * @param experiment эксперимент
+     * @param chatId идентификатор чата
+     * @return номер показанного варианта
+     */
+    public int impression(Experiment experiment, String chatId) {
+        int variant = variant(experiment, chatId);
+        if (enabled) {
+            impressions[experiment.ordinal()][variant].increment();
+        }
+        return variant;
+    }
+
+    /**
+     * Учитывает целевое действие (нажатие) в варианте, который видит чат.
+     *
+     * @param experiment эксперимент
+     * @param chatId идентификатор чата
+     */
+    public void click(Experiment experiment, String chatId) {
+        if (enabled) {
+            clicks[experiment.ordinal()][variant(experiment, chatId)].increment();
+        }
+    }
+
+    /**
+     * Возвращает сводку по всем экспериментам: по строке на вариант с показами,
+     * нажатиями и долей нажатий.
+     *
+     * @return текст сводки
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Experiment experiment : Experiment.values()) {
+            for (int variant = 0; variant < experiment.getVariantCount(); variant++) {
+                long shown = impressions[experiment.ordinal()][variant].sum();
+                long clicked = clicks[experiment.ordinal()][variant].sum();
+                report.append(experiment.getKey()).append('/').append(experiment.getVariantName(variant))
+                        .append(": показов ").append(shown)
+                        .append(", нажатий ").append(clicked)
+                        .append(String.format(Locale.ROOT, ", конверсия %.1f%%", shown == 0 ? 0.0 : 100.0 * clicked / shown))
+                        .append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Запускает периодическую запись сводки в лог, если эксперименты включены.
+     */
+    public synchronized void startReporting() {
+        if (!enabled || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "experiments-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(() -> logger.info("Сводка A/B-экспериментов:\n" + report()),
+                REPORT_INTERVAL_MINUTES, REPORT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+}
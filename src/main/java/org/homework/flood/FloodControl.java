@@ -0,0 +1,221 @@
+package org.homework.flood;
+
+import org.homework.di.annotations.Register;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты запросов от одного чата.
+ *
+ * <p>Каждый чат получает не больше {@code limit} запросов за скользящее окно. Окно считается
+ * приближенно по двум соседним интервалам фиксированной длины: счетчик прошлого интервала
+ * учитывается с весом оставшейся в окне доли, поэтому граница интервала не дает двойного
+ * всплеска, как при фиксированных окнах, а память на чат - одно число.</p>
+ *
+ * <p>Состояние хранится в открытой хеш-таблице на примитивных массивах: ключ - идентификатор
+ * чата ({@code long}), значение - упакованные в один {@code long} номер интервала и два счетчика.
+ * Таблица разбита на {@value #SEGMENTS} сегментов со своими блокировками, так что потоки
+ * обработки разных чатов почти не конкурируют. Устаревшие записи вычищаются при росте сегмента,
+ * а не отдельным потоком.</p>
+ *
+ * <p>Параметры задаются системными свойствами {@value #LIMIT_PROPERTY} и {@value #WINDOW_PROPERTY}.</p>
+ */
+@Register
+public class FloodControl {
+
+    /** Системное свойство: сколько запросов чата пропускается за окно */
+    public static final String LIMIT_PROPERTY = "bot.flood.limit";
+
+    /** Системное свойство: длительность окна в секундах */
+    public static final String WINDOW_PROPERTY = "bot.flood.window";
+
+    /** Число сегментов таблицы (степень двойки) */
+    static final int SEGMENTS = 16;
+
+    /** Начальная емкость сегмента (степень двойки) */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Разрядность счетчика интервала в упакованном состоянии */
+    private static final int COUNT_BITS = 12;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int limit;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /** Число отклоненных запросов */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public FloodControl() {
+        this(Integer.getInteger(LIMIT_PROPERTY, 5), Long.getLong(WINDOW_PROPERTY, 10) * 1000,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Создает ограничитель с явными параметрами.
+     *
+     * @param limit сколько запросов чата пропускается за окно
+     * @param windowMillis длительность окна в миллисекундах
+     * @param clock источник текущего времени в миллисекундах
+     */
+    FloodControl(int limit, long windowMillis, LongSupplier clock) {
+        if (limit < 1 || limit > COUNT_MASK) {
+            throw new IllegalArgumentException("Flood limit must be in 1.." + COUNT_MASK + ": " + limit);
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Учитывает запрос чата, если он укладывается в ограничение.
+     *
+     * @param chatId идентификатор чата
+     * @return true - запрос можно обрабатывать, false - чат превысил ограничение и запрос отброшен
+     */
+    public boolean tryAcquire(long chatId) {
+        long hash = mix(chatId);
+        boolean allowed = segments[(int) (hash >>> 60)].tryAcquire(chatId, (int) hash, clock.getAsLong());
+        if (!allowed) {
+            rejected.increment();
+        }
+        return allowed;
+    }
+
+    /**
+     * @return сколько запросов отклонено с момента запуска
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return число чатов, для которых сейчас хранится состояние
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Перемешивание битов (финализатор SplitMix64), чтобы соседние идентификаторы чатов
+     * расходились по сегментам и ячейкам.
+     */
+    private static long mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static long pack(long interval, long previous, long current) {
+        return interval << (2 * COUNT_BITS) | previous << COUNT_BITS | current;
+    }
+
+    /**
+     * Часть таблицы со своей блокировкой: открытая адресация с линейным пробированием.
+     */
+    private final class Segment {
+        /** Идентификаторы чатов; свободная ячейка отмечена в {@link #used} */
+        private long[] keys = new long[INITIAL_CAPACITY];
+
+        /** Упакованное состояние: номер интервала, счетчик прошлого и текущего интервала */
+        private long[] states = new long[INITIAL_CAPACITY];
+
+        private boolean[] used = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized boolean tryAcquire(long chatId, int hash, long now) {
+            long interval = now / windowMillis;
+            int slot = find(chatId, hash);
+            if (!used[slot]) {
+                if (size + 1 > keys.length * 3 / 4) {
+                    rebuild(interval);
+                    slot = find(chatId, hash);
+                }
+                used[slot] = true;
+                keys[slot] = chatId;
+                states[slot] = pack(interval, 0, 0);
+                size++;
+            }
+
+            long state = states[slot];
+            long stored = state >>> (2 * COUNT_BITS);
+            long previous;
+            long current;
+            if (stored == interval) {
+                previous = (state >>> COUNT_BITS) & COUNT_MASK;
+                current = state & COUNT_MASK;
+            } else {
+                previous = stored == interval - 1 ? state & COUNT_MASK : 0;
+                current = 0;
+            }
+
+            // Доля прошлого интервала, еще попадающая в скользящее окно
+            long remaining = windowMillis - now % windowMillis;
+            if (previous * remaining + current * windowMillis >= (long) limit * windowMillis) {
+                states[slot] = pack(interval, previous, current);
+                return false;
+            }
+            states[slot] = pack(interval, previous, current + 1);
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * @return ячейка с этим чатом или свободная ячейка, в которую его можно поместить
+         */
+        private int find(long chatId, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (used[slot] && keys[slot] != chatId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Перестраивает сегмент без записей, вышедших из окна; если живых записей
+         * все равно много, удваивает емкость.
+         */
+        private void rebuild(long interval) {
+            long[] oldKeys = keys;
+            long[] oldStates = states;
+            boolean[] oldUsed = used;
+            int live = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i] && (oldStates[i] >>> (2 * COUNT_BITS)) >= interval - 1) {
+                    live++;
+                }
+            }
+            int capacity = live + 1 > oldKeys.length / 2 ? oldKeys.length * 2 : oldKeys.length;
+            keys = new long[capacity];
+            states = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i] && (oldStates[i] >>> (2 * COUNT_BITS)) >= interval - 1) {
+                    int slot = find(oldKeys[i], (int) mix(oldKeys[i]));
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    states[slot] = oldStates[i];
+                    size++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.homework.i18n;
+
+/**
+ * Поддерживаемые языки интерфейса бота.
+ * Порядковый номер константы - индекс строки в таблице {@link MessageBundles}.
+ */
+public enum Language {
+    RU("ru"),
+    EN("en"),
+    UK("uk"),
+    DE("de"),
+    ES("es");
+
+    /** Язык, используемый для неизвестных и отсутствующих кодов */
+    public static final Language DEFAULT = RU;
+
+    /** Количество букв латинского алфавита (размер стороны таблицы кодов) */
+    private static final int LETTERS = 26;
+
+    /**
+     * Таблица двухбуквенных кодов ISO 639-1: индекс {@code (c0 - 'a') * 26 + (c1 - 'a')}.
+     * Определение языка сводится к двум вычитаниям и чтению массива - без хеширования и строк.
+     */
+    private static final Language[] BY_CODE = new Language[LETTERS * LETTERS];
+
+    static {
+        for (Language language : values()) {
+            BY_CODE[index(language.code.charAt(0), language.code.charAt(1))] = language;
+        }
+    }
+
+    /** Двухбуквенный код языка */
+    private final String code;
+
+    Language(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Определяет язык по коду из Telegram ({@code User.languageCode}), например "en" или "en-US".
+     *
+     * @param languageCode код языка пользователя, может быть null
+     * @return поддерживаемый язык или {@link #DEFAULT}
+     */
+    public static Language fromCode(String languageCode) {
+        if (languageCode == null || languageCode.length() < 2) {
+            return DEFAULT;
+        }
+        int index = index(languageCode.charAt(0), languageCode.charAt(1));
+        if (index < 0) {
+            return DEFAULT;
+        }
+        Language language = BY_CODE[index];
+        return language != null ? language : DEFAULT;
+    }
+
+    /**
+     * Вычисляет индекс в таблице кодов без учета регистра.
+     *
+     * @return индекс или -1, если символы не являются латинскими буквами
+     */
+    private static int index(char first, char second) {
+        int a = (first | 0x20) - 'a';
+        int b = (second | 0x20) - 'a';
+        if (a < 0 || a >= LETTERS || b < 0 || b >= LETTERS) {
+            return -1;
+        }
+        return a * LETTERS + b;
+    }
+}
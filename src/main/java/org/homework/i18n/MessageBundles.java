@@ -0,0 +1,94 @@
+package org.homework.i18n;
+
+import org.homework.di.annotations.Register;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Локализованные тексты бота, заранее скомпилированные в таблицу.
+ *
+ * <p>При создании все файлы {@code /messages/<код>.properties} читаются один раз и раскладываются
+ * в двумерный массив {@code [язык][сообщение]} по порядковым номерам {@link Language}
+ * и {@link MessageId}. Получение текста на горячем пути - два обращения к массиву,
+ * без хеширования и сборки строк. Отсутствующие в языке ключи берутся из {@link Language#DEFAULT}.</p>
+ *
+ * <p>Сообщения {@code ANSWER_*} - это списки синонимов через запятую, из которых
+ * собирается {@link org.homework.intent.IntentMatcher}.</p>
+ */
+@Register
+public class MessageBundles {
+
+    /** Каталог с файлами сообщений в ресурсах */
+    private static final String RESOURCE_DIR = "/messages/";
+
+    /** Тексты сообщений: [язык][сообщение] */
+    private final String[][] texts;
+
+
+    /**
+     * Конструктор по умолчанию: загружает и компилирует все поддерживаемые языки.
+     */
+    public MessageBundles() {
+        Language[] languages = Language.values();
+        MessageId[] ids = MessageId.values();
+        texts = new String[languages.length][ids.length];
+
+        Properties fallback = load(Language.DEFAULT);
+        for (Language language : languages) {
+            Properties bundle = language == Language.DEFAULT ? fallback : load(language);
+            for (MessageId id : ids) {
+                String text = bundle.getProperty(id.getKey(), fallback.getProperty(id.getKey()));
+                if (text == null) {
+                    throw new IllegalStateException("Missing message '" + id.getKey() + "' in default bundle");
+                }
+                texts[language.ordinal()][id.ordinal()] = text;
+            }
+        }
+    }
+
+    /**
+     * Возвращает локализованный текст сообщения.
+     *
+     * @param language язык пользователя
+     * @param id идентификатор сообщения
+     * @return текст сообщения
+     */
+    public String text(Language language, MessageId id) {
+        return texts[language.ordinal()][id.ordinal()];
+    }
+
+    /**
+     * Возвращает список синонимов из сообщения-списка (например, {@link MessageId#ANSWER_YES}).
+     * Используется только при построении автомата намерений, поэтому разбирает строку при каждом вызове.
+     *
+     * @param language язык
+     * @param answers идентификатор списка синонимов
+     * @return синонимы без окружающих пробелов
+     */
+    public String[] answers(Language language, MessageId answers) {
+        return text(language, answers).strip().split("\\s*,\\s*");
+    }
+
+    /**
+     * Загружает файл сообщений языка; отсутствующий файл дает пустой набор.
+     */
+    private static Properties load(Language language) {
+        Properties properties = new Properties();
+        InputStream stream = MessageBundles.class.getResourceAsStream(RESOURCE_DIR + language.getCode() + ".properties");
+        if (stream == null) {
+            return properties;
+        }
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            return properties;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load messages for language: " + language.getCode(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.homework.i18n;
+
+/**
+ * Идентификаторы локализуемых сообщений бота.
+ * Порядковый номер константы - индекс столбца в таблице {@link MessageBundles}.
+ */
+public enum MessageId {
+    GREETING("greeting"),
+    GREETING_SHORT("greeting.short"),
+    REPLY_YES("reply.yes"),
+    REPLY_NO("reply.no"),
+    REPLY_INVALID("reply.invalid"),
+    MENU_TITLE("menu.title"),
+    GOODBYE("goodbye"),
+    HELP("help"),
+    BUTTON_OPEN("button.open"),
+    BUTTON_BACK("button.back"),
+    BUSY("busy"),
+    ANSWER_YES("answer.yes"),
+    ANSWER_NO("answer.no"),
+    ANSWER_HELP("answer.help"),
+    ANSWER_START("answer.start");
+
+    /** Ключ сообщения в файле ресурсов */
+    private final String key;
+
+    MessageId(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,160 @@
+package org.homework.inline;
+
+import org.homework.catalog.CatalogSnapshot;
+import org.homework.catalog.TravelCatalog;
+import org.homework.catalog.TravelOption;
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.i18n.MessageId;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.inputmessagecontent.InputTextMessageContent;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResult;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResultArticle;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Результаты inline-запросов ({@code @bot круиз} в любом чате) по каталогу путешествий.
+ *
+ * <p>Поиск выполняет индекс текущей версии каталога ({@link CatalogSnapshot#search(String)}).
+ * Готовые списки результатов кешируются по языку и тексту запроса: пока пользователь набирает
+ * "к", "кр", "кру"..., каждый префикс вычисляется один раз, а повторные и чужие такие же
+ * запросы отвечаются чтением из кеша. Текст запроса нормализуется только при промахе, а исходный
+ * текст тоже запоминается, поэтому повторный запрос не строит ключ. Карточки результатов собираются один раз на версию
+ * каталога и язык и разделяются всеми ответами. При смене версии каталога кеш сбрасывается.</p>
+ */
+@Register
+public class InlineSearch {
+
+    /** Максимум результатов в ответе на inline-запрос (ограничение Telegram) */
+    static final int MAX_RESULTS = 50;
+
+    /** Сколько запросов одного языка хранится в кеше; при переполнении кеш языка очищается */
+    static final int MAX_CACHED_QUERIES = 4096;
+
+    /** Сколько секунд Telegram может хранить ответ у себя */
+    public static final int CACHE_TIME_SECONDS = 300;
+
+    /**
+     * Каталог вариантов путешествий.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private TravelCatalog travelCatalog;
+
+    /**
+     * Локализованные тексты для кнопок карточек.
+     * Внедряются автоматически через DI контейнер.
+     */
+    @Resolve
+    private MessageBundles messages;
+
+    /** Кеш текущей версии каталога */
+    private volatile Cache cache;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public InlineSearch() {
+    }
+
+    /**
+     * Создает поиск с явными зависимостями (без DI-контейнера).
+     *
+     * @param travelCatalog каталог путешествий
+     * @param messages локализованные тексты
+     */
+    public InlineSearch(TravelCatalog travelCatalog, MessageBundles messages) {
+        this.travelCatalog = travelCatalog;
+        this.messages = messages;
+    }
+
+    /**
+     * Возвращает результаты inline-запроса.
+     *
+     * @param query текст запроса (пустой - все варианты)
+     * @param language язык пользователя
+     * @return карточки найденных вариантов; список общий и не должен изменяться
+     */
+    public List<InlineQueryResult> results(String query, Language language) {
+        CatalogSnapshot catalog = travelCatalog.current();
+        Cache current = cache;
+        if (current == null || current.catalog != catalog) {
+            current = new Cache(catalog);
+            cache = current;
+        }
+        String key = query == null ? "" : query;
+        Map<String, List<InlineQueryResult>> byQuery = current.results[language.ordinal()];
+        List<InlineQueryResult> results = byQuery.get(key);
+        if (results == null) {
+            if (byQuery.size() >= MAX_CACHED_QUERIES) {
+                byQuery.clear();
+            }
+            String normalized = key.strip().toLowerCase(Locale.ROOT);
+            Cache owner = current;
+            results = byQuery.computeIfAbsent(normalized, k -> owner.search(query, language));
+            if (!normalized.equals(key)) {
+                byQuery.putIfAbsent(key, results);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Карточки и результаты одной версии каталога.
+     */
+    private final class Cache {
+        private final CatalogSnapshot catalog;
+
+        /** Результаты по языку (индекс - порядковый номер языка) и тексту запроса */
+        private final Map<String, List<InlineQueryResult>>[] results;
+
+        /** Карточки вариантов по языку (индекс - порядковый номер языка) и идентификатору */
+        private final Map<String, InlineQueryResultArticle>[] articles;
+
+        @SuppressWarnings("unchecked")
+        Cache(CatalogSnapshot catalog) {
+            this.catalog = catalog;
+            this.results = new Map[Language.values().length];
+            this.articles = new Map[Language.values().length];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = new ConcurrentHashMap<>();
+                articles[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        List<InlineQueryResult> search(String query, Language language) {
+            List<TravelOption> found = catalog.search(query);
+            List<InlineQueryResult> results = new ArrayList<>(Math.min(found.size(), MAX_RESULTS));
+            for (TravelOption option : found) {
+                if (results.size() == MAX_RESULTS) {
+                    break;
+                }
+                results.add(article(option, language));
+            }
+            return List.copyOf(results);
+        }
+
+        InlineQueryResultArticle article(TravelOption option, Language language) {
+            return articles[language.ordinal()].computeIfAbsent(option.getId(), key -> {
+                InputTextMessageContent content = new InputTextMessageContent();
+                content.setMessageText(option.getLabel() + "\n" + option.getUrl());
+                InlineQueryResultArticle article = new InlineQueryResultArticle();
+                article.setId(option.getId());
+                article.setTitle(option.getLabel());
+                article.setUrl(option.getUrl());
+                article.setHideUrl(true);
+                article.setInputMessageContent(content);
+                article.setReplyMarkup(new InlineKeyboardMarkup(List.of(CatalogSnapshot.createButtonRow(
+                        messages.text(language, MessageId.BUTTON_OPEN), option.getUrl()))));
+                return article;
+            });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.homework.intent;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Аннотация @Command помечает метод зарегистрированного сервиса как обработчик
+ * текстовых сообщений с указанным намерением. Обработчики находит {@link CommandRouter}.
+ *
+ * <p>Сигнатура метода: {@code (IncomingUpdate update, String chatId, Language language)},
+ * результат {@code void}; метод может выбрасывать {@code TelegramApiException}.
+ * Обработчик {@link Intent#UNKNOWN} получает все сообщения, для намерения которых
+ * обработчика нет.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME) // Аннотация будет доступна в рантайме
+@Target(METHOD) // Аннотация может применяться только к методам
+public @interface Command {
+
+    /**
+     * @return намерение, которое обрабатывает метод
+     */
+    Intent value();
+}
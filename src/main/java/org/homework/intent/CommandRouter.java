@@ -0,0 +1,170 @@
+package org.homework.intent;
+
+import org.homework.di.DIContainer;
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.i18n.Language;
+import org.homework.jfr.HandlerEvent;
+import org.homework.updates.IncomingUpdate;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+
+/**
+ * Маршрутизация текстовых сообщений к обработчикам, помеченным {@link Command}.
+ *
+ * <p>Обработчики - методы любых сервисов, зарегистрированных в {@link DIContainer}, поэтому
+ * новая команда добавляется одним методом с аннотацией (и синонимами в файлах сообщений),
+ * без правки бота. При сборке методы проверяются и превращаются в привязанные к сервисам
+ * {@link MethodHandle} в таблице по номеру намерения. Сообщение маршрутизируется за проход
+ * {@link IntentMatcher} по первому слову и одно обращение к таблице, без создания объектов,
+ * сколько бы ни было команд и синонимов.</p>
+ */
+@Register
+public class CommandRouter {
+
+    /** Тип обработчика после привязки к сервису */
+    private static final MethodType HANDLER_TYPE =
+            MethodType.methodType(void.class, IncomingUpdate.class, String.class, Language.class);
+
+    /**
+     * Контейнер, в котором ищутся обработчики.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private DIContainer container;
+
+    /**
+     * Распознаватель намерений.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private IntentMatcher intentMatcher;
+
+    /** Обработчики по номеру намерения (собираются при первом обращении, если созданы через DI) */
+    private volatile MethodHandle[] table;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     * Таблица собирается при первом вызове {@link #route} или {@link #compile()}.
+     */
+    public CommandRouter() {
+    }
+
+    /**
+     * Создает маршрутизацию по обработчикам указанных объектов и сразу собирает таблицу.
+     *
+     * @param intentMatcher распознаватель намерений
+     * @param handlers объекты с методами, помеченными {@link Command}
+     * @throws IllegalStateException если обработчики некорректны
+     */
+    public CommandRouter(IntentMatcher intentMatcher, Collection<?> handlers) {
+        this.intentMatcher = intentMatcher;
+        this.table = compile(handlers);
+    }
+
+    /**
+     * Собирает таблицу обработчиков, если она еще не собрана (например, при запуске
+     * приложения, чтобы ошибки в обработчиках обнаружились до первого сообщения).
+     *
+     * @throws IllegalStateException если обработчики некорректны
+     */
+    public void compile() {
+        if (table == null) {
+            compileOnce();
+        }
+    }
+
+    /**
+     * Передает сообщение обработчику его намерения или, если такого нет, обработчику
+     * {@link Intent#UNKNOWN}.
+     *
+     * @param update входящее обновление с текстом
+     * @param chatId идентификатор чата
+     * @param language язык пользователя
+     * @return true, если нашелся обработчик
+     * @throws TelegramApiException если обработчик не смог отправить ответ
+     */
+    public boolean route(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+        MethodHandle[] current = table;
+        if (current == null) {
+            current = compileOnce();
+        }
+        Intent intent = intentMatcher.match(update.getText(), language);
+        MethodHandle handler = current[intent.ordinal()];
+        if (handler == null) {
+            intent = Intent.UNKNOWN;
+            handler = current[intent.ordinal()];
+            if (handler == null) {
+                return false;
+            }
+        }
+        HandlerEvent event = HandlerEvent.start(intent.name(), update.getChatId() != null ? update.getChatId() : 0);
+        try {
+            handler.invokeExact(update, chatId, language);
+        } catch (TelegramApiException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // Обработчик объявил иное проверяемое исключение (сигнатура проверена при сборке)
+            throw new IllegalStateException("Command handler failed", e);
+        } finally {
+            event.commit();
+        }
+        return true;
+    }
+
+    private synchronized MethodHandle[] compileOnce() {
+        if (table == null) {
+            table = compile(container.resolveWithMethodsAnnotated(Command.class));
+        }
+        return table;
+    }
+
+    /**
+     * Проверяет обработчики и собирает таблицу: по одному обработчику на намерение.
+     */
+    private static MethodHandle[] compile(Collection<?> handlers) {
+        MethodHandle[] table = new MethodHandle[Intent.values().length];
+        Method[] sources = new Method[table.length];
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Object handler : handlers) {
+            for (Method method : handler.getClass().getDeclaredMethods()) {
+                Command command = method.getAnnotation(Command.class);
+                if (command == null) {
+                    continue;
+                }
+                if (Modifier.isStatic(method.getModifiers())
+                        || !MethodType.methodType(method.getReturnType(), method.getParameterTypes()).equals(HANDLER_TYPE)) {
+                    throw new IllegalStateException("@Command method must be an instance method "
+                            + HANDLER_TYPE + ": " + method);
+                }
+                for (Class<?> exception : method.getExceptionTypes()) {
+                    if (!TelegramApiException.class.isAssignableFrom(exception)
+                            && !RuntimeException.class.isAssignableFrom(exception)
+                            && !Error.class.isAssignableFrom(exception)) {
+                        throw new IllegalStateException("@Command method may only throw TelegramApiException: " + method);
+                    }
+                }
+                int index = command.value().ordinal();
+                if (sources[index] != null) {
+                    throw new IllegalStateException("Duplicate @Command(" + command.value() + ") handlers: "
+                            + sources[index] + " and " + method);
+                }
+                try {
+                    // Обработчики обычно не публичные: доступ открывается так же, как к полям @Resolve
+                    method.setAccessible(true);
+                    table[index] = lookup.unreflect(method).bindTo(handler);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot access @Command method: " + method, e);
+                }
+                sources[index] = method;
+            }
+        }
+        return table;
+    }
+}
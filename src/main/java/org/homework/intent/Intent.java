@@ -0,0 +1,17 @@
+package org.homework.intent;
+
+/**
+ * Намерение пользователя, распознанное по тексту сообщения.
+ */
+public enum Intent {
+    /** Начать диалог (/start и синонимы) */
+    START,
+    /** Показать справку (/help и синонимы) */
+    HELP,
+    /** Положительный ответ */
+    YES,
+    /** Отрицательный ответ */
+    NO,
+    /** Текст не распознан */
+    UNKNOWN
+}
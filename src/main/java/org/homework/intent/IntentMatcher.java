@@ -0,0 +1,303 @@
+package org.homework.intent;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.i18n.MessageId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Распознает намерение (да/нет/помощь/старт) по первому слову сообщения.
+ *
+ * <p>Для каждого языка один раз собирается префиксное дерево на массивах из синонимов
+ * {@link MessageBundles} этого языка и языка по умолчанию, плюс названия команд бота.
+ * Синонимы других языков не учитываются: украинское "так" не должно превращать русское
+ * "так себе" в согласие. При сборке каждое слово добавляется еще и в "неправильной раскладке"
+ * (например, "да" набранное в латинской раскладке - "lf"). Однобуквенные слова и слова,
+ * означающие разное в двух языках, пропускаются. Классификация - один проход по символам
+ * первого слова с приведением регистра по таблице, без создания объектов: "Да!",
+ * "да, конечно", "/start@bot", "ДА" и "lf" распознаются одинаково.</p>
+ */
+@Register
+public class IntentMatcher {
+
+    /** Пары соответствующих клавиш: латинская раскладка QWERTY и русская ЙЦУКЕН */
+    private static final String LATIN_KEYS = "qwertyuiop[]asdfghjkl;'zxcvbnm,.`";
+    private static final String CYRILLIC_KEYS = "йцукенгшщзхъфывапролджэячсмитьбюё";
+
+    /** Словари намерений в файлах сообщений */
+    private static final MessageId[] ANSWER_IDS = {
+            MessageId.ANSWER_START, MessageId.ANSWER_HELP, MessageId.ANSWER_YES, MessageId.ANSWER_NO
+    };
+    private static final Intent[] ANSWER_INTENTS = {Intent.START, Intent.HELP, Intent.YES, Intent.NO};
+
+    /** Названия команд бота ("/start", "/help") распознаются на любом языке */
+    private static final String[] COMMAND_WORDS = {"start", "help"};
+    private static final Intent[] COMMAND_INTENTS = {Intent.START, Intent.HELP};
+
+    /**
+     * Локализованные словари синонимов.
+     * Внедряются автоматически через DI контейнер.
+     */
+    @Resolve
+    private MessageBundles messages;
+
+    /** Автоматы по порядковому номеру языка (собираются при первом обращении, если создан через DI) */
+    private volatile Automaton[] automata;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     * Автоматы собираются при первом вызове {@link #match(CharSequence, Language)}.
+     */
+    public IntentMatcher() {
+    }
+
+    /**
+     * Создает распознаватель и сразу собирает автоматы по словарям.
+     *
+     * @param messages локализованные словари синонимов
+     */
+    public IntentMatcher(MessageBundles messages) {
+        this.messages = messages;
+        this.automata = compileAll(messages);
+    }
+
+    /**
+     * Определяет намерение по первому слову сообщения. Ведущие пробелы и знаки
+     * (например, "/" у команд) пропускаются; слово должно совпасть с синонимом целиком.
+     *
+     * @param text текст сообщения
+     * @param language язык отправителя
+     * @return распознанное намерение или {@link Intent#UNKNOWN}
+     */
+    public Intent match(CharSequence text, Language language) {
+        Automaton[] current = automata;
+        if (current == null) {
+            current = compileOnce();
+        }
+        return current[language.ordinal()].match(text);
+    }
+
+    private synchronized Automaton[] compileOnce() {
+        if (automata == null) {
+            automata = compileAll(messages);
+        }
+        return automata;
+    }
+
+    private static Automaton[] compileAll(MessageBundles messages) {
+        Automaton[] result = new Automaton[Language.values().length];
+        for (Language language : Language.values()) {
+            result[language.ordinal()] = compile(messages, language);
+        }
+        return result;
+    }
+
+    /**
+     * Собирает автомат языка: команды, синонимы языка и языка по умолчанию, затем их варианты
+     * в другой раскладке (вариант не добавляется, если такое слово уже что-то означает).
+     */
+    private static Automaton compile(MessageBundles messages, Language language) {
+        Map<String, Intent> words = new LinkedHashMap<>();
+        Set<String> conflicts = new HashSet<>();
+        for (int i = 0; i < COMMAND_WORDS.length; i++) {
+            collect(words, conflicts, COMMAND_WORDS[i], COMMAND_INTENTS[i]);
+        }
+        for (int i = 0; i < ANSWER_IDS.length; i++) {
+            for (Language source : language == Language.DEFAULT
+                    ? new Language[]{language} : new Language[]{language, Language.DEFAULT}) {
+                for (String word : messages.answers(source, ANSWER_IDS[i])) {
+                    collect(words, conflicts, word, ANSWER_INTENTS[i]);
+                }
+            }
+        }
+        words.keySet().removeAll(conflicts);
+
+        Map<String, Intent> switched = new LinkedHashMap<>();
+        Set<String> switchedConflicts = new HashSet<>(conflicts);
+        for (Map.Entry<String, Intent> entry : words.entrySet()) {
+            String variant = switchLayout(entry.getKey());
+            if (variant != null && !words.containsKey(variant)) {
+                collect(switched, switchedConflicts, variant, entry.getValue());
+            }
+        }
+        switched.keySet().removeAll(switchedConflicts);
+
+        Builder builder = new Builder();
+        words.forEach(builder::add);
+        switched.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Добавляет слово в словарь сборки. Однобуквенные слова пропускаются (буква "н" или "т"
+     * чаще начало другого слова, чем ответ); слово с разными намерениями отмечается конфликтом.
+     */
+    private static void collect(Map<String, Intent> words, Set<String> conflicts, String word, Intent intent) {
+        if (word.length() < 2) {
+            return;
+        }
+        StringBuilder folded = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            folded.append(fold(word.charAt(i)));
+        }
+        String key = folded.toString();
+        Intent previous = words.putIfAbsent(key, intent);
+        if (previous != null && previous != intent) {
+            conflicts.add(key);
+        }
+    }
+
+    /**
+     * Переводит слово в "другую" раскладку: кириллицу в латиницу и наоборот.
+     *
+     * @return слово в другой раскладке или null, если в нем есть символы без пары
+     * или результат не является словом из букв
+     */
+    static String switchLayout(String word) {
+        StringBuilder result = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = fold(word.charAt(i));
+            int latin = LATIN_KEYS.indexOf(c);
+            int cyrillic = CYRILLIC_KEYS.indexOf(c);
+            char mapped = latin >= 0 ? CYRILLIC_KEYS.charAt(latin) : cyrillic >= 0 ? LATIN_KEYS.charAt(cyrillic) : 0;
+            if (mapped == 0 || !Character.isLetterOrDigit(mapped)) {
+                return null;
+            }
+            result.append(mapped);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Приводит символ к нижнему регистру и сводит "ё" к "е" - так же при сборке и при поиске.
+     */
+    static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    /**
+     * Неизменяемое префиксное дерево на массивах: для каждого узла - отсортированные
+     * символы переходов и номера целевых узлов, плюс намерение, если в узле заканчивается слово.
+     */
+    private static final class Automaton {
+        private final char[][] edgeChars;
+        private final int[][] edgeTargets;
+        private final Intent[] accepts;
+
+        Automaton(char[][] edgeChars, int[][] edgeTargets, Intent[] accepts) {
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.accepts = accepts;
+        }
+
+        Intent match(CharSequence text) {
+            if (text == null) {
+                return Intent.UNKNOWN;
+            }
+            int length = text.length();
+            int i = 0;
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int node = 0;
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    break; // Конец первого слова
+                }
+                node = next(node, fold(c));
+                if (node < 0) {
+                    return Intent.UNKNOWN;
+                }
+            }
+            Intent intent = accepts[node];
+            return intent != null ? intent : Intent.UNKNOWN;
+        }
+
+        private int next(int node, char c) {
+            int index = Arrays.binarySearch(edgeChars[node], c);
+            return index >= 0 ? edgeTargets[node][index] : -1;
+        }
+    }
+
+    /**
+     * Изменяемое дерево для сборки автомата.
+     */
+    private static final class Builder {
+        private final List<StringBuilder> chars = new ArrayList<>();
+        private final List<List<Integer>> targets = new ArrayList<>();
+        private final List<Intent> accepts = new ArrayList<>();
+
+        Builder() {
+            newNode();
+        }
+
+        /**
+         * Добавляет слово. Слово из нескольких частей (с пробелами или знаками) пропускается,
+         * так как распознается только первое слово сообщения.
+         */
+        void add(String word, Intent intent) {
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    return;
+                }
+                c = fold(c);
+                int index = chars.get(node).indexOf(String.valueOf(c));
+                if (index < 0) {
+                    int child = newNode();
+                    chars.get(node).append(c);
+                    targets.get(node).add(child);
+                    node = child;
+                } else {
+                    node = targets.get(node).get(index);
+                }
+            }
+            if (node != 0) {
+                accepts.set(node, intent);
+            }
+        }
+
+        private int newNode() {
+            chars.add(new StringBuilder());
+            targets.add(new ArrayList<>());
+            accepts.add(null);
+            return accepts.size() - 1;
+        }
+
+        /**
+         * Замораживает дерево в массивы с отсортированными переходами для двоичного поиска.
+         */
+        Automaton build() {
+            int size = accepts.size();
+            char[][] edgeChars = new char[size][];
+            int[][] edgeTargets = new int[size][];
+            for (int node = 0; node < size; node++) {
+                char[] nodeChars = chars.get(node).toString().toCharArray();
+                Integer[] order = new Integer[nodeChars.length];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Character.compare(nodeChars[a], nodeChars[b]));
+                edgeChars[node] = new char[nodeChars.length];
+                edgeTargets[node] = new int[nodeChars.length];
+                for (int i = 0; i < order.length; i++) {
+                    edgeChars[node][i] = nodeChars[order[i]];
+                    edgeTargets[node][i] = targets.get(node).get(order[i]);
+                }
+            }
+            return new Automaton(edgeChars, edgeTargets, accepts.toArray(new Intent[0]));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.homework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: одна попытка вызова Telegram API (после ожидания ограничений и бюджета отправки).
+ */
+@Name("org.homework.ApiCall")
+@Label("Telegram API Call")
+@Category({"Travel Bot", "Send"})
+@Description("One attempt of a Telegram Bot API request")
+@StackTrace(false)
+public class ApiCallEvent extends Event {
+
+    /** Результат успешного вызова */
+    public static final String OK = "ok";
+
+    @Label("Method")
+    String method;
+
+    @Label("Chat Id")
+    String chatId;
+
+    @Label("Priority")
+    String priority;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Result")
+    @Description("\"ok\", HTTP error code or exception class")
+    String result;
+
+    /**
+     * Начинает замер попытки.
+     *
+     * @param method имя метода API
+     * @param chatId чат запроса или null
+     * @param priority класс приоритета
+     * @param attempt номер попытки, с 1
+     * @return начатое событие; завершается вызовом {@link #finish(String)}
+     */
+    public static ApiCallEvent start(String method, String chatId, String priority, int attempt) {
+        ApiCallEvent event = new ApiCallEvent();
+        if (event.isEnabled()) {
+            event.method = method;
+            event.chatId = chatId;
+            event.priority = priority;
+            event.attempt = attempt;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Завершает замер и записывает событие.
+     *
+     * @param result {@link #OK}, код ошибки или имя класса исключения
+     */
+    public void finish(String result) {
+        if (isEnabled()) {
+            this.result = result;
+            commit();
+        }
+    }
+}
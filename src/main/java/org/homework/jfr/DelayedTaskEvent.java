@@ -0,0 +1,51 @@
+package org.homework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR: выполнение отложенной задачи (например, прощального сообщения).
+ * Опоздание - сколько задача ждала сверх назначенного времени, то есть насколько
+ * занят планировщик.
+ */
+@Name("org.homework.DelayedTask")
+@Label("Delayed Task Fired")
+@Category({"Travel Bot", "Timers"})
+@Description("Scheduled task run with its lateness against the planned time")
+@StackTrace(false)
+public class DelayedTaskEvent extends Event {
+
+    @Label("Task")
+    String task;
+
+    @Label("Chat Id")
+    String chatId;
+
+    @Label("Lateness")
+    @Timespan(Timespan.NANOSECONDS)
+    long lateness;
+
+    /**
+     * Начинает замер задачи.
+     *
+     * @param task имя задачи
+     * @param chatId чат задачи
+     * @param dueNanos назначенный момент выполнения ({@link System#nanoTime()})
+     * @return начатое событие; завершается вызовом {@link #commit()}
+     */
+    public static DelayedTaskEvent start(String task, String chatId, long dueNanos) {
+        DelayedTaskEvent event = new DelayedTaskEvent();
+        if (event.isEnabled()) {
+            event.task = task;
+            event.chatId = chatId;
+            event.lateness = Math.max(0, System.nanoTime() - dueNanos);
+            event.begin();
+        }
+        return event;
+    }
+}
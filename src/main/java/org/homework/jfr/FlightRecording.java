@@ -0,0 +1,156 @@
+package org.homework.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.dispatch.Dispatcher;
+import org.homework.load.LoadShedder;
+import org.homework.logger.ILogger;
+import org.homework.send.Priority;
+import org.homework.send.SendGate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * События бота в Java Flight Recorder и запись по требованию.
+ *
+ * <p>Бот пишет события {@link UpdateReceivedEvent}, {@link HandlerEvent}, {@link ApiCallEvent},
+ * {@link DelayedTaskEvent} и периодически {@link QueueDepthEvent}; по ним паузы GC
+ * и конкуренция за блокировки в записи связываются с чатами и командами. События
+ * включены по умолчанию и попадают в любую запись, в том числе начатую снаружи:
+ * {@code jcmd <pid> JFR.start settings=profile}.</p>
+ *
+ * <p>Если задано свойство {@value #FILE_PROPERTY}, при запуске начинается запись
+ * {@value #RECORDING_NAME} с настройками {@code profile}, хранящая последние
+ * {@value #MAX_AGE_MINUTES} минут. Снимок по требованию - {@code jcmd <pid> JFR.dump
+ * name=bot filename=...} или {@link #dump(Path)}; при остановке приложения запись
+ * сохраняется в этот файл.</p>
+ */
+@Register
+public class FlightRecording {
+
+    /** Системное свойство с файлом записи, сохраняемой при остановке */
+    public static final String FILE_PROPERTY = "bot.jfr.file";
+
+    /** Имя записи для {@code jcmd JFR.dump name=...} */
+    public static final String RECORDING_NAME = "bot";
+
+    /** Сколько минут событий хранит запись */
+    private static final long MAX_AGE_MINUTES = 15;
+
+    /**
+     * Защита от перегрузки: глубина очереди обновлений.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private LoadShedder loadShedder;
+
+    /**
+     * Общий бюджет отправки: ожидающие запросы по приоритетам.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private SendGate sendGate;
+
+    /**
+     * Режим выполнения: чаты с незавершенными задачами.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private Dispatcher dispatcher;
+
+    /**
+     * Логгер для записи событий и ошибок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Замеры очередей (регистрируются при запуске) */
+    private Runnable sampler;
+
+    /** Запись по свойству; null, если не начата */
+    private Recording recording;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public FlightRecording() {
+    }
+
+    /**
+     * Создает запись с заданными источниками глубины очередей.
+     *
+     * @param loadShedder защита от перегрузки
+     * @param sendGate бюджет отправки
+     * @param dispatcher режим выполнения
+     * @param logger логгер
+     */
+    FlightRecording(LoadShedder loadShedder, SendGate sendGate, Dispatcher dispatcher,
+                    ILogger logger) {
+        this.loadShedder = loadShedder;
+        this.sendGate = sendGate;
+        this.dispatcher = dispatcher;
+        this.logger = logger;
+    }
+
+    /**
+     * Включает замеры очередей и, если задан файл, начинает запись.
+     */
+    public synchronized void start() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = this::sampleQueues;
+        FlightRecorder.addPeriodicEvent(QueueDepthEvent.class, sampler);
+
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null) {
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName(RECORDING_NAME);
+            recording.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+            recording.setToDisk(true);
+            recording.setDestination(Paths.get(file));
+            recording.setDumpOnExit(true);
+            recording.start();
+            logger.info("Запись JFR \"" + RECORDING_NAME + "\" начата, при остановке сохраняется в " + file);
+        } catch (IOException | ParseException | RuntimeException e) {
+            // Без записи бот работает как обычно
+            logger.error("Не удалось начать запись JFR: " + e.getMessage());
+            recording = null;
+        }
+    }
+
+    /**
+     * Сохраняет снимок текущей записи.
+     *
+     * @param file файл снимка
+     * @throws IOException если записи нет или файл не удалось записать
+     */
+    public synchronized void dump(Path file) throws IOException {
+        if (recording == null) {
+            throw new IOException("Flight recording is not running, set " + FILE_PROPERTY);
+        }
+        recording.dump(file);
+    }
+
+    /**
+     * Записывает глубину очередей обновлений и отправки.
+     */
+    void sampleQueues() {
+        QueueDepthEvent.emit("updates", loadShedder.getQueueDepth());
+        for (Priority priority : Priority.values()) {
+            QueueDepthEvent.emit("send." + priority.getKey(), sendGate.waiting(priority));
+        }
+        QueueDepthEvent.emit("dispatch.chats", dispatcher.activeChats());
+    }
+}
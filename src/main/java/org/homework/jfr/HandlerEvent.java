@@ -0,0 +1,43 @@
+package org.homework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR: выполнение обработчика обновления (команды, нажатия кнопки, inline-запроса)
+ * вместе с отправкой ответа.
+ */
+@Name("org.homework.Handler")
+@Label("Handler Executed")
+@Category({"Travel Bot", "Updates"})
+@Description("Command, callback or inline handler run including its replies")
+@StackTrace(false)
+public class HandlerEvent extends Event {
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Chat Id")
+    long chatId;
+
+    /**
+     * Начинает замер обработчика.
+     *
+     * @param handler имя обработчика (намерение, "callback", "inline")
+     * @param chatId идентификатор чата
+     * @return начатое событие; завершается вызовом {@link #commit()}
+     */
+    public static HandlerEvent start(String handler, long chatId) {
+        HandlerEvent event = new HandlerEvent();
+        if (event.isEnabled()) {
+            event.handler = handler;
+            event.chatId = chatId;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,35 @@
+package org.homework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Периодическое событие JFR: глубина одной из очередей бота. Замеры делает
+ * {@link FlightRecording}; по умолчанию раз в секунду.
+ */
+@Name("org.homework.QueueDepth")
+@Label("Queue Depth")
+@Category({"Travel Bot", "Queues"})
+@Description("Sampled depth of the bot's update and send queues")
+@StackTrace(false)
+@Period("1 s")
+public class QueueDepthEvent extends Event {
+
+    @Label("Queue")
+    String queue;
+
+    @Label("Depth")
+    int depth;
+
+    static void emit(String queue, int depth) {
+        QueueDepthEvent event = new QueueDepthEvent();
+        event.queue = queue;
+        event.depth = depth;
+        event.commit();
+    }
+}
@@ -0,0 +1,48 @@
+package org.homework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.homework.updates.IncomingUpdate;
+
+/**
+ * Событие JFR: бот получил обновление. Ожидание в очереди показывает, сколько обновление
+ * пролежало между получением от Telegram и началом обработки.
+ */
+@Name("org.homework.UpdateReceived")
+@Label("Update Received")
+@Category({"Travel Bot", "Updates"})
+@Description("Incoming update handed to the bot for processing")
+@StackTrace(false)
+public class UpdateReceivedEvent extends Event {
+
+    @Label("Chat Id")
+    long chatId;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    /**
+     * Записывает событие, если запись этого события включена.
+     *
+     * @param update входящее обновление
+     */
+    public static void emit(IncomingUpdate update) {
+        UpdateReceivedEvent event = new UpdateReceivedEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.chatId = update.getChatId() != null ? update.getChatId() : 0;
+        event.kind = update.isCallbackQuery() ? "callback" : update.isInlineQuery() ? "inline" : "message";
+        event.queueWait = update.getReceivedNanos() != 0 ? System.nanoTime() - update.getReceivedNanos() : 0;
+        event.commit();
+    }
+}
@@ -0,0 +1,15 @@
+package org.homework.load;
+
+/**
+ * Уровни деградации бота под нагрузкой, от нормальной работы к отказу.
+ */
+public enum LoadLevel {
+    /** Выполняется вся работа */
+    NORMAL,
+    /** Пропускается необязательная работа: прощальные сообщения, аналитика, информационный журнал */
+    SHED_OPTIONAL,
+    /** Вместо обработки запроса отправляется готовый ответ "бот занят" */
+    BUSY_REPLY,
+    /** Новые запросы отбрасываются без ответа */
+    REJECT
+}
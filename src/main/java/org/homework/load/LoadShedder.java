@@ -0,0 +1,176 @@
+package org.homework.load;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Защита от перегрузки: по глубине очереди входящих обновлений и времени их ожидания
+ * выбирает уровень деградации {@link LoadLevel}.
+ *
+ * <p>Очередь и ожидание сообщает сессия получения обновлений перед обработкой каждого
+ * обновления ({@link #observe(int, long)}). Время ожидания сглаживается экспоненциальным
+ * средним. Уровень определяется по худшему из двух сигналов: порог первого уровня задается
+ * свойствами {@value #QUEUE_PROPERTY} и {@value #LATENCY_PROPERTY}, следующие уровни
+ * наступают при двукратном и четырехкратном превышении.</p>
+ *
+ * <p>Повышение уровня происходит сразу, понижение - не раньше чем через
+ * {@value #COOLDOWN_MILLIS} мс после прошлой смены, чтобы уровень не менялся на каждом
+ * обновлении у границы порога. Каждая смена уровня пишется в журнал и учитывается в счетчиках.</p>
+ */
+@Register
+public class LoadShedder {
+
+    /** Системное свойство: глубина очереди, с которой пропускается необязательная работа */
+    public static final String QUEUE_PROPERTY = "bot.load.queue";
+
+    /** Системное свойство: целевое время ожидания обновления в очереди, мс */
+    public static final String LATENCY_PROPERTY = "bot.load.latency";
+
+    /** Минимальное время между сменой уровня и его понижением */
+    static final long COOLDOWN_MILLIS = 2_000;
+
+    /** Множители порогов для уровней выше NORMAL */
+    private static final int[] THRESHOLD_FACTORS = {1, 2, 4};
+
+    /** Вес нового замера в сглаженном времени ожидания */
+    private static final double LATENCY_ALPHA = 0.2;
+
+    /**
+     * Логгер для записи смены уровней.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    private final int queueThreshold;
+    private final long latencyTargetMillis;
+    private final LongSupplier clock;
+
+    /** Текущий уровень (читается потоками обработки без блокировки) */
+    private volatile LoadLevel level = LoadLevel.NORMAL;
+
+    /** Глубина очереди при последнем замере */
+    private volatile int queueDepth;
+
+    /** Сглаженное время ожидания в очереди, мс */
+    private double latencyMillis;
+
+    /** Момент последней смены уровня */
+    private long changedAt;
+
+    /** Сколько раз бот входил в каждый уровень */
+    private final LongAdder[] transitions = new LongAdder[LoadLevel.values().length];
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public LoadShedder() {
+        this(Integer.getInteger(QUEUE_PROPERTY, 20), Long.getLong(LATENCY_PROPERTY, 1_000),
+                System::currentTimeMillis, null);
+    }
+
+    /**
+     * Создает защиту с явными порогами.
+     *
+     * @param queueThreshold глубина очереди для уровня {@link LoadLevel#SHED_OPTIONAL}
+     * @param latencyTargetMillis время ожидания для уровня {@link LoadLevel#SHED_OPTIONAL}
+     * @param clock источник текущего времени в миллисекундах
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    public LoadShedder(int queueThreshold, long latencyTargetMillis, LongSupplier clock, ILogger logger) {
+        this.queueThreshold = queueThreshold;
+        this.latencyTargetMillis = latencyTargetMillis;
+        this.clock = clock;
+        this.logger = logger;
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Учитывает состояние очереди перед обработкой очередного обновления и при необходимости
+     * меняет уровень.
+     *
+     * @param queueDepth число полученных, но еще не обработанных обновлений
+     * @param waitedMillis сколько это обновление ждало в очереди
+     */
+    public synchronized void observe(int queueDepth, long waitedMillis) {
+        this.queueDepth = queueDepth;
+        latencyMillis += LATENCY_ALPHA * (waitedMillis - latencyMillis);
+        LoadLevel target = LoadLevel.values()[Math.max(
+                levelIndex(queueDepth, queueThreshold),
+                levelIndex(latencyMillis, latencyTargetMillis))];
+
+        LoadLevel current = level;
+        long now = clock.getAsLong();
+        if (target == current || target.compareTo(current) < 0 && now - changedAt < COOLDOWN_MILLIS) {
+            return;
+        }
+        level = target;
+        changedAt = now;
+        transitions[target.ordinal()].increment();
+        String details = " (очередь " + queueDepth + ", ожидание " + Math.round(latencyMillis) + " мс)";
+        if (target.compareTo(current) > 0) {
+            logger.warn("Перегрузка: уровень " + current + " -> " + target + details);
+        } else {
+            logger.info("Нагрузка снизилась: уровень " + current + " -> " + target + details);
+        }
+    }
+
+    /**
+     * @return индекс уровня, которому соответствует значение сигнала
+     */
+    private static int levelIndex(double value, double threshold) {
+        int index = 0;
+        while (index < THRESHOLD_FACTORS.length && value >= threshold * THRESHOLD_FACTORS[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return число необработанных обновлений при последнем замере
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return текущий уровень деградации
+     */
+    public LoadLevel level() {
+        return level;
+    }
+
+    /**
+     * Уровень для конкретного обновления. Подтвержденное Telegram обновление (из очереди на диске)
+     * Telegram уже не пришлет снова, поэтому его нельзя ни отбросить, ни заменить ответом
+     * "бот занят": для него уровень не выше {@link LoadLevel#SHED_OPTIONAL}.
+     *
+     * @param acknowledged подтверждено ли обновление до обработки
+     * @return уровень деградации для обновления
+     */
+    public LoadLevel level(boolean acknowledged) {
+        LoadLevel current = level;
+        return acknowledged && current.compareTo(LoadLevel.SHED_OPTIONAL) > 0 ? LoadLevel.SHED_OPTIONAL : current;
+    }
+
+    /**
+     * @return true, если можно выполнять необязательную работу (прощания, аналитику, подробный журнал)
+     */
+    public boolean allowOptional() {
+        return level == LoadLevel.NORMAL;
+    }
+
+    /**
+     * @param level уровень
+     * @return сколько раз бот переходил на этот уровень
+     */
+    public long getTransitions(LoadLevel level) {
+        return transitions[level.ordinal()].sum();
+    }
+}
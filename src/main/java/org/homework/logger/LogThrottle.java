@@ -0,0 +1,267 @@
+package org.homework.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты однотипных сообщений журнала.
+ *
+ * <p>Сообщения группируются по шаблону (см. {@link #templateOf(String)}). В каждом окне времени
+ * для одного шаблона пропускается не более {@code burst} сообщений, остальные только считаются.
+ * При смене окна (или при периодической очистке) по каждому шаблону с подавленными сообщениями
+ * выдается одна итоговая строка через {@link SummarySink}.</p>
+ *
+ * <p>Все счетчики неблокирующие: горячий путь состоит из чтения {@link ConcurrentHashMap}
+ * и атомарных операций, поэтому потоки обработки не ждут друг друга во время "шторма" ошибок.
+ * Номер окна и число пропущенных в нем сообщений хранятся в одном атомарном значении, поэтому
+ * смена окна не теряет сообщения, пропущенные одновременно с ней.</p>
+ *
+ * <p>Периодическую очистку выполняет один общий поток для всех ограничителей; он держит их
+ * по слабым ссылкам, поэтому ненужный ограничитель (и его журнал) собирается сборщиком мусора.</p>
+ */
+public class LogThrottle {
+
+    /** Длительность окна по умолчанию */
+    static final long DEFAULT_WINDOW_MILLIS = 10_000;
+
+    /** Сколько сообщений одного шаблона пропускается за окно по умолчанию */
+    static final int DEFAULT_BURST = 5;
+
+    /** Верхняя граница числа отслеживаемых шаблонов, чтобы таблица не росла бесконечно */
+    static final int MAX_TEMPLATES = 256;
+
+    /** Период общей очистки; итог выдается не позже чем через этот период после конца окна */
+    static final long FLUSH_PERIOD_MILLIS = 1_000;
+
+    /** Младшие биты состояния окна - число пропущенных сообщений, старшие - номер окна */
+    private static final long PASSED_MASK = 0xFFFF_FFFFL;
+
+    /** Общий демон-поток для периодической выдачи итоговых строк */
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "log-throttle-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Ограничители, которые очищает общий поток (по слабым ссылкам) */
+    private static final Set<LogThrottle> FLUSHED = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /** Запущена ли общая очистка */
+    private static final AtomicBoolean FLUSHER_STARTED = new AtomicBoolean();
+
+    /**
+     * Получатель итоговых строк о подавленных сообщениях.
+     */
+    @FunctionalInterface
+    public interface SummarySink {
+        /**
+         * @param template шаблон подавленных сообщений
+         * @param suppressed сколько сообщений было подавлено за окно
+         * @param windowMillis длительность окна в миллисекундах
+         */
+        void summary(String template, long suppressed, long windowMillis);
+    }
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicBoolean flusherScheduled = new AtomicBoolean();
+    private final long windowMillis;
+    private final long windowNanos;
+    private final int burst;
+    private final LongSupplier nanoClock;
+    private final SummarySink sink;
+
+    /**
+     * Создает ограничитель с параметрами по умолчанию.
+     *
+     * @param sink получатель итоговых строк
+     */
+    public LogThrottle(SummarySink sink) {
+        this(DEFAULT_WINDOW_MILLIS, DEFAULT_BURST, System::nanoTime, sink);
+    }
+
+    /**
+     * Создает ограничитель с явными параметрами (используется в тестах).
+     *
+     * @param windowMillis длительность окна в миллисекундах
+     * @param burst сколько сообщений одного шаблона пропускается за окно
+     * @param nanoClock источник монотонного времени в наносекундах
+     * @param sink получатель итоговых строк
+     */
+    LogThrottle(long windowMillis, int burst, LongSupplier nanoClock, SummarySink sink) {
+        this.windowMillis = windowMillis;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        this.sink = sink;
+    }
+
+    /**
+     * Решает, нужно ли записать сообщение в журнал.
+     *
+     * @param message текст сообщения
+     * @return true, если сообщение следует записать; false, если оно подавлено и учтено в счетчике
+     */
+    public boolean tryAcquire(String message) {
+        if (message == null) {
+            return true;
+        }
+        String template = templateOf(message);
+        long now = nanoClock.getAsLong();
+        Window window = windows.get(template);
+        if (window == null) {
+            if (windows.size() >= MAX_TEMPLATES) {
+                return true; // Слишком много разных шаблонов - не ограничиваем, чтобы не терять сообщения
+            }
+            window = windows.computeIfAbsent(template, key -> new Window(now));
+        }
+
+        long epoch = window.epochAt(now);
+        while (true) {
+            long state = window.state.get();
+            long current = state >>> 32;
+            if (epoch > current) {
+                // Новое окно: номер и первое пропущенное сообщение ставятся одной операцией
+                if (window.state.compareAndSet(state, epoch << 32 | 1)) {
+                    summarize(template, window);
+                    return burst > 0 || suppress(window);
+                }
+                continue;
+            }
+            if ((state & PASSED_MASK) >= burst) {
+                return suppress(window);
+            }
+            if (window.state.compareAndSet(state, state + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean suppress(Window window) {
+        window.suppressed.increment();
+        scheduleFlusher();
+        return false;
+    }
+
+    /**
+     * Выдает итоговые строки по всем шаблонам, у которых закончилось окно,
+     * и удаляет давно неактивные шаблоны.
+     */
+    public void flush() {
+        long now = nanoClock.getAsLong();
+        Iterator<Map.Entry<String, Window>> iterator = windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Window> entry = iterator.next();
+            Window window = entry.getValue();
+            long epoch = window.epochAt(now);
+            long state = window.state.get();
+            if (epoch <= state >>> 32) {
+                continue;
+            }
+            // Шаблон без активности за целое окно больше не нужен
+            if ((state & PASSED_MASK) == 0 && window.suppressed.sum() == 0) {
+                iterator.remove();
+            } else if (window.state.compareAndSet(state, epoch << 32)) {
+                summarize(entry.getKey(), window);
+            }
+        }
+    }
+
+    /**
+     * Выделяет шаблон сообщения - неизменяемую часть до первого разделителя ": ".
+     * Именно так в проекте формируются сообщения об ошибках: "Описание: " + подробности.
+     *
+     * @param message текст сообщения
+     * @return шаблон сообщения
+     */
+    static String templateOf(String message) {
+        int separator = message.indexOf(": ");
+        return separator > 0 ? message.substring(0, separator) : message;
+    }
+
+    /**
+     * Выдает итоговую строку за прошедшее окно. Вызывает только поток, сменивший окно.
+     * Сообщения, подавленные одновременно со сменой окна, попадают в итог следующего окна.
+     */
+    private void summarize(String template, Window window) {
+        long suppressed = window.suppressed.sumThenReset();
+        if (suppressed > 0) {
+            sink.summary(template, suppressed, windowMillis);
+        }
+    }
+
+    /**
+     * Включает ограничитель в периодическую очистку при первом подавленном сообщении,
+     * чтобы итог был записан даже если "шторм" прекратился.
+     */
+    private void scheduleFlusher() {
+        if (flusherScheduled.compareAndSet(false, true)) {
+            FLUSHED.add(this);
+            if (FLUSHER_STARTED.compareAndSet(false, true)) {
+                FLUSHER.scheduleAtFixedRate(LogThrottle::flushAll, FLUSH_PERIOD_MILLIS, FLUSH_PERIOD_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Очищает все живые ограничители. Ошибка одного не останавливает общий поток.
+     */
+    private static void flushAll() {
+        List<LogThrottle> throttles;
+        synchronized (FLUSHED) {
+            throttles = new ArrayList<>(FLUSHED);
+        }
+        for (LogThrottle throttle : throttles) {
+            try {
+                throttle.flush();
+            } catch (RuntimeException e) {
+                // Итог этого ограничителя будет выдан при следующей очистке
+            }
+        }
+    }
+
+    /**
+     * @return true, если ограничитель очищается общим потоком (для тестов)
+     */
+    static boolean isFlushed(LogThrottle throttle) {
+        return FLUSHED.contains(throttle);
+    }
+
+    /**
+     * Счетчики одного шаблона. Окна отсчитываются от первого сообщения шаблона.
+     */
+    private final class Window {
+        /** Начало первого окна */
+        final long origin;
+
+        /** Номер текущего окна (старшие 32 бита) и число пропущенных в нем сообщений (младшие) */
+        final AtomicLong state = new AtomicLong();
+
+        final LongAdder suppressed = new LongAdder();
+
+        Window(long origin) {
+            this.origin = origin;
+        }
+
+        /**
+         * @return номер окна, в которое попадает момент времени
+         */
+        long epochAt(long now) {
+            return Math.max(0, now - origin) / windowNanos & PASSED_MASK;
+        }
+    }
+}
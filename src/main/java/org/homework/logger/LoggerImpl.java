@@ -6,11 +6,26 @@ import org.slf4j.LoggerFactory; // Импорт фабрики логгеров
 
 /**
  * Реализация интерфейса ILogger, которая использует SLF4J для логирования.
+ *
+ * <p>Сообщения уровней WARN и ERROR проходят через {@link LogThrottle}: при "шторме"
+ * однотипных ошибок (например, когда Telegram API недоступен) в журнал попадают только первые
+ * сообщения каждого окна, а остальные сводятся в одну итоговую строку.</p>
  */
 @Register // Аннотация для регистрации данного класса в контейнере зависимостей
 public class LoggerImpl implements ILogger {
     private final Logger logger; // Логгер, используемый для записи сообщений
 
+    // Ограничители частоты для предупреждений и ошибок (у каждого уровня свои окна)
+    private final LogThrottle warnThrottle = new LogThrottle(this::warnSummary);
+    private final LogThrottle errorThrottle = new LogThrottle(this::errorSummary);
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public LoggerImpl() {
+        this(null);
+    }
+
     /**
      * Конструктор для инъекции зависимости логгера.
      *
@@ -47,7 +62,9 @@ public class LoggerImpl implements ILogger {
      */
     @Override
     public void warn(String message) {
-        logger.warn(message);
+        if (warnThrottle.tryAcquire(message)) {
+            logger.warn(message);
+        }
     }
 
     /**
@@ -57,7 +74,23 @@ public class LoggerImpl implements ILogger {
      */
     @Override
     public void error(String message) {
-        logger.error(message);
+        if (errorThrottle.tryAcquire(message)) {
+            logger.error(message);
+        }
+    }
+
+    /**
+     * Записывает итоговую строку о подавленных предупреждениях.
+     */
+    private void warnSummary(String template, long suppressed, long windowMillis) {
+        logger.warn("Подавлено похожих предупреждений за {} мс: {} ({})", windowMillis, suppressed, template);
+    }
+
+    /**
+     * Записывает итоговую строку о подавленных ошибках.
+     */
+    private void errorSummary(String template, long suppressed, long windowMillis) {
+        logger.error("Подавлено похожих ошибок за {} мс: {} ({})", windowMillis, suppressed, template);
     }
 }
 
@@ -0,0 +1,128 @@
+package org.homework.send;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Автоматический выключатель для вызовов Telegram API.
+ *
+ * <p>После {@code failureThreshold} сбоев подряд выключатель размыкается, и на время
+ * {@code openMillis} все вызовы сразу отклоняются, не занимая потоки заведомо неудачными
+ * запросами. По истечении этого времени пропускается один пробный вызов: успех замыкает
+ * выключатель, сбой размыкает его снова. Состояние хранится в атомарных полях, без блокировок.</p>
+ */
+public class CircuitBreaker {
+
+    /** Состояние выключателя */
+    public enum State {
+        /** Вызовы проходят */
+        CLOSED,
+        /** Вызовы отклоняются */
+        OPEN,
+        /** Идет пробный вызов */
+        HALF_OPEN
+    }
+
+    /** Значение {@link #openedAt}, когда выключатель замкнут */
+    private static final long CLOSED_MARK = Long.MIN_VALUE;
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    /** Сбои подряд */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /** Момент размыкания или {@link #CLOSED_MARK} */
+    private final AtomicLong openedAt = new AtomicLong(CLOSED_MARK);
+
+    /** Выполняется ли сейчас пробный вызов */
+    private final AtomicInteger probes = new AtomicInteger();
+
+    /**
+     * @param failureThreshold число сбоев подряд, после которого выключатель размыкается
+     * @param openMillis время в разомкнутом состоянии до пробного вызова
+     * @param clock источник текущего времени в миллисекундах
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Проверяет, можно ли выполнить вызов. В полуоткрытом состоянии разрешает только
+     * один пробный вызов; его результат нужно передать в {@link #onSuccess()} или {@link #onFailure()}.
+     *
+     * @return true, если вызов можно выполнять
+     */
+    public boolean allow() {
+        long opened = openedAt.get();
+        if (opened == CLOSED_MARK) {
+            return true;
+        }
+        if (clock.getAsLong() - opened < openMillis) {
+            return false;
+        }
+        return probes.compareAndSet(0, 1);
+    }
+
+    /**
+     * Проверяет, отклонит ли выключатель вызов, не занимая пробный вызов: выключатель разомкнут
+     * или пробный вызов уже идет. Позволяет отклонить вызов до ожидания ограничений.
+     *
+     * @return true, если вызов заведомо будет отклонен
+     */
+    public boolean isRejecting() {
+        long opened = openedAt.get();
+        if (opened == CLOSED_MARK) {
+            return false;
+        }
+        return clock.getAsLong() - opened < openMillis || probes.get() != 0;
+    }
+
+    /**
+     * Возвращает пробный вызов, полученный в {@link #allow()}, если вызов так и не дошел
+     * до API (прерван ожиданием или отклонен до отправки): о доступности сервиса он ничего
+     * не говорит, а занятая проба без результата отклоняла бы все вызовы.
+     */
+    public void release() {
+        probes.compareAndSet(1, 0);
+    }
+
+    /**
+     * Учитывает успешный вызов (или ответ API, означающий, что сервис доступен).
+     */
+    public void onSuccess() {
+        failures.set(0);
+        if (openedAt.get() != CLOSED_MARK) {
+            openedAt.set(CLOSED_MARK);
+            probes.set(0);
+        }
+    }
+
+    /**
+     * Учитывает сбой вызова: недоступность сети или ошибку сервера.
+     */
+    public void onFailure() {
+        if (openedAt.get() != CLOSED_MARK) {
+            // Неудачная проба: снова ждем полный интервал
+            openedAt.set(clock.getAsLong());
+            probes.set(0);
+        } else if (failures.incrementAndGet() >= failureThreshold) {
+            openedAt.compareAndSet(CLOSED_MARK, clock.getAsLong());
+        }
+    }
+
+    /**
+     * @return текущее состояние выключателя
+     */
+    public State getState() {
+        long opened = openedAt.get();
+        if (opened == CLOSED_MARK) {
+            return State.CLOSED;
+        }
+        return clock.getAsLong() - opened < openMillis ? State.OPEN : State.HALF_OPEN;
+    }
+}
@@ -0,0 +1,164 @@
+package org.homework.send;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Объединение сообщений, которые обработка одного обновления отправляет в один чат.
+ *
+ * <p>Если склейка включена ({@value #WINDOW_PROPERTY} больше 0; по умолчанию выключена),
+ * совместимые соседние сообщения одного ответа склеиваются в одно - тексты через пустую строку,
+ * клавиатура последнего. Так ответ на "да" и меню при отдельных сообщениях расходуют один вызов
+ * API и одну единицу ограничения чата вместо двух.</p>
+ *
+ * <p>Сообщения склеиваются, только если у первого нет клавиатуры (иначе она бы пропала),
+ * у обоих совпадают режим разметки и настройки уведомления и превью, ни одно не является
+ * ответом на другое сообщение и не содержит явных сущностей (их смещения сдвинулись бы),
+ * а общий текст не длиннее {@value #MAX_TEXT_LENGTH} символов.
+ * Порядок сообщений в чате сохраняется.</p>
+ *
+ * <p>Сообщения не ждут и не копятся между обновлениями: они отправляются сразу в вызывающем
+ * потоке, а ошибки отправки выбрасываются вызывающему. Поэтому обновление подтверждается
+ * только после отправки ответа, а замеры обработчиков и защиты от перегрузки включают отправку.</p>
+ */
+@Register
+public class MessageCoalescer {
+
+    /** Системное свойство: больше 0 - склеивать сообщения одного ответа; 0 - отправлять как есть */
+    public static final String WINDOW_PROPERTY = "bot.send.coalesce";
+
+    /** Максимальная длина текста сообщения Telegram */
+    static final int MAX_TEXT_LENGTH = 4096;
+
+    /** Разделитель текстов склеенных сообщений */
+    private static final String SEPARATOR = "\n\n";
+
+    /**
+     * Отправка запросов с повторами и учетом ограничений.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private OutboundSender outboundSender;
+
+    private final boolean enabled;
+    private final Transport transport;
+
+    /** Сэкономленные вызовы API */
+    private final LongAdder saved = new LongAdder();
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public MessageCoalescer() {
+        this.enabled = Long.getLong(WINDOW_PROPERTY, 0) > 0;
+        this.transport = (bot, message) -> outboundSender.execute(bot, message);
+    }
+
+    /**
+     * Создает объединение с заданной отправкой.
+     *
+     * @param enabled склеивать ли сообщения
+     * @param transport отправка одного сообщения
+     */
+    MessageCoalescer(boolean enabled, Transport transport) {
+        this.enabled = enabled;
+        this.transport = transport;
+    }
+
+    /**
+     * Отправляет одно сообщение.
+     *
+     * @param bot бот, через которого отправляется сообщение
+     * @param message сообщение
+     * @throws TelegramApiException если сообщение не удалось отправить
+     */
+    public void send(AbsSender bot, SendMessage message) throws TelegramApiException {
+        transport.send(bot, message);
+    }
+
+    /**
+     * Отправляет по порядку сообщения, подготовленные при обработке одного обновления,
+     * склеивая совместимые соседние. Отправка останавливается на первой ошибке.
+     *
+     * @param bot бот, через которого отправляются сообщения
+     * @param messages сообщения одного чата в порядке отправки
+     * @throws TelegramApiException если сообщение не удалось отправить
+     */
+    public void send(AbsSender bot, List<SendMessage> messages) throws TelegramApiException {
+        List<SendMessage> merged = enabled ? merge(messages) : messages;
+        saved.add(messages.size() - merged.size());
+        for (SendMessage message : merged) {
+            transport.send(bot, message);
+        }
+    }
+
+    /**
+     * @return число вызовов API, сэкономленных склейкой
+     */
+    public long getSaved() {
+        return saved.sum();
+    }
+
+    /**
+     * Склеивает совместимые соседние сообщения.
+     *
+     * @param messages сообщения одного чата в порядке отправки
+     * @return сообщения для отправки в том же порядке
+     */
+    static List<SendMessage> merge(List<SendMessage> messages) {
+        List<SendMessage> result = new ArrayList<>(messages.size());
+        SendMessage current = null;
+        for (SendMessage next : messages) {
+            if (current != null && compatible(current, next)) {
+                current = combine(current, next);
+            } else {
+                if (current != null) {
+                    result.add(current);
+                }
+                current = next;
+            }
+        }
+        if (current != null) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    private static boolean compatible(SendMessage first, SendMessage second) {
+        return first.getReplyMarkup() == null
+                && first.getReplyToMessageId() == null && second.getReplyToMessageId() == null
+                && first.getEntities() == null && second.getEntities() == null
+                && Objects.equals(first.getParseMode(), second.getParseMode())
+                && Objects.equals(first.getDisableNotification(), second.getDisableNotification())
+                && Objects.equals(first.getDisableWebPagePreview(), second.getDisableWebPagePreview())
+                && first.getText() != null && second.getText() != null
+                && first.getText().length() + SEPARATOR.length() + second.getText().length() <= MAX_TEXT_LENGTH;
+    }
+
+    private static SendMessage combine(SendMessage first, SendMessage second) {
+        SendMessage combined = new SendMessage();
+        combined.setChatId(first.getChatId());
+        combined.setText(first.getText() + SEPARATOR + second.getText());
+        combined.setParseMode(first.getParseMode());
+        combined.setDisableNotification(first.getDisableNotification());
+        combined.setDisableWebPagePreview(first.getDisableWebPagePreview());
+        combined.setReplyMarkup(second.getReplyMarkup());
+        return combined;
+    }
+
+    /**
+     * Отправка одного сообщения (в тестах заменяется записью отправленного).
+     */
+    @FunctionalInterface
+    interface Transport {
+        void send(AbsSender bot, SendMessage message) throws TelegramApiException;
+    }
+}
@@ -0,0 +1,385 @@
+package org.homework.send;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.jfr.ApiCallEvent;
+import org.homework.logger.ILogger;
+import org.homework.subscribers.SubscriberRegistry;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Надежная отправка запросов в Telegram API.
+ *
+ * <p>Все исходящие вызовы бота проходят через {@link #execute(AbsSender, BotApiMethod)}:
+ * <ul>
+ *     <li>ошибки сети и ответы 5xx повторяются с экспоненциальной задержкой и случайным
+ *     разбросом (не больше {@value #MAX_ATTEMPTS} попыток);</li>
+ *     <li>ответ 429 с {@code retry_after} блокирует отправку в этот чат (а для запросов
+ *     без чата - всю отправку) на указанное время; короткое ожидание выполняется на месте,
+ *     а слишком долгое сразу завершается ошибкой;</li>
+ *     <li>{@link CircuitBreaker} после серии сбоев на время отклоняет вызовы, пока API недоступен;</li>
+ *     <li>прочие ответы 4xx (неверный запрос, бот заблокирован) не повторяются; ответ 403
+ *     отмечает чат в {@link SubscriberRegistry} как отказавшийся от рассылок.</li>
+ * </ul>
+ * Каждая попытка расходует слот общего бюджета {@link SendGate} в своем классе {@link Priority}.</p>
+ *
+ * <p>Со свойством {@value #STUB_PROPERTY} запросы в Telegram не уходят: вызов проходит весь путь
+ * отправки, но вместо сети ждет указанное число миллисекунд и возвращает null. Так бот
+ * воспроизводит записанный трафик ({@code UpdateReplayer}) без отправки ответов пользователям.</p>
+ */
+@Register
+public class OutboundSender {
+
+    /** Максимальное число попыток одного вызова */
+    static final int MAX_ATTEMPTS = 4;
+
+    /** Начальная задержка перед повтором */
+    private static final long BASE_BACKOFF_MILLIS = 200;
+
+    /** Верхняя граница задержки перед повтором */
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    /** Дольше этого вызов не ждет снятия ограничения retry_after и завершается ошибкой */
+    private static final long MAX_WAIT_MILLIS = 10_000;
+
+    /** Системное свойство: имитировать запросы с указанной задержкой (мс), не обращаясь к Telegram */
+    public static final String STUB_PROPERTY = "bot.send.stub";
+
+    /** Код ответа Telegram "Too Many Requests" */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /** Код ответа Telegram "Forbidden": бот заблокирован или удален из чата */
+    private static final int FORBIDDEN = 403;
+
+    /**
+     * Логгер для записи повторов и сбоев.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /**
+     * Общий бюджет отправки с приоритетами.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private SendGate gate;
+
+    /**
+     * Реестр подписчиков, в котором отмечаются заблокировавшие бота чаты.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private SubscriberRegistry subscribers;
+
+    private final CircuitBreaker breaker;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+
+    /** Задержка имитации запросов; меньше нуля - запросы уходят в Telegram */
+    private final long stubMillis = Long.getLong(STUB_PROPERTY, -1L);
+
+    /** Моменты, до которых запрещена отправка в чат (из retry_after) */
+    private final Map<String, Long> chatBlockedUntil = new ConcurrentHashMap<>();
+
+    /** Момент, до которого запрещена любая отправка */
+    private final AtomicLong globalBlockedUntil = new AtomicLong();
+
+    /** Время от запуска JVM до первого успешного запроса, мс; -1, пока запросов не было */
+    private final AtomicLong firstReplyMillis = new AtomicLong(-1);
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public OutboundSender() {
+        this(new CircuitBreaker(5, 30_000, System::currentTimeMillis), System::currentTimeMillis, Thread::sleep,
+                null, null);
+    }
+
+    /**
+     * Создает отправитель с заданными выключателем, часами и ожиданием.
+     *
+     * @param breaker автоматический выключатель
+     * @param clock источник текущего времени в миллисекундах
+     * @param sleeper ожидание между попытками
+     * @param gate общий бюджет отправки (при создании через DI внедряется позже)
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    OutboundSender(CircuitBreaker breaker, LongSupplier clock, Sleeper sleeper, SendGate gate, ILogger logger) {
+        this.breaker = breaker;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.gate = gate;
+        this.logger = logger;
+    }
+
+    /**
+     * Выполняет интерактивный запрос (ответ пользователю) к Telegram API с повторами и учетом ограничений.
+     *
+     * @param sender бот, через которого выполняется запрос
+     * @param method запрос
+     * @param <T> тип результата
+     * @return результат запроса
+     * @throws TelegramApiException если запрос не удалось выполнить
+     */
+    public <T extends Serializable> T execute(AbsSender sender, BotApiMethod<T> method) throws TelegramApiException {
+        return execute(sender, method, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Выполняет запрос к Telegram API в указанном классе приоритета.
+     *
+     * @param sender бот, через которого выполняется запрос
+     * @param method запрос
+     * @param priority класс приоритета
+     * @param <T> тип результата
+     * @return результат запроса
+     * @throws TelegramApiException если запрос не удалось выполнить
+     */
+    public <T extends Serializable> T execute(AbsSender sender, BotApiMethod<T> method, Priority priority)
+            throws TelegramApiException {
+        if (stubMillis >= 0) {
+            return send(method, priority, () -> {
+                pause(stubMillis);
+                return null;
+            });
+        }
+        return send(method, priority, () -> sender.execute(method));
+    }
+
+    /**
+     * @return время от запуска JVM до первого успешного запроса в миллисекундах
+     * или -1, если запросов еще не было
+     */
+    public long getFirstReplyMillis() {
+        return firstReplyMillis.get();
+    }
+
+    /**
+     * @return автоматический выключатель отправителя
+     */
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Выполняет вызов с повторами, ограничениями retry_after и выключателем.
+     */
+    <T extends Serializable> T send(BotApiMethod<T> method, Priority priority, ApiCall<T> call)
+            throws TelegramApiException {
+        String chatId = chatIdOf(method);
+        for (int attempt = 1; ; attempt++) {
+            // Разомкнутый выключатель отклоняет вызов сразу, не ожидая retry_after и не занимая бюджет
+            if (breaker.isRejecting()) {
+                throw new TelegramApiException("Circuit breaker is open, " + method.getMethod() + " rejected");
+            }
+            awaitRateLimit(chatId);
+            // Пробный вызов полуоткрытого выключателя занимается до слота: отклоненный вызов слот не тратит
+            if (!breaker.allow()) {
+                throw new TelegramApiException("Circuit breaker is open, " + method.getMethod() + " rejected");
+            }
+            try {
+                acquireSlot(priority);
+            } catch (TelegramApiException e) {
+                breaker.release();
+                throw e;
+            }
+
+            TelegramApiException failure;
+            ApiCallEvent event = ApiCallEvent.start(method.getMethod(), chatId, priority.getKey(), attempt);
+            try {
+                T result = call.execute();
+                event.finish(ApiCallEvent.OK);
+                breaker.onSuccess();
+                if (firstReplyMillis.get() < 0) {
+                    onFirstReply();
+                }
+                return result;
+            } catch (TelegramApiRequestException e) {
+                Integer code = e.getErrorCode();
+                event.finish(code != null ? String.valueOf(code) : e.getClass().getSimpleName());
+                if (code != null && code == TOO_MANY_REQUESTS) {
+                    breaker.onSuccess(); // API отвечает, ограничение - не сбой
+                    blockFor(chatId, retryAfterMillis(e));
+                    failure = e;
+                } else if (code != null && code < 500) {
+                    breaker.onSuccess();
+                    if (code == FORBIDDEN) {
+                        markOptedOut(chatId);
+                    }
+                    throw e; // Ошибка запроса: повтор не поможет
+                } else {
+                    breaker.onFailure();
+                    failure = e;
+                }
+            } catch (TelegramApiException e) {
+                // Сетевые ошибки и ответы без кода
+                event.finish(e.getClass().getSimpleName());
+                breaker.onFailure();
+                failure = e;
+            } catch (RuntimeException | Error e) {
+                // Локальная ошибка (например, сериализации) о доступности API не говорит, но проба освобождается
+                event.finish(e.getClass().getSimpleName());
+                breaker.release();
+                throw e;
+            }
+
+            if (attempt >= MAX_ATTEMPTS) {
+                throw failure;
+            }
+            logger.warn("Повтор запроса " + method.getMethod() + " (попытка " + (attempt + 1) + "): "
+                    + failure.getMessage());
+            if (!(failure instanceof TelegramApiRequestException)
+                    || !isTooManyRequests((TelegramApiRequestException) failure)) {
+                pause(backoffMillis(attempt));
+            }
+        }
+    }
+
+    /**
+     * Запоминает и записывает в лог время до первого ответа - главный показатель быстрого запуска.
+     */
+    private void onFirstReply() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstReplyMillis.compareAndSet(-1, uptime) && logger != null) {
+            logger.info("Первый ответ отправлен через " + uptime + " мс после запуска JVM");
+        }
+    }
+
+    /**
+     * Ждет снятия ограничений retry_after для чата и глобального ограничения.
+     *
+     * @throws TelegramApiException если ждать пришлось бы дольше {@value #MAX_WAIT_MILLIS} мс
+     */
+    private void awaitRateLimit(String chatId) throws TelegramApiException {
+        long until = globalBlockedUntil.get();
+        if (chatId != null) {
+            until = Math.max(until, chatBlockedUntil.getOrDefault(chatId, 0L));
+        }
+        long wait = until - clock.getAsLong();
+        if (wait <= 0) {
+            if (chatId != null && until != 0) {
+                chatBlockedUntil.remove(chatId, until);
+            }
+            return;
+        }
+        if (wait > MAX_WAIT_MILLIS) {
+            throw new TelegramApiException("Rate limited for another " + wait + " ms"
+                    + (chatId != null ? " in chat " + chatId : ""));
+        }
+        pause(wait);
+    }
+
+    /**
+     * Отмечает чат, заблокировавший бота, как отказавшийся от рассылок.
+     */
+    private void markOptedOut(String chatId) {
+        if (chatId == null || subscribers == null) {
+            return; // Без реестра (например, в тестах) отметка не нужна
+        }
+        try {
+            subscribers.optOut(Long.parseLong(chatId));
+        } catch (NumberFormatException e) {
+            // Публичные каналы адресуются по имени (@channel) и в реестр не попадают
+        }
+    }
+
+    /**
+     * Запоминает ограничение retry_after для чата или, если чата нет, для всей отправки.
+     */
+    private void blockFor(String chatId, long millis) {
+        long until = clock.getAsLong() + millis;
+        if (chatId != null) {
+            chatBlockedUntil.merge(chatId, until, Math::max);
+        } else {
+            globalBlockedUntil.accumulateAndGet(until, Math::max);
+        }
+    }
+
+    /**
+     * Задержка перед повтором: экспоненциальный рост со случайным разбросом в верхней половине
+     * (от половины до полной задержки), чтобы повторы разных потоков не совпадали по времени.
+     */
+    static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static boolean isTooManyRequests(TelegramApiRequestException e) {
+        return e.getErrorCode() != null && e.getErrorCode() == TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * @return время из retry_after или начальная задержка, если сервер его не указал
+     */
+    private static long retryAfterMillis(TelegramApiRequestException e) {
+        if (e.getParameters() != null && e.getParameters().getRetryAfter() != null) {
+            return e.getParameters().getRetryAfter() * 1000L;
+        }
+        return BASE_BACKOFF_MILLIS;
+    }
+
+    /**
+     * Определяет чат, к которому относится запрос.
+     *
+     * @return идентификатор чата или null для запросов без чата
+     */
+    static String chatIdOf(BotApiMethod<?> method) {
+        if (method instanceof SendMessage) {
+            return ((SendMessage) method).getChatId();
+        } else if (method instanceof EditMessageText) {
+            return ((EditMessageText) method).getChatId();
+        } else if (method instanceof EditMessageReplyMarkup) {
+            return ((EditMessageReplyMarkup) method).getChatId();
+        }
+        return null;
+    }
+
+    private void acquireSlot(Priority priority) throws TelegramApiException {
+        try {
+            gate.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting to send", e);
+        }
+    }
+
+    private void pause(long millis) throws TelegramApiException {
+        try {
+            sleeper.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting to send", e);
+        }
+    }
+
+    /**
+     * Один вызов Telegram API.
+     */
+    @FunctionalInterface
+    interface ApiCall<T> {
+        T execute() throws TelegramApiException;
+    }
+
+    /**
+     * Ожидание между попытками (в тестах заменяется без реальной задержки).
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -0,0 +1,33 @@
+package org.homework.send;
+
+/**
+ * Класс приоритета исходящего запроса.
+ * Порядок констант - порядок обслуживания при нехватке бюджета отправки.
+ */
+public enum Priority {
+    /** Ответ на действие пользователя: приветствие, ответ, меню, справка */
+    INTERACTIVE("interactive", 0),
+    /** Отложенные сообщения (например, прощание через несколько секунд) */
+    DELAYED("delayed", 0.1),
+    /** Массовые рассылки */
+    BROADCAST("broadcast", 0.1);
+
+    /** Имя класса в отчетах */
+    private final String key;
+
+    /** Гарантированная доля отправок, пока в классе есть ожидающие запросы */
+    private final double minShare;
+
+    Priority(String key, double minShare) {
+        this.key = key;
+        this.minShare = minShare;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public double getMinShare() {
+        return minShare;
+    }
+}
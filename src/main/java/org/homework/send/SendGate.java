@@ -0,0 +1,233 @@
+package org.homework.send;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Общий бюджет отправки в Telegram API с приоритетами.
+ *
+ * <p>Бюджет - {@value #RATE_PROPERTY} запросов в секунду (по умолчанию {@value #DEFAULT_RATE},
+ * как глобальный лимит Telegram) с запасом на всплеск в одну секунду. Пока бюджета хватает,
+ * {@link #acquire(Priority)} возвращается сразу. Когда запросы ждут, следующий слот получает
+ * самый приоритетный класс ({@link Priority#INTERACTIVE} раньше отложенных и рассылок), но
+ * каждый ожидающий класс накапливает свою гарантированную долю {@link Priority#getMinShare()}
+ * и, накопив целый слот, обслуживается вне очереди - фоновые отправки не голодают.
+ * Внутри класса порядок - по времени прихода.</p>
+ *
+ * <p>Время ожидания учитывается по классам; после {@link #startReporting()} сводка
+ * раз в минуту пишется в лог.</p>
+ */
+@Register
+public class SendGate {
+
+    /** Системное свойство с бюджетом отправки (запросов в секунду) */
+    public static final String RATE_PROPERTY = "bot.send.rate";
+
+    /** Бюджет по умолчанию */
+    private static final int DEFAULT_RATE = 30;
+
+    /** Период записи сводки в лог */
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+
+    /**
+     * Логгер для записи сводки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Интервал между слотами */
+    private final long intervalNanos;
+
+    /** Запас на всплеск (накопленные неиспользованные слоты) */
+    private final long burstNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    /** Очереди ожидающих по классам (под блокировкой) */
+    private final ArrayDeque<Object>[] queues;
+
+    /** Накопленная гарантированная доля по классам (под блокировкой) */
+    private final double[] credits;
+
+    /** Момент, с которого доступен следующий слот (под блокировкой) */
+    private long nextSlotNanos;
+
+    /** Статистика по классам */
+    private final LongAdder[] grants;
+    private final LongAdder[] waitNanos;
+    private final LongAccumulator[] maxWaitNanos;
+
+    /** Поток отчетов (создается при запуске) */
+    private ScheduledExecutorService reporter;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public SendGate() {
+        this(Integer.getInteger(RATE_PROPERTY, DEFAULT_RATE));
+    }
+
+    /**
+     * Создает бюджет отправки.
+     *
+     * @param ratePerSecond допустимое число запросов в секунду
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SendGate(int ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Send rate must be positive: " + ratePerSecond);
+        }
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        this.burstNanos = TimeUnit.SECONDS.toNanos(1) - intervalNanos;
+        this.nextSlotNanos = System.nanoTime() - burstNanos;
+
+        int classes = Priority.values().length;
+        queues = new ArrayDeque[classes];
+        credits = new double[classes];
+        grants = new LongAdder[classes];
+        waitNanos = new LongAdder[classes];
+        maxWaitNanos = new LongAccumulator[classes];
+        for (int i = 0; i < classes; i++) {
+            queues[i] = new ArrayDeque<>();
+            grants[i] = new LongAdder();
+            waitNanos[i] = new LongAdder();
+            maxWaitNanos[i] = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    /**
+     * Ждет слот в бюджете отправки.
+     *
+     * @param priority класс запроса
+     * @throws InterruptedException если поток прерван во время ожидания
+     */
+    public void acquire(Priority priority) throws InterruptedException {
+        long start = System.nanoTime();
+        Object ticket = new Object();
+        ArrayDeque<Object> queue = queues[priority.ordinal()];
+        lock.lock();
+        try {
+            queue.addLast(ticket);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long slot = Math.max(nextSlotNanos, now - burstNanos);
+                    if (queue.peekFirst() == ticket && nextClass() == priority && slot <= now) {
+                        queue.removeFirst();
+                        nextSlotNanos = slot + intervalNanos;
+                        grant(priority);
+                        changed.signalAll();
+                        break;
+                    }
+                    changed.awaitNanos(slot > now ? slot - now : intervalNanos);
+                }
+            } catch (InterruptedException e) {
+                queue.remove(ticket);
+                changed.signalAll();
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        long waited = System.nanoTime() - start;
+        grants[priority.ordinal()].increment();
+        waitNanos[priority.ordinal()].add(waited);
+        maxWaitNanos[priority.ordinal()].accumulate(waited);
+    }
+
+    /**
+     * Определяет класс, которому достанется следующий слот: ожидающий класс, накопивший
+     * гарантированную долю, иначе самый приоритетный из ожидающих.
+     * Вызывается под блокировкой.
+     */
+    Priority nextClass() {
+        Priority first = null;
+        for (Priority priority : Priority.values()) {
+            if (queues[priority.ordinal()].isEmpty()) {
+                continue;
+            }
+            if (credits[priority.ordinal()] >= 1) {
+                return priority;
+            }
+            if (first == null) {
+                first = priority;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Учитывает выданный слот: ожидающие классы копят гарантированную долю,
+     * обслуженный класс расходует накопленное. Вызывается под блокировкой.
+     */
+    private void grant(Priority served) {
+        for (Priority priority : Priority.values()) {
+            int i = priority.ordinal();
+            if (!queues[i].isEmpty() || priority == served) {
+                credits[i] = Math.min(1, credits[i] + priority.getMinShare());
+            } else {
+                credits[i] = 0; // Доля копится только пока класс ждет
+            }
+        }
+        credits[served.ordinal()] = Math.max(0, credits[served.ordinal()] - 1);
+    }
+
+    /**
+     * @param priority класс приоритета
+     * @return число запросов класса, ожидающих слот
+     */
+    public int waiting(Priority priority) {
+        lock.lock();
+        try {
+            return queues[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает сводку ожидания по классам.
+     *
+     * @return по строке на класс: число отправок, среднее и максимальное ожидание
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Priority priority : Priority.values()) {
+            int i = priority.ordinal();
+            long count = grants[i].sum();
+            double average = count == 0 ? 0 : waitNanos[i].sum() / 1e6 / count;
+            report.append(String.format(Locale.ROOT, "%s: отправок %d, ожидание в среднем %.1f мс, максимум %.1f мс%n",
+                    priority.getKey(), count, average, maxWaitNanos[i].get() / 1e6));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Запускает периодическую запись сводки ожидания в лог.
+     */
+    public synchronized void startReporting() {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "send-gate-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(() -> logger.info("Ожидание отправки по приоритетам:\n" + report()),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -1,19 +1,40 @@
 package org.homework.services;
 
 import org.homework.api.ICommandService;
+import org.homework.catalog.CatalogSnapshot;
+import org.homework.catalog.MenuLayout;
+import org.homework.catalog.TravelCatalog;
+import org.homework.catalog.TravelOption;
 import org.homework.di.annotations.Register;
 import org.homework.di.annotations.Resolve;
+import org.homework.dispatch.Dispatcher;
+import org.homework.experiments.Experiment;
+import org.homework.experiments.Experiments;
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.i18n.MessageId;
+import org.homework.inline.InlineSearch;
+import org.homework.intent.Intent;
+import org.homework.intent.IntentMatcher;
+import org.homework.jfr.DelayedTaskEvent;
+import org.homework.load.LoadShedder;
 import org.homework.logger.ILogger;
+import org.homework.send.OutboundSender;
+import org.homework.send.Priority;
+import org.homework.stats.ClickTracker;
+import org.homework.subscribers.SubscriberRegistry;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,6 +45,19 @@ import java.util.concurrent.TimeUnit;
 @Register
 public class CommandServiceImpl implements ICommandService {
 
+    /** Задержка прощального сообщения после показа меню */
+    private static final long GOODBYE_DELAY_SECONDS = 5;
+
+    /** Общий демон-поток таймера прощальных сообщений: только передает отправку диспетчеру */
+    private static final ScheduledExecutorService GOODBYE_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "goodbye-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Запланированные прощальные сообщения по чатам */
+    private final Map<String, ScheduledFuture<?>> pendingGoodbyes = new ConcurrentHashMap<>();
+
     /**
      * Логгер для записи событий и ошибок.
      * Внедряется автоматически через DI контейнер.
@@ -31,17 +65,100 @@ public class CommandServiceImpl implements ICommandService {
     @Resolve
     private ILogger logger;
 
+    /**
+     * Каталог вариантов путешествий с готовой клавиатурой.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private TravelCatalog travelCatalog;
+
+    /**
+     * Локализованные тексты сообщений.
+     * Внедряются автоматически через DI контейнер.
+     */
+    @Resolve
+    private MessageBundles messages;
+
+    /**
+     * Распознаватель ответов пользователя.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private IntentMatcher intentMatcher;
+
+    /**
+     * Счетчик нажатий на варианты путешествий.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ClickTracker clickTracker;
+
+    /**
+     * Отправка запросов в Telegram API с повторами.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private OutboundSender outboundSender;
+
+    /**
+     * Реестр подписчиков для рассылок и статистики.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private SubscriberRegistry subscribers;
+
+    /**
+     * A/B-эксперименты с приветствием и оформлением меню.
+     * Внедряются автоматически через DI контейнер.
+     */
+    @Resolve
+    private Experiments experiments;
+
+    /**
+     * Защита от перегрузки: под нагрузкой необязательная работа пропускается.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private LoadShedder loadShedder;
+
+    /**
+     * Поиск вариантов для inline-запросов с кешем результатов.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private InlineSearch inlineSearch;
+
+    /**
+     * Диспетчер, выполняющий отложенные отправки вне потока таймера.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private Dispatcher dispatcher;
+
     /**
      * Обработка команды /start.
      * @param chatId идентификатор чата с пользователем
+     * @param language язык пользователя
      * @return сообщение с приветствием и предложением начать путешествие
      */
     @Override
-    public SendMessage startCommand(String chatId) {
-        logger.info("Обработка команды /start для чата: " + chatId);
+    public SendMessage startCommand(String chatId, Language language) {
+        boolean optional = loadShedder.allowOptional();
+        if (optional) {
+            logger.info("Обработка команды /start для чата: " + chatId);
+        }
+        // Каналы адресуются по имени ("@channel"); в реестр попадают только числовые чаты
+        Long numericId = numericChatId(chatId);
+        if (numericId != null) {
+            subscribers.touch(numericId);
+        }
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
-        message.setText("Привет! Хотите отправиться в путешествие? (Да/Нет)");
+        // Вариант приветствия определяется хешем чата и не требует хранимого состояния
+        boolean shortGreeting = (optional
+                ? experiments.impression(Experiment.GREETING, chatId)
+                : experiments.variant(Experiment.GREETING, chatId)) == 1;
+        message.setText(messages.text(language, shortGreeting ? MessageId.GREETING_SHORT : MessageId.GREETING));
         return message;
     }
 
@@ -49,22 +166,26 @@ public class CommandServiceImpl implements ICommandService {
      * Обработка ответа пользователя на приветственное сообщение.
      * @param chatId идентификатор чата
      * @param text текст ответа пользователя
+     * @param language язык пользователя
      * @return сообщение в зависимости от ответа пользователя
      */
     @Override
-    public SendMessage handleUserResponse(String chatId, String text) {
+    public SendMessage handleUserResponse(String chatId, String text, Language language) {
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
 
-        if (text.equalsIgnoreCase("да")) {
-            message.setText("Отлично! Вот варианты для поездки, а также вы можете подобрать жилье и страховку. " +
-                    "Как бонус статья, как можно зарабатывать в поездках и путешествиях в конце списка!");
+        Intent intent = intentMatcher.match(text, language);
+        if (intent == Intent.YES) {
+            if (loadShedder.allowOptional()) {
+                experiments.click(Experiment.GREETING, chatId);
+            }
+            message.setText(messages.text(language, MessageId.REPLY_YES));
             return message;
-        } else if (text.equalsIgnoreCase("нет")) {
-            message.setText("Жаль! Если передумаете - просто напишите /start");
+        } else if (intent == Intent.NO) {
+            message.setText(messages.text(language, MessageId.REPLY_NO));
             return message;
         } else {
-            message.setText("Пожалуйста, введите 'Да' по-русски, если хотите продолжить, или 'Нет' для выхода.");
+            message.setText(messages.text(language, MessageId.REPLY_INVALID));
             return message;
         }
     }
@@ -72,96 +193,271 @@ public class CommandServiceImpl implements ICommandService {
     /**
      * Отображение вариантов путешествий с интерактивной клавиатурой.
      * @param chatId идентификатор чата
+     * @param language язык пользователя
      * @param bot экземпляр бота для отправки сообщений
      * @return сообщение с кнопками вариантов путешествий
      */
     @Override
-    public SendMessage showTravelOptions(String chatId, AbsSender bot) {
-        logger.info("Показ вариантов путешествий для чата: " + chatId);
-
-        // Создаем интерактивную клавиатуру
-        InlineKeyboardMarkup keyboardMarkup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        // Добавляем кнопки с различными вариантами путешествий
-        rows.add(createButtonRow("1. Экскурсии", "https://tripster.tp.st/Pr5STfjY?erid=2VtzqxAsKVL"));
-        rows.add(createButtonRow("2. Туры с перелетом", "https://travelata.tp.st/N5mhcEzA?erid=2Vtzqw422R8"));
-        rows.add(createButtonRow("3. Санатории", "https://sanatory.tp.st/YBl7VDw8?erid=2VtzqvmBLWG"));
-        rows.add(createButtonRow("4. Круизы", "https://lavoyage.tp.st/I1mwtXxV?erid=2VtzqufYFY8"));
-        rows.add(createButtonRow("5. Отели", "https://hotellook.tp.st/5nalTqC1"));
-        rows.add(createButtonRow("6. Квартиры посуточно", "https://sutochno.tp.st/Atl2dRdj"));
-        rows.add(createButtonRow("7. Связь в роуминге", "https://yesim.tp.st/dOy2DoeY?erid=2VtzquZdJrY"));
-        rows.add(createButtonRow("8. Страховка", "https://cherehapa.tp.st/BLDnBaE5?erid=2VtzqwzQ8kJ"));
-        rows.add(createButtonRow("9. Как зарабатывать на путешествиях", "https://keyslady.ru/путешествуй-с-удовольствием-и-зараба/?swcfpc=1"));
-
-        keyboardMarkup.setKeyboard(rows);
+    public SendMessage showTravelOptions(String chatId, Language language, AbsSender bot) {
+        boolean optional = loadShedder.allowOptional();
+        if (optional) {
+            logger.info("Показ вариантов путешествий для чата: " + chatId);
+        }
+
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(messages.text(language, MessageId.MENU_TITLE));
+        // Клавиатура заранее собрана в текущей версии каталога и разделяется всеми сообщениями
+        int variant = optional
+                ? experiments.impression(Experiment.MENU_LAYOUT, chatId)
+                : experiments.variant(Experiment.MENU_LAYOUT, chatId);
+        message.setReplyMarkup(menuKeyboard(travelCatalog.current(), MenuLayout.values()[variant]));
+
+        // Запланировать отправку прощального сообщения через 5 секунд (под нагрузкой не отправляется)
+        if (optional) {
+            scheduleGoodbyeMessage(chatId, language, bot);
+        }
 
+        return message;
+    }
+
+    /**
+     * Обработка нажатия на отслеживаемую кнопку варианта путешествия.
+     * @param chatId идентификатор чата
+     * @param optionId идентификатор варианта из каталога
+     * @param language язык пользователя
+     * @return сообщение с кнопкой-ссылкой на вариант или актуальное меню, если варианта уже нет
+     */
+    @Override
+    public SendMessage openTravelOption(String chatId, String optionId, Language language) {
+        CatalogSnapshot catalog = travelCatalog.current();
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
-        message.setText("Выберите тип путешествия:");
-        message.setReplyMarkup(keyboardMarkup);
 
-        // Запланировать отправку прощального сообщения через 5 секунд
-        scheduleGoodbyeMessage(chatId, bot);
+        TravelOption option = catalog.findOption(optionId);
+        if (option == null) {
+            // Кнопка из старого меню, а вариант уже удален из каталога
+            message.setText(messages.text(language, MessageId.MENU_TITLE));
+            message.setReplyMarkup(menuKeyboard(catalog,
+                    MenuLayout.values()[experiments.variant(Experiment.MENU_LAYOUT, chatId)]));
+            return message;
+        }
+
+        recordClick(option, chatId);
+        message.setText(option.getLabel());
+        message.setReplyMarkup(catalog.localized(language, messages).card(option.getId()).getLinkKeyboard());
+        return message;
+    }
+
+    /**
+     * Ответ на согласие вместе с меню в одном сообщении (вместо двух отдельных).
+     * Кнопки меню всегда callback: выбор варианта правит это же сообщение.
+     * @param chatId идентификатор чата
+     * @param language язык пользователя
+     * @return сообщение с ответом и меню
+     */
+    @Override
+    public SendMessage showTravelMenu(String chatId, Language language) {
+        boolean optional = loadShedder.allowOptional();
+        if (optional) {
+            logger.info("Показ меню путешествий для чата: " + chatId);
+            experiments.click(Experiment.GREETING, chatId);
+        }
 
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        // Текст и клавиатура заранее собраны в текущей версии каталога
+        CatalogSnapshot catalog = travelCatalog.current();
+        message.setText(catalog.localized(language, messages).getMenuText());
+        int variant = optional
+                ? experiments.impression(Experiment.MENU_LAYOUT, chatId)
+                : experiments.variant(Experiment.MENU_LAYOUT, chatId);
+        message.setReplyMarkup(catalog.getKeyboard(MenuLayout.values()[variant], true));
         return message;
     }
 
     /**
-     * Создает ряд с одной кнопкой для интерактивной клавиатуры.
-     * @param text текст кнопки
-     * @param url URL для перехода при нажатии
-     * @return список с одной кнопкой (для совместимости с API Telegram)
+     * Замена меню карточкой варианта в том же сообщении.
+     * Прощальная подпись входит в карточку, поэтому отдельное прощальное сообщение не отправляется.
+     * @param chatId идентификатор чата
+     * @param messageId номер сообщения с меню
+     * @param optionId идентификатор варианта из каталога
+     * @param language язык пользователя
+     * @return правка сообщения с карточкой или с актуальным меню, если варианта уже нет
+     */
+    @Override
+    public EditMessageText openTravelOptionInPlace(String chatId, Integer messageId, String optionId,
+                                                   Language language) {
+        CatalogSnapshot catalog = travelCatalog.current();
+        TravelOption option = catalog.findOption(optionId);
+        if (option == null) {
+            // Кнопка из старого меню, а вариант уже удален из каталога
+            return backToTravelMenu(chatId, messageId, language);
+        }
+
+        recordClick(option, chatId);
+        // Карточка (текст с прощанием и клавиатура) заранее собрана для языка в текущей версии каталога
+        CatalogSnapshot.Card card = catalog.localized(language, messages).card(option.getId());
+        EditMessageText edit = new EditMessageText();
+        edit.setChatId(chatId);
+        edit.setMessageId(messageId);
+        edit.setText(card.getText());
+        edit.setReplyMarkup(card.getKeyboard());
+        return edit;
+    }
+
+    /**
+     * Возврат меню в сообщение с карточкой варианта.
+     * @param chatId идентификатор чата
+     * @param messageId номер сообщения
+     * @param language язык пользователя
+     * @return правка сообщения с меню
+     */
+    @Override
+    public EditMessageText backToTravelMenu(String chatId, Integer messageId, Language language) {
+        EditMessageText edit = new EditMessageText();
+        edit.setChatId(chatId);
+        edit.setMessageId(messageId);
+        edit.setText(messages.text(language, MessageId.MENU_TITLE));
+        edit.setReplyMarkup(travelCatalog.current().getKeyboard(
+                MenuLayout.values()[experiments.variant(Experiment.MENU_LAYOUT, chatId)], true));
+        return edit;
+    }
+
+    /**
+     * Учитывает нажатие на вариант, если учет включен и нагрузка позволяет необязательную работу.
+     * Без включенного учета счетчики не выгружаются, поэтому и не ведутся.
+     */
+    private void recordClick(TravelOption option, String chatId) {
+        if (loadShedder.allowOptional()) {
+            if (clickTracker.isEnabled()) {
+                clickTracker.record(option.getId());
+            }
+            experiments.click(Experiment.MENU_LAYOUT, chatId);
+        }
+    }
+
+    /**
+     * Выбирает клавиатуру меню: с callback-кнопками, если включен учет нажатий, иначе с URL-кнопками.
      */
-    private List<InlineKeyboardButton> createButtonRow(String text, String url) {
-        InlineKeyboardButton button = new InlineKeyboardButton();
-        button.setText(text);
-        button.setUrl(url);
-        return List.of(button);
+    private InlineKeyboardMarkup menuKeyboard(CatalogSnapshot catalog, MenuLayout layout) {
+        return catalog.getKeyboard(layout, clickTracker.isEnabled());
     }
 
     /**
      * Планирует отправку прощального сообщения через 5 секунд.
+     * Если для чата уже запланировано прощание, новое не добавляется: повторные показы меню
+     * дают одно прощальное сообщение.
      * @param chatId идентификатор чата
+     * @param language язык пользователя
      * @param bot экземпляр бота для отправки
      */
-    private void scheduleGoodbyeMessage(String chatId, AbsSender bot) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.schedule(() -> {
-            try {
-                SendMessage goodbyeMessage = sendGoodbyeMessage(chatId);
-                bot.execute(goodbyeMessage);
-            } catch (TelegramApiException e) {
-                logger.error("Ошибка при отправке сообщения: " + e.getMessage());
-            }
-        }, 5, TimeUnit.SECONDS);
-        scheduler.shutdown();
+    private void scheduleGoodbyeMessage(String chatId, Language language, AbsSender bot) {
+        long due = System.nanoTime() + TimeUnit.SECONDS.toNanos(GOODBYE_DELAY_SECONDS);
+        // Поток таймера один на все чаты: блокирующая отправка выполняется диспетчером,
+        // иначе медленный или ограниченный по частоте запрос задержал бы все прощания
+        pendingGoodbyes.computeIfAbsent(chatId, id -> GOODBYE_SCHEDULER.schedule(() -> {
+            pendingGoodbyes.remove(id);
+            dispatcher.submit(numericChatId(id), () -> {
+                DelayedTaskEvent event = DelayedTaskEvent.start("goodbye", id, due);
+                try {
+                    SendMessage goodbyeMessage = sendGoodbyeMessage(id, language);
+                    outboundSender.execute(bot, goodbyeMessage, Priority.DELAYED);
+                } catch (TelegramApiException e) {
+                    logger.error("Ошибка при отправке сообщения: " + e.getMessage());
+                }
+                event.commit();
+            });
+        }, GOODBYE_DELAY_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Числовой идентификатор чата для реестра подписчиков и упорядочивания задач.
+     * @param chatId идентификатор чата (для каналов может быть "@имя")
+     * @return число или null, если идентификатор не числовой
+     */
+    private static Long numericChatId(String chatId) {
+        try {
+            return Long.parseLong(chatId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Ответ на inline-запрос карточками подходящих вариантов.
+     * @param inlineQueryId идентификатор inline-запроса
+     * @param query текст запроса
+     * @param language язык пользователя
+     * @return ответ с карточками вариантов из кеша результатов
+     */
+    @Override
+    public AnswerInlineQuery answerInlineQuery(String inlineQueryId, String query, Language language) {
+        AnswerInlineQuery answer = new AnswerInlineQuery();
+        answer.setInlineQueryId(inlineQueryId);
+        answer.setResults(inlineSearch.results(query, language));
+        // Результаты зависят от языка пользователя (тексты и кнопки), поэтому Telegram
+        // хранит их в своем кеше отдельно для каждого пользователя
+        answer.setCacheTime(InlineSearch.CACHE_TIME_SECONDS);
+        answer.setIsPersonal(true);
+        return answer;
+    }
+
+    /**
+     * Создает сообщение массовой рассылки.
+     * @param chatId идентификатор чата получателя
+     * @param text текст рассылки
+     * @return сообщение рассылки с текущим меню путешествий
+     */
+    @Override
+    public SendMessage broadcastMessage(String chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(text);
+        message.setReplyMarkup(menuKeyboard(travelCatalog.current(),
+                MenuLayout.values()[experiments.variant(Experiment.MENU_LAYOUT, chatId)]));
+        return message;
     }
 
     /**
      * Создает прощальное сообщение с дополнительной информацией.
      * @param chatId идентификатор чата
+     * @param language язык пользователя
      * @return прощальное сообщение
      */
     @Override
-    public SendMessage sendGoodbyeMessage(String chatId) {
+    public SendMessage sendGoodbyeMessage(String chatId, Language language) {
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
-        message.setText("Приятного путешествия! Если хотите больше информации про путешествия, " +
-                "горящие туры, календарь низких цен - заходите ко мне на сайт https://keyslady.ru/");
+        message.setText(messages.text(language, MessageId.GOODBYE));
         return message;
     }
 
     /**
      * Обработка команды /help.
      * @param chatId идентификатор чата
+     * @param language язык пользователя
      * @return сообщение с доступными командами
      */
     @Override
-    public SendMessage getHelp(String chatId) {
+    public SendMessage getHelp(String chatId, Language language) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(messages.text(language, MessageId.HELP));
+        return message;
+    }
+
+    /**
+     * Создает ответ "бот занят" для режима перегрузки.
+     * @param chatId идентификатор чата
+     * @param language язык пользователя
+     * @return сообщение с просьбой написать позже
+     */
+    @Override
+    public SendMessage busyReply(String chatId, Language language) {
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
-        message.setText("Доступные команды:\n/start - начать диалог");
+        message.setText(messages.text(language, MessageId.BUSY));
         return message;
     }
 }
@@ -0,0 +1,237 @@
+package org.homework.stats;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчик нажатий на кнопки вариантов путешествий.
+ *
+ * <p>Учет включается системным свойством {@value #TRACKED_PROPERTY}; тогда меню собирается
+ * из callback-кнопок и каждое нажатие проходит через бота. Счетчики ведутся по дням и
+ * вариантам в {@link LongAdder}: параллельные нажатия увеличивают разные ячейки и не
+ * конкурируют за одну переменную, а запись в файл идет только из фонового потока.</p>
+ *
+ * <p>Раз в минуту в файл (свойство {@value #FILE_PROPERTY}) дописываются приращения
+ * с прошлой выгрузки, по строке на день и вариант: {@code 2024-05-01;hotels;17}.
+ * Итог за день - сумма всех строк этого дня.</p>
+ */
+@Register
+public class ClickTracker {
+
+    /** Системное свойство, включающее учет нажатий */
+    public static final String TRACKED_PROPERTY = "bot.clicks.tracked";
+
+    /** Системное свойство с путем к файлу статистики */
+    public static final String FILE_PROPERTY = "bot.clicks.file";
+
+    /** Период выгрузки счетчиков в файл */
+    private static final long FLUSH_INTERVAL_SECONDS = 60;
+
+    /**
+     * Логгер для записи событий и ошибок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Включен ли учет нажатий */
+    private final boolean enabled;
+
+    /** Файл статистики */
+    private final Path file;
+
+    /** Часы для определения текущего дня */
+    private final Clock clock;
+
+    /** Счетчики текущего дня */
+    private volatile DayCounters today;
+
+    /** Счетчики прошедших дней, ожидающие выгрузки */
+    private final ConcurrentLinkedQueue<DayCounters> retired = new ConcurrentLinkedQueue<>();
+
+    /** Поток выгрузки (создается при запуске) */
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public ClickTracker() {
+        this(Boolean.getBoolean(TRACKED_PROPERTY),
+                Paths.get(System.getProperty(FILE_PROPERTY, "travel-clicks.csv")),
+                Clock.systemDefaultZone(), null);
+    }
+
+    /**
+     * Создает счетчик с указанными параметрами.
+     *
+     * @param enabled включен ли учет нажатий
+     * @param file файл статистики
+     * @param clock часы (день определяется в их часовом поясе)
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    ClickTracker(boolean enabled, Path file, Clock clock, ILogger logger) {
+        this.enabled = enabled;
+        this.file = file;
+        this.clock = clock;
+        this.logger = logger;
+        this.today = new DayCounters(LocalDate.now(clock), clock);
+    }
+
+    /**
+     * @return true, если меню нужно показывать с callback-кнопками и учитывать нажатия
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Учитывает нажатие на вариант. Вызов не блокируется и не обращается к диску.
+     *
+     * @param optionId идентификатор варианта из каталога
+     */
+    public void record(String optionId) {
+        DayCounters day = today;
+        if (clock.millis() >= day.endMillis) {
+            day = rollOver();
+        }
+        LongAdder counter = day.counters.get(optionId);
+        if (counter == null) {
+            counter = day.counters.computeIfAbsent(optionId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Начинает новый день; счетчики прошедшего дня уходят в очередь на выгрузку.
+     */
+    private synchronized DayCounters rollOver() {
+        DayCounters day = today;
+        if (clock.millis() >= day.endMillis) {
+            retired.add(day);
+            day = new DayCounters(LocalDate.now(clock), clock);
+            today = day;
+        }
+        return day;
+    }
+
+    /**
+     * Запускает периодическую выгрузку счетчиков в файл, если учет включен.
+     * При остановке приложения выполняется последняя выгрузка.
+     */
+    public synchronized void startFlushing() {
+        if (!enabled || flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "click-tracker-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush,
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "click-tracker-shutdown"));
+    }
+
+    /**
+     * Дописывает в файл накопленные с прошлой выгрузки нажатия.
+     * Счетчики прошедшего дня выгружаются дважды (второй раз - только опоздавшие
+     * нажатия, начатые до смены дня) и затем удаляются. Выгруженными значения считаются
+     * только после успешной записи: при ошибке те же приращения войдут в следующую выгрузку.
+     */
+    public synchronized void flush() {
+        List<DayCounters> days = new ArrayList<>(retired);
+        DayCounters current = today;
+        days.add(current);
+        StringBuilder lines = new StringBuilder();
+        List<Map<String, Long>> totals = new ArrayList<>(days.size());
+        for (DayCounters day : days) {
+            totals.add(day.drainTo(lines));
+        }
+        if (lines.length() > 0) {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(lines.toString());
+            } catch (IOException e) {
+                logger.error("Ошибка при записи статистики нажатий: " + e.getMessage());
+                return;
+            }
+        }
+        for (int i = 0; i < days.size(); i++) {
+            DayCounters day = days.get(i);
+            day.flushed.putAll(totals.get(i));
+            if (day == current) {
+                continue;
+            }
+            if (day.flushedOnce) {
+                retired.remove(day);
+            }
+            day.flushedOnce = true;
+        }
+    }
+
+    /**
+     * Счетчики нажатий за один день.
+     */
+    private static final class DayCounters {
+        private final LocalDate date;
+
+        /** Момент начала следующего дня в часовом поясе часов */
+        private final long endMillis;
+
+        private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+        /** Значения счетчиков на момент прошлой выгрузки (меняются только при выгрузке) */
+        private final Map<String, Long> flushed = new HashMap<>();
+
+        /** Выгружались ли счетчики после того, как день закончился */
+        private boolean flushedOnce;
+
+        DayCounters(LocalDate date, Clock clock) {
+            this.date = date;
+            this.endMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        }
+
+        /**
+         * Добавляет в буфер строки с ненулевыми приращениями с прошлой выгрузки.
+         * Счетчики не сбрасываются: сброс {@link LongAdder} не атомарен и терял бы
+         * нажатия, пришедшие во время выгрузки.
+         *
+         * @return новые значения выгруженных счетчиков; в {@link #flushed} они переносятся
+         * после успешной записи
+         */
+        Map<String, Long> drainTo(StringBuilder lines) {
+            Map<String, Long> totals = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+                long total = entry.getValue().sum();
+                Long previous = flushed.get(entry.getKey());
+                long delta = previous != null ? total - previous : total;
+                if (delta != 0) {
+                    totals.put(entry.getKey(), total);
+                    lines.append(date).append(';').append(entry.getKey()).append(';').append(delta).append('\n');
+                }
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package org.homework.subscribers;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Реестр подписчиков бота: все чаты, начавшие диалог, с днем последней активности
+ * и отметкой об отказе от рассылок.
+ *
+ * <p>Основное хранилище - отсортированные примитивные массивы: идентификаторы чатов
+ * ({@code long[]}), параллельный массив дней активности ({@code int[]}) и отдельный
+ * отсортированный массив отказавшихся. Это 12 байт на подписчика без объектов-оберток,
+ * а операции над множествами (активные за N дней, без отказавшихся) - линейные слияния.
+ * Новые отметки копятся в небольшом буфере и вливаются в массивы пачкой, чтобы вставка
+ * не сдвигала миллионы элементов на каждое сообщение. Переполненный буфер вливается
+ * в потоке сохранения: пересборка массивов не задерживает обработку сообщения.</p>
+ *
+ * <p>Реестр сохраняется в компактный двоичный файл (свойство {@value #FILE_PROPERTY}):
+ * идентификаторы - разностями в формате varint, дни - отступом от самого свежего дня.
+ * При запуске файл читается одним последовательным проходом.</p>
+ */
+@Register
+public class SubscriberRegistry {
+
+    /** Системное свойство с путем к файлу реестра */
+    public static final String FILE_PROPERTY = "bot.subscribers.file";
+
+    /** Сигнатура и версия формата файла */
+    private static final int MAGIC = 0x53554253; // "SUBS"
+    private static final int FORMAT_VERSION = 1;
+
+    /** Размер буфера отметок, при котором он вливается в основные массивы */
+    private static final int MERGE_THRESHOLD = 4096;
+
+    /** Период сохранения реестра на диск */
+    private static final long SAVE_INTERVAL_MINUTES = 5;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Логгер для записи событий и ошибок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Файл реестра */
+    private final Path file;
+
+    /** Источник текущего времени в миллисекундах */
+    private final LongSupplier clock;
+
+    /** Основное хранилище (заменяется целиком при слиянии) */
+    private volatile Snapshot snapshot;
+
+    /** Новые отметки активности: чат -> день */
+    private final Map<Long, Integer> pendingActivity = new ConcurrentHashMap<>();
+
+    /** Новые отметки отказа: чат -> true (отказался) или false (снова подписался) */
+    private final Map<Long, Boolean> pendingOptOut = new ConcurrentHashMap<>();
+
+    /** Блокировка слияния и сохранения */
+    private final ReentrantLock mergeLock = new ReentrantLock();
+
+    /** Были ли изменения после последнего сохранения */
+    private volatile boolean dirty;
+
+    /** Поток сохранения (создается при запуске) */
+    private volatile ScheduledExecutorService saver;
+
+    /** Запланировано ли слияние переполненного буфера в потоке сохранения */
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public SubscriberRegistry() {
+        this(Paths.get(System.getProperty(FILE_PROPERTY, "subscribers.bin")), System::currentTimeMillis, null);
+    }
+
+    /**
+     * Создает реестр и загружает его из файла, если файл существует.
+     *
+     * @param file файл реестра
+     * @param clock источник текущего времени в миллисекундах
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    SubscriberRegistry(Path file, LongSupplier clock, ILogger logger) {
+        this.file = file;
+        this.clock = clock;
+        this.logger = logger;
+        try {
+            this.snapshot = Files.isRegularFile(file) ? load(file) : Snapshot.EMPTY;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load subscribers: " + file, e);
+        }
+    }
+
+    /**
+     * Отмечает активность чата сегодня; новый чат становится подписчиком,
+     * отказавшийся от рассылок - снова подписывается.
+     *
+     * @param chatId идентификатор чата
+     */
+    public void touch(long chatId) {
+        int today = today();
+        Snapshot current = snapshot;
+        int index = Arrays.binarySearch(current.ids, chatId);
+        boolean known = index >= 0 && current.days[index] == today;
+        if (Arrays.binarySearch(current.optedOut, chatId) >= 0 || pendingOptOut.containsKey(chatId)) {
+            pendingOptOut.put(chatId, Boolean.FALSE);
+            known = false;
+        }
+        if (known) {
+            return; // Частый случай: повторное сообщение в тот же день ничего не меняет
+        }
+        Integer previous = pendingActivity.put(chatId, today);
+        if (previous == null || previous != today) {
+            dirty = true;
+            mergeIfFull();
+        }
+    }
+
+    /**
+     * Отмечает отказ чата от рассылок (например, бот заблокирован пользователем).
+     *
+     * @param chatId идентификатор чата
+     */
+    public void optOut(long chatId) {
+        if (Arrays.binarySearch(snapshot.optedOut, chatId) >= 0 && !pendingOptOut.containsKey(chatId)) {
+            return;
+        }
+        pendingOptOut.put(chatId, Boolean.TRUE);
+        dirty = true;
+        mergeIfFull();
+    }
+
+    /**
+     * @return число подписчиков (включая отказавшихся от рассылок)
+     */
+    public int size() {
+        return merged().ids.length;
+    }
+
+    /**
+     * @param chatId идентификатор чата
+     * @return true, если чат есть в реестре
+     */
+    public boolean contains(long chatId) {
+        return pendingActivity.containsKey(chatId) || Arrays.binarySearch(snapshot.ids, chatId) >= 0;
+    }
+
+    /**
+     * Возвращает подписчиков, активных за последние дни и не отказавшихся от рассылок.
+     *
+     * @param days число дней, включая сегодняшний
+     * @return отсортированные идентификаторы чатов
+     */
+    public long[] activeSince(int days) {
+        Snapshot current = merged();
+        int firstDay = today() - days + 1;
+        long[] result = new long[current.ids.length];
+        int count = 0;
+        int opted = 0;
+        for (int i = 0; i < current.ids.length; i++) {
+            long id = current.ids[i];
+            while (opted < current.optedOut.length && current.optedOut[opted] < id) {
+                opted++;
+            }
+            boolean optedOut = opted < current.optedOut.length && current.optedOut[opted] == id;
+            if (!optedOut && current.days[i] >= firstDay) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return отсортированные идентификаторы чатов, отказавшихся от рассылок
+     */
+    public long[] optedOut() {
+        return merged().optedOut.clone();
+    }
+
+    /**
+     * Записывает активных за последние дни подписчиков в текстовый файл получателей рассылки
+     * (по идентификатору в строке).
+     *
+     * @param target файл получателей
+     * @param days число дней, включая сегодняшний
+     * @return число записанных получателей
+     * @throws IOException при ошибке записи
+     */
+    public int exportRecipients(Path target, int days) throws IOException {
+        long[] ids = activeSince(days);
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (long id : ids) {
+                writer.write(Long.toString(id));
+                writer.write('\n');
+            }
+        }
+        return ids.length;
+    }
+
+    /**
+     * Запускает периодическое сохранение реестра и сохранение при остановке приложения.
+     */
+    public synchronized void startPersisting() {
+        if (saver != null) {
+            return;
+        }
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "subscribers-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(this::saveQuietly, SAVE_INTERVAL_MINUTES, SAVE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::saveQuietly, "subscribers-shutdown"));
+    }
+
+    /**
+     * Сохраняет реестр, если он изменился. Файл заменяется атомарно.
+     *
+     * @throws IOException при ошибке записи
+     */
+    public void save() throws IOException {
+        mergeLock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            Snapshot current = merge();
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(current, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException e) {
+            logger.error("Ошибка при сохранении реестра подписчиков: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Номер текущего дня (UTC) от начала эпохи.
+     */
+    private int today() {
+        return (int) Math.floorDiv(clock.getAsLong(), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Вливает переполненный буфер: в потоке сохранения, если он запущен,
+     * иначе (утилиты и тесты без сохранения) - в вызывающем потоке.
+     */
+    private void mergeIfFull() {
+        if (pendingActivity.size() + pendingOptOut.size() < MERGE_THRESHOLD) {
+            return;
+        }
+        ScheduledExecutorService persisting = saver;
+        if (persisting != null) {
+            if (mergeScheduled.compareAndSet(false, true)) {
+                persisting.execute(this::mergeInBackground);
+            }
+        } else if (mergeLock.tryLock()) {
+            try {
+                merge();
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+    }
+
+    private void mergeInBackground() {
+        // Сброс до слияния: отметки, пришедшие во время слияния, запланируют следующее
+        mergeScheduled.set(false);
+        mergeLock.lock();
+        try {
+            merge();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Вливает буфер отметок и возвращает актуальное хранилище.
+     */
+    private Snapshot merged() {
+        if (pendingActivity.isEmpty() && pendingOptOut.isEmpty()) {
+            return snapshot;
+        }
+        mergeLock.lock();
+        try {
+            return merge();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Сливает отсортированный буфер с основными массивами за один линейный проход
+     * и публикует новое хранилище. Вызывается под {@link #mergeLock}.
+     */
+    private Snapshot merge() {
+        Snapshot base = snapshot;
+        if (pendingActivity.isEmpty() && pendingOptOut.isEmpty()) {
+            return base;
+        }
+
+        // Забираем отметки; удаление по значению не теряет отметку, обновленную во время слияния
+        long[] newIds = new long[pendingActivity.size()];
+        int[] newDays = new int[newIds.length];
+        int count = 0;
+        for (Map.Entry<Long, Integer> entry : pendingActivity.entrySet()) {
+            if (count == newIds.length) {
+                break;
+            }
+            if (pendingActivity.remove(entry.getKey(), entry.getValue())) {
+                newIds[count] = entry.getKey();
+                newDays[count] = entry.getValue();
+                count++;
+            }
+        }
+        sortPairs(newIds, newDays, count);
+
+        long[] ids = new long[base.ids.length + count];
+        int[] days = new int[ids.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < base.ids.length || j < count) {
+            if (j == count || (i < base.ids.length && base.ids[i] < newIds[j])) {
+                ids[size] = base.ids[i];
+                days[size++] = base.days[i++];
+            } else if (i == base.ids.length || newIds[j] < base.ids[i]) {
+                ids[size] = newIds[j];
+                days[size++] = newDays[j++];
+            } else {
+                ids[size] = newIds[j];
+                days[size++] = Math.max(base.days[i++], newDays[j++]);
+            }
+        }
+
+        long[] optedOut = base.optedOut;
+        if (!pendingOptOut.isEmpty()) {
+            optedOut = mergeOptOuts(base.optedOut);
+        }
+
+        Snapshot next = new Snapshot(Arrays.copyOf(ids, size), Arrays.copyOf(days, size), optedOut);
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * Применяет отметки отказа и повторной подписки к отсортированному массиву отказавшихся.
+     */
+    private long[] mergeOptOuts(long[] base) {
+        long[] added = new long[pendingOptOut.size()];
+        long[] removed = new long[added.length];
+        int addedCount = 0;
+        int removedCount = 0;
+        for (Map.Entry<Long, Boolean> entry : pendingOptOut.entrySet()) {
+            if (addedCount + removedCount == added.length) {
+                break;
+            }
+            if (pendingOptOut.remove(entry.getKey(), entry.getValue())) {
+                if (entry.getValue()) {
+                    added[addedCount++] = entry.getKey();
+                } else {
+                    removed[removedCount++] = entry.getKey();
+                }
+            }
+        }
+        Arrays.sort(added, 0, addedCount);
+        Arrays.sort(removed, 0, removedCount);
+
+        long[] result = new long[base.length + addedCount];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < base.length || j < addedCount) {
+            long next;
+            if (j == addedCount || (i < base.length && base[i] < added[j])) {
+                next = base[i++];
+            } else if (i == base.length || added[j] < base[i]) {
+                next = added[j++];
+            } else {
+                next = base[i++];
+                j++;
+            }
+            if (Arrays.binarySearch(removed, 0, removedCount, next) < 0) {
+                result[size++] = next;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Сортирует первые {@code count} пар (идентификатор, день) по идентификатору.
+     */
+    private static void sortPairs(long[] ids, int[] days, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+        long[] sortedIds = new long[count];
+        int[] sortedDays = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedIds[i] = ids[order[i]];
+            sortedDays[i] = days[order[i]];
+        }
+        System.arraycopy(sortedIds, 0, ids, 0, count);
+        System.arraycopy(sortedDays, 0, days, 0, count);
+    }
+
+    /**
+     * Записывает хранилище в двоичном формате.
+     */
+    static void write(Snapshot snapshot, OutputStream target) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        int latestDay = 0;
+        for (int day : snapshot.days) {
+            latestDay = Math.max(latestDay, day);
+        }
+        out.writeInt(latestDay);
+        writeIds(out, snapshot.ids);
+        for (int day : snapshot.days) {
+            writeVarLong(out, latestDay - day);
+        }
+        writeIds(out, snapshot.optedOut);
+        out.flush();
+    }
+
+    /**
+     * Читает хранилище из файла.
+     */
+    static Snapshot load(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a subscribers file: " + file);
+            }
+            int latestDay = in.readInt();
+            long[] ids = readIds(in);
+            int[] days = new int[ids.length];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = latestDay - (int) readVarLong(in);
+            }
+            return new Snapshot(ids, days, readIds(in));
+        }
+    }
+
+    /**
+     * Записывает отсортированные идентификаторы: число, первый идентификатор в zigzag-кодировке
+     * (бывают отрицательные идентификаторы групп), затем неотрицательные разности.
+     */
+    private static void writeIds(DataOutputStream out, long[] ids) throws IOException {
+        writeVarLong(out, ids.length);
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            writeVarLong(out, i == 0 ? (ids[0] << 1) ^ (ids[0] >> 63) : ids[i] - previous);
+            previous = ids[i];
+        }
+    }
+
+    private static long[] readIds(DataInputStream in) throws IOException {
+        long[] ids = new long[(int) readVarLong(in)];
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long value = readVarLong(in);
+            previous = i == 0 ? (value >>> 1) ^ -(value & 1) : previous + value;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    /**
+     * Записывает неотрицательное (как беззнаковое) число по 7 бит в байте.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Malformed varint");
+    }
+
+    /**
+     * Неизменяемое основное хранилище: отсортированные идентификаторы с днями активности
+     * и отсортированные идентификаторы отказавшихся.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[0], new long[0]);
+
+        final long[] ids;
+        final int[] days;
+        final long[] optedOut;
+
+        Snapshot(long[] ids, int[] days, long[] optedOut) {
+            this.ids = ids;
+            this.days = days;
+            this.optedOut = optedOut;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.homework.updates;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение обновлений прямым запросом getUpdates с потоковым разбором ответа.
+ *
+ * <p>Тело ответа читается в массив байтов и разбирается {@link UpdateStreamParser} без
+ * промежуточной строки и без построения полного графа объектов библиотеки.</p>
+ */
+public class HttpUpdateFetcher implements UpdateFetcher {
+
+    /** Адрес Bot API по умолчанию (к нему добавляется токен) */
+    static final String DEFAULT_BASE_URL = "https://api.telegram.org/bot";
+
+    /** Запас сверх времени long polling до обрыва соединения по таймауту */
+    private static final int SOCKET_TIMEOUT_MARGIN_SECONDS = 15;
+
+    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    /** Адрес метода getUpdates с токеном бота */
+    private final String url;
+
+    /**
+     * @param baseUrl адрес Bot API, например {@value #DEFAULT_BASE_URL}
+     * @param token токен бота
+     */
+    public HttpUpdateFetcher(String baseUrl, String token) {
+        this.url = baseUrl + token + "/getUpdates";
+    }
+
+    @Override
+    public List<IncomingUpdate> fetch(int offset, int limit, int timeoutSeconds) throws TelegramApiException {
+        HttpGet request = new HttpGet(url + "?offset=" + offset + "&limit=" + limit + "&timeout=" + timeoutSeconds);
+        int socketTimeout = (int) TimeUnit.SECONDS.toMillis(timeoutSeconds + SOCKET_TIMEOUT_MARGIN_SECONDS);
+        request.setConfig(RequestConfig.custom().setSocketTimeout(socketTimeout).build());
+        try (CloseableHttpResponse response = client.execute(request)) {
+            return UpdateStreamParser.parse(EntityUtils.toByteArray(response.getEntity()));
+        } catch (IOException e) {
+            throw new TelegramApiException("Unable to get updates", e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.homework.updates;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.InlineQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Входящее обновление с заранее извлеченными полями, нужными для маршрутизации.
+ *
+ * <p>{@link UpdateStreamParser} достает из JSON только номер обновления, чат, текст, язык
+ * отправителя, данные нажатия и inline-запроса, а исходный JSON обновления сохраняет как ссылку на общий буфер
+ * ответа. Полный объект {@link Update} со всеми вложенными объектами библиотеки собирается
+ * только при вызове {@link #toUpdate()}.</p>
+ */
+public final class IncomingUpdate {
+
+    /** Декодер полных обновлений (неизвестные библиотеке поля пропускаются) */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final int updateId;
+    private final Long chatId;
+    private final String text;
+    private final String languageCode;
+    private final boolean callbackQuery;
+    private final Integer messageId;
+    private final String callbackQueryId;
+    private final String callbackData;
+    private final String inlineQueryId;
+
+    /** Буфер ответа getUpdates и положение JSON этого обновления в нем */
+    private final byte[] source;
+    private final int offset;
+    private final int length;
+
+    /** Полный объект (декодируется при первом обращении) */
+    private Update decoded;
+
+    /** Момент постановки в очередь обработки ({@link System#nanoTime()}) */
+    private long receivedNanos;
+
+    /** Номер записи в очереди на диске ({@link SpillQueue}) или -1, если обновление не вытеснялось */
+    private long spillSequence = -1;
+
+    IncomingUpdate(int updateId, Long chatId, String text, String languageCode, boolean callbackQuery,
+                   Integer messageId, String callbackQueryId, String callbackData, String inlineQueryId,
+                   byte[] source, int offset, int length) {
+        this.updateId = updateId;
+        this.chatId = chatId;
+        this.text = text;
+        this.languageCode = languageCode;
+        this.callbackQuery = callbackQuery;
+        this.messageId = messageId;
+        this.callbackQueryId = callbackQueryId;
+        this.callbackData = callbackData;
+        this.inlineQueryId = inlineQueryId;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Создает представление уже декодированного обновления.
+     *
+     * @param update обновление от библиотеки
+     * @return представление с теми же полями маршрутизации
+     */
+    public static IncomingUpdate of(Update update) {
+        Long chatId = null;
+        Integer messageId = null;
+        String text = null;
+        String languageCode = null;
+        String callbackQueryId = null;
+        String callbackData = null;
+        String inlineQueryId = null;
+        if (update.hasCallbackQuery()) {
+            CallbackQuery query = update.getCallbackQuery();
+            callbackQueryId = query.getId();
+            callbackData = query.getData();
+            chatId = query.getMessage() != null ? query.getMessage().getChatId() : null;
+            messageId = query.getMessage() != null ? query.getMessage().getMessageId() : null;
+            languageCode = query.getFrom() != null ? query.getFrom().getLanguageCode() : null;
+        } else if (update.hasMessage()) {
+            Message message = update.getMessage();
+            chatId = message.getChatId();
+            messageId = message.getMessageId();
+            text = message.getText();
+            languageCode = message.getFrom() != null ? message.getFrom().getLanguageCode() : null;
+        } else if (update.hasInlineQuery()) {
+            InlineQuery query = update.getInlineQuery();
+            inlineQueryId = query.getId();
+            text = query.getQuery();
+            chatId = query.getFrom() != null ? query.getFrom().getId() : null;
+            languageCode = query.getFrom() != null ? query.getFrom().getLanguageCode() : null;
+        }
+        int updateId = update.getUpdateId() != null ? update.getUpdateId() : 0;
+        IncomingUpdate incoming = new IncomingUpdate(updateId, chatId, text, languageCode,
+                update.hasCallbackQuery(), messageId, callbackQueryId, callbackData, inlineQueryId, null, 0, 0);
+        incoming.decoded = update;
+        return incoming;
+    }
+
+    public int getUpdateId() {
+        return updateId;
+    }
+
+    /**
+     * @return чат сообщения или сообщения с нажатой кнопкой; для inline-запроса - пользователь
+     * (совпадает с его личным чатом); null, если чата нет
+     */
+    public Long getChatId() {
+        return chatId;
+    }
+
+    /**
+     * @return номер сообщения или сообщения с нажатой кнопкой (для правки на месте); null, если его нет
+     */
+    public Integer getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * @return текст сообщения или inline-запроса; null, если это не текстовое сообщение
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return код языка из профиля отправителя или null
+     */
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * @return true, если обновление - нажатие на callback-кнопку
+     */
+    public boolean isCallbackQuery() {
+        return callbackQuery;
+    }
+
+    public String getCallbackQueryId() {
+        return callbackQueryId;
+    }
+
+    public String getCallbackData() {
+        return callbackData;
+    }
+
+    /**
+     * @return true, если обновление - inline-запрос ({@code @bot текст} в любом чате)
+     */
+    public boolean isInlineQuery() {
+        return inlineQueryId != null;
+    }
+
+    public String getInlineQueryId() {
+        return inlineQueryId;
+    }
+
+    /**
+     * @return момент получения от Telegram ({@link System#nanoTime()}) или 0, если неизвестен
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+
+    /**
+     * @return true, если обновление подтверждено Telegram до обработки (прочитано из очереди на диске)
+     * и повторно не придет
+     */
+    public boolean isAcknowledged() {
+        return spillSequence >= 0;
+    }
+
+    long getSpillSequence() {
+        return spillSequence;
+    }
+
+    void setSpillSequence(long spillSequence) {
+        this.spillSequence = spillSequence;
+    }
+
+    /**
+     * Возвращает полный объект обновления, при первом вызове декодируя сохраненный JSON.
+     * Вызывается из потока обработки обновления; синхронизация не нужна.
+     *
+     * @return полное обновление
+     * @throws UncheckedIOException если JSON обновления не удалось декодировать
+     */
+    public Update toUpdate() {
+        if (decoded == null) {
+            try {
+                decoded = MAPPER.readValue(source, offset, length, Update.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to decode update " + updateId, e);
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Возвращает JSON обновления: копию участка исходного буфера или, для обновлений,
+     * полученных от библиотеки, результат сериализации полного объекта.
+     *
+     * @return JSON обновления в UTF-8
+     * @throws UncheckedIOException если обновление не удалось сериализовать
+     */
+    public byte[] toJson() {
+        if (source != null) {
+            return Arrays.copyOfRange(source, offset, offset + length);
+        }
+        try {
+            return MAPPER.writeValueAsBytes(decoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode update " + updateId, e);
+        }
+    }
+}
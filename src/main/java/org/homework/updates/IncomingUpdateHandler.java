@@ -0,0 +1,17 @@
+package org.homework.updates;
+
+/**
+ * Обработчик, которому достаточно полей маршрутизации {@link IncomingUpdate}.
+ *
+ * <p>Если бот реализует этот интерфейс, {@link PipelinedBotSession} передает ему обновления
+ * без полного декодирования; иначе вызывается {@code onUpdateReceived} с полным объектом.</p>
+ */
+public interface IncomingUpdateHandler {
+
+    /**
+     * Обрабатывает входящее обновление.
+     *
+     * @param update обновление; полный объект доступен через {@link IncomingUpdate#toUpdate()}
+     */
+    void onIncomingUpdate(IncomingUpdate update);
+}
@@ -0,0 +1,665 @@
+package org.homework.updates;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.dispatch.Dispatcher;
+import org.homework.load.LoadShedder;
+import org.homework.logger.ILogger;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotOptions;
+import org.telegram.telegrambots.meta.generics.BotSession;
+import org.telegram.telegrambots.meta.generics.LongPollingBot;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сессия long polling, в которой получение обновлений не ждет их обработки.
+ *
+ * <p>В {@code DefaultBotSession} следующий {@code getUpdates} уходит только после обработки
+ * предыдущей пачки. Здесь получение и обработка идут в разных потоках: пока обработчик разбирает
+ * очередь, поток получения уже запрашивает следующие обновления.</p>
+ *
+ * <p>Подтверждение ({@code offset}) сдвигается только за обработанными обновлениями, поэтому
+ * при падении необработанные обновления Telegram пришлет снова. Неподтвержденные обновления
+ * Telegram возвращает в начале каждого ответа; они отбрасываются по номеру, а лимит запроса
+ * считается как "уже полученные + новые". Чем больше очередь, тем меньше новых обновлений
+ * запрашивается за раз; при полной очереди получение ждет обработчика. Если в ответе нет ничего
+ * нового, следующий запрос уходит после продвижения обработки или короткой паузы, без холостых
+ * повторов подряд.</p>
+ *
+ * <p>По умолчанию обновления получаются {@link HttpUpdateFetcher} и разбираются потоково; бот,
+ * реализующий {@link IncomingUpdateHandler}, получает их без полного декодирования. Свойство
+ * {@value #LAZY_PROPERTY}{@code =false} возвращает получение через {@code execute(GetUpdates)}
+ * бота с полным разбором библиотекой.</p>
+ *
+ * <p>Перед обработкой каждого обновления глубина очереди в памяти и время его ожидания в памяти
+ * передаются {@link LoadShedder}, в том числе пока разбирается очередь на диске. Обновления
+ * из очереди на диске уже подтверждены, поэтому бот их не отбрасывает
+ * ({@link IncomingUpdate#isAcknowledged()}); они читаются с диска непосредственно перед передачей
+ * на обработку, и их ожидание в памяти считается нулевым.</p>
+ *
+ * <p>Обработка передается {@link Dispatcher}: в обычном режиме она идет в потоке обработки,
+ * в режиме виртуальных потоков обновления разных чатов обрабатываются параллельно. Подтверждение
+ * в обоих режимах сдвигается только за непрерывным началом завершенных обновлений.</p>
+ *
+ * <p>Со свойством {@value #SPILL_DIR_PROPERTY} при долгой перегрузке обновления сверх
+ * {@value #MEMORY_CAPACITY_PROPERTY} (по умолчанию {@value #DEFAULT_MEMORY_CAPACITY}) ожидающих
+ * в памяти (в очереди и в обработке) записываются в очередь на диске ({@link SpillQueue}). Записанное и сброшенное на диск
+ * обновление подтверждается сразу, как обработанное, поэтому ни очередь Telegram, ни память
+ * не растут; обрабатываются такие обновления по порядку после очереди в памяти. Пока очередь
+ * на диске не пуста, в нее пишутся и все новые обновления, чтобы порядок не нарушался.
+ * Из очереди на диске читается, только пока в обработке меньше {@value #MEMORY_CAPACITY_PROPERTY}
+ * обновлений, поэтому и в режиме виртуальных потоков, где передача на обработку не ждет ее
+ * завершения, в памяти не больше заданного числа обновлений.
+ * Раз в {@value #SPILL_REPORT_SECONDS} секунд в лог пишется, сколько обновлений записано
+ * и прочитано и сколько ждет на диске.</p>
+ */
+@Register
+public class PipelinedBotSession implements BotSession {
+
+    /** Системное свойство: false - использовать стандартную сессию библиотеки */
+    public static final String ENABLED_PROPERTY = "bot.updates.pipelined";
+
+    /** Системное свойство: false - получать обновления через бота с полным разбором */
+    public static final String LAZY_PROPERTY = "bot.updates.lazy";
+
+    /** Системное свойство с каталогом очереди на диске; без него обновления ждут только в памяти */
+    public static final String SPILL_DIR_PROPERTY = "bot.updates.spill.dir";
+
+    /** Системное свойство: сколько обновлений ждет в памяти, прежде чем пойти в очередь на диске */
+    public static final String MEMORY_CAPACITY_PROPERTY = "bot.updates.memory";
+
+    /** Число обновлений в памяти по умолчанию (меньше {@link #MAX_LIMIT}, чтобы получение не вставало) */
+    static final int DEFAULT_MEMORY_CAPACITY = 50;
+
+    /** Размер сегмента очереди на диске */
+    private static final long SPILL_SEGMENT_BYTES = 4L * 1024 * 1024;
+
+    /** Период отчета об очереди на диске */
+    private static final long SPILL_REPORT_SECONDS = 10;
+
+    /** Пауза между проверками очереди на диске, когда очередь в памяти пуста */
+    private static final long SPILL_POLL_MILLIS = 50;
+
+    /** Максимальный лимит getUpdates (ограничение Telegram) */
+    static final int MAX_LIMIT = 100;
+
+    /** Минимальное число новых обновлений, запрашиваемых за раз */
+    private static final int MIN_NEW = 5;
+
+    /** Время ожидания новых обновлений на сервере */
+    private static final int POLL_TIMEOUT_SECONDS = 50;
+
+    /**
+     * Пауза перед повторным запросом, если ответ состоял только из уже полученных обновлений,
+     * а обработка не продвинулась. Пока есть неподтвержденные обновления, Telegram отвечает
+     * сразу и ждать новых на сервере нельзя.
+     */
+    private static final long IDLE_REPOLL_MILLIS = 250;
+
+    /** Границы паузы после ошибки получения */
+    private static final long MIN_ERROR_PAUSE_MILLIS = 500;
+    private static final long MAX_ERROR_PAUSE_MILLIS = 30_000;
+
+    /**
+     * Логгер для записи ошибок получения и обработки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /**
+     * Защита от перегрузки, которой сообщаются глубина очереди и время ожидания.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private LoadShedder loadShedder;
+
+    /**
+     * Режим выполнения обработки.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private Dispatcher dispatcher;
+
+    /** Источник обновлений (по умолчанию - getUpdates через самого бота) */
+    private UpdateFetcher fetcher;
+
+    private LongPollingBot callback;
+    private BotOptions options;
+    private String token;
+
+    /** Полученные, но еще не обработанные обновления */
+    private final BlockingQueue<IncomingUpdate> backlog = new LinkedBlockingQueue<>();
+
+    /** Монитор продвижения обработки */
+    private final Object progress = new Object();
+
+    /** Очередь на диске; null, если обновления ждут только в памяти */
+    private SpillQueue spill;
+
+    /** Сколько обновлений ждет в памяти, прежде чем пойти в очередь на диске */
+    private final int memoryCapacity;
+
+    /** Номер следующего неподтвержденного обновления (все меньшие обработаны) */
+    private volatile int handledOffset;
+
+    /** Номер последнего полученного обновления */
+    private int lastFetchedId = -1;
+
+    /** Число полученных, но еще не подтвержденных обновлений (под монитором {@link #progress}) */
+    private int unhandled;
+
+    /** Номера неподтвержденных обновлений в порядке получения (под монитором {@link #progress}) */
+    private final ArrayDeque<Integer> received = new ArrayDeque<>();
+
+    /**
+     * Номера обработанных или сброшенных в очередь на диске, но еще не подтвержденных обновлений
+     * (под монитором {@link #progress})
+     */
+    private final Set<Integer> safe = new HashSet<>();
+
+    /** Число переданных на обработку и еще не завершенных обновлений (под монитором {@link #progress}) */
+    private int dispatched;
+
+    /**
+     * Число прочитанных из очереди на диске и еще не завершенных обновлений
+     * (под монитором {@link #progress})
+     */
+    private int drained;
+
+    /** Номера записанных в очередь на диске, но еще не сброшенных обновлений (только поток получения) */
+    private final List<Integer> unflushed = new ArrayList<>();
+
+    private volatile boolean running;
+    private Thread fetchThread;
+    private Thread handlerThread;
+    private ScheduledExecutorService spillReporter;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public PipelinedBotSession() {
+        this.memoryCapacity = Integer.getInteger(MEMORY_CAPACITY_PROPERTY, DEFAULT_MEMORY_CAPACITY);
+    }
+
+    /**
+     * Создает сессию с заданным источником обновлений.
+     *
+     * @param fetcher источник обновлений
+     * @param logger логгер
+     */
+    PipelinedBotSession(UpdateFetcher fetcher, ILogger logger) {
+        this(fetcher, null, logger);
+    }
+
+    /**
+     * Создает сессию с заданными источником обновлений и режимом выполнения.
+     *
+     * @param fetcher источник обновлений
+     * @param dispatcher режим выполнения обработки
+     * @param logger логгер
+     */
+    PipelinedBotSession(UpdateFetcher fetcher, Dispatcher dispatcher, ILogger logger) {
+        this(fetcher, dispatcher, null, DEFAULT_MEMORY_CAPACITY, logger);
+    }
+
+    /**
+     * Создает сессию с очередью на диске.
+     *
+     * @param fetcher источник обновлений
+     * @param dispatcher режим выполнения обработки
+     * @param spill очередь на диске или null
+     * @param memoryCapacity сколько обновлений ждет в памяти, прежде чем пойти в очередь на диске
+     * @param logger логгер
+     */
+    PipelinedBotSession(UpdateFetcher fetcher, Dispatcher dispatcher, SpillQueue spill, int memoryCapacity,
+                        ILogger logger) {
+        this.fetcher = fetcher;
+        this.dispatcher = dispatcher;
+        this.spill = spill;
+        this.memoryCapacity = memoryCapacity;
+        this.logger = logger;
+    }
+
+    @Override
+    public void setOptions(BotOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    @Override
+    public void setCallback(LongPollingBot callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Session already running");
+        }
+        if (fetcher == null) {
+            fetcher = Boolean.parseBoolean(System.getProperty(LAZY_PROPERTY, "true")) && token != null
+                    ? new HttpUpdateFetcher(baseUrl(options), token)
+                    : botFetcher((AbsSender) callback);
+        }
+        if (spill == null && System.getProperty(SPILL_DIR_PROPERTY) != null) {
+            spill = openSpill(System.getProperty(SPILL_DIR_PROPERTY));
+        }
+        if (spill != null) {
+            spillReporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "updates-spill-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            spillReporter.scheduleAtFixedRate(new SpillReport(), SPILL_REPORT_SECONDS, SPILL_REPORT_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+        running = true;
+        fetchThread = new Thread(this::fetchLoop, "updates-fetcher");
+        fetchThread.setDaemon(true);
+        handlerThread = new Thread(this::handleLoop, "updates-handler");
+        handlerThread.setDaemon(true);
+        fetchThread.start();
+        handlerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        fetchThread.interrupt();
+        handlerThread.interrupt();
+        try {
+            handlerThread.join(TimeUnit.SECONDS.toMillis(5));
+            awaitCompletion(TimeUnit.SECONDS.toMillis(5));
+            // Подтверждаем обработанное, чтобы после перезапуска оно не пришло снова
+            fetcher.fetch(handledOffset, 1, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TelegramApiException e) {
+            logger.warn("Не удалось подтвердить обработанные обновления: " + e.getMessage());
+        }
+        if (spill != null) {
+            spillReporter.shutdownNow();
+            try {
+                spill.close();
+            } catch (IOException e) {
+                logger.error("Ошибка при закрытии очереди обновлений на диске: " + e.getMessage());
+            }
+        }
+        callback.onClosing();
+    }
+
+    /**
+     * Открывает очередь на диске; при ошибке обновления ждут только в памяти.
+     */
+    private SpillQueue openSpill(String directory) {
+        try {
+            SpillQueue queue = SpillQueue.open(Paths.get(directory), SPILL_SEGMENT_BYTES);
+            if (!queue.isEmpty()) {
+                logger.info("В очереди на диске " + queue.size() + " обновлений с прошлого запуска");
+            }
+            return queue;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось открыть очередь обновлений в " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Создает источник обновлений, выполняющий getUpdates через бота.
+     */
+    static UpdateFetcher botFetcher(AbsSender bot) {
+        return (offset, limit, timeout) -> {
+            GetUpdates request = new GetUpdates();
+            request.setOffset(offset);
+            request.setLimit(limit);
+            request.setTimeout(timeout);
+            List<IncomingUpdate> updates = new ArrayList<>();
+            for (Update update : bot.execute(request)) {
+                updates.add(IncomingUpdate.of(update));
+            }
+            return updates;
+        };
+    }
+
+    private static String baseUrl(BotOptions options) {
+        if (options instanceof DefaultBotOptions && ((DefaultBotOptions) options).getBaseUrl() != null) {
+            return ((DefaultBotOptions) options).getBaseUrl();
+        }
+        return HttpUpdateFetcher.DEFAULT_BASE_URL;
+    }
+
+    /**
+     * Цикл получения: держит запрос getUpdates в работе, пока обработчик разбирает очередь.
+     */
+    private void fetchLoop() {
+        long errorPause = MIN_ERROR_PAUSE_MILLIS;
+        while (running) {
+            try {
+                int pending = awaitRoom();
+                int limit = Math.min(MAX_LIMIT, pending + Math.max(MIN_NEW, (MAX_LIMIT - pending) / 2));
+                int offset = handledOffset;
+                List<IncomingUpdate> updates = fetcher.fetch(offset, limit, pending == 0 ? POLL_TIMEOUT_SECONDS : 0);
+                errorPause = MIN_ERROR_PAUSE_MILLIS;
+
+                int added = 0;
+                for (IncomingUpdate update : updates) {
+                    if (update.getUpdateId() > lastFetchedId) {
+                        lastFetchedId = update.getUpdateId();
+                        update.setReceivedNanos(System.nanoTime());
+                        synchronized (progress) {
+                            unhandled++;
+                            received.add(update.getUpdateId());
+                        }
+                        if (!spillOut(update)) {
+                            backlog.add(update);
+                        }
+                        added++;
+                    }
+                }
+                flushSpill();
+                if (added == 0 && pending > 0) {
+                    awaitProgress(offset);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (TelegramApiException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Ошибка при получении обновлений: " + e.getMessage());
+                try {
+                    Thread.sleep(errorPause);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                errorPause = Math.min(MAX_ERROR_PAUSE_MILLIS, errorPause * 2);
+            }
+        }
+    }
+
+    /**
+     * Записывает обновление в очередь на диске, если она не пуста или очередь в памяти заполнена.
+     *
+     * @return true, если обновление записано на диск
+     */
+    private boolean spillOut(IncomingUpdate update) {
+        if (spill == null || (spill.isEmpty() && backlog.size() + inFlight() < memoryCapacity)) {
+            return false;
+        }
+        try {
+            spill.append(update);
+            unflushed.add(update.getUpdateId());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Не удалось записать обновление " + update.getUpdateId()
+                    + " в очередь на диске: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Сбрасывает очередь на диске и подтверждает записанные обновления. При ошибке сброс
+     * повторяется после следующего получения, а обновления остаются неподтвержденными.
+     */
+    private void flushSpill() {
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        try {
+            spill.flush();
+        } catch (IOException e) {
+            logger.warn("Не удалось сбросить очередь обновлений на диск: " + e.getMessage());
+            return;
+        }
+        synchronized (progress) {
+            safe.addAll(unflushed);
+            acknowledge();
+        }
+        unflushed.clear();
+    }
+
+    /**
+     * Ждет, пока в очереди появится место.
+     *
+     * @return число полученных, но не обработанных обновлений
+     */
+    private int awaitRoom() throws InterruptedException {
+        synchronized (progress) {
+            while (unhandled >= MAX_LIMIT) {
+                progress.wait();
+            }
+            return unhandled;
+        }
+    }
+
+    /**
+     * Ждет, пока обработка продвинется дальше указанного номера, но не дольше {@value #IDLE_REPOLL_MILLIS} мс.
+     */
+    private void awaitProgress(int offset) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(IDLE_REPOLL_MILLIS);
+        synchronized (progress) {
+            long left;
+            while (handledOffset == offset && unhandled > 0 && (left = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(progress, left);
+            }
+        }
+    }
+
+    /**
+     * Цикл обработки: передает обновления на обработку по порядку получения.
+     */
+    private void handleLoop() {
+        while (running || !backlog.isEmpty()) {
+            IncomingUpdate update;
+            try {
+                update = nextUpdate();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            if (update == null) {
+                continue;
+            }
+            // Без защиты (например, в тестах) нагрузка не учитывается. У обновлений из очереди на диске
+            // учитывается только ожидание в памяти: время на диске - не очередь в памяти
+            if (loadShedder != null) {
+                loadShedder.observe(memoryDepth(), update.isAcknowledged()
+                        ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - update.getReceivedNanos()));
+            }
+            synchronized (progress) {
+                dispatched++;
+                if (update.isAcknowledged()) {
+                    drained++;
+                }
+            }
+            if (dispatcher != null) { // Без диспетчера (например, в тестах) обработка идет в этом потоке
+                dispatcher.execute(update.getChatId(), () -> handle(update));
+            } else {
+                handle(update);
+            }
+        }
+    }
+
+    /**
+     * Берет следующее обновление: сначала из памяти, затем из очереди на диске, если в обработке
+     * меньше {@link #memoryCapacity} обновлений.
+     *
+     * @return обновление или null, если за {@value #SPILL_POLL_MILLIS} мс ничего не пришло
+     */
+    private IncomingUpdate nextUpdate() throws InterruptedException {
+        if (spill == null) {
+            return backlog.take();
+        }
+        IncomingUpdate update = backlog.poll();
+        if (update != null) {
+            return update;
+        }
+        if (inFlight() < memoryCapacity) {
+            try {
+                update = spill.poll();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Ошибка при чтении очереди обновлений на диске: " + e.getMessage());
+            }
+        }
+        return update != null ? update : backlog.poll(SPILL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Передает обновление боту и отмечает его завершенным.
+     */
+    private void handle(IncomingUpdate update) {
+        try {
+            if (callback instanceof IncomingUpdateHandler) {
+                ((IncomingUpdateHandler) callback).onIncomingUpdate(update);
+            } else {
+                callback.onUpdateReceived(update.toUpdate());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Ошибка при обработке обновления " + update.getUpdateId() + ": " + e.getMessage());
+        } finally {
+            complete(update);
+        }
+    }
+
+    /**
+     * Отмечает обновление завершенным. Обновление из очереди на диске отмечается в ней,
+     * для остальных подтверждение сдвигается за всеми завершенными обновлениями,
+     * перед которыми нет незавершенных.
+     */
+    private void complete(IncomingUpdate update) {
+        if (update.getSpillSequence() >= 0) {
+            spill.complete(update.getSpillSequence());
+        }
+        synchronized (progress) {
+            dispatched--;
+            if (update.getSpillSequence() >= 0) {
+                drained--;
+            } else {
+                safe.add(update.getUpdateId());
+                acknowledge();
+            }
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * Сдвигает подтверждение за непрерывным началом обработанных или сброшенных на диск
+     * обновлений (под монитором {@link #progress}).
+     */
+    private void acknowledge() {
+        while (!received.isEmpty() && safe.remove(received.peekFirst())) {
+            handledOffset = received.pollFirst() + 1;
+            unhandled--;
+        }
+        progress.notifyAll();
+    }
+
+    /**
+     * Ждет завершения переданных на обработку обновлений, но не дольше указанного времени.
+     */
+    private void awaitCompletion(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (progress) {
+            long left;
+            while (dispatched > 0 && (left = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(progress, left);
+            }
+        }
+    }
+
+    /**
+     * @return число полученных, но еще не подтвержденных обновлений
+     */
+    int backlogSize() {
+        synchronized (progress) {
+            return unhandled;
+        }
+    }
+
+    /**
+     * @return число переданных на обработку и еще не завершенных обновлений
+     */
+    int inFlight() {
+        synchronized (progress) {
+            return dispatched;
+        }
+    }
+
+    /**
+     * @return число обновлений в памяти: полученных и не подтвержденных, а также прочитанных
+     * из очереди на диске и еще не завершенных
+     */
+    private int memoryDepth() {
+        synchronized (progress) {
+            return unhandled + drained;
+        }
+    }
+
+    /**
+     * Заменяет защиту от перегрузки (для тестов).
+     */
+    void setLoadShedder(LoadShedder loadShedder) {
+        this.loadShedder = loadShedder;
+    }
+
+    /**
+     * @return номер следующего неподтвержденного обновления
+     */
+    int getHandledOffset() {
+        return handledOffset;
+    }
+
+    /**
+     * Отчет об очереди на диске: сколько записано и прочитано за период и сколько ждет.
+     */
+    private final class SpillReport implements Runnable {
+
+        private long lastSpilled;
+        private long lastDrained;
+
+        @Override
+        public void run() {
+            long spilled = spill.getSpilled();
+            long drained = spill.getDrained();
+            long waiting = spill.size();
+            if (spilled != lastSpilled || drained != lastDrained || waiting > 0) {
+                logger.info("Очередь обновлений на диске: записано " + (spilled - lastSpilled)
+                        + ", прочитано " + (drained - lastDrained) + " за " + SPILL_REPORT_SECONDS
+                        + " с, ожидает " + waiting + ", пропущено поврежденных " + spill.getDropped());
+            }
+            lastSpilled = spilled;
+            lastDrained = drained;
+        }
+    }
+}
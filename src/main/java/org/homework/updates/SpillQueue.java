@@ -0,0 +1,396 @@
+package org.homework.updates;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Очередь обновлений на диске, в которую {@link PipelinedBotSession} вытесняет обновления,
+ * не поместившиеся в очередь в памяти.
+ *
+ * <p>Очередь - каталог сегментов {@code segment-<номер первой записи>.log}, в которые записи
+ * только дописываются: длина JSON, момент записи (мс) и JSON обновления. Записи получают
+ * сквозные номера; читаются они по порядку, но только после {@link #flush()}, который
+ * сбрасывает сегмент на диск. Сегмент удаляется, когда все его записи прочитаны
+ * и обработаны ({@link #complete(long)}); номер, до которого все обработано, сохраняется
+ * в файле {@value #COMMITTED_FILE} при удалении сегмента и при закрытии.</p>
+ *
+ * <p>После сбоя очередь открывается с первой необработанной записи сохраненного номера,
+ * оборванная последняя запись отбрасывается. Обновления, обработанные после последнего
+ * сохранения номера, будут обработаны повторно (не больше одного сегмента).</p>
+ */
+final class SpillQueue implements Closeable {
+
+    /** Файл с номером первой необработанной записи */
+    static final String COMMITTED_FILE = "committed";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    /** Номера первых записей сегментов на диске по возрастанию */
+    private final ArrayDeque<Long> segments = new ArrayDeque<>();
+
+    /** Номер следующей записываемой записи */
+    private long writeSequence;
+
+    /** Номер первой записи, еще не сброшенной на диск */
+    private long flushedSequence;
+
+    /** Номер следующей читаемой записи */
+    private long readSequence;
+
+    /** Номер, до которого все записи обработаны */
+    private long committedSequence;
+
+    /** Прочитанные, но еще не обработанные записи по порядку */
+    private final ArrayDeque<Long> outstanding = new ArrayDeque<>();
+
+    /** Обработанные записи, перед которыми есть необработанные */
+    private final Set<Long> completed = new HashSet<>();
+
+    private DataOutputStream out;
+    private FileOutputStream outFile;
+    private long outBytes;
+
+    private DataInputStream in;
+    private long inSegment = -1;
+
+    /** Номер записи, которую прочитает следующий read из {@link #in} */
+    private long inSequence;
+
+    private long spilled;
+    private long drained;
+    private long dropped;
+
+    private SpillQueue(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Открывает (или создает) очередь в каталоге. Записи, оставшиеся с прошлого запуска,
+     * читаются первыми; новые записи идут в новый сегмент.
+     *
+     * @param directory каталог очереди
+     * @param segmentBytes размер, после которого начинается новый сегмент
+     * @return открытая очередь
+     * @throws IOException если каталог недоступен
+     */
+    static SpillQueue open(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        SpillQueue queue = new SpillQueue(directory, segmentBytes);
+        queue.recover();
+        return queue;
+    }
+
+    private void recover() throws IOException {
+        List<Long> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(found::add);
+        }
+        Path committedFile = directory.resolve(COMMITTED_FILE);
+        long committed = Files.exists(committedFile)
+                ? Long.parseLong(Files.readString(committedFile, StandardCharsets.UTF_8).strip()) : 0;
+
+        long next = found.isEmpty() ? committed : found.get(0);
+        for (long first : found) {
+            long end = first + countRecords(segment(first));
+            if (end <= committed || end == first) {
+                Files.delete(segment(first)); // Все записи обработаны (сегмент не успели удалить) или их нет
+                continue;
+            }
+            segments.add(first);
+            next = end;
+        }
+        writeSequence = Math.max(next, committed);
+        flushedSequence = writeSequence;
+        committedSequence = segments.isEmpty() ? writeSequence : Math.max(committed, segments.peekFirst());
+        readSequence = committedSequence;
+    }
+
+    /**
+     * Считает целые записи сегмента; оборванная последняя запись не считается.
+     */
+    private static long countRecords(Path file) throws IOException {
+        long count = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int length = input.readInt();
+                input.readLong();
+                if (input.skipBytes(length) < length) {
+                    return count;
+                }
+                count++;
+            }
+        } catch (EOFException e) {
+            return count;
+        }
+    }
+
+    /**
+     * Дописывает обновление. Прочитать его можно после {@link #flush()}.
+     *
+     * @param update обновление
+     * @throws IOException при ошибке записи
+     */
+    synchronized void append(IncomingUpdate update) throws IOException {
+        if (out == null || outBytes >= segmentBytes) {
+            startSegment();
+        }
+        byte[] json = update.toJson();
+        out.writeInt(json.length);
+        out.writeLong(System.currentTimeMillis());
+        out.write(json);
+        outBytes += Integer.BYTES + Long.BYTES + json.length;
+        writeSequence++;
+        spilled++;
+    }
+
+    private void startSegment() throws IOException {
+        closeWriter();
+        outFile = new FileOutputStream(segment(writeSequence).toFile());
+        out = new DataOutputStream(new BufferedOutputStream(outFile, 64 * 1024));
+        outBytes = 0;
+        segments.add(writeSequence);
+    }
+
+    /**
+     * Сбрасывает записанное на диск (с {@code fsync}); после этого записи доступны для чтения
+     * и переживут сбой процесса.
+     *
+     * @throws IOException при ошибке записи
+     */
+    synchronized void flush() throws IOException {
+        if (out == null || flushedSequence == writeSequence) {
+            return;
+        }
+        out.flush();
+        outFile.getFD().sync();
+        flushedSequence = writeSequence;
+    }
+
+    /**
+     * Читает следующее сброшенное на диск обновление.
+     *
+     * @return обновление с номером записи ({@link IncomingUpdate#getSpillSequence()})
+     * или null, если сброшенных непрочитанных записей нет
+     * @throws IOException при ошибке чтения
+     */
+    synchronized IncomingUpdate poll() throws IOException {
+        while (readSequence < flushedSequence) {
+            Long segment = segmentOf(readSequence);
+            if (in == null || inSegment != segment) {
+                openReader(segment);
+            }
+            while (inSequence < readSequence) {
+                skipRecord(); // Записи, обработанные до перезапуска
+            }
+            int length = in.readInt();
+            long writtenMillis = in.readLong();
+            byte[] json = in.readNBytes(length);
+            long sequence = readSequence++;
+            inSequence++;
+            outstanding.add(sequence);
+            IncomingUpdate update;
+            try {
+                update = UpdateStreamParser.parseUpdate(json);
+            } catch (TelegramApiException e) {
+                dropped++; // Поврежденная запись: пропускается, чтобы не остановить очередь
+                complete(sequence);
+                continue;
+            }
+            long waitedNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - writtenMillis));
+            update.setReceivedNanos(System.nanoTime() - waitedNanos);
+            update.setSpillSequence(sequence);
+            drained++;
+            return update;
+        }
+        return null;
+    }
+
+    private Long segmentOf(long sequence) {
+        Long result = null;
+        for (Long first : segments) {
+            if (first > sequence) {
+                break;
+            }
+            result = first;
+        }
+        if (result == null) {
+            throw new IllegalStateException("No spill segment for record " + sequence);
+        }
+        return result;
+    }
+
+    private void openReader(long segment) throws IOException {
+        closeReader();
+        InputStream stream = Files.newInputStream(segment(segment));
+        in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        inSegment = segment;
+        inSequence = segment;
+    }
+
+    private void skipRecord() throws IOException {
+        int length = in.readInt();
+        in.readLong();
+        in.skipNBytes(length);
+        inSequence++;
+    }
+
+    /**
+     * Отмечает прочитанную запись обработанной и удаляет сегменты, все записи которых обработаны.
+     *
+     * @param sequence номер записи
+     */
+    synchronized void complete(long sequence) {
+        completed.add(sequence);
+        while (!outstanding.isEmpty() && completed.remove(outstanding.peekFirst())) {
+            outstanding.pollFirst();
+        }
+        long committed = outstanding.isEmpty() ? readSequence : outstanding.peekFirst();
+        if (committed <= committedSequence) {
+            return;
+        }
+        committedSequence = committed;
+        boolean deleted = false;
+        while (segments.size() > 1 && nextSegmentStart() <= committedSequence) {
+            deleteSegment(segments.pollFirst());
+            deleted = true;
+        }
+        if (deleted) {
+            writeCommitted();
+        }
+    }
+
+    private long nextSegmentStart() {
+        return segments.stream().skip(1).findFirst().orElseThrow();
+    }
+
+    private void deleteSegment(long first) {
+        if (inSegment == first) {
+            closeReader();
+        }
+        try {
+            Files.deleteIfExists(segment(first));
+        } catch (IOException e) {
+            // Сегмент удалится при следующем открытии: его записи уже отмечены обработанными
+        }
+    }
+
+    private void writeCommitted() {
+        try {
+            Path temp = directory.resolve(COMMITTED_FILE + ".tmp");
+            Files.writeString(temp, Long.toString(committedSequence), StandardCharsets.UTF_8);
+            Files.move(temp, directory.resolve(COMMITTED_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Без сохраненного номера после сбоя часть записей будет обработана повторно
+        }
+    }
+
+    /**
+     * @return true, если непрочитанных записей нет (включая еще не сброшенные)
+     */
+    synchronized boolean isEmpty() {
+        return readSequence == writeSequence;
+    }
+
+    /**
+     * @return число непрочитанных записей
+     */
+    synchronized long size() {
+        return writeSequence - readSequence;
+    }
+
+    /**
+     * @return сколько обновлений записано с момента открытия
+     */
+    synchronized long getSpilled() {
+        return spilled;
+    }
+
+    /**
+     * @return сколько обновлений прочитано с момента открытия
+     */
+    synchronized long getDrained() {
+        return drained;
+    }
+
+    /**
+     * @return сколько поврежденных записей пропущено
+     */
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Сбрасывает записанное, сохраняет номер обработанных записей и закрывает файлы.
+     * Прочитанные, но не обработанные записи будут прочитаны снова при следующем открытии.
+     *
+     * @throws IOException при ошибке записи
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeWriter();
+            closeReader();
+            writeCommitted();
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (out != null) {
+            out.flush();
+            outFile.getFD().sync();
+            flushedSequence = writeSequence;
+            out.close();
+            out = null;
+            outFile = null;
+        }
+    }
+
+    private void closeReader() {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Файл только читался
+            }
+            in = null;
+            inSegment = -1;
+        }
+    }
+
+    private Path segment(long first) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, first, SEGMENT_SUFFIX));
+    }
+}
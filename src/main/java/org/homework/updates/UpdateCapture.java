@@ -0,0 +1,187 @@
+package org.homework.updates;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Файл записи входящих обновлений для воспроизведения в {@link UpdateReplayer}.
+ *
+ * <p>Файл - поток GZIP: заголовок (магическое число и версия формата), затем записи подряд:
+ * промежуток от прихода предыдущего обновления в микросекундах (varint), длина JSON (varint)
+ * и JSON обновления в том виде, в каком его прислал Telegram. Поток сжимается со сбросом
+ * ({@code syncFlush}), поэтому после сбоя читается все сброшенное до него, а оборванная
+ * последняя запись отбрасывается.</p>
+ */
+public final class UpdateCapture {
+
+    /** Магическое число файла записи ("TGUP") */
+    private static final int MAGIC = 0x54475550;
+
+    /** Версия формата файла */
+    private static final byte FORMAT_VERSION = 1;
+
+    private UpdateCapture() {
+    }
+
+    /**
+     * Читает запись целиком.
+     *
+     * @param file файл записи
+     * @return обновления в порядке прихода
+     * @throws IOException если файл не является записью обновлений или не читается
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream), 64 * 1024));
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not an update capture file: " + file);
+            }
+            List<Entry> entries = new ArrayList<>();
+            long arrivalMicros = 0;
+            while (true) {
+                byte[] json;
+                try {
+                    arrivalMicros += readVarLong(in);
+                    json = new byte[(int) readVarLong(in)];
+                    in.readFully(json);
+                } catch (EOFException e) {
+                    break; // Конец записи или оборванная при сбое последняя запись
+                }
+                try {
+                    entries.add(new Entry(arrivalMicros, UpdateStreamParser.parseUpdate(json)));
+                } catch (TelegramApiException e) {
+                    throw new IOException("Malformed update #" + entries.size() + " in " + file, e);
+                }
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Записывает неотрицательное (как беззнаковое) число по 7 бит в байте.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Malformed varint");
+    }
+
+    /**
+     * Записанное обновление.
+     */
+    public static final class Entry {
+
+        private final long arrivalMicros;
+        private final IncomingUpdate update;
+
+        Entry(long arrivalMicros, IncomingUpdate update) {
+            this.arrivalMicros = arrivalMicros;
+            this.update = update;
+        }
+
+        /**
+         * @return момент прихода от прихода первого записанного обновления, в микросекундах
+         */
+        public long getArrivalMicros() {
+            return arrivalMicros;
+        }
+
+        public IncomingUpdate getUpdate() {
+            return update;
+        }
+    }
+
+    /**
+     * Последовательная запись обновлений в файл. Не потокобезопасна.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+
+        /** Момент прихода предыдущего обновления в микросекундах; -1, пока записей нет */
+        private long lastMicros = -1;
+
+        /**
+         * Создает запись в поток и пишет заголовок.
+         *
+         * @param stream поток файла записи
+         * @throws IOException при ошибке записи
+         */
+        public Writer(OutputStream stream) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream, 8 * 1024, true),
+                    64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+        }
+
+        /**
+         * Создает (или перезаписывает) файл записи.
+         *
+         * @param file файл записи
+         * @return запись в файл
+         * @throws IOException если файл не удалось создать
+         */
+        public static Writer open(Path file) throws IOException {
+            return new Writer(Files.newOutputStream(file));
+        }
+
+        /**
+         * Дописывает обновление.
+         *
+         * @param arrivalNanos момент прихода обновления ({@link System#nanoTime()})
+         * @param json JSON обновления в UTF-8
+         * @throws IOException при ошибке записи
+         */
+        public void write(long arrivalNanos, byte[] json) throws IOException {
+            long micros = arrivalNanos / 1000;
+            // Обновления из разных потоков могут прийти не по порядку: отрицательный промежуток считается нулевым
+            writeVarLong(out, lastMicros < 0 ? 0 : Math.max(0, micros - lastMicros));
+            lastMicros = Math.max(lastMicros, micros);
+            writeVarLong(out, json.length);
+            out.write(json);
+        }
+
+        /**
+         * Сбрасывает записанное в файл так, чтобы оно читалось и без закрытия.
+         *
+         * @throws IOException при ошибке записи
+         */
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.homework.updates;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.List;
+
+/**
+ * Запрос пачки обновлений у Telegram (метод {@code getUpdates}).
+ *
+ * <p>Вызов с {@code offset} подтверждает все обновления с меньшими номерами: Telegram
+ * больше их не вернет.</p>
+ */
+@FunctionalInterface
+public interface UpdateFetcher {
+
+    /**
+     * @param offset номер первого неподтвержденного обновления
+     * @param limit максимальное число обновлений в ответе
+     * @param timeoutSeconds время ожидания новых обновлений (long polling)
+     * @return обновления по возрастанию номеров, начиная с {@code offset}
+     * @throws TelegramApiException при ошибке запроса
+     */
+    List<IncomingUpdate> fetch(int offset, int limit, int timeoutSeconds) throws TelegramApiException;
+}
@@ -0,0 +1,165 @@
+package org.homework.updates;
+
+import org.homework.di.annotations.Register;
+import org.homework.di.annotations.Resolve;
+import org.homework.logger.ILogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись входящих обновлений, которые видит бот, для последующего воспроизведения.
+ *
+ * <p>Запись включается системным свойством {@value #FILE_PROPERTY} с путем к файлу
+ * ({@link UpdateCapture}). Для каждого обновления сохраняется его исходный JSON и момент
+ * постановки в очередь обработки, поэтому {@link UpdateReplayer} воспроизводит и состав,
+ * и темп реального трафика. После {@link #startFlushing()} записанное раз в секунду
+ * сбрасывается в файл. При ошибке записи она прекращается, а бот продолжает работу.</p>
+ */
+@Register
+public class UpdateRecorder {
+
+    /** Системное свойство с путем к файлу записи */
+    public static final String FILE_PROPERTY = "bot.capture.file";
+
+    /** Период сброса записи в файл */
+    private static final long FLUSH_INTERVAL_SECONDS = 1;
+
+    /**
+     * Логгер для записи ошибок.
+     * Внедряется автоматически через DI контейнер.
+     */
+    @Resolve
+    private ILogger logger;
+
+    /** Файл записи; null, если запись выключена */
+    private final Path file;
+
+    /** Открытая запись (создается при первом обновлении, под блокировкой) */
+    private UpdateCapture.Writer writer;
+
+    /** Запись остановлена после ошибки или закрытия (под блокировкой) */
+    private boolean stopped;
+
+    /** Число записанных обновлений (под блокировкой) */
+    private long recorded;
+
+    /** Поток сброса (создается при запуске) */
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Конструктор по умолчанию для создания через DI-контейнер.
+     */
+    public UpdateRecorder() {
+        this(System.getProperty(FILE_PROPERTY) != null ? Paths.get(System.getProperty(FILE_PROPERTY)) : null, null);
+    }
+
+    /**
+     * Создает запись в указанный файл.
+     *
+     * @param file файл записи или null, чтобы не записывать
+     * @param logger логгер (при создании через DI внедряется позже)
+     */
+    UpdateRecorder(Path file, ILogger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * @return true, если обновления записываются
+     */
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Записывает обновление. Без файла записи ничего не делает.
+     *
+     * @param update входящее обновление
+     */
+    public void record(IncomingUpdate update) {
+        if (file == null) {
+            return;
+        }
+        long arrivalNanos = update.getReceivedNanos() != 0 ? update.getReceivedNanos() : System.nanoTime();
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            try {
+                if (writer == null) {
+                    writer = UpdateCapture.Writer.open(file);
+                }
+                writer.write(arrivalNanos, update.toJson());
+                recorded++;
+            } catch (IOException | UncheckedIOException e) {
+                stopped = true;
+                logger.error("Запись обновлений в " + file + " остановлена: " + e.getMessage());
+                closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * @return число записанных обновлений
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Сбрасывает записанное в файл.
+     */
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Ошибка при сбросе записи обновлений: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Закрывает файл записи; следующие обновления не записываются.
+     */
+    public synchronized void close() {
+        stopped = true;
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Ошибка при закрытии записи обновлений: " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    /**
+     * Запускает периодический сброс записи в файл и закрытие файла при остановке приложения.
+     */
+    public synchronized void startFlushing() {
+        if (file == null || flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "update-recorder-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "update-recorder-shutdown"));
+        logger.info("Входящие обновления записываются в " + file);
+    }
+}
@@ -0,0 +1,207 @@
+package org.homework.updates;
+
+import org.homework.i18n.Language;
+import org.homework.intent.IntentMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Воспроизведение записанных обновлений ({@link UpdateCapture}) через обработчик бота.
+ *
+ * <p>Обновления передаются обработчику по одному в порядке записи, как это делает поток
+ * обработки {@link PipelinedBotSession}. Темп задается множителем: 1 - как в записи,
+ * N - в N раз быстрее, 0 - без пауз. Для каждого обновления измеряется задержка от
+ * момента, когда оно должно было прийти, до конца обработки, - то есть вместе
+ * с ожиданием, если обработка не успевает за темпом записи; без пауз это чистое время
+ * обработки. Задержки собираются по командам, поэтому две сборки сравниваются на одном
+ * и том же реальном трафике по распределениям для каждой команды.</p>
+ */
+public final class UpdateReplayer {
+
+    private final IncomingUpdateHandler handler;
+    private final Function<IncomingUpdate, String> classifier;
+
+    /**
+     * @param handler обработчик обновлений (бот с заглушкой отправки)
+     * @param classifier имя команды для обновления, по которому группируются задержки
+     */
+    public UpdateReplayer(IncomingUpdateHandler handler, Function<IncomingUpdate, String> classifier) {
+        this.handler = handler;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Определяет команду по намерению текста, префиксу данных нажатия или виду обновления:
+     * {@code start}, {@code yes}, {@code callback:go}, {@code inline} и т.п.
+     *
+     * @param intentMatcher распознаватель намерений бота
+     * @return классификатор для {@link #UpdateReplayer(IncomingUpdateHandler, Function)}
+     */
+    public static Function<IncomingUpdate, String> byIntent(IntentMatcher intentMatcher) {
+        return update -> {
+            if (update.isCallbackQuery()) {
+                String data = update.getCallbackData();
+                if (data == null) {
+                    return "callback";
+                }
+                int separator = data.indexOf(':');
+                return "callback:" + (separator >= 0 ? data.substring(0, separator) : data);
+            }
+            if (update.isInlineQuery()) {
+                return "inline";
+            }
+            if (update.getText() != null) {
+                Language language = Language.fromCode(update.getLanguageCode());
+                return intentMatcher.match(update.getText(), language).name().toLowerCase(Locale.ROOT);
+            }
+            return "other";
+        };
+    }
+
+    /**
+     * Воспроизводит запись.
+     *
+     * @param capture записанные обновления
+     * @param speed множитель темпа; 0 или меньше - без пауз
+     * @return задержки по командам
+     * @throws InterruptedException если поток прерван во время паузы
+     */
+    public Report replay(List<UpdateCapture.Entry> capture, double speed) throws InterruptedException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        for (UpdateCapture.Entry entry : capture) {
+            long due = 0;
+            if (speed > 0) {
+                due = start + (long) (entry.getArrivalMicros() * 1000 / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            IncomingUpdate update = entry.getUpdate();
+            String command = classifier.apply(update);
+            long begin = System.nanoTime();
+            try {
+                handler.onIncomingUpdate(update);
+            } catch (RuntimeException e) {
+                report.failures++;
+            }
+            long end = System.nanoTime();
+            report.add(command, end - (speed > 0 ? Math.min(due, begin) : begin));
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Распределения задержек по командам.
+     */
+    public static final class Report {
+
+        private final Map<String, Latencies> byCommand = new TreeMap<>();
+        private long elapsedNanos;
+        private int failures;
+
+        void add(String command, long nanos) {
+            byCommand.computeIfAbsent(command, c -> new Latencies()).add(nanos);
+        }
+
+        /**
+         * @return имена команд в алфавитном порядке
+         */
+        public Set<String> commands() {
+            return byCommand.keySet();
+        }
+
+        /**
+         * @return число обновлений команды
+         */
+        public int count(String command) {
+            Latencies latencies = byCommand.get(command);
+            return latencies != null ? latencies.size : 0;
+        }
+
+        /**
+         * @param command команда
+         * @param percentile процентиль от 0 до 100
+         * @return задержка в микросекундах (ближайший ранг) или 0, если обновлений команды нет
+         */
+        public long percentileMicros(String command, double percentile) {
+            Latencies latencies = byCommand.get(command);
+            return latencies != null ? latencies.percentile(percentile) / 1000 : 0;
+        }
+
+        /**
+         * @return число обновлений, обработка которых завершилась исключением
+         */
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return время воспроизведения в миллисекундах
+         */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * @return таблица задержек по командам (в миллисекундах) и общий итог
+         */
+        public String format() {
+            StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                    "%-16s %8s %9s %9s %9s %9s%n", "command", "count", "p50", "p90", "p99", "max"));
+            int total = 0;
+            for (String command : byCommand.keySet()) {
+                total += count(command);
+                table.append(String.format(Locale.ROOT, "%-16s %8d %9.3f %9.3f %9.3f %9.3f%n", command,
+                        count(command), millis(command, 50), millis(command, 90), millis(command, 99),
+                        millis(command, 100)));
+            }
+            table.append(String.format(Locale.ROOT, "%d updates in %d ms, %d failed%n",
+                    total, getElapsedMillis(), failures));
+            return table.toString();
+        }
+
+        private double millis(String command, double percentile) {
+            return percentileMicros(command, percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * Задержки одной команды в наносекундах.
+     */
+    private static final class Latencies {
+
+        private long[] values = new long[64];
+        private int size;
+        private boolean sorted = true;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            sorted = false;
+        }
+
+        long percentile(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * size);
+            return values[Math.min(size, Math.max(1, rank)) - 1];
+        }
+    }
+}
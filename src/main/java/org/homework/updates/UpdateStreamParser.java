@@ -0,0 +1,267 @@
+package org.homework.updates;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый разбор ответа getUpdates.
+ *
+ * <p>Библиотека декодирует каждый ответ в полный граф объектов {@code Update}: сообщение,
+ * отправитель, чат, сущности, вложения - хотя маршрутизации бота нужны только чат, текст, язык,
+ * данные нажатия и inline-запроса. Здесь ответ читается токенами {@link JsonParser} прямо из байтов: нужные
+ * поля сохраняются, остальные пропускаются через {@link JsonParser#skipChildren()} без создания
+ * объектов. Для каждого обновления запоминается его положение в буфере, чтобы при необходимости
+ * декодировать его полностью ({@link IncomingUpdate#toUpdate()}).</p>
+ */
+public final class UpdateStreamParser {
+
+    /** Фабрика парсеров (потокобезопасна, переиспользует таблицы имен полей) */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private UpdateStreamParser() {
+    }
+
+    /**
+     * Разбирает ответ getUpdates.
+     *
+     * @param body тело ответа в UTF-8; буфер не должен изменяться, пока используются обновления
+     * @return обновления в порядке ответа
+     * @throws TelegramApiRequestException если Telegram вернул ошибку
+     * @throws TelegramApiException если ответ не является корректным JSON
+     */
+    public static List<IncomingUpdate> parse(byte[] body) throws TelegramApiException {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new TelegramApiException("getUpdates response is not a JSON object");
+            }
+            boolean ok = false;
+            List<IncomingUpdate> updates = List.of();
+            Integer errorCode = null;
+            String description = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "ok":
+                        ok = value == JsonToken.VALUE_TRUE;
+                        break;
+                    case "result":
+                        if (value == JsonToken.START_ARRAY) {
+                            updates = parseUpdates(parser, body);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    case "error_code":
+                        errorCode = parser.getIntValue();
+                        break;
+                    case "description":
+                        description = parser.getText();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (!ok) {
+                throw new TelegramApiRequestException("getUpdates failed"
+                        + (errorCode != null ? " with " + errorCode : "") + ": " + description);
+            }
+            return updates;
+        } catch (IOException e) {
+            throw new TelegramApiException("Malformed getUpdates response", e);
+        }
+    }
+
+    /**
+     * Разбирает JSON одного обновления (например, из записи {@link UpdateCapture}).
+     *
+     * @param json объект обновления в UTF-8; буфер не должен изменяться, пока используется обновление
+     * @return обновление
+     * @throws TelegramApiException если JSON не является объектом обновления
+     */
+    public static IncomingUpdate parseUpdate(byte[] json) throws TelegramApiException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new TelegramApiException("Update is not a JSON object");
+            }
+            return parseUpdate(parser, json, new Fields());
+        } catch (IOException e) {
+            throw new TelegramApiException("Malformed update", e);
+        }
+    }
+
+    private static List<IncomingUpdate> parseUpdates(JsonParser parser, byte[] body) throws IOException {
+        List<IncomingUpdate> updates = new ArrayList<>();
+        Fields fields = new Fields();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            updates.add(parseUpdate(parser, body, fields));
+        }
+        return updates;
+    }
+
+    /**
+     * Читает обновление, на начале которого стоит парсер.
+     */
+    private static IncomingUpdate parseUpdate(JsonParser parser, byte[] body, Fields fields) throws IOException {
+        int start = (int) parser.getTokenLocation().getByteOffset();
+        fields.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("update_id".equals(field)) {
+                fields.updateId = parser.getIntValue();
+            } else if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                parseMessage(parser, fields, true);
+            } else if ("callback_query".equals(field) && value == JsonToken.START_OBJECT) {
+                parseCallbackQuery(parser, fields);
+            } else if ("inline_query".equals(field) && value == JsonToken.START_OBJECT) {
+                parseInlineQuery(parser, fields);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        int end = (int) parser.getCurrentLocation().getByteOffset();
+        return new IncomingUpdate(fields.updateId, fields.chatId, fields.text, fields.languageCode,
+                fields.callbackQuery, fields.messageId, fields.callbackQueryId, fields.callbackData,
+                fields.inlineQueryId, body, start, end - start);
+    }
+
+    /**
+     * Читает из сообщения его номер, чат, язык отправителя и (если нужно) текст.
+     */
+    private static void parseMessage(JsonParser parser, Fields fields, boolean withText) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (withText && "text".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.text = parser.getText();
+            } else if ("message_id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                fields.messageId = parser.getIntValue();
+            } else if ("chat".equals(field) && value == JsonToken.START_OBJECT) {
+                fields.chatId = parseId(parser);
+            } else if (withText && "from".equals(field) && value == JsonToken.START_OBJECT) {
+                fields.languageCode = parseLanguageCode(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Читает из нажатия его идентификатор, данные, язык автора и чат сообщения с кнопкой.
+     */
+    private static void parseCallbackQuery(JsonParser parser, Fields fields) throws IOException {
+        fields.callbackQuery = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.callbackQueryId = parser.getText();
+            } else if ("data".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.callbackData = parser.getText();
+            } else if ("from".equals(field) && value == JsonToken.START_OBJECT) {
+                fields.languageCode = parseLanguageCode(parser);
+            } else if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                parseMessage(parser, fields, false);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Читает из inline-запроса его идентификатор, текст, автора и его язык.
+     */
+    private static void parseInlineQuery(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.inlineQueryId = parser.getText();
+            } else if ("query".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.text = parser.getText();
+            } else if ("from".equals(field) && value == JsonToken.START_OBJECT) {
+                parseUser(parser, fields);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Читает идентификатор и язык автора inline-запроса (идентификатор совпадает с его личным чатом).
+     */
+    private static void parseUser(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                fields.chatId = parser.getLongValue();
+            } else if ("language_code".equals(field) && value == JsonToken.VALUE_STRING) {
+                fields.languageCode = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Long parseId(JsonParser parser) throws IOException {
+        Long id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_NUMBER_INT && "id".equals(field)) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    private static String parseLanguageCode(JsonParser parser) throws IOException {
+        String languageCode = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING && "language_code".equals(field)) {
+                languageCode = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return languageCode;
+    }
+
+    /**
+     * Поля текущего обновления (один объект на весь ответ).
+     */
+    private static final class Fields {
+        int updateId;
+        Long chatId;
+        String text;
+        String languageCode;
+        boolean callbackQuery;
+        Integer messageId;
+        String callbackQueryId;
+        String callbackData;
+        String inlineQueryId;
+
+        void clear() {
+            updateId = 0;
+            chatId = null;
+            text = null;
+            languageCode = null;
+            callbackQuery = false;
+            messageId = null;
+            callbackQueryId = null;
+            callbackData = null;
+            inlineQueryId = null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.homework.bot;
+
+import org.homework.di.DIContainer;
+import org.homework.flood.FloodControl;
+import org.homework.logger.ILogger;
+import org.homework.send.MessageCoalescer;
+import org.homework.send.OutboundSender;
+import org.homework.send.SendGate;
+import org.homework.updates.IncomingUpdate;
+import org.homework.updates.UpdateStreamParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Бюджеты выделения памяти на одно обновление для основных путей обработки.
+ *
+ * <p>Бот собирается DI-контейнером целиком, как в работе, но запросы к Telegram заменены
+ * заглушкой {@link OutboundSender#STUB_PROPERTY}, склейка сообщений выключена, а логгер ничего
+ * не пишет. Каждый путь прогревается и затем выполняется много раз в этом потоке; байты,
+ * выделенные потоком ({@code ThreadMXBean.getCurrentThreadAllocatedBytes}), делятся на число
+ * обновлений и сравниваются с бюджетом из {@value #BUDGETS}. Лишняя клавиатура, склейка строк
+ * или упаковка идентификаторов на каждом обновлении выводят путь за бюджет.</p>
+ *
+ * <p>После намеренного изменения пути бюджеты записываются заново: запуск с
+ * {@code -D}{@value #RECORD_PROPERTY}{@code =src/test/resources/allocation-budgets.properties}
+ * сохраняет измеренные значения с запасом {@value #HEADROOM_PERCENT}% вместо проверки.</p>
+ */
+class AllocationBudgetTest {
+
+    /** Ресурс с бюджетами (байт на обновление) */
+    private static final String BUDGETS = "/allocation-budgets.properties";
+
+    /** Системное свойство с файлом, в который записываются новые бюджеты */
+    private static final String RECORD_PROPERTY = "allocation.budgets.record";
+
+    /** Запас записываемого бюджета над измеренным значением */
+    private static final int HEADROOM_PERCENT = 25;
+
+    private static final int CHATS = 64;
+    private static final int WARMUP_UPDATES = 20_000;
+    private static final int MEASURED_UPDATES = 20_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Свойства, задаваемые на время теста */
+    private static final String[][] PROPERTIES = {
+            {OutboundSender.STUB_PROPERTY, "0"},
+            {MessageCoalescer.WINDOW_PROPERTY, "0"},
+            {SendGate.RATE_PROPERTY, String.valueOf(Integer.MAX_VALUE)},
+            {FloodControl.LIMIT_PROPERTY, "4095"},
+    };
+
+    /** Логгер без вывода: строки сообщений собираются, но не пишутся */
+    private static final ILogger SILENT = new ILogger() {
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+    };
+
+    private static Bot bot;
+    private static Properties budgets;
+    private static final Properties recorded = new Properties();
+
+    /** Начало диапазона чатов следующего пути (у каждого пути свои чаты) */
+    private static long nextChat = 1_000_000;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        for (String[] property : PROPERTIES) {
+            System.setProperty(property[0], property[1]);
+        }
+        DIContainer container = new DIContainer();
+        container.registerInstance(ILogger.class, SILENT);
+        bot = container.resolve(Bot.class);
+
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertNotNull(in, "Не найден файл бюджетов " + BUDGETS);
+            budgets.load(in);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        for (String[] property : PROPERTIES) {
+            System.clearProperty(property[0]);
+        }
+        String record = System.getProperty(RECORD_PROPERTY);
+        if (record != null) {
+            try (OutputStream out = Files.newOutputStream(Paths.get(record))) {
+                recorded.store(out, "Allocation budgets, bytes per update (AllocationBudgetTest)");
+            }
+        }
+    }
+
+    /**
+     * Тест проверяет бюджет команды /start.
+     */
+    @Test
+    void start_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("start", chat -> message(chat, "/start"));
+    }
+
+    /**
+     * Тест проверяет бюджет команды /help.
+     */
+    @Test
+    void help_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("help", chat -> message(chat, "/help"));
+    }
+
+    /**
+     * Тест проверяет бюджет согласия "да" с показом меню.
+     */
+    @Test
+    void yes_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("yes", chat -> message(chat, "да"));
+    }
+
+    /**
+     * Тест проверяет бюджет нераспознанного ответа.
+     */
+    @Test
+    void unknown_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("unknown", chat -> message(chat, "Может быть"));
+    }
+
+    /**
+     * Тест проверяет бюджет выбора варианта в меню (правка сообщения на месте).
+     */
+    @Test
+    void callbackOption_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("callback.option", chat -> callback(chat, "go:hotels"));
+    }
+
+    /**
+     * Тест проверяет бюджет возврата к меню.
+     */
+    @Test
+    void callbackMenu_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("callback.menu", chat -> callback(chat, "menu"));
+    }
+
+    /**
+     * Тест проверяет бюджет inline-запроса (повторный запрос отвечается из кэша).
+     */
+    @Test
+    void inlineQuery_ShouldStayWithinBudget() throws TelegramApiException {
+        assertWithinBudget("inline", chat -> "{\"update_id\":1,\"inline_query\":{\"id\":\"iq\","
+                + "\"from\":{\"id\":" + chat + ",\"language_code\":\"ru\"},\"query\":\"круиз\"}}");
+    }
+
+    /**
+     * Измеряет выделение памяти на обновление для пути и сравнивает с бюджетом
+     * (или записывает новый бюджет).
+     */
+    private static void assertWithinBudget(String path, LongFunction<String> json) throws TelegramApiException {
+        IncomingUpdate[] updates = new IncomingUpdate[CHATS];
+        for (int i = 0; i < CHATS; i++) {
+            updates[i] = UpdateStreamParser.parseUpdate(json.apply(nextChat + i).getBytes(StandardCharsets.UTF_8));
+        }
+        nextChat += CHATS;
+
+        run(updates, WARMUP_UPDATES);
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        run(updates, MEASURED_UPDATES);
+        long perUpdate = (THREADS.getCurrentThreadAllocatedBytes() - before) / MEASURED_UPDATES;
+
+        if (System.getProperty(RECORD_PROPERTY) != null) {
+            recorded.setProperty(path, String.valueOf(perUpdate * (100 + HEADROOM_PERCENT) / 100));
+            return;
+        }
+        String budget = budgets.getProperty(path);
+        assertNotNull(budget, "Нет бюджета для пути " + path);
+        assertTrue(perUpdate <= Long.parseLong(budget), "Путь " + path + " выделяет " + perUpdate
+                + " байт на обновление при бюджете " + budget);
+    }
+
+    private static void run(IncomingUpdate[] updates, int count) {
+        for (int i = 0; i < count; i++) {
+            bot.onIncomingUpdate(updates[i % updates.length]);
+        }
+    }
+
+    private static String message(long chat, String text) {
+        return "{\"update_id\":1,\"message\":{\"message_id\":1,\"from\":{\"id\":" + chat
+                + ",\"language_code\":\"ru\"},\"chat\":{\"id\":" + chat + "},\"text\":\"" + text + "\"}}";
+    }
+
+    private static String callback(long chat, String data) {
+        return "{\"update_id\":1,\"callback_query\":{\"id\":\"cb\",\"from\":{\"id\":" + chat
+                + ",\"language_code\":\"ru\"},\"message\":{\"message_id\":5,\"chat\":{\"id\":" + chat
+                + "}},\"data\":\"" + data + "\"}}";
+    }
+}
@@ -1,18 +1,37 @@
 package org.homework.bot;
 
 import org.homework.api.ICommandService;
+import org.homework.dispatch.Dispatcher;
+import org.homework.flood.FloodControl;
+import org.homework.intent.CommandRouter;
+import org.homework.intent.Intent;
+import org.homework.intent.IntentMatcher;
+import org.homework.load.LoadShedder;
 import org.homework.logger.ILogger;
+import org.homework.send.MessageCoalescer;
+import org.homework.send.OutboundSender;
+import org.homework.updates.UpdateRecorder;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Chat;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.InlineQuery;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,9 +47,38 @@ class BotTest {
     @Mock
     private ILogger logger; // Заглушка для логгера
 
+    @Mock
+    private IntentMatcher intentMatcher; // Заглушка для распознавателя намерений
+
+    @Mock
+    private OutboundSender outboundSender; // Заглушка для отправки запросов в Telegram API
+
+    @Mock
+    private MessageCoalescer messageCoalescer; // Заглушка для склейки текстовых ответов
+
+    @Spy
+    private FloodControl floodControl = new FloodControl(); // Ограничение частоты с параметрами по умолчанию
+
+    @Spy
+    private LoadShedder loadShedder = new LoadShedder(); // Защита от перегрузки (нагрузки нет)
+
+    @Spy
+    private Dispatcher dispatcher = new Dispatcher(); // Обычный режим: запросы по порядку в этом потоке
+
+    @Spy
+    private UpdateRecorder updateRecorder = new UpdateRecorder(); // Запись обновлений (выключена)
+
     @InjectMocks
     private Bot bot; // Тестируемый класс с внедренными зависимостями
 
+    /**
+     * Текстовые сообщения маршрутизируются к командам самого бота через заглушку распознавателя.
+     */
+    @BeforeEach
+    void setUp() {
+        bot.setCommandRouter(new CommandRouter(intentMatcher, List.of(bot)));
+    }
+
     /**
      * Тест проверяет корректную обработку команды /start.
      * @throws TelegramApiException если возникла ошибка API Telegram
@@ -38,14 +86,181 @@ class BotTest {
     @Test
     void onUpdateReceived_StartCommand_ShouldExecuteStartCommand() throws TelegramApiException {
         // Arrange - подготовка тестовых данных
-        when(commandService.startCommand(any())).thenReturn(new SendMessage());
+        when(intentMatcher.match(any(), any())).thenReturn(Intent.START);
+        when(commandService.startCommand(any(), any())).thenReturn(new SendMessage());
 
         // Act - выполнение тестируемого метода
         Update update = createUpdateWithText("/start");
         bot.onUpdateReceived(update);
 
         // Assert - проверка результатов
-        verify(commandService).startCommand(any());
+        verify(commandService).startCommand(any(), any());
+    }
+
+    /**
+     * Тест проверяет, что нажатие на отслеживаемую кнопку передается сервису команд.
+     * @throws TelegramApiException если возникла ошибка API Telegram
+     */
+    @Test
+    void onUpdateReceived_TrackedButton_ShouldOpenTravelOption() throws TelegramApiException {
+        // Arrange - подготовка тестовых данных
+        when(commandService.openTravelOption(any(), any(), any())).thenReturn(new SendMessage());
+
+        // Act - выполнение тестируемого метода
+        Update update = createUpdateWithText(null);
+        CallbackQuery query = new CallbackQuery();
+        query.setData("go:hotels");
+        query.setMessage(update.getMessage());
+        update.setMessage(null);
+        update.setCallbackQuery(query);
+        bot.onUpdateReceived(update);
+
+        // Assert - проверка результатов
+        verify(commandService).openTravelOption(eq("123"), eq("hotels"), any());
+        verify(intentMatcher, never()).match(any(), any());
+    }
+
+    /**
+     * Тест проверяет, что запросы сверх ограничения частоты не доходят до сервиса команд.
+     * @throws TelegramApiException если возникла ошибка API Telegram
+     */
+    @Test
+    void onUpdateReceived_Flood_ShouldDropExcessRequests() throws TelegramApiException {
+        // Arrange - подготовка тестовых данных
+        when(intentMatcher.match(any(), any())).thenReturn(Intent.HELP);
+        when(commandService.getHelp(any(), any())).thenReturn(new SendMessage());
+
+        // Act - выполнение тестируемого метода
+        for (int i = 0; i < 20; i++) {
+            bot.onUpdateReceived(createUpdateWithText("/help"));
+        }
+
+        // Assert - проверка результатов
+        verify(commandService, times(5)).getHelp(any(), any());
+    }
+
+    /**
+     * Тест проверяет, что нажатие кнопки сверх ограничения частоты не обрабатывается,
+     * но получает пустой ответ: иначе у пользователя крутится индикатор загрузки.
+     * @throws TelegramApiException если возникла ошибка API Telegram
+     */
+    @Test
+    void onUpdateReceived_FloodedCallback_ShouldAnswerWithoutHandling() throws TelegramApiException {
+        // Arrange - подготовка тестовых данных
+        when(intentMatcher.match(any(), any())).thenReturn(Intent.HELP);
+        when(commandService.getHelp(any(), any())).thenReturn(new SendMessage());
+        for (int i = 0; i < 5; i++) {
+            bot.onUpdateReceived(createUpdateWithText("/help"));
+        }
+        Update press = createUpdateWithText(null);
+        CallbackQuery query = new CallbackQuery();
+        query.setId("cb-flood");
+        query.setData("go:hotels");
+        query.setMessage(press.getMessage());
+        press.setMessage(null);
+        press.setCallbackQuery(query);
+
+        // Act - выполнение тестируемого метода
+        bot.onUpdateReceived(press);
+
+        // Assert - проверка результатов
+        verify(outboundSender).execute(eq(bot), any(AnswerCallbackQuery.class));
+        verify(commandService, never()).openTravelOption(any(), any(), any());
+    }
+
+    /**
+     * Тест проверяет, что inline-запросы (по одному на каждое нажатие клавиши) не расходуют
+     * ограничение частоты и не мешают сообщениям того же пользователя.
+     * @throws TelegramApiException если возникла ошибка API Telegram
+     */
+    @Test
+    void onUpdateReceived_InlineQueries_ShouldNotUseFloodBudget() throws TelegramApiException {
+        // Arrange - подготовка тестовых данных
+        when(intentMatcher.match(any(), any())).thenReturn(Intent.HELP);
+        when(commandService.getHelp(any(), any())).thenReturn(new SendMessage());
+
+        // Act - выполнение тестируемого метода
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setId(123L);
+            InlineQuery query = new InlineQuery();
+            query.setId("q" + i);
+            query.setFrom(user);
+            query.setQuery("круиз".substring(0, 1 + i % 5));
+            Update update = new Update();
+            update.setInlineQuery(query);
+            bot.onUpdateReceived(update);
+        }
+        bot.onUpdateReceived(createUpdateWithText("/help"));
+
+        // Assert - проверка результатов
+        verify(commandService, times(20)).answerInlineQuery(any(), any(), any());
+        verify(commandService).getHelp(any(), any());
+    }
+
+    /**
+     * Тест считает запросы к Telegram API за диалог "/start - да - выбор варианта":
+     * меню с правкой на месте обходится меньшим числом вызовов.
+     * @throws TelegramApiException если возникла ошибка API Telegram
+     */
+    @Test
+    void conversation_InPlaceMenu_ShouldNeedFewerApiCalls() throws TelegramApiException {
+        // Arrange - подготовка тестовых данных
+        when(intentMatcher.match(eq("/start"), any())).thenReturn(Intent.START);
+        when(intentMatcher.match(eq("да"), any())).thenReturn(Intent.YES);
+        when(commandService.startCommand(any(), any())).thenReturn(new SendMessage());
+        when(commandService.handleUserResponse(any(), any(), any())).thenReturn(new SendMessage());
+        when(commandService.showTravelOptions(any(), any(), any())).thenReturn(new SendMessage());
+        when(commandService.openTravelOption(any(), any(), any())).thenReturn(new SendMessage());
+        when(commandService.showTravelMenu(any(), any())).thenReturn(new SendMessage());
+        when(commandService.openTravelOptionInPlace(any(), any(), any(), any())).thenReturn(new EditMessageText());
+
+        // Act - выполнение тестируемого метода
+        bot.setInPlaceMenu(false);
+        playConversation(201L);
+        int separateCalls = sentRequests();
+        clearInvocations(outboundSender, messageCoalescer);
+
+        bot.setInPlaceMenu(true);
+        playConversation(202L);
+        int inPlaceCalls = sentRequests();
+
+        // Assert - проверка результатов
+        // Отдельными сообщениями: приветствие, ответ, меню, ответ на callback, ссылка
+        // (и еще прощание, которое сервис отправляет по таймеру)
+        assertEquals(5, separateCalls);
+        // На месте: приветствие, ответ с меню, ответ на callback, правка меню (прощание - в карточке)
+        assertEquals(4, inPlaceCalls);
+        verify(commandService).openTravelOptionInPlace(eq("202"), eq(77), eq("hotels"), any());
+    }
+
+    /**
+     * Считает запросы, переданные на отправку: текстовые ответы (до склейки) и прочие вызовы API.
+     */
+    private int sentRequests() {
+        int texts = mockingDetails(messageCoalescer).getInvocations().stream()
+                .mapToInt(invocation -> invocation.getArgument(1) instanceof List
+                        ? ((List<?>) invocation.getArgument(1)).size() : 1)
+                .sum();
+        return mockingDetails(outboundSender).getInvocations().size() + texts;
+    }
+
+    /**
+     * Проигрывает диалог: /start, согласие и нажатие на вариант в сообщении с меню.
+     */
+    private void playConversation(long chatId) {
+        bot.onUpdateReceived(createUpdateWithText("/start", chatId));
+        bot.onUpdateReceived(createUpdateWithText("да", chatId));
+
+        Update press = createUpdateWithText(null, chatId);
+        press.getMessage().setMessageId(77);
+        CallbackQuery query = new CallbackQuery();
+        query.setId("cb");
+        query.setData("go:hotels");
+        query.setMessage(press.getMessage());
+        press.setMessage(null);
+        press.setCallbackQuery(query);
+        bot.onUpdateReceived(press);
     }
 
     /**
@@ -54,11 +269,21 @@ class BotTest {
      * @return объект Update с настроенным сообщением
      */
     private Update createUpdateWithText(String text) {
+        return createUpdateWithText(text, 123L);
+    }
+
+    /**
+     * Создает тестовый объект Update с заданным текстом сообщения в указанном чате.
+     * @param text текст сообщения
+     * @param chatId идентификатор чата
+     * @return объект Update с настроенным сообщением
+     */
+    private Update createUpdateWithText(String text, long chatId) {
         Update update = new Update();
         Message message = new Message();
         Chat chat = new Chat();
 
-        chat.setId(123L);
+        chat.setId(chatId);
         message.setChat(chat);
         message.setText(text);
         update.setMessage(message);
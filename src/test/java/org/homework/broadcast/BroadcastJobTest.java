@@ -0,0 +1,160 @@
+package org.homework.broadcast;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link BroadcastJob}.
+ * Проверяет отправку по всему списку, сохранение прогресса и продолжение после сбоя.
+ */
+class BroadcastJobTest {
+
+    /** Временный каталог для файлов рассылки */
+    @TempDir
+    Path tempDir;
+
+    /** Сколько раз сообщение ушло в каждый чат */
+    private final Map<String, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+
+    /**
+     * Тест проверяет, что сообщение уходит каждому получателю ровно один раз,
+     * а повторный запуск завершенной рассылки ничего не отправляет.
+     */
+    @Test
+    void run_ShouldDeliverOnceAndNotRepeatFinishedBroadcast() throws IOException {
+        Path recipients = writeRecipients(350);
+
+        BroadcastJob.Progress progress = new BroadcastJob(recipients, this::deliver, 4, mock(ILogger.class)).run();
+
+        assertEquals(350, progress.getSent());
+        assertEquals(350, deliveries.size());
+        assertTrue(deliveries.values().stream().allMatch(count -> count.get() == 1));
+
+        new BroadcastJob(recipients, this::deliver, 4, mock(ILogger.class)).run();
+        assertTrue(deliveries.values().stream().allMatch(count -> count.get() == 1),
+                "Завершенная рассылка не должна отправляться повторно");
+    }
+
+    /**
+     * Тест проверяет, что после сбоя рассылка продолжается с сохраненной пачки:
+     * уже подтвержденные пачки не отправляются заново.
+     */
+    @Test
+    void run_AfterCrash_ShouldResumeFromCheckpoint() throws IOException {
+        Path recipients = writeRecipients(350);
+
+        assertThrows(IllegalStateException.class, () -> new BroadcastJob(recipients, chatId -> {
+            if (chatId.equals("1250")) {
+                throw new IllegalStateException("Процесс упал");
+            }
+            deliver(chatId);
+        }, 4, mock(ILogger.class)).run());
+
+        BroadcastJob.Progress progress = new BroadcastJob(recipients, this::deliver, 4, mock(ILogger.class)).run();
+
+        assertEquals(350, deliveries.size(), "Каждый получатель должен получить сообщение");
+        // Первые две пачки по 100 строк (комментарий и чаты 1000-1198) были подтверждены до сбоя
+        for (int i = 0; i < 199; i++) {
+            assertEquals(1, deliveries.get(String.valueOf(1000 + i)).get(), "Подтвержденные пачки не повторяются");
+        }
+        assertEquals(351, progress.getLines(), "Обработаны все строки файла вместе с комментарием");
+    }
+
+    /**
+     * Тест проверяет, что отказ Telegram учитывается как ошибка и не останавливает рассылку.
+     */
+    @Test
+    void run_WhenChatRejects_ShouldCountFailureAndContinue() throws IOException {
+        Path recipients = writeRecipients(10);
+
+        BroadcastJob.Progress progress = new BroadcastJob(recipients, chatId -> {
+            if (chatId.equals("1003")) {
+                throw apiError(403, "Forbidden: bot was blocked by the user");
+            }
+            deliver(chatId);
+        }, 2, mock(ILogger.class)).run();
+
+        assertEquals(9, progress.getSent());
+        assertEquals(1, progress.getFailed());
+    }
+
+    /**
+     * Тест проверяет, что при недоступности Telegram рассылка останавливается без сохранения
+     * прогресса пачки, а следующий запуск доставляет сообщение всем, не считая их неудачными.
+     */
+    @Test
+    void run_WhenTelegramUnavailable_ShouldPauseAndResumeLater() throws IOException {
+        Path recipients = writeRecipients(250);
+        AtomicInteger outages = new AtomicInteger(1);
+        BroadcastJob.Delivery delivery = chatId -> {
+            if (chatId.equals("1150") && outages.getAndDecrement() > 0) {
+                throw new TelegramApiException("Circuit breaker is open");
+            }
+            deliver(chatId);
+        };
+
+        assertThrows(IOException.class, () -> new BroadcastJob(recipients, delivery, 1, mock(ILogger.class)).run());
+        BroadcastJob.Progress progress = new BroadcastJob(recipients, delivery, 1, mock(ILogger.class)).run();
+
+        assertEquals(0, progress.getFailed(), "Недоступность Telegram не является отказом чата");
+        assertEquals(250, progress.getSent());
+        assertEquals(250, deliveries.size());
+        assertEquals(1, deliveries.get("1000").get(), "Сохраненная пачка не должна отправляться повторно");
+        assertEquals(1, deliveries.get("1249").get());
+    }
+
+    /**
+     * Тест проверяет, что только отказы 4xx (кроме 429) считаются отказами конкретного чата.
+     */
+    @Test
+    void isRecipientFailure_ShouldSeparateChatErrorsFromOutages() {
+        assertTrue(BroadcastJob.isRecipientFailure(apiError(400, "Bad Request: chat not found")));
+        assertTrue(BroadcastJob.isRecipientFailure(apiError(403, "Forbidden: bot was blocked by the user")));
+        assertFalse(BroadcastJob.isRecipientFailure(apiError(429, "Too Many Requests")));
+        assertFalse(BroadcastJob.isRecipientFailure(apiError(502, "Bad Gateway")));
+        assertFalse(BroadcastJob.isRecipientFailure(new TelegramApiException("Rate limited for another 30000 ms")));
+    }
+
+    /**
+     * Создает ошибку ответа API с кодом.
+     */
+    private static TelegramApiRequestException apiError(int code, String message) {
+        return new TelegramApiRequestException(message) {
+            @Override
+            public Integer getErrorCode() {
+                return code;
+            }
+        };
+    }
+
+    private void deliver(String chatId) {
+        deliveries.computeIfAbsent(chatId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Записывает файл получателей: комментарий и чаты 1000, 1001, ... (всего count строк с чатами).
+     */
+    private Path writeRecipients(int count) throws IOException {
+        StringBuilder text = new StringBuilder("# Получатели рассылки\n");
+        for (int i = 0; i < count - 1; i++) {
+            text.append(1000 + i).append('\n');
+        }
+        Path file = tempDir.resolve("recipients.txt");
+        Files.writeString(file, text.append(1000 + count - 1).toString(), StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,68 @@
+package org.homework.broadcast;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link BroadcastSpool}.
+ * Проверяет выполнение заявки ботом и отметку выполненных заявок.
+ */
+class BroadcastSpoolTest {
+
+    /** Временный каталог для заявок и файлов рассылки */
+    @TempDir
+    Path tempDir;
+
+    /** Отправленные сообщения в виде "чат:текст" */
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+
+    /**
+     * Тест проверяет, что поставленная заявка выполняется по всем получателям один раз
+     * и отмечается выполненной.
+     */
+    @Test
+    void runPending_SubmittedRequest_ShouldDeliverOnceAndMarkDone() throws IOException {
+        Path spool = tempDir.resolve("spool");
+        Path recipients = Files.write(tempDir.resolve("recipients.txt"), List.of("1", "2", "3"));
+        Path text = Files.writeString(tempDir.resolve("text.txt"), "Новые туры\n", StandardCharsets.UTF_8);
+        BroadcastSpool.submit(spool, recipients, text);
+        BroadcastSpool broadcasts = new BroadcastSpool(spool, (chatId, message) -> sent.add(chatId + ":" + message),
+                2, mock(ILogger.class));
+
+        broadcasts.runPending();
+        broadcasts.runPending();
+
+        assertEquals(3, sent.size(), "Выполненная заявка не должна повторяться");
+        assertTrue(sent.containsAll(List.of("1:Новые туры", "2:Новые туры", "3:Новые туры")));
+        assertFalse(Files.exists(spool.resolve("recipients.txt" + BroadcastSpool.REQUEST_SUFFIX)));
+        assertTrue(Files.exists(spool.resolve("recipients.txt" + BroadcastSpool.REQUEST_SUFFIX
+                + BroadcastSpool.DONE_SUFFIX)));
+    }
+
+    /**
+     * Тест проверяет, что заявка с неполными данными остается в каталоге, а бот продолжает работу.
+     */
+    @Test
+    void runPending_BrokenRequest_ShouldKeepRequest() throws IOException {
+        Path spool = Files.createDirectories(tempDir.resolve("spool"));
+        Path request = Files.writeString(spool.resolve("broken" + BroadcastSpool.REQUEST_SUFFIX), "text=/none\n");
+        BroadcastSpool broadcasts = new BroadcastSpool(spool, (chatId, message) -> sent.add(chatId),
+                2, mock(ILogger.class));
+
+        broadcasts.runPending();
+
+        assertTrue(sent.isEmpty());
+        assertTrue(Files.exists(request));
+    }
+}
@@ -0,0 +1,108 @@
+package org.homework.catalog;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link TravelCatalog} и {@link CatalogSnapshot}.
+ * Проверяет разбор файла каталога и атомарную замену версии при перезагрузке.
+ */
+class TravelCatalogTest {
+
+    /** Временный каталог для файлов каталога путешествий */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест проверяет, что без внешнего файла загружается встроенный каталог.
+     */
+    @Test
+    void constructor_WithoutFile_ShouldLoadDefaultCatalog() {
+        TravelCatalog catalog = new TravelCatalog(tempDir.resolve("missing.txt"), mock(ILogger.class));
+
+        CatalogSnapshot snapshot = catalog.current();
+        assertEquals(9, snapshot.getOptions().size(), "Встроенный каталог должен содержать 9 вариантов");
+        assertEquals("1. Экскурсии", snapshot.getKeyboard().getKeyboard().get(0).get(0).getText());
+    }
+
+    /**
+     * Тест проверяет, что измененный файл публикуется новой версией, а старая версия не меняется.
+     */
+    @Test
+    void reloadIfChanged_WhenFileChanged_ShouldSwapSnapshot() throws IOException {
+        Path file = tempDir.resolve("catalog.txt");
+        Files.writeString(file, "a | Первый | https://a.example\n", StandardCharsets.UTF_8);
+        TravelCatalog catalog = new TravelCatalog(file, mock(ILogger.class));
+        CatalogSnapshot first = catalog.current();
+        InlineKeyboardMarkup firstKeyboard = first.getKeyboard();
+
+        assertFalse(catalog.reloadIfChanged(), "Без изменений файл не должен перечитываться");
+
+        Files.writeString(file, "a | Первый | https://a.example\nb | Второй | https://b.example\n",
+                StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+
+        assertTrue(catalog.reloadIfChanged(), "Измененный файл должен быть перезагружен");
+        assertEquals(2, catalog.current().getOptions().size());
+        assertEquals(first.getVersion() + 1, catalog.current().getVersion());
+        assertSame(firstKeyboard, first.getKeyboard(), "Старая версия должна остаться неизменной");
+        assertEquals(1, first.getKeyboard().getKeyboard().size());
+    }
+
+    /**
+     * Тест проверяет, что при ошибке в файле остается предыдущая версия каталога.
+     */
+    @Test
+    void reloadIfChanged_WithBrokenFile_ShouldKeepPreviousSnapshot() throws IOException {
+        Path file = tempDir.resolve("catalog.txt");
+        Files.writeString(file, "a | Первый | https://a.example\n", StandardCharsets.UTF_8);
+        TravelCatalog catalog = new TravelCatalog(file, mock(ILogger.class));
+        CatalogSnapshot first = catalog.current();
+
+        Files.writeString(file, "строка без разделителей\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+
+        assertFalse(catalog.reloadIfChanged(), "Битый файл не должен публиковаться");
+        assertSame(first, catalog.current(), "Должна остаться предыдущая версия");
+    }
+
+    /**
+     * Тест проверяет, что повторяющиеся идентификаторы отклоняются.
+     */
+    @Test
+    void parse_WithDuplicateId_ShouldThrow() {
+        String text = "a | Первый | https://a.example\na | Второй | https://b.example\n";
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogSnapshot.parse(new StringReader(text), 1));
+    }
+
+    /**
+     * Тест проверяет, что алфавитное меню собирается без номеров и в порядке названий.
+     */
+    @Test
+    void getKeyboard_Alphabetical_ShouldSortLabelsWithoutNumbers() throws IOException {
+        CatalogSnapshot snapshot = CatalogSnapshot.parse(new StringReader(
+                "b | Туры | https://b.example\na | Отели | https://a.example\nc | Аренда | https://c.example\n"), 1);
+
+        InlineKeyboardMarkup keyboard = snapshot.getKeyboard(MenuLayout.ALPHABETICAL, true);
+        assertEquals("Аренда", keyboard.getKeyboard().get(0).get(0).getText());
+        assertEquals("Отели", keyboard.getKeyboard().get(1).get(0).getText());
+        assertEquals("Туры", keyboard.getKeyboard().get(2).get(0).getText());
+        assertEquals("go:c", keyboard.getKeyboard().get(0).get(0).getCallbackData());
+        assertEquals("1. Туры", snapshot.getKeyboard().getKeyboard().get(0).get(0).getText(),
+                "Основное меню должно сохранять порядок файла");
+    }
+}
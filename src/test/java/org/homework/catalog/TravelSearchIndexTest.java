@@ -0,0 +1,76 @@
+package org.homework.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link TravelSearchIndex}.
+ * Проверяет поиск по префиксам, по нескольким словам, по подстроке и по идентификатору.
+ */
+class TravelSearchIndexTest {
+
+    private final CatalogSnapshot snapshot = parse(
+            "tours | Туры с перелетом | https://tours.example\n"
+                    + "cruises | Круизы | https://cruises.example\n"
+                    + "hotels | Отели | https://hotels.example\n"
+                    + "earn | Как зарабатывать на путешествиях | https://earn.example\n"
+                    + "trips | Ёлки и зимние поездки | https://trips.example\n");
+
+    /**
+     * Тест проверяет поиск по началу слова без учета регистра.
+     */
+    @Test
+    void search_Prefix_ShouldFindOption() {
+        assertEquals(List.of("cruises"), ids("круиз"));
+        assertEquals(List.of("cruises"), ids("КР"));
+        assertEquals(List.of("tours", "trips"), ids("t"), "Префикс идентификатора");
+    }
+
+    /**
+     * Тест проверяет, что все слова запроса должны найтись в одном варианте.
+     */
+    @Test
+    void search_SeveralWords_ShouldIntersect() {
+        assertEquals(List.of("tours"), ids("туры перел"));
+        assertTrue(ids("туры круизы").isEmpty());
+    }
+
+    /**
+     * Тест проверяет поиск по подстроке, идентификатору и замену "ё" на "е".
+     */
+    @Test
+    void search_SubstringIdAndYo_ShouldFindOption() {
+        assertEquals(List.of("earn"), ids("рабат"), "Подстрока внутри слова");
+        assertEquals(List.of("hotels"), ids("hotel"), "Идентификатор варианта");
+        assertEquals(List.of("trips"), ids("елки"));
+        assertEquals(List.of("earn"), ids("путешествиях"), "Слово длиннее сохраненных префиксов");
+        assertTrue(ids("путешествиях2").isEmpty());
+    }
+
+    /**
+     * Тест проверяет, что пустой запрос возвращает весь каталог в исходном порядке.
+     */
+    @Test
+    void search_EmptyQuery_ShouldReturnAll() {
+        assertEquals(5, snapshot.search("  ").size());
+        assertEquals("tours", snapshot.search(null).get(0).getId());
+    }
+
+    private List<String> ids(String query) {
+        return snapshot.search(query).stream().map(TravelOption::getId).collect(Collectors.toList());
+    }
+
+    private static CatalogSnapshot parse(String text) {
+        try {
+            return CatalogSnapshot.parse(new StringReader(text), 1);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
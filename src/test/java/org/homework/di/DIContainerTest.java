@@ -5,7 +5,12 @@ import org.homework.di.annotations.Resolve;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,7 +71,18 @@ class DIContainerTest {
         public ConcreteService() {}
     }
 
-    /** Незарегистрированная реализация для тестирования ошибок */
+    /** Тестовая аннотация методов */
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface TestHandler {}
+
+    /** Сервис с аннотированным методом */
+    @Register
+    public static class HandlerService {
+        @TestHandler
+        void handle() {}
+    }
+
+        /** Незарегистрированная реализация для тестирования ошибок */
     public static class UnregisteredService implements TestService {}
 
     /**
@@ -123,6 +139,87 @@ class DIContainerTest {
         assertNotNull(instance, "Экземпляр ConcreteService должен быть создан");
     }
 
+    /**
+     * Тест проверяет, что сервис, запрошенный через интерфейс, является синглтоном.
+     */
+    @Test
+    void resolve_ShouldReturnSameInstanceForInterface() {
+        TestService first = diContainer.resolve(TestService.class);
+        TestService second = diContainer.resolve(TestService.class);
+
+        assertSame(first, second, "Повторный запрос интерфейса должен вернуть тот же экземпляр");
+    }
+
+    /**
+     * Тест проверяет, что зарегистрированный экземпляр заменяет найденную реализацию
+     * и внедряется в зависимые сервисы.
+     */
+    @Test
+    void registerInstance_ShouldReplaceScannedImplementation() {
+        TestService stub = new UnregisteredService();
+        diContainer.registerInstance(TestService.class, stub);
+
+        assertSame(stub, diContainer.resolve(TestService.class));
+        assertSame(stub, diContainer.resolve(ServiceWithDependencies.class).getTestService(),
+                "Зависимые сервисы должны получать зарегистрированный экземпляр");
+    }
+
+    /**
+     * Тест проверяет поиск сервисов с аннотированными методами и внедрение самого контейнера.
+     */
+    @Test
+    void resolveWithMethodsAnnotated_ShouldReturnServicesWithHandlers() {
+        List<Object> services = diContainer.resolveWithMethodsAnnotated(TestHandler.class);
+
+        assertEquals(1, services.size());
+        assertSame(diContainer.resolve(HandlerService.class), services.get(0));
+        assertSame(diContainer, diContainer.resolve(DIContainer.class));
+    }
+
+    /**
+     * Тест проверяет, что список компонентов сохраняется при первом запуске и используется при следующем.
+     */
+    @Test
+    void constructor_WithIndex_ShouldWriteAndReuseIndex() throws Exception {
+        Path index = Files.createTempFile("di", ".index");
+        Files.delete(index);
+        System.setProperty(DIContainer.INDEX_PROPERTY, index.toString());
+        try {
+            new DIContainer();
+            List<String> names = Files.readAllLines(index);
+            assertEquals(DIContainer.indexHeader(), names.get(0), "Первая строка - отпечаток сборки");
+            assertTrue(names.contains(ConcreteService.class.getName()), "Список должен содержать найденные классы");
+
+            // Список из одного класса: второй контейнер не сканирует пакет
+            Files.write(index, List.of(DIContainer.indexHeader(), ConcreteService.class.getName()));
+            DIContainer indexed = new DIContainer();
+            assertNotNull(indexed.resolve(ConcreteService.class));
+            assertThrows(IllegalStateException.class, () -> indexed.resolve(TestService.class));
+        } finally {
+            System.clearProperty(DIContainer.INDEX_PROPERTY);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    /**
+     * Тест проверяет, что список другой сборки не используется: пакет сканируется заново,
+     * и классы, добавленные после записи списка, регистрируются.
+     */
+    @Test
+    void constructor_IndexFromOtherBuild_ShouldRescan() throws Exception {
+        Path index = Files.createTempFile("di", ".index");
+        Files.write(index, List.of("# build other.jar;1;1", ConcreteService.class.getName()));
+        System.setProperty(DIContainer.INDEX_PROPERTY, index.toString());
+        try {
+            DIContainer rescanned = new DIContainer();
+            assertNotNull(rescanned.resolve(TestService.class), "Класс вне старого списка должен найтись");
+            assertEquals(DIContainer.indexHeader(), Files.readAllLines(index).get(0), "Список должен обновиться");
+        } finally {
+            System.clearProperty(DIContainer.INDEX_PROPERTY);
+            Files.deleteIfExists(index);
+        }
+    }
+
     /**
      * Тест проверяет корректное внедрение зависимостей.
      */
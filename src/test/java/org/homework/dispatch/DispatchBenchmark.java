@@ -0,0 +1,71 @@
+package org.homework.dispatch;
+
+import org.homework.logger.LoggerImpl;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение режимов выполнения {@link Dispatcher}: обычного (обновления по одному в потоке
+ * обработки, запросы ответа подряд) и виртуальных потоков (чаты параллельно, независимые
+ * запросы ответа через {@link ReplyScope}). Каждое обновление отправляет два запроса,
+ * HTTP-вызов имитируется ожиданием.
+ *
+ * <p>Запуск: {@code java -cp <test-classpath> org.homework.dispatch.DispatchBenchmark}.
+ * На JDK младше 21 режим виртуальных потоков работает на пуле потоков платформы, что видно
+ * по пиковому числу потоков.</p>
+ */
+public final class DispatchBenchmark {
+
+    private static final int UPDATES = 400;
+    private static final int CHATS = 100;
+    private static final long SEND_MILLIS = 10;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private DispatchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoggerImpl logger = new LoggerImpl();
+        run("Обычный режим", new Dispatcher(false, logger));
+        run("Виртуальные потоки", new Dispatcher(true, logger));
+    }
+
+    private static void run(String name, Dispatcher dispatcher) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(UPDATES);
+        THREADS.resetPeakThreadCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            dispatcher.execute((long) (i % CHATS), () -> {
+                try (ReplyScope scope = dispatcher.openScope()) {
+                    scope.fork(DispatchBenchmark::send);
+                    scope.fork(DispatchBenchmark::send);
+                    scope.join();
+                } catch (TelegramApiException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("%s: %d обновлений за %,d мс (%.0f в секунду), пик потоков платформы: %d%n",
+                name, UPDATES, elapsed, UPDATES * 1000.0 / Math.max(1, elapsed), THREADS.getPeakThreadCount());
+    }
+
+    /**
+     * Имитация запроса к Telegram API.
+     */
+    private static void send() throws TelegramApiException {
+        try {
+            Thread.sleep(SEND_MILLIS);
+        } catch (InterruptedException e) {
+            throw new TelegramApiException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.homework.dispatch;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link Dispatcher} и {@link ReplyScope}.
+ * Проверяет порядок обработки внутри чата, параллельность между чатами и отмену запросов ответа.
+ */
+@ExtendWith(MockitoExtension.class)
+class DispatcherTest {
+
+    @Mock
+    private ILogger logger; // Заглушка для логгера
+
+    /**
+     * Тест проверяет, что в обычном режиме задача выполняется сразу в вызывающем потоке.
+     */
+    @Test
+    void execute_PlatformMode_ShouldRunInCallerThread() {
+        Dispatcher dispatcher = new Dispatcher(false, logger);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        dispatcher.execute(1L, () -> threads.add(Thread.currentThread()));
+
+        assertEquals(List.of(Thread.currentThread()), threads);
+    }
+
+    /**
+     * Тест проверяет, что в обычном режиме отложенная отправка выполняется не в вызывающем потоке
+     * (поток таймера не блокируется в HTTP-вызове), а исключение задачи не останавливает пул.
+     */
+    @Test
+    void submit_PlatformMode_ShouldRunOffCallerThread() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(false, logger);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.submit(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.submit(null, () -> {
+            threads.add(Thread.currentThread());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(), threads.get(0));
+    }
+
+    /**
+     * Тест проверяет, что обновления одного чата выполняются по порядку, даже если первое медленное,
+     * а другой чат в это время не ждет.
+     */
+    @Test
+    void execute_VirtualMode_ShouldKeepOrderWithinChat() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(true, logger);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherChat = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        dispatcher.execute(1L, () -> {
+            await(release);
+            order.add("1a");
+            done.countDown();
+        });
+        dispatcher.execute(1L, () -> {
+            order.add("1b");
+            done.countDown();
+        });
+        dispatcher.execute(2L, otherChat::countDown);
+
+        assertTrue(otherChat.await(5, TimeUnit.SECONDS), "Другой чат не должен ждать медленное обновление");
+        assertTrue(order.isEmpty(), "Второе обновление чата ждет первое");
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1a", "1b"), order);
+    }
+
+    /**
+     * Тест проверяет, что исключение задачи записывается в лог и не останавливает цепочку чата.
+     */
+    @Test
+    void execute_FailingTask_ShouldNotBreakChain() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(true, logger);
+        CountDownLatch next = new CountDownLatch(1);
+
+        dispatcher.execute(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.execute(1L, next::countDown);
+
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Тест проверяет, что ошибка ({@link Error}) задачи не останавливает цепочку чата:
+     * следующая задача, поставленная за ней, выполняется.
+     */
+    @Test
+    void execute_TaskThrowingError_ShouldNotBreakChain() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(true, logger);
+        CountDownLatch queued = new CountDownLatch(1);
+        CountDownLatch next = new CountDownLatch(1);
+
+        dispatcher.execute(1L, () -> {
+            await(queued);
+            throw new AssertionError("boom");
+        });
+        dispatcher.execute(1L, next::countDown);
+        queued.countDown();
+
+        assertTrue(next.await(5, TimeUnit.SECONDS), "Задача за упавшей должна выполниться");
+    }
+
+    /**
+     * Тест проверяет, что независимые запросы ответа выполняются параллельно.
+     */
+    @Test
+    void openScope_VirtualMode_ShouldRunForksConcurrently() throws TelegramApiException {
+        Dispatcher dispatcher = new Dispatcher(true, logger);
+        CountDownLatch both = new CountDownLatch(2);
+
+        try (ReplyScope scope = dispatcher.openScope()) {
+            // Каждый запрос ждет другой: последовательно они бы не завершились
+            scope.fork(() -> meet(both));
+            scope.fork(() -> meet(both));
+            scope.join();
+        }
+
+        assertEquals(0, both.getCount());
+    }
+
+    /**
+     * Тест проверяет, что ошибка одного запроса выбрасывается из join и отменяет остальные.
+     */
+    @Test
+    void openScope_Failure_ShouldCancelOtherForks() throws InterruptedException {
+        Dispatcher dispatcher = new Dispatcher(true, logger);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        try (ReplyScope scope = dispatcher.openScope()) {
+            scope.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                } finally {
+                    stopped.countDown();
+                }
+            });
+            scope.fork(() -> {
+                throw new TelegramApiException("Bad Request");
+            });
+            TelegramApiException error = assertThrows(TelegramApiException.class, scope::join);
+            assertEquals("Bad Request", error.getMessage());
+        }
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get(), "Медленный запрос должен быть отменен");
+    }
+
+    /**
+     * Тест проверяет, что в обычном режиме после ошибки следующие запросы не выполняются.
+     */
+    @Test
+    void openScope_PlatformModeFailure_ShouldSkipRemainingForks() {
+        Dispatcher dispatcher = new Dispatcher(false, logger);
+        AtomicBoolean second = new AtomicBoolean();
+
+        ReplyScope scope = dispatcher.openScope();
+        scope.fork(() -> {
+            throw new TelegramApiException("Bad Request");
+        });
+        scope.fork(() -> second.set(true));
+
+        assertThrows(TelegramApiException.class, scope::join);
+        assertFalse(second.get());
+    }
+
+    private static void meet(CountDownLatch latch) throws TelegramApiException {
+        latch.countDown();
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new TelegramApiException("Forks did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            throw new TelegramApiException("Interrupted", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.homework.experiments;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link Experiments}.
+ * Проверяет стабильность и равномерность разбиения чатов и подсчет показов и нажатий.
+ */
+class ExperimentsTest {
+
+    private final Experiments experiments = new Experiments(true, mock(ILogger.class));
+
+    /**
+     * Тест проверяет, что чат всегда попадает в один и тот же вариант, в том числе после перезапуска.
+     */
+    @Test
+    void variant_SameChat_ShouldBeStable() {
+        Experiments restarted = new Experiments(true, mock(ILogger.class));
+        for (int i = 0; i < 1_000; i++) {
+            String chatId = String.valueOf(100_000 + i);
+            int variant = experiments.variant(Experiment.MENU_LAYOUT, chatId);
+            assertEquals(variant, experiments.variant(Experiment.MENU_LAYOUT, chatId));
+            assertEquals(variant, restarted.variant(Experiment.MENU_LAYOUT, chatId));
+        }
+    }
+
+    /**
+     * Тест проверяет, что подряд идущие идентификаторы делятся между вариантами примерно поровну,
+     * а разные эксперименты разбивают чаты независимо.
+     */
+    @Test
+    void variant_ManyChats_ShouldSplitEvenly() {
+        int[] counts = new int[2];
+        int sameInBoth = 0;
+        int total = 10_000;
+        for (int i = 0; i < total; i++) {
+            String chatId = String.valueOf(5_000_000L + i);
+            int menu = experiments.variant(Experiment.MENU_LAYOUT, chatId);
+            counts[menu]++;
+            if (menu == experiments.variant(Experiment.GREETING, chatId)) {
+                sameInBoth++;
+            }
+        }
+        assertTrue(Math.abs(counts[0] - counts[1]) < total / 20, "Варианты должны быть примерно равны");
+        assertTrue(Math.abs(sameInBoth - total / 2) < total / 20, "Разбиения экспериментов должны быть независимы");
+    }
+
+    /**
+     * Тест проверяет, что показы и нажатия учитываются в варианте чата.
+     */
+    @Test
+    void impressionAndClick_ShouldCountPerVariant() {
+        String chatId = "42";
+        int variant = experiments.impression(Experiment.GREETING, chatId);
+        experiments.impression(Experiment.GREETING, chatId);
+        experiments.click(Experiment.GREETING, chatId);
+
+        String expected = "greeting/" + Experiment.GREETING.getVariantName(variant)
+                + ": показов 2, нажатий 1, конверсия 50.0%";
+        assertTrue(experiments.report().contains(expected), "Сводка должна содержать: " + expected);
+    }
+
+    /**
+     * Тест проверяет, что без свойства всем показывается контрольный вариант и ничего не учитывается.
+     */
+    @Test
+    void variant_WhenDisabled_ShouldAlwaysBeControl() {
+        Experiments disabled = new Experiments();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, disabled.impression(Experiment.MENU_LAYOUT, String.valueOf(i)));
+        }
+        assertTrue(disabled.report().contains("menu/numbered: показов 0"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.homework.flood;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link FloodControl}.
+ * Проверяет ограничение по скользящему окну, независимость чатов и очистку устаревших записей.
+ */
+class FloodControlTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final FloodControl flood = new FloodControl(3, 10_000, now::get);
+
+    /**
+     * Тест проверяет, что сверх лимита запросы чата отклоняются, а другие чаты не затронуты.
+     */
+    @Test
+    void tryAcquire_OverLimit_ShouldRejectOnlyThatChat() {
+        assertTrue(flood.tryAcquire(42));
+        assertTrue(flood.tryAcquire(42));
+        assertTrue(flood.tryAcquire(42));
+        assertFalse(flood.tryAcquire(42));
+        assertFalse(flood.tryAcquire(42));
+
+        assertTrue(flood.tryAcquire(43), "Другой чат имеет свой счетчик");
+        assertEquals(2, flood.getRejected());
+    }
+
+    /**
+     * Тест проверяет, что запросы прошлого интервала учитываются с уменьшающимся весом,
+     * а после целого окна тишины лимит восстанавливается полностью.
+     */
+    @Test
+    void tryAcquire_WindowSlides_ShouldReleaseGradually() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(flood.tryAcquire(-100500));
+        }
+
+        // Начало следующего интервала: прошлые 3 запроса еще почти целиком в окне
+        now.set(1_010_000);
+        assertFalse(flood.tryAcquire(-100500));
+
+        // Середина интервала: прошлые запросы весят 1.5, место есть для двух
+        now.set(1_015_000);
+        assertTrue(flood.tryAcquire(-100500));
+        assertTrue(flood.tryAcquire(-100500));
+        assertFalse(flood.tryAcquire(-100500));
+
+        // Через два интервала прошлое не учитывается
+        now.set(1_030_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(flood.tryAcquire(-100500));
+        }
+    }
+
+    /**
+     * Тест проверяет, что записи чатов, вышедших из окна, вычищаются при росте таблицы.
+     */
+    @Test
+    void tryAcquire_ManyChats_ShouldEvictStaleEntries() {
+        for (long chat = 1; chat <= 10_000; chat++) {
+            assertTrue(flood.tryAcquire(chat));
+        }
+        assertEquals(10_000, flood.size());
+
+        now.addAndGet(30_000);
+        for (long chat = 20_001; chat <= 25_000; chat++) {
+            assertTrue(flood.tryAcquire(chat));
+        }
+        assertTrue(flood.size() < 10_000, "Устаревшие записи удалены: " + flood.size());
+        assertTrue(flood.tryAcquire(1), "Вычищенный чат начинает с нуля");
+    }
+}
@@ -0,0 +1,50 @@
+package org.homework.i18n;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link MessageBundles} и {@link Language}.
+ */
+class MessageBundlesTest {
+
+    private final MessageBundles messages = new MessageBundles();
+
+    /**
+     * Тест проверяет определение языка по коду Telegram.
+     */
+    @Test
+    void fromCode_ShouldResolveSupportedAndFallbackToDefault() {
+        assertEquals(Language.EN, Language.fromCode("en"));
+        assertEquals(Language.EN, Language.fromCode("en-US"), "Регион в коде должен игнорироваться");
+        assertEquals(Language.DE, Language.fromCode("DE"), "Регистр кода не должен учитываться");
+        assertEquals(Language.DEFAULT, Language.fromCode("fr"), "Неподдерживаемый язык - язык по умолчанию");
+        assertEquals(Language.DEFAULT, Language.fromCode(null));
+        assertEquals(Language.DEFAULT, Language.fromCode("я"));
+    }
+
+    /**
+     * Тест проверяет, что каждый язык содержит все сообщения.
+     */
+    @Test
+    void text_ShouldBeDefinedForEveryLanguageAndMessage() {
+        for (Language language : Language.values()) {
+            for (MessageId id : MessageId.values()) {
+                assertNotNull(messages.text(language, id), language + "/" + id + " должен быть определен");
+            }
+        }
+        assertTrue(messages.text(Language.RU, MessageId.GREETING).startsWith("Привет!"));
+        assertTrue(messages.text(Language.EN, MessageId.GREETING).startsWith("Hi!"));
+    }
+
+    /**
+     * Тест проверяет разбор списков синонимов.
+     */
+    @Test
+    void answers_ShouldSplitSynonymList() {
+        assertArrayEquals(new String[]{"yes", "yeah", "yep", "sure", "ok", "okay"},
+                messages.answers(Language.EN, MessageId.ANSWER_YES));
+        assertEquals("да", messages.answers(Language.RU, MessageId.ANSWER_YES)[0]);
+    }
+}
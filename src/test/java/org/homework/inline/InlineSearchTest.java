@@ -0,0 +1,52 @@
+package org.homework.inline;
+
+import org.homework.catalog.TravelCatalog;
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.inputmessagecontent.InputTextMessageContent;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResult;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResultArticle;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link InlineSearch}.
+ * Проверяет карточки результатов и кеширование по запросу и языку.
+ */
+class InlineSearchTest {
+
+    /**
+     * Тест проверяет, что карточка содержит название, ссылку и локализованную кнопку.
+     */
+    @Test
+    void results_Query_ShouldReturnLocalizedArticles() {
+        InlineSearch search = new InlineSearch(new TravelCatalog(), new MessageBundles());
+
+        List<InlineQueryResult> results = search.results("круиз", Language.EN);
+
+        assertEquals(1, results.size());
+        InlineQueryResultArticle article = (InlineQueryResultArticle) results.get(0);
+        assertEquals("cruises", article.getId());
+        assertEquals("Круизы", article.getTitle());
+        assertTrue(((InputTextMessageContent) article.getInputMessageContent()).getMessageText()
+                .contains("https://lavoyage.tp.st/"));
+        assertEquals("Open", article.getReplyMarkup().getKeyboard().get(0).get(0).getText());
+    }
+
+    /**
+     * Тест проверяет, что одинаковые запросы отвечаются одним и тем же готовым списком.
+     */
+    @Test
+    void results_RepeatedQuery_ShouldReturnCachedList() {
+        InlineSearch search = new InlineSearch(new TravelCatalog(), new MessageBundles());
+
+        List<InlineQueryResult> first = search.results("Кру", Language.RU);
+
+        assertSame(first, search.results(" кру ", Language.RU));
+        assertNotSame(first, search.results("кру", Language.EN), "Кеш разделен по языкам");
+        assertSame(first.get(0), search.results("круизы", Language.RU).get(0), "Карточки разделяются запросами");
+    }
+}
@@ -0,0 +1,134 @@
+package org.homework.intent;
+
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.updates.IncomingUpdate;
+import org.homework.updates.UpdateStreamParser;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link CommandRouter}.
+ * Проверяет выбор обработчика, запасной обработчик и проверку обработчиков при сборке.
+ */
+class CommandRouterTest {
+
+    private final IntentMatcher matcher = new IntentMatcher(new MessageBundles());
+
+    /** Обработчики, записывающие вызовы */
+    static class Handlers {
+        final List<String> calls = new ArrayList<>();
+
+        @Command(Intent.START)
+        void start(IncomingUpdate update, String chatId, Language language) {
+            calls.add("start " + chatId + " " + language);
+        }
+
+        @Command(Intent.UNKNOWN)
+        void other(IncomingUpdate update, String chatId, Language language) {
+            calls.add("other " + update.getText());
+        }
+    }
+
+    /** Отдельный сервис с одной командой */
+    static class HelpHandler {
+        int calls;
+
+        @Command(Intent.HELP)
+        void help(IncomingUpdate update, String chatId, Language language) throws TelegramApiException {
+            calls++;
+            if ("/help fail".equals(update.getText())) {
+                throw new TelegramApiException("send failed");
+            }
+        }
+    }
+
+    /**
+     * Тест проверяет, что сообщение попадает к обработчику своего намерения,
+     * а обработчики собираются из нескольких сервисов.
+     */
+    @Test
+    void route_KnownIntent_ShouldCallItsHandler() throws TelegramApiException {
+        Handlers handlers = new Handlers();
+        HelpHandler help = new HelpHandler();
+        CommandRouter router = new CommandRouter(matcher, List.of(handlers, help));
+
+        assertTrue(router.route(update("/START@bot"), "7", Language.EN));
+        assertTrue(router.route(update("помощь"), "7", Language.RU));
+
+        assertEquals(List.of("start 7 EN"), handlers.calls);
+        assertEquals(1, help.calls);
+    }
+
+    /**
+     * Тест проверяет, что намерение без обработчика уходит обработчику UNKNOWN.
+     */
+    @Test
+    void route_IntentWithoutHandler_ShouldFallBackToUnknown() throws TelegramApiException {
+        Handlers handlers = new Handlers();
+        CommandRouter router = new CommandRouter(matcher, List.of(handlers));
+
+        assertTrue(router.route(update("нет"), "7", Language.RU));
+        assertTrue(router.route(update("Может быть"), "7", Language.RU));
+
+        assertEquals(List.of("other нет", "other Может быть"), handlers.calls);
+    }
+
+    /**
+     * Тест проверяет, что без обработчика UNKNOWN нераспознанное сообщение не обрабатывается.
+     */
+    @Test
+    void route_NoFallback_ShouldReturnFalse() throws TelegramApiException {
+        CommandRouter router = new CommandRouter(matcher, List.of(new HelpHandler()));
+
+        assertFalse(router.route(update("Может быть"), "7", Language.RU));
+    }
+
+    /**
+     * Тест проверяет, что ошибка отправки из обработчика передается вызывающему как есть.
+     */
+    @Test
+    void route_HandlerThrows_ShouldPropagateTelegramApiException() {
+        CommandRouter router = new CommandRouter(matcher, List.of(new HelpHandler()));
+
+        TelegramApiException e = assertThrows(TelegramApiException.class,
+                () -> router.route(update("/help fail"), "7", Language.RU));
+        assertEquals("send failed", e.getMessage());
+    }
+
+    /**
+     * Тест проверяет, что два обработчика одного намерения обнаруживаются при сборке.
+     */
+    @Test
+    void constructor_DuplicateIntent_ShouldThrow() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new CommandRouter(matcher, List.of(new HelpHandler(), new HelpHandler())));
+        assertTrue(e.getMessage().contains("HELP"));
+    }
+
+    /**
+     * Тест проверяет, что метод с неверной сигнатурой обнаруживается при сборке.
+     */
+    @Test
+    void constructor_WrongSignature_ShouldThrow() {
+        Object handler = new Object() {
+            @Command(Intent.YES)
+            String yes(String chatId) {
+                return chatId;
+            }
+        };
+
+        assertThrows(IllegalStateException.class, () -> new CommandRouter(matcher, List.of(handler)));
+    }
+
+    private static IncomingUpdate update(String text) throws TelegramApiException {
+        String json = "{\"update_id\":1,\"message\":{\"message_id\":1,\"chat\":{\"id\":7},\"text\":\"" + text + "\"}}";
+        return UpdateStreamParser.parseUpdate(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package org.homework.intent;
+
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link IntentMatcher}.
+ * Проверяет распознавание синонимов, регистра, пунктуации, неправильной раскладки и языка отправителя.
+ */
+class IntentMatcherTest {
+
+    private final IntentMatcher matcher = new IntentMatcher(new MessageBundles());
+
+    /**
+     * Тест проверяет распознавание положительных ответов в разных формах.
+     */
+    @Test
+    void match_YesVariants_ShouldReturnYes() {
+        assertEquals(Intent.YES, matcher.match("да", Language.RU));
+        assertEquals(Intent.YES, matcher.match("Да!", Language.RU));
+        assertEquals(Intent.YES, matcher.match("  ДА, конечно", Language.RU));
+        assertEquals(Intent.YES, matcher.match("yes", Language.EN));
+        assertEquals(Intent.YES, matcher.match("Ja", Language.DE));
+        assertEquals(Intent.YES, matcher.match("lf", Language.RU), "\"да\" в латинской раскладке");
+        assertEquals(Intent.YES, matcher.match("нуы", Language.EN), "\"yes\" в русской раскладке");
+    }
+
+    /**
+     * Тест проверяет распознавание отрицательных ответов.
+     */
+    @Test
+    void match_NoVariants_ShouldReturnNo() {
+        assertEquals(Intent.NO, matcher.match("Нет", Language.RU));
+        assertEquals(Intent.NO, matcher.match("нет, спасибо", Language.RU));
+        assertEquals(Intent.NO, matcher.match("No.", Language.EN));
+        assertEquals(Intent.NO, matcher.match("ytn", Language.RU), "\"нет\" в латинской раскладке");
+    }
+
+    /**
+     * Тест проверяет распознавание команд со слешем, упоминанием бота и без слеша.
+     */
+    @Test
+    void match_Commands_ShouldReturnStartAndHelp() {
+        assertEquals(Intent.START, matcher.match("/start", Language.RU));
+        assertEquals(Intent.START, matcher.match("/START@travel_bot", Language.RU));
+        assertEquals(Intent.HELP, matcher.match("/help", Language.RU));
+        assertEquals(Intent.HELP, matcher.match("помощь", Language.RU));
+    }
+
+    /**
+     * Тест проверяет, что слово должно совпасть с синонимом целиком.
+     */
+    @Test
+    void match_PartialOrUnknownWords_ShouldReturnUnknown() {
+        assertEquals(Intent.UNKNOWN, matcher.match("даже", Language.RU), "Префикс синонима не является совпадением");
+        assertEquals(Intent.UNKNOWN, matcher.match("д", Language.RU), "Незаконченный синоним не является совпадением");
+        assertEquals(Intent.UNKNOWN, matcher.match("Может быть", Language.RU));
+        assertEquals(Intent.UNKNOWN, matcher.match("", Language.RU));
+        assertEquals(Intent.UNKNOWN, matcher.match("!!!", Language.RU));
+        assertEquals(Intent.UNKNOWN, matcher.match(null, Language.RU));
+    }
+
+    /**
+     * Тест проверяет, что синонимы ищутся только в языке отправителя и языке по умолчанию,
+     * а однобуквенные слова и отрицательная частица не считаются ответом.
+     */
+    @Test
+    void match_OtherLanguagesAndShortWords_ShouldNotLeak() {
+        assertEquals(Intent.UNKNOWN, matcher.match("Так себе", Language.RU), "Украинское \"так\" не действует для русского");
+        assertEquals(Intent.YES, matcher.match("Так", Language.UK));
+        assertEquals(Intent.UNKNOWN, matcher.match("Не знаю", Language.RU));
+        assertEquals(Intent.UNKNOWN, matcher.match("н", Language.EN), "\"y\" в русской раскладке");
+        assertEquals(Intent.UNKNOWN, matcher.match("т", Language.EN), "\"n\" в русской раскладке");
+        assertEquals(Intent.UNKNOWN, matcher.match("ja", Language.EN));
+        assertEquals(Intent.YES, matcher.match("да", Language.EN), "Язык по умолчанию действует для всех");
+        assertEquals(Intent.START, matcher.match("/start", Language.DE), "Команды бота действуют на любом языке");
+    }
+
+    /**
+     * Тест проверяет перевод слова в другую раскладку.
+     */
+    @Test
+    void switchLayout_ShouldMapBetweenLayouts() {
+        assertEquals("lf", IntentMatcher.switchLayout("да"));
+        assertEquals("нуы", IntentMatcher.switchLayout("Yes"));
+        assertNull(IntentMatcher.switchLayout("хочу"), "\"х\" соответствует знаку \"[\", а не букве");
+    }
+}
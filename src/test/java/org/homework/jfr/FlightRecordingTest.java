@@ -0,0 +1,122 @@
+package org.homework.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.homework.dispatch.Dispatcher;
+import org.homework.load.LoadShedder;
+import org.homework.logger.ILogger;
+import org.homework.send.SendGate;
+import org.homework.updates.IncomingUpdate;
+import org.homework.updates.UpdateStreamParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки событий JFR бота и {@link FlightRecording}.
+ * Проверяет, что события попадают в запись с нужными полями.
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecordingTest {
+
+    @Mock
+    private ILogger logger; // Заглушка для логгера
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест проверяет запись полученного обновления с чатом и видом.
+     */
+    @Test
+    void updateReceived_Enabled_ShouldRecordChatAndKind() throws Exception {
+        IncomingUpdate update = UpdateStreamParser.parseUpdate(("{\"update_id\":1,\"callback_query\":{\"id\":\"cb\","
+                + "\"from\":{\"id\":42},\"message\":{\"message_id\":5,\"chat\":{\"id\":42}},\"data\":\"menu\"}}")
+                .getBytes(StandardCharsets.UTF_8));
+
+        List<RecordedEvent> events = record("org.homework.UpdateReceived", () -> UpdateReceivedEvent.emit(update));
+
+        assertEquals(1, events.size());
+        assertEquals(42L, events.get(0).getLong("chatId"));
+        assertEquals("callback", events.get(0).getString("kind"));
+    }
+
+    /**
+     * Тест проверяет запись попытки вызова API с результатом.
+     */
+    @Test
+    void apiCall_Finished_ShouldRecordResult() throws Exception {
+        List<RecordedEvent> events = record("org.homework.ApiCall", () -> {
+            ApiCallEvent.start("sendmessage", "7", "interactive", 1).finish(ApiCallEvent.OK);
+            ApiCallEvent.start("sendmessage", "7", "interactive", 2).finish("429");
+        });
+
+        assertEquals(List.of("ok", "429"),
+                events.stream().map(e -> e.getString("result")).collect(Collectors.toList()));
+        assertEquals(2, events.get(1).getInt("attempt"));
+    }
+
+    /**
+     * Тест проверяет, что замер очередей записывает глубину каждой очереди.
+     */
+    @Test
+    void sampleQueues_ShouldRecordEachQueue() throws Exception {
+        LoadShedder loadShedder = new LoadShedder();
+        loadShedder.observe(3, 0);
+        FlightRecording recording = new FlightRecording(loadShedder, new SendGate(30),
+                new Dispatcher(false, logger), logger);
+
+        List<RecordedEvent> events = record("org.homework.QueueDepth", recording::sampleQueues);
+
+        RecordedEvent updates = events.stream().filter(e -> "updates".equals(e.getString("queue")))
+                .findFirst().orElseThrow();
+        assertEquals(3, updates.getInt("depth"));
+        assertTrue(events.stream().anyMatch(e -> "send.broadcast".equals(e.getString("queue"))));
+    }
+
+    /**
+     * Тест проверяет, что без записи события не создают ошибок и снимок недоступен.
+     */
+    @Test
+    void dump_NotStarted_ShouldThrow() {
+        HandlerEvent.start("START", 7).commit();
+        DelayedTaskEvent.start("goodbye", "7", System.nanoTime()).commit();
+
+        FlightRecording recording = new FlightRecording(new LoadShedder(), new SendGate(30),
+                new Dispatcher(false, logger), logger);
+        assertThrows(IOException.class, () -> recording.dump(tempDir.resolve("bot.jfr")));
+    }
+
+    /**
+     * Выполняет действие под записью с одним включенным событием и возвращает записанные события.
+     */
+    private List<RecordedEvent> record(String eventName, ThrowingRunnable action) throws Exception {
+        Path file = tempDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,97 @@
+package org.homework.load;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link LoadShedder}.
+ * Проверяет выбор уровня по очереди и ожиданию, задержку понижения и учет переходов.
+ */
+@ExtendWith(MockitoExtension.class)
+class LoadShedderTest {
+
+    @Mock
+    private ILogger logger; // Заглушка для логгера
+
+    private final AtomicLong now = new AtomicLong(100_000);
+
+    /**
+     * Тест проверяет, что уровень растет вместе с глубиной очереди.
+     */
+    @Test
+    void observe_GrowingQueue_ShouldEscalateLevels() {
+        LoadShedder shedder = new LoadShedder(10, 1_000, now::get, logger);
+
+        shedder.observe(5, 0);
+        assertEquals(LoadLevel.NORMAL, shedder.level());
+        assertTrue(shedder.allowOptional());
+
+        shedder.observe(10, 0);
+        assertEquals(LoadLevel.SHED_OPTIONAL, shedder.level());
+        assertFalse(shedder.allowOptional());
+
+        shedder.observe(25, 0);
+        assertEquals(LoadLevel.BUSY_REPLY, shedder.level());
+
+        shedder.observe(40, 0);
+        assertEquals(LoadLevel.REJECT, shedder.level());
+        verify(logger, times(3)).warn(anyString());
+    }
+
+    /**
+     * Тест проверяет, что длительное ожидание в очереди повышает уровень и при короткой очереди.
+     */
+    @Test
+    void observe_HighLatency_ShouldShedOptionalWork() {
+        LoadShedder shedder = new LoadShedder(100, 1_000, now::get, logger);
+
+        for (int i = 0; i < 20; i++) {
+            shedder.observe(1, 1_500);
+        }
+
+        assertEquals(LoadLevel.SHED_OPTIONAL, shedder.level());
+    }
+
+    /**
+     * Тест проверяет, что уровень понижается только после паузы и переходы учитываются.
+     */
+    @Test
+    void observe_LoadDrops_ShouldRecoverAfterCooldown() {
+        LoadShedder shedder = new LoadShedder(10, 1_000, now::get, logger);
+        shedder.observe(30, 0);
+        assertEquals(LoadLevel.BUSY_REPLY, shedder.level());
+
+        shedder.observe(0, 0);
+        assertEquals(LoadLevel.BUSY_REPLY, shedder.level(), "Понижение сразу после повышения откладывается");
+
+        now.addAndGet(LoadShedder.COOLDOWN_MILLIS);
+        shedder.observe(0, 0);
+        assertEquals(LoadLevel.NORMAL, shedder.level());
+
+        assertEquals(1, shedder.getTransitions(LoadLevel.BUSY_REPLY));
+        assertEquals(1, shedder.getTransitions(LoadLevel.NORMAL));
+        verify(logger).info(anyString());
+    }
+
+    /**
+     * Тест проверяет, что подтвержденное обновление не отбрасывается и не получает ответ
+     * "бот занят" даже при отказе.
+     */
+    @Test
+    void level_AcknowledgedUpdate_ShouldNotRejectOrReplyBusy() {
+        LoadShedder shedder = new LoadShedder(10, 1_000, now::get, logger);
+        shedder.observe(40, 0);
+
+        assertEquals(LoadLevel.REJECT, shedder.level(false));
+        assertEquals(LoadLevel.SHED_OPTIONAL, shedder.level(true));
+    }
+}
@@ -0,0 +1,174 @@
+package org.homework.logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link LogThrottle}.
+ * Использует управляемые часы, чтобы переключать окна без ожидания.
+ */
+class LogThrottleTest {
+
+    /** Длительность окна в тестах */
+    private static final long WINDOW_MILLIS = 1_000;
+
+    /** Управляемые часы (наносекунды) */
+    private final AtomicLong clock = new AtomicLong();
+
+    /** Итоговые строки, выданные ограничителем */
+    private final List<String> summaries = Collections.synchronizedList(new ArrayList<>());
+
+    private LogThrottle throttle;
+
+    /**
+     * Создает ограничитель, пропускающий 2 сообщения на окно.
+     */
+    @BeforeEach
+    void setUp() {
+        throttle = new LogThrottle(WINDOW_MILLIS, 2, clock::get,
+                (template, suppressed, windowMillis) -> summaries.add(template + "=" + suppressed));
+    }
+
+    /**
+     * Тест проверяет, что сверх лимита однотипные сообщения подавляются.
+     */
+    @Test
+    void tryAcquire_OverBurst_ShouldSuppressSameTemplate() {
+        assertTrue(throttle.tryAcquire("Ошибка при отправке сообщения: 429"));
+        assertTrue(throttle.tryAcquire("Ошибка при отправке сообщения: 502"));
+        assertFalse(throttle.tryAcquire("Ошибка при отправке сообщения: 429"),
+                "Третье сообщение того же шаблона должно быть подавлено");
+
+        // Другой шаблон ограничивается независимо
+        assertTrue(throttle.tryAcquire("Другая ошибка: timeout"));
+    }
+
+    /**
+     * Тест проверяет, что при смене окна выдается итоговая строка, а лимит сбрасывается.
+     */
+    @Test
+    void tryAcquire_NextWindow_ShouldEmitSummaryAndReset() {
+        for (int i = 0; i < 5; i++) {
+            throttle.tryAcquire("Ошибка при отправке сообщения: " + i);
+        }
+        assertTrue(summaries.isEmpty(), "До конца окна итог не выдается");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+        assertTrue(throttle.tryAcquire("Ошибка при отправке сообщения: 5"),
+                "В новом окне сообщение должно пройти");
+        assertEquals(List.of("Ошибка при отправке сообщения=3"), summaries);
+    }
+
+    /**
+     * Тест проверяет, что периодическая очистка выдает итог, даже если новых сообщений нет.
+     */
+    @Test
+    void flush_AfterWindow_ShouldEmitSummaryWithoutNewMessages() {
+        for (int i = 0; i < 4; i++) {
+            throttle.tryAcquire("Ошибка: " + i);
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+        throttle.flush();
+
+        assertEquals(List.of("Ошибка=2"), summaries);
+
+        // Следующая очистка без активности не выдает повторный итог
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+        throttle.flush();
+        assertEquals(1, summaries.size());
+    }
+
+    /**
+     * Тест проверяет, что при смене окна под нагрузкой из нескольких потоков каждое
+     * сообщение либо пропущено в пределах лимита, либо учтено в итоге.
+     */
+    @Test
+    void tryAcquire_ConcurrentRollOver_ShouldAccountEveryMessage() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        AtomicInteger passed = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    for (int i = 0; i < perThread; i++) {
+                        if (throttle.tryAcquire("Ошибка: " + i)) {
+                            passed.incrementAndGet();
+                        }
+                        if (i == perThread / 2) {
+                            // Окно сменяется, пока остальные потоки продолжают писать
+                            clock.compareAndSet(0, TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        clock.set(TimeUnit.MILLISECONDS.toNanos(3 * WINDOW_MILLIS));
+        throttle.flush();
+
+        long suppressed = summaries.stream()
+                .mapToLong(summary -> Long.parseLong(summary.substring(summary.indexOf('=') + 1)))
+                .sum();
+        assertEquals(4, passed.get(), "В каждом из двух окон должно пройти ровно 2 сообщения");
+        assertEquals(threads * perThread, passed.get() + suppressed,
+                "Каждое подавленное сообщение должно попасть в итог");
+    }
+
+    /**
+     * Тест проверяет, что общая очистка не удерживает ненужный ограничитель в памяти.
+     */
+    @Test
+    void scheduleFlusher_UnreachableThrottle_ShouldBeCollected() throws Exception {
+        WeakReference<LogThrottle> reference = suppressOnce();
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get(), "Ограничитель без внешних ссылок должен быть собран");
+    }
+
+    /**
+     * Создает ограничитель, подавляет сообщение (что включает общую очистку) и отпускает его.
+     */
+    private WeakReference<LogThrottle> suppressOnce() {
+        LogThrottle local = new LogThrottle(WINDOW_MILLIS, 0, clock::get, (template, suppressed, windowMillis) -> { });
+        assertFalse(local.tryAcquire("Ошибка: 1"));
+        assertTrue(LogThrottle.isFlushed(local), "Ограничитель должен быть включен в общую очистку");
+        return new WeakReference<>(local);
+    }
+
+    /**
+     * Тест проверяет выделение шаблона сообщения.
+     */
+    @Test
+    void templateOf_ShouldCutDetailsAfterSeparator() {
+        assertEquals("Ошибка при отправке сообщения",
+                LogThrottle.templateOf("Ошибка при отправке сообщения: Unable to execute"));
+        assertEquals("Без разделителя", LogThrottle.templateOf("Без разделителя"));
+    }
+}
@@ -0,0 +1,82 @@
+package org.homework.send;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link CircuitBreaker}.
+ * Проверяет размыкание после серии сбоев и восстановление через пробный вызов.
+ */
+class CircuitBreakerTest {
+
+    /** Текущее время в миллисекундах */
+    private long now;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(2, 1_000, () -> now);
+
+    /**
+     * Тест проверяет, что успех между сбоями сбрасывает счетчик.
+     */
+    @Test
+    void onFailure_NotConsecutive_ShouldStayClosed() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allow());
+    }
+
+    /**
+     * Тест проверяет, что после интервала пропускается ровно один пробный вызов,
+     * а его успех замыкает выключатель.
+     */
+    @Test
+    void allow_AfterOpenInterval_ShouldLetSingleProbe() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertFalse(breaker.allow(), "Разомкнутый выключатель отклоняет вызовы");
+
+        now += 1_000;
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allow(), "Первый вызов после интервала - пробный");
+        assertFalse(breaker.allow(), "Пока идет проба, остальные вызовы отклоняются");
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allow());
+    }
+
+    /**
+     * Тест проверяет, что проверка перед ожиданием не занимает пробный вызов.
+     */
+    @Test
+    void isRejecting_HalfOpen_ShouldNotTakeProbe() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.isRejecting());
+
+        now += 1_000;
+        assertFalse(breaker.isRejecting(), "Пробный вызов еще свободен");
+        assertTrue(breaker.allow(), "Проверка не должна занимать пробный вызов");
+        assertTrue(breaker.isRejecting(), "Пока идет проба, остальные вызовы отклоняются");
+    }
+
+    /**
+     * Тест проверяет, что неудачная проба снова размыкает выключатель на полный интервал.
+     */
+    @Test
+    void onFailure_DuringProbe_ShouldReopen() {
+        breaker.onFailure();
+        breaker.onFailure();
+        now += 1_000;
+        assertTrue(breaker.allow());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now += 999;
+        assertFalse(breaker.allow());
+    }
+}
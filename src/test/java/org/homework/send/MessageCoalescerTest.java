@@ -0,0 +1,105 @@
+package org.homework.send;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link MessageCoalescer}.
+ * Проверяет правила склейки сообщений и отправку сообщений одного ответа.
+ */
+class MessageCoalescerTest {
+
+    /** Отправленные сообщения */
+    private final List<SendMessage> sent = new CopyOnWriteArrayList<>();
+
+    /**
+     * Тест проверяет, что ответ и следующее за ним меню склеиваются в одно сообщение с клавиатурой меню.
+     */
+    @Test
+    void merge_TextThenMenu_ShouldCombineIntoOneMessage() {
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        SendMessage menu = message("1", "Выберите тип путешествия:");
+        menu.setReplyMarkup(keyboard);
+
+        List<SendMessage> merged = MessageCoalescer.merge(List.of(message("1", "Отлично!"), menu));
+
+        assertEquals(1, merged.size());
+        assertEquals("Отлично!\n\nВыберите тип путешествия:", merged.get(0).getText());
+        assertSame(keyboard, merged.get(0).getReplyMarkup());
+        assertEquals("1", merged.get(0).getChatId());
+    }
+
+    /**
+     * Тест проверяет, что сообщение с клавиатурой не склеивается со следующим: клавиатура бы пропала.
+     */
+    @Test
+    void merge_FirstWithKeyboard_ShouldKeepSeparate() {
+        SendMessage menu = message("1", "Меню");
+        menu.setReplyMarkup(new InlineKeyboardMarkup());
+
+        List<SendMessage> merged = MessageCoalescer.merge(List.of(menu, message("1", "Прощание")));
+
+        assertEquals(2, merged.size());
+        assertSame(menu, merged.get(0));
+    }
+
+    /**
+     * Тест проверяет, что сообщения с разной разметкой и слишком длинный общий текст не склеиваются.
+     */
+    @Test
+    void merge_IncompatibleMessages_ShouldKeepSeparate() {
+        SendMessage html = message("1", "<b>Жирный</b>");
+        html.setParseMode("HTML");
+        String half = "x".repeat(MessageCoalescer.MAX_TEXT_LENGTH / 2);
+
+        assertEquals(2, MessageCoalescer.merge(List.of(message("1", "Текст"), html)).size());
+        assertEquals(2, MessageCoalescer.merge(List.of(message("1", half), message("1", half))).size());
+    }
+
+    /**
+     * Тест проверяет, что сообщения одного ответа уходят одним вызовом сразу в вызывающем потоке.
+     */
+    @Test
+    void send_MessagesOfOneReply_ShouldUseOneCall() throws TelegramApiException {
+        MessageCoalescer coalescer = new MessageCoalescer(true, (bot, message) -> sent.add(message));
+
+        coalescer.send(null, List.of(message("1", "Отлично!"), message("1", "Выберите тип путешествия:")));
+
+        assertEquals(1, sent.size(), "Ответ должен быть отправлен до возврата из send");
+        assertEquals("Отлично!\n\nВыберите тип путешествия:", sent.get(0).getText());
+        assertEquals(1, coalescer.getSaved());
+    }
+
+    /**
+     * Тест проверяет, что без склейки сообщения отправляются как есть, а ошибка доходит до вызывающего.
+     */
+    @Test
+    void send_Disabled_ShouldSendEachMessageAndPropagateErrors() throws TelegramApiException {
+        MessageCoalescer coalescer = new MessageCoalescer(false, (bot, message) -> {
+            sent.add(message);
+            if (message.getText().isEmpty()) {
+                throw new TelegramApiException("Bad Request: message text is empty");
+            }
+        });
+
+        coalescer.send(null, List.of(message("1", "Отлично!"), message("1", "Привет!")));
+
+        assertEquals(2, sent.size());
+        assertEquals(0, coalescer.getSaved());
+        assertThrows(TelegramApiException.class, () -> coalescer.send(null, message("1", "")));
+    }
+
+    private static SendMessage message(String chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(text);
+        return message;
+    }
+}
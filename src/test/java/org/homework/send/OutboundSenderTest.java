@@ -0,0 +1,202 @@
+package org.homework.send;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link OutboundSender}.
+ * Проверяет повторы с задержкой, ограничения retry_after и работу выключателя.
+ * Время и ожидание подменяются, поэтому тесты не спят.
+ */
+class OutboundSenderTest {
+
+    /** Текущее время в миллисекундах; ожидание сдвигает его вперед */
+    private long now = 1_000_000;
+
+    /** Все запрошенные ожидания */
+    private final List<Long> pauses = new ArrayList<>();
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 30_000, () -> now);
+
+    private final OutboundSender sender = new OutboundSender(breaker, () -> now, millis -> {
+        pauses.add(millis);
+        now += millis;
+    }, new SendGate(1_000), mock(ILogger.class));
+
+    /**
+     * Тест проверяет, что ошибка сервера повторяется с растущей задержкой.
+     */
+    @Test
+    void send_ServerErrorThenSuccess_ShouldRetryWithBackoff() throws TelegramApiException {
+        AtomicInteger calls = new AtomicInteger();
+        Message sent = new Message();
+
+        Message result = sender.send(message("1"), Priority.INTERACTIVE, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw apiError(502, null);
+            }
+            return sent;
+        });
+
+        assertSame(sent, result);
+        assertEquals(3, calls.get());
+        assertEquals(2, pauses.size(), "Перед каждым повтором должна быть пауза");
+        assertTrue(pauses.get(0) >= 100 && pauses.get(0) <= 200, "Первая пауза - около начальной задержки");
+        assertTrue(pauses.get(1) >= 200 && pauses.get(1) <= 400, "Вторая пауза - вдвое больше");
+    }
+
+    /**
+     * Тест проверяет, что ошибка запроса (4xx) не повторяется.
+     */
+    @Test
+    void send_BadRequest_ShouldNotRetry() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(TelegramApiRequestException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            throw apiError(400, null);
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Ошибка запроса не является сбоем API");
+    }
+
+    /**
+     * Тест проверяет, что retry_after выдерживается перед повтором и для следующих сообщений в чат,
+     * но не задерживает другие чаты.
+     */
+    @Test
+    void send_TooManyRequests_ShouldHonorRetryAfterForChat() throws TelegramApiException {
+        AtomicInteger calls = new AtomicInteger();
+
+        sender.send(message("1"), Priority.INTERACTIVE, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw apiError(429, 3);
+            }
+            return new Message();
+        });
+        assertEquals(List.of(3_000L), pauses, "Повтор должен ждать ровно retry_after");
+
+        pauses.clear();
+        sender.send(message("2"), Priority.INTERACTIVE, Message::new);
+        assertTrue(pauses.isEmpty(), "Другой чат не должен ждать");
+    }
+
+    /**
+     * Тест проверяет, что слишком долгое ограничение сразу завершается ошибкой.
+     */
+    @Test
+    void send_LongRetryAfter_ShouldFailFast() {
+        assertThrows(TelegramApiException.class,
+                () -> sender.send(message("1"), Priority.INTERACTIVE, () -> { throw apiError(429, 60); }));
+        assertTrue(pauses.isEmpty(), "Ждать минуту на месте нельзя");
+        assertThrows(TelegramApiException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, Message::new),
+                "Пока ограничение действует, отправка в чат отклоняется");
+    }
+
+    /**
+     * Тест проверяет, что после серии сбоев выключатель отклоняет вызовы без обращения к API.
+     */
+    @Test
+    void send_WhenApiDown_ShouldOpenBreakerAndFailFast() {
+        AtomicInteger calls = new AtomicInteger();
+        OutboundSender.ApiCall<Message> down = () -> {
+            calls.incrementAndGet();
+            throw new TelegramApiException("Connection refused");
+        };
+
+        assertThrows(TelegramApiException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, down));
+        assertEquals(3, calls.get(), "Выключатель размыкается на третьем сбое подряд");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        assertThrows(TelegramApiException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, down));
+        assertEquals(3, calls.get(), "При разомкнутом выключателе API не вызывается");
+    }
+
+    /**
+     * Тест проверяет, что при разомкнутом выключателе вызов отклоняется до ожидания
+     * и не занимает место в бюджете отправки.
+     */
+    @Test
+    void send_WhenBreakerOpen_ShouldRejectBeforeTakingSlot() {
+        AtomicInteger slots = new AtomicInteger();
+        OutboundSender counted = new OutboundSender(breaker, () -> now, pauses::add, new SendGate(1_000) {
+            @Override
+            public void acquire(Priority priority) throws InterruptedException {
+                slots.incrementAndGet();
+                super.acquire(priority);
+            }
+        }, mock(ILogger.class));
+        assertThrows(TelegramApiException.class, () -> counted.send(message("1"), Priority.INTERACTIVE,
+                () -> { throw new TelegramApiException("Connection refused"); }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        int taken = slots.get();
+        pauses.clear();
+
+        assertThrows(TelegramApiException.class, () -> counted.send(message("2"), Priority.BROADCAST, Message::new));
+
+        assertEquals(taken, slots.get(), "Отклоненный вызов не должен занимать бюджет отправки");
+        assertTrue(pauses.isEmpty(), "Отклоненный вызов не должен ждать");
+    }
+
+    /**
+     * Тест проверяет, что локальная ошибка во время пробного вызова освобождает пробу
+     * и следующий вызов снова может проверить API.
+     */
+    @Test
+    void send_RuntimeErrorDuringProbe_ShouldReleaseProbe() throws TelegramApiException {
+        OutboundSender.ApiCall<Message> down = () -> {
+            throw new TelegramApiException("Connection refused");
+        };
+        assertThrows(TelegramApiException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, down));
+        now += 30_000;
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        assertThrows(IllegalArgumentException.class, () -> sender.send(message("1"), Priority.INTERACTIVE, () -> {
+            throw new IllegalArgumentException("Cannot serialize request");
+        }));
+
+        assertFalse(breaker.isRejecting(), "Проба без ответа API должна освободиться");
+        Message sent = new Message();
+        assertSame(sent, sender.send(message("1"), Priority.INTERACTIVE, () -> sent));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static SendMessage message(String chatId) {
+        return new SendMessage(chatId, "text");
+    }
+
+    /**
+     * Создает ошибку ответа API с кодом и, при необходимости, retry_after.
+     */
+    private static TelegramApiRequestException apiError(int code, Integer retryAfter) {
+        return new TelegramApiRequestException("Error " + code) {
+            @Override
+            public Integer getErrorCode() {
+                return code;
+            }
+
+            @Override
+            public ResponseParameters getParameters() {
+                return retryAfter == null ? null : new ResponseParameters() {
+                    @Override
+                    public Integer getRetryAfter() {
+                        return retryAfter;
+                    }
+                };
+            }
+        };
+    }
+}
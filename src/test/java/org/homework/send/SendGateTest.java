@@ -0,0 +1,83 @@
+package org.homework.send;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link SendGate}.
+ * Проверяет приоритет интерактивных запросов и гарантированную долю фоновых.
+ */
+class SendGateTest {
+
+    /**
+     * Тест проверяет, что в пределах бюджета слот выдается без ожидания.
+     */
+    @Test
+    void acquire_WithinBudget_ShouldNotWait() throws InterruptedException {
+        SendGate gate = new SendGate(1_000);
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            gate.acquire(Priority.BROADCAST);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "Запас на всплеск не использован");
+        assertTrue(gate.report().contains("broadcast: отправок 100"));
+    }
+
+    /**
+     * Тест проверяет, что при нехватке бюджета интерактивные запросы обслуживаются раньше
+     * рассылки, но рассылка получает слот после накопления своей доли, а не в самом конце.
+     */
+    @Test
+    void acquire_UnderContention_ShouldPreferInteractiveWithMinimumShare() throws InterruptedException {
+        SendGate gate = new SendGate(10);
+        for (int i = 0; i < 10; i++) {
+            gate.acquire(Priority.INTERACTIVE); // Исчерпываем запас на всплеск
+        }
+
+        List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        threads.add(start(gate, Priority.BROADCAST, order));
+        awaitWaiting(gate, Priority.BROADCAST, 1);
+        for (int i = 0; i < 15; i++) {
+            threads.add(start(gate, Priority.INTERACTIVE, order));
+        }
+        awaitWaiting(gate, Priority.INTERACTIVE, 15);
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+
+        int broadcastIndex = order.indexOf(Priority.BROADCAST);
+        assertEquals(16, order.size());
+        assertTrue(broadcastIndex > 0, "Рассылка не должна опережать интерактивные запросы");
+        assertTrue(broadcastIndex < 15, "Рассылка должна получить гарантированную долю до конца очереди");
+    }
+
+    private static Thread start(SendGate gate, Priority priority, List<Priority> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                gate.acquire(priority);
+                order.add(priority);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Ждет, пока в очереди класса окажется нужное число запросов.
+     */
+    private static void awaitWaiting(SendGate gate, Priority priority, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gate.waiting(priority) < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package org.homework.services;
 
+import org.homework.catalog.CatalogSnapshot;
+import org.homework.catalog.TravelCatalog;
+import org.homework.dispatch.Dispatcher;
+import org.homework.experiments.Experiments;
+import org.homework.i18n.Language;
+import org.homework.i18n.MessageBundles;
+import org.homework.inline.InlineSearch;
+import org.homework.intent.IntentMatcher;
+import org.homework.load.LoadShedder;
 import org.homework.logger.ILogger;
+import org.homework.send.OutboundSender;
+import org.homework.stats.ClickTracker;
+import org.homework.subscribers.SubscriberRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
@@ -31,12 +46,72 @@ class CommandServiceImplTest {
     @Mock
     private ILogger logger;
 
+    /**
+     * Каталог путешествий, загруженный из встроенного ресурса
+     */
+    @Spy
+    private TravelCatalog travelCatalog = new TravelCatalog();
+
+    /**
+     * Локализованные тексты, загруженные из ресурсов
+     */
+    @Spy
+    private MessageBundles messages = new MessageBundles();
+
+    /**
+     * Распознаватель ответов, собранный по тем же текстам
+     */
+    @Spy
+    private IntentMatcher intentMatcher = new IntentMatcher(messages);
+
+    /**
+     * Счетчик нажатий (учет выключен, меню с URL-кнопками)
+     */
+    @Spy
+    private ClickTracker clickTracker = new ClickTracker();
+
+    /**
+     * A/B-эксперименты (выключены, всем показывается контрольный вариант)
+     */
+    @Spy
+    private Experiments experiments = new Experiments();
+
+    /**
+     * Реестр подписчиков (в памяти, без сохранения на диск)
+     */
+    @Spy
+    private SubscriberRegistry subscribers = new SubscriberRegistry();
+
+    /**
+     * Поиск для inline-запросов по тому же каталогу
+     */
+    @Spy
+    private InlineSearch inlineSearch = new InlineSearch(travelCatalog, messages);
+
+    /**
+     * Защита от перегрузки (нагрузки нет, выполняется вся работа)
+     */
+    @Spy
+    private LoadShedder loadShedder = new LoadShedder();
+
     /**
      * Мок-объект для отправки сообщений через Telegram API
      */
     @Mock
     private AbsSender absSender;
 
+    /**
+     * Мок-объект для отправки запросов с повторами
+     */
+    @Mock
+    private OutboundSender outboundSender;
+
+    /**
+     * Мок-объект диспетчера отложенных отправок
+     */
+    @Mock
+    private Dispatcher dispatcher;
+
     /**
      * Мок-объект для сервиса выполнения задач по расписанию
      */
@@ -68,6 +143,21 @@ class CommandServiceImplTest {
         assertTrue(result.getText().contains("Привет! Хотите отправиться в путешествие? (Да/Нет)"),
                 "Сообщение должно содержать приветствие");
         verify(logger).info(anyString());
+        verify(subscribers).touch(12345L);
+    }
+
+    /**
+     * Тест проверяет команду /start в канале, адресуемом по имени:
+     * приветствие отправляется, а нечисловой чат не попадает в реестр подписчиков
+     */
+    @Test
+    void startCommand_ChannelUsername_ShouldGreetWithoutTouch() {
+        // Act
+        SendMessage result = commandService.startCommand("@travel_channel");
+
+        // Assert
+        assertEquals("@travel_channel", result.getChatId(), "Неверный идентификатор чата");
+        verify(subscribers, never()).touch(anyLong());
     }
 
     /**
@@ -85,6 +175,19 @@ class CommandServiceImplTest {
                 "Сообщение должно содержать информацию о вариантах путешествий");
     }
 
+    /**
+     * Тест проверяет, что ответ на английском распознается и отвечает на языке пользователя
+     */
+    @Test
+    void handleUserResponse_WithEnglishYes_ShouldReturnLocalizedResponse() {
+        // Act
+        SendMessage result = commandService.handleUserResponse(CHAT_ID, "Yes", Language.EN);
+
+        // Assert
+        assertTrue(result.getText().startsWith("Great!"),
+                "Ответ должен быть на английском языке");
+    }
+
     /**
      * Тест проверяет обработку отрицательного ответа пользователя ("Нет")
      * Должен возвращать сообщение с прощанием
@@ -138,6 +241,117 @@ class CommandServiceImplTest {
                 "Первый вариант должен быть 'Экскурсии'");
     }
 
+    /**
+     * Тест проверяет нажатие на кнопку варианта при выключенном учете
+     * Должен возвращать кнопку-ссылку на выбранный вариант, не заводя счетчиков
+     */
+    @Test
+    void openTravelOption_KnownOption_ShouldReturnLink() {
+        // Act
+        SendMessage result = commandService.openTravelOption(CHAT_ID, "hotels", Language.EN);
+
+        // Assert
+        assertEquals(CHAT_ID, result.getChatId(), "Неверный идентификатор чата");
+        assertTrue(result.getText().contains("Отели"), "Сообщение должно содержать название варианта");
+        InlineKeyboardButton button = ((InlineKeyboardMarkup) result.getReplyMarkup()).getKeyboard().get(0).get(0);
+        assertEquals("Open", button.getText(), "Текст кнопки должен быть на языке пользователя");
+        assertEquals(travelCatalog.current().findOption("hotels").getUrl(), button.getUrl());
+        verify(clickTracker, never()).record(anyString());
+    }
+
+    /**
+     * Тест проверяет нажатие на отслеживаемую кнопку варианта при включенном учете
+     * Должен учитывать нажатие
+     */
+    @Test
+    void openTravelOption_TrackingEnabled_ShouldRecordClick() {
+        // Arrange
+        doReturn(true).when(clickTracker).isEnabled();
+
+        // Act
+        commandService.openTravelOption(CHAT_ID, "hotels", Language.EN);
+
+        // Assert
+        verify(clickTracker).record("hotels");
+    }
+
+    /**
+     * Тест проверяет нажатие на кнопку варианта, которого уже нет в каталоге
+     * Должен возвращать актуальное меню без учета нажатия
+     */
+    @Test
+    void openTravelOption_UnknownOption_ShouldReturnMenu() {
+        // Act
+        SendMessage result = commandService.openTravelOption(CHAT_ID, "removed", Language.RU);
+
+        // Assert
+        assertTrue(result.getText().contains("Выберите тип путешествия"),
+                "Вместо ссылки должно показываться меню");
+        assertSame(travelCatalog.current().getKeyboard(), result.getReplyMarkup());
+        verify(clickTracker, never()).record(anyString());
+    }
+
+    /**
+     * Тест проверяет показ меню вместе с ответом на согласие
+     * Должен возвращать одно сообщение с текстом ответа и клавиатурой меню
+     */
+    @Test
+    void showTravelMenu_ShouldReturnReplyWithMenu() {
+        // Act
+        SendMessage result = commandService.showTravelMenu(CHAT_ID, Language.RU);
+
+        // Assert
+        assertTrue(result.getText().startsWith("Отлично! Вот варианты для поездки"),
+                "Сообщение должно начинаться с ответа на согласие");
+        assertTrue(result.getText().contains("Выберите тип путешествия"),
+                "Сообщение должно содержать заголовок меню");
+        List<List<InlineKeyboardButton>> rows = ((InlineKeyboardMarkup) result.getReplyMarkup()).getKeyboard();
+        assertTrue(rows.get(0).get(0).getCallbackData().startsWith(CatalogSnapshot.TRACKED_CALLBACK_PREFIX),
+                "Кнопки меню должны быть callback-кнопками");
+        assertSame(result.getText(), commandService.showTravelMenu(CHAT_ID, Language.RU).getText(),
+                "Текст меню собирается один раз на язык");
+        verifyNoInteractions(executorService);
+    }
+
+    /**
+     * Тест проверяет выбор варианта с правкой сообщения на месте
+     * Должен заменять меню карточкой со ссылкой, прощанием и кнопкой возврата
+     */
+    @Test
+    void openTravelOptionInPlace_KnownOption_ShouldEditMessageWithCard() {
+        // Act
+        EditMessageText result = commandService.openTravelOptionInPlace(CHAT_ID, 42, "hotels", Language.EN);
+
+        // Assert
+        assertEquals(CHAT_ID, result.getChatId(), "Неверный идентификатор чата");
+        assertEquals(42, (int) result.getMessageId(), "Править нужно сообщение с меню");
+        assertTrue(result.getText().contains("Have a nice trip!"), "Прощание должно входить в карточку");
+        List<List<InlineKeyboardButton>> rows = result.getReplyMarkup().getKeyboard();
+        assertEquals(travelCatalog.current().findOption("hotels").getUrl(), rows.get(0).get(0).getUrl());
+        assertEquals(CatalogSnapshot.MENU_CALLBACK, rows.get(1).get(0).getCallbackData());
+        assertEquals("« Back", rows.get(1).get(0).getText(), "Кнопка возврата должна быть на языке пользователя");
+        assertSame(result.getReplyMarkup(),
+                commandService.openTravelOptionInPlace(CHAT_ID, 43, "hotels", Language.EN).getReplyMarkup(),
+                "Карточка собирается один раз и разделяется нажатиями");
+        verify(clickTracker, never()).record(anyString());
+    }
+
+    /**
+     * Тест проверяет возврат к меню из карточки варианта
+     * Должен править то же сообщение, возвращая заголовок и клавиатуру меню
+     */
+    @Test
+    void backToTravelMenu_ShouldEditMessageWithMenu() {
+        // Act
+        EditMessageText result = commandService.backToTravelMenu(CHAT_ID, 42, Language.RU);
+
+        // Assert
+        assertEquals(42, (int) result.getMessageId(), "Править нужно то же сообщение");
+        assertTrue(result.getText().contains("Выберите тип путешествия"),
+                "Сообщение должно содержать заголовок меню");
+        assertEquals(9, result.getReplyMarkup().getKeyboard().size(), "Неверное количество вариантов путешествий");
+    }
+
     /**
      * Тест проверяет отправку прощального сообщения
      * Должен содержать текст прощания и ссылку на сайт
@@ -169,4 +383,35 @@ class CommandServiceImplTest {
         assertTrue(result.getText().contains("/start - начать диалог"),
                 "Сообщение должно содержать инструкции по использованию");
     }
+
+    /**
+     * Тест проверяет ответ "бот занят" для режима перегрузки
+     * Должен быть на языке пользователя и без клавиатуры
+     */
+    @Test
+    void busyReply_ShouldReturnLocalizedBusyMessage() {
+        // Act
+        SendMessage result = commandService.busyReply(CHAT_ID, Language.EN);
+
+        // Assert
+        assertEquals(CHAT_ID, result.getChatId(), "Неверный идентификатор чата");
+        assertTrue(result.getText().contains("busy"), "Сообщение должно быть на английском");
+        assertNull(result.getReplyMarkup(), "Ответ под нагрузкой не должен содержать клавиатуру");
+    }
+
+    /**
+     * Тест проверяет ответ на inline-запрос
+     * Должен содержать только подходящие варианты каталога
+     */
+    @Test
+    void answerInlineQuery_ShouldReturnMatchingOptions() {
+        // Act
+        AnswerInlineQuery result = commandService.answerInlineQuery("iq-1", "круиз", Language.RU);
+
+        // Assert
+        assertEquals("iq-1", result.getInlineQueryId());
+        assertEquals(1, result.getResults().size(), "Должен найтись только вариант с круизами");
+        assertTrue(result.getIsPersonal(), "Результаты на языке пользователя нельзя отдавать другим");
+        verify(inlineSearch).results("круиз", Language.RU);
+    }
 }
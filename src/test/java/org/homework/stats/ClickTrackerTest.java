@@ -0,0 +1,164 @@
+package org.homework.stats;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link ClickTracker}.
+ * Проверяет подсчет нажатий, выгрузку приращений в файл и смену дня.
+ */
+class ClickTrackerTest {
+
+    /** Временный каталог для файла статистики */
+    @TempDir
+    Path tempDir;
+
+    /** Часы, которые можно переводить вперед */
+    private final MovableClock clock = new MovableClock(Instant.parse("2024-05-01T10:00:00Z"));
+
+    /**
+     * Тест проверяет, что в файл дописываются только приращения с прошлой выгрузки.
+     */
+    @Test
+    void flush_ShouldAppendDeltasSinceLastFlush() throws IOException {
+        Path file = tempDir.resolve("clicks.csv");
+        ClickTracker tracker = new ClickTracker(true, file, clock, mock(ILogger.class));
+
+        tracker.record("hotels");
+        tracker.record("hotels");
+        tracker.record("tours");
+        tracker.flush();
+        tracker.flush(); // Без новых нажатий ничего не дописывается
+        tracker.record("hotels");
+        tracker.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size(), "Ожидаются две строки первой выгрузки и одна второй");
+        assertTrue(lines.subList(0, 2).contains("2024-05-01;hotels;2"));
+        assertTrue(lines.subList(0, 2).contains("2024-05-01;tours;1"));
+        assertEquals("2024-05-01;hotels;1", lines.get(2));
+    }
+
+    /**
+     * Тест проверяет, что после полуночи нажатия учитываются в новом дне,
+     * а счетчики прошедшего дня все равно выгружаются.
+     */
+    @Test
+    void record_AfterMidnight_ShouldCountInNewDay() throws IOException {
+        Path file = tempDir.resolve("clicks.csv");
+        ClickTracker tracker = new ClickTracker(true, file, clock, mock(ILogger.class));
+
+        tracker.record("hotels");
+        clock.advanceHours(24);
+        tracker.record("hotels");
+        tracker.record("hotels");
+        tracker.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(List.of("2024-05-01;hotels;1", "2024-05-02;hotels;2"), lines);
+    }
+
+    /**
+     * Тест проверяет, что приращения, которые не удалось записать, и счетчики прошедшего дня
+     * попадают в файл при следующей успешной выгрузке.
+     */
+    @Test
+    void flush_AfterWriteFailure_ShouldRetryDeltas() throws IOException {
+        Path file = Files.createDirectory(tempDir.resolve("clicks.csv")); // Запись в каталог не удастся
+        ClickTracker tracker = new ClickTracker(true, file, clock, mock(ILogger.class));
+
+        tracker.record("hotels");
+        clock.advanceHours(24);
+        tracker.record("tours");
+        tracker.flush();
+        tracker.flush();
+        Files.delete(file);
+        tracker.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(List.of("2024-05-01;hotels;1", "2024-05-02;tours;1"), lines);
+    }
+
+    /**
+     * Тест проверяет, что параллельные нажатия из нескольких потоков не теряются.
+     */
+    @Test
+    void record_FromManyThreads_ShouldCountEveryClick() throws Exception {
+        Path file = tempDir.resolve("clicks.csv");
+        ClickTracker tracker = new ClickTracker(true, file, clock, mock(ILogger.class));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    tracker.record("cruises");
+                    if (j % 1_000 == 0) {
+                        tracker.flush(); // Выгрузка во время нажатий
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        tracker.flush();
+
+        long total = Files.readAllLines(file).stream()
+                .mapToLong(line -> Long.parseLong(line.substring(line.lastIndexOf(';') + 1)))
+                .sum();
+        assertEquals(40_000, total, "Сумма приращений должна совпадать с числом нажатий");
+    }
+
+    /**
+     * Тест проверяет, что без свойства учет нажатий выключен.
+     */
+    @Test
+    void isEnabled_WithoutProperty_ShouldBeFalse() {
+        assertFalse(new ClickTracker().isEnabled());
+    }
+
+    /**
+     * Часы в UTC с ручным переводом времени.
+     */
+    private static final class MovableClock extends Clock {
+        private volatile Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceHours(long hours) {
+            now = now.plusSeconds(hours * 3600);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.homework.subscribers;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link SubscriberRegistry}.
+ * Проверяет выборку активных подписчиков, отказы от рассылок и сохранение в файл.
+ */
+class SubscriberRegistryTest {
+
+    /** Временный каталог для файла реестра */
+    @TempDir
+    Path tempDir;
+
+    /** Текущее время в миллисекундах (начало дня 20000 от эпохи) */
+    private long now = TimeUnit.DAYS.toMillis(20_000);
+
+    private SubscriberRegistry newRegistry() {
+        return new SubscriberRegistry(tempDir.resolve("subscribers.bin"), () -> now, mock(ILogger.class));
+    }
+
+    /**
+     * Тест проверяет выборку активных за последние дни без отказавшихся.
+     */
+    @Test
+    void activeSince_ShouldFilterByDayAndOptOut() {
+        SubscriberRegistry registry = newRegistry();
+        registry.touch(300);
+        registry.touch(-100); // Группы имеют отрицательные идентификаторы
+        now += TimeUnit.DAYS.toMillis(10);
+        registry.touch(200);
+        registry.touch(100);
+        registry.optOut(100);
+
+        assertArrayEquals(new long[]{200}, registry.activeSince(7));
+        assertArrayEquals(new long[]{-100, 200, 300}, registry.activeSince(30));
+        assertArrayEquals(new long[]{100}, registry.optedOut());
+        assertEquals(4, registry.size());
+    }
+
+    /**
+     * Тест проверяет, что повторный /start после блокировки снова подписывает чат.
+     */
+    @Test
+    void touch_AfterOptOut_ShouldResubscribe() {
+        SubscriberRegistry registry = newRegistry();
+        registry.touch(42);
+        registry.optOut(42);
+        assertEquals(0, registry.activeSince(1).length);
+
+        registry.touch(42);
+
+        assertArrayEquals(new long[]{42}, registry.activeSince(1));
+        assertEquals(0, registry.optedOut().length);
+    }
+
+    /**
+     * Тест проверяет, что реестр из большого числа чатов сохраняется компактно и загружается без потерь.
+     */
+    @Test
+    void save_ShouldRoundTripCompactly() throws IOException {
+        SubscriberRegistry registry = newRegistry();
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            registry.touch(100_000_000L + i * 7L);
+            if (i % 1000 == 0) {
+                registry.optOut(100_000_000L + i * 7L);
+            }
+        }
+        registry.touch(-1001234567890L);
+        registry.save();
+
+        long size = Files.size(tempDir.resolve("subscribers.bin"));
+        assertTrue(size < count * 3L, "Ожидается не больше 3 байт на чат, получено " + size);
+
+        SubscriberRegistry loaded = newRegistry();
+        assertEquals(count + 1, loaded.size());
+        assertArrayEquals(registry.activeSince(1), loaded.activeSince(1));
+        assertArrayEquals(registry.optedOut(), loaded.optedOut());
+        assertTrue(loaded.contains(-1001234567890L));
+    }
+
+    /**
+     * Тест проверяет выгрузку получателей рассылки в текстовый файл.
+     */
+    @Test
+    void exportRecipients_ShouldWriteOneIdPerLine() throws IOException {
+        SubscriberRegistry registry = newRegistry();
+        registry.touch(2);
+        registry.touch(1);
+        Path target = tempDir.resolve("recipients.txt");
+
+        assertEquals(2, registry.exportRecipients(target, 1));
+        assertEquals(List.of("1", "2"), Files.readAllLines(target));
+    }
+}
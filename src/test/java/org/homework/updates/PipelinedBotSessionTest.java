@@ -0,0 +1,360 @@
+package org.homework.updates;
+
+import org.homework.dispatch.Dispatcher;
+import org.homework.load.LoadLevel;
+import org.homework.load.LoadShedder;
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.BotOptions;
+import org.telegram.telegrambots.meta.generics.LongPollingBot;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link PipelinedBotSession}.
+ * Проверяет порядок обработки, подтверждение только обработанных обновлений
+ * получение новых обновлений во время обработки и вытеснение в очередь на диске.
+ */
+@ExtendWith(MockitoExtension.class)
+class PipelinedBotSessionTest {
+
+    @Mock
+    private ILogger logger; // Заглушка для логгера
+
+    private final FakeTelegram telegram = new FakeTelegram();
+    private final List<Integer> handled = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PipelinedBotSession session;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (session != null) {
+            session.stop();
+        }
+    }
+
+    /**
+     * Тест проверяет, что обновления обрабатываются по порядку, а после остановки
+     * подтверждены все обработанные.
+     */
+    @Test
+    void start_Updates_ShouldHandleInOrderAndConfirm() throws InterruptedException {
+        telegram.add(1, 2, 3, 4, 5);
+        release.countDown();
+        session = startSession(-1);
+
+        awaitTrue(() -> handled.size() == 5);
+        session.stop();
+
+        assertEquals(List.of(1, 2, 3, 4, 5), handled);
+        assertEquals(6, telegram.confirmedOffset(), "Подтверждены все обработанные обновления");
+        session = null;
+    }
+
+    /**
+     * Тест проверяет, что пока обработка стоит, новые обновления уже получены,
+     * но не подтверждены.
+     */
+    @Test
+    void start_SlowHandler_ShouldFetchAheadWithoutConfirming() throws InterruptedException {
+        telegram.add(10);
+        session = startSession(10);
+        awaitTrue(() -> session.backlogSize() == 1);
+
+        telegram.add(11, 12, 13);
+        awaitTrue(() -> session.backlogSize() == 4);
+
+        assertTrue(handled.isEmpty(), "Первое обновление еще обрабатывается");
+        assertTrue(telegram.confirmedOffset() <= 10, "Необработанные обновления не подтверждаются");
+
+        release.countDown();
+        awaitTrue(() -> handled.size() == 4);
+        assertEquals(List.of(10, 11, 12, 13), handled);
+        assertEquals(14, session.getHandledOffset());
+    }
+
+    /**
+     * Тест проверяет, что повторно присланные неподтвержденные обновления не обрабатываются дважды.
+     */
+    @Test
+    void start_RedeliveredUpdates_ShouldHandleOnce() throws InterruptedException {
+        telegram.add(1, 2);
+        session = startSession(1);
+        awaitTrue(() -> session.backlogSize() == 2);
+
+        int fetches = telegram.fetches();
+        telegram.add(3);
+        awaitTrue(() -> session.backlogSize() == 3);
+        release.countDown();
+        awaitTrue(() -> handled.size() == 3);
+
+        assertEquals(List.of(1, 2, 3), handled);
+        assertTrue(telegram.fetches() > fetches);
+    }
+
+    /**
+     * Тест проверяет, что в режиме виртуальных потоков остальные обновления обрабатываются,
+     * пока одно заблокировано, но подтверждение не обгоняет незавершенное обновление.
+     */
+    @Test
+    void start_VirtualMode_ShouldHandleOthersButConfirmInOrder() throws InterruptedException {
+        telegram.add(10, 11, 12, 13);
+        session = startSession(10, new Dispatcher(true, logger));
+
+        awaitTrue(() -> handled.size() == 3);
+        assertFalse(handled.contains(10), "Заблокированное обновление еще обрабатывается");
+        assertTrue(session.getHandledOffset() <= 10, "Подтверждение ждет первое незавершенное обновление");
+        assertEquals(4, session.backlogSize());
+
+        release.countDown();
+        awaitTrue(() -> session.getHandledOffset() == 14);
+        assertEquals(0, session.backlogSize());
+    }
+
+    /**
+     * Тест проверяет, что при переполнении памяти обновления уходят в очередь на диске
+     * и подтверждаются до обработки, а обрабатываются все и по порядку.
+     */
+    @Test
+    void start_Overload_ShouldSpillConfirmAndHandleInOrder() throws Exception {
+        SpillQueue spill = SpillQueue.open(tempDir, 1024);
+        for (int id = 1; id <= 20; id++) {
+            telegram.add(id);
+        }
+        session = new PipelinedBotSession(telegram::fetch, null, spill, 2, logger);
+        session.setCallback(new RecordingBot(20));
+        session.start();
+
+        awaitTrue(() -> handled.size() == 19);
+        assertTrue(spill.getSpilled() > 0, "Обновления сверх памяти должны уйти на диск");
+        awaitTrue(() -> session.getHandledOffset() == 21);
+        assertFalse(handled.contains(20), "Записанное на диск обновление подтверждается до обработки");
+
+        release.countDown();
+        awaitTrue(() -> handled.size() == 20);
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            expected.add(id);
+        }
+        assertEquals(expected, handled);
+        assertTrue(spill.isEmpty());
+    }
+
+    /**
+     * Тест проверяет, что при отказе защиты от перегрузки бот получает каждое обновление
+     * из очереди на диске: они уже подтверждены и отбросить их нельзя.
+     */
+    @Test
+    void start_RejectWhileDraining_ShouldHandleEverySpilledUpdate() throws Exception {
+        SpillQueue spill = SpillQueue.open(tempDir, 64 * 1024);
+        LoadShedder loadShedder = new LoadShedder(20, 1_000, () -> 0, logger); // Уровень не понижается
+        loadShedder.observe(1_000, 0);
+        for (int id = 1; id <= 150; id++) {
+            telegram.add(id);
+        }
+        session = new PipelinedBotSession(telegram::fetch, null, spill, 2, logger);
+        session.setLoadShedder(loadShedder);
+        SheddingBot bot = new SheddingBot(1, loadShedder);
+        session.setCallback(bot);
+        session.start();
+
+        awaitTrue(() -> spill.getSpilled() > 80);
+        release.countDown();
+        awaitTrue(() -> handled.size() + bot.rejected.size() == 150);
+
+        assertEquals(LoadLevel.REJECT, loadShedder.level());
+        assertTrue(handled.size() > spill.getSpilled(), "Обработаны все обновления с диска и первое");
+        assertEquals(151, session.getHandledOffset());
+        assertTrue(spill.isEmpty());
+    }
+
+    /**
+     * Тест проверяет, что в режиме виртуальных потоков очередь на диске читается, только пока
+     * в обработке меньше заданного числа обновлений, а после освобождения обрабатывается вся.
+     */
+    @Test
+    void start_VirtualModeDraining_ShouldKeepMemoryBound() throws Exception {
+        SpillQueue spill = SpillQueue.open(tempDir, 64 * 1024);
+        for (int id = 1; id <= 30; id++) {
+            spill.append(update(id));
+        }
+        spill.flush();
+        session = new PipelinedBotSession(telegram::fetch, new Dispatcher(true, logger), spill, 5, logger);
+        session.setCallback(new RecordingBot(0) {
+            @Override
+            public void onUpdateReceived(Update update) {
+                try {
+                    release.await(); // Обработка не завершается, пока не разрешит тест
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onUpdateReceived(update);
+            }
+        });
+        session.start();
+
+        awaitTrue(() -> session.inFlight() == 5);
+        Thread.sleep(200); // Лишние обновления не должны читаться с диска
+        assertEquals(5, session.inFlight());
+        assertEquals(25, spill.size());
+
+        release.countDown();
+        awaitTrue(() -> handled.size() == 30);
+        assertTrue(spill.isEmpty());
+    }
+
+    /**
+     * Запускает сессию; обработка обновления с номером {@code blockOn} ждет сигнала release.
+     */
+    private PipelinedBotSession startSession(int blockOn) {
+        return startSession(blockOn, null);
+    }
+
+    /**
+     * Запускает сессию с заданным режимом выполнения.
+     */
+    private PipelinedBotSession startSession(int blockOn, Dispatcher dispatcher) {
+        PipelinedBotSession started = new PipelinedBotSession(telegram::fetch, dispatcher, logger);
+        started.setCallback(new RecordingBot(blockOn));
+        started.start();
+        return started;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not reached in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static IncomingUpdate update(int id) {
+        Update update = new Update();
+        update.setUpdateId(id);
+        return IncomingUpdate.of(update);
+    }
+
+    /**
+     * Бот, запоминающий номера обработанных обновлений.
+     */
+    private class RecordingBot implements LongPollingBot {
+        private final int blockOn;
+
+        RecordingBot(int blockOn) {
+            this.blockOn = blockOn;
+        }
+
+        @Override
+        public void onUpdateReceived(Update update) {
+            if (update.getUpdateId() == blockOn) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            handled.add(update.getUpdateId());
+        }
+
+        @Override
+        public String getBotUsername() {
+            return "test_bot";
+        }
+
+        @Override
+        public String getBotToken() {
+            return "token";
+        }
+
+        @Override
+        public BotOptions getOptions() {
+            return null;
+        }
+
+        @Override
+        public void clearWebhook() {
+        }
+    }
+
+    /**
+     * Бот, который, как {@code Bot}, отбрасывает обновления при отказе защиты от перегрузки.
+     */
+    private class SheddingBot extends RecordingBot implements IncomingUpdateHandler {
+        private final LoadShedder loadShedder;
+        private final List<Integer> rejected = new CopyOnWriteArrayList<>();
+
+        SheddingBot(int blockOn, LoadShedder loadShedder) {
+            super(blockOn);
+            this.loadShedder = loadShedder;
+        }
+
+        @Override
+        public void onIncomingUpdate(IncomingUpdate update) {
+            // Первое обновление задерживает обработку, пока растет очередь на диске
+            if (update.getUpdateId() != 1 && loadShedder.level(update.isAcknowledged()) == LoadLevel.REJECT) {
+                rejected.add(update.getUpdateId());
+                return;
+            }
+            onUpdateReceived(update.toUpdate());
+        }
+    }
+
+    /**
+     * Сервер Telegram в памяти: возвращает неподтвержденные обновления начиная с offset.
+     */
+    private static class FakeTelegram {
+        private final List<IncomingUpdate> pending = new ArrayList<>();
+        private int confirmed;
+        private int fetches;
+
+        synchronized void add(int... ids) {
+            for (int id : ids) {
+                pending.add(update(id));
+            }
+            notifyAll();
+        }
+
+        synchronized List<IncomingUpdate> fetch(int offset, int limit, int timeoutSeconds) {
+            fetches++;
+            confirmed = Math.max(confirmed, offset);
+            pending.removeIf(update -> update.getUpdateId() < offset);
+            if (pending.isEmpty() && timeoutSeconds > 0) {
+                try {
+                    wait(50); // Укороченный long polling
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            pending.removeIf(update -> update.getUpdateId() < offset);
+            return new ArrayList<>(pending.subList(0, Math.min(limit, pending.size())));
+        }
+
+        synchronized int confirmedOffset() {
+            return confirmed;
+        }
+
+        synchronized int fetches() {
+            return fetches;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.homework.updates;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link SpillQueue}.
+ * Проверяет порядок чтения, удаление обработанных сегментов и продолжение после перезапуска.
+ */
+class SpillQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест проверяет, что записи читаются по порядку и только после сброса на диск.
+     */
+    @Test
+    void poll_FlushedUpdates_ShouldReturnInOrder() throws Exception {
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1024)) {
+            queue.append(update(1, "/start"));
+            queue.append(update(2, "/help"));
+            assertNull(queue.poll(), "Несброшенные записи не читаются");
+            assertFalse(queue.isEmpty());
+
+            queue.flush();
+            IncomingUpdate first = queue.poll();
+            IncomingUpdate second = queue.poll();
+
+            assertEquals("/start", first.getText());
+            assertEquals(0, first.getSpillSequence());
+            assertEquals(2, second.getUpdateId());
+            assertEquals(1, second.getSpillSequence());
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+            assertEquals(2, queue.getDrained());
+        }
+    }
+
+    /**
+     * Тест проверяет, что сегмент удаляется, только когда обработаны все его записи
+     * и все записи перед ним.
+     */
+    @Test
+    void complete_ConsumedSegments_ShouldDeleteFiles() throws Exception {
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1)) { // По записи в сегменте
+            for (int id = 1; id <= 3; id++) {
+                queue.append(update(id, "text"));
+            }
+            queue.flush();
+            IncomingUpdate first = queue.poll();
+            IncomingUpdate second = queue.poll();
+            queue.poll();
+            assertEquals(3, segments().size());
+
+            queue.complete(second.getSpillSequence());
+            assertEquals(3, segments().size(), "Перед обработанной записью есть необработанная");
+
+            queue.complete(first.getSpillSequence());
+            assertEquals(1, segments().size(), "Остается только сегмент с необработанной записью");
+        }
+    }
+
+    /**
+     * Тест проверяет, что после перезапуска чтение продолжается с первой необработанной записи,
+     * а новые записи идут за старыми.
+     */
+    @Test
+    void open_AfterRestart_ShouldResumeFromFirstUncompleted() throws Exception {
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1)) {
+            for (int id = 1; id <= 4; id++) {
+                queue.append(update(id, "text"));
+            }
+            queue.flush();
+            queue.complete(queue.poll().getSpillSequence());
+            queue.complete(queue.poll().getSpillSequence());
+            queue.poll(); // Прочитано, но не обработано
+        }
+
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1)) {
+            assertEquals(2, queue.size());
+            queue.append(update(5, "text"));
+            queue.flush();
+
+            assertEquals(3, queue.poll().getUpdateId());
+            assertEquals(4, queue.poll().getUpdateId());
+            assertEquals(5, queue.poll().getUpdateId());
+            assertNull(queue.poll());
+        }
+    }
+
+    /**
+     * Тест проверяет, что оборванная при сбое последняя запись отбрасывается.
+     */
+    @Test
+    void open_TruncatedTail_ShouldSkipBrokenRecord() throws Exception {
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1024)) {
+            queue.append(update(1, "/start"));
+            queue.append(update(2, "/help"));
+        }
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 5));
+
+        try (SpillQueue queue = SpillQueue.open(tempDir, 1024)) {
+            assertEquals(1, queue.size());
+            queue.append(update(3, "/start"));
+            queue.flush();
+
+            assertEquals(1, queue.poll().getUpdateId());
+            assertEquals(3, queue.poll().getUpdateId());
+            assertNull(queue.poll());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static IncomingUpdate update(int id, String text) throws TelegramApiException {
+        String json = "{\"update_id\":" + id + ",\"message\":{\"message_id\":" + id
+                + ",\"chat\":{\"id\":42},\"text\":\"" + text + "\"}}";
+        return UpdateStreamParser.parseUpdate(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
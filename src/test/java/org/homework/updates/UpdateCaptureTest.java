@@ -0,0 +1,122 @@
+package org.homework.updates;
+
+import org.homework.logger.ILogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестовый класс для проверки функциональности {@link UpdateCapture} и {@link UpdateRecorder}.
+ * Проверяет сохранение JSON и темпа обновлений и чтение оборванной записи.
+ */
+class UpdateCaptureTest {
+
+    private static final String MESSAGE = "{\"update_id\":601,\"message\":{\"message_id\":3,"
+            + "\"from\":{\"id\":42,\"language_code\":\"en\"},\"chat\":{\"id\":42},\"text\":\"/start\"}}";
+
+    private static final String CALLBACK = "{\"update_id\":602,\"callback_query\":{\"id\":\"cb-2\","
+            + "\"message\":{\"message_id\":4,\"chat\":{\"id\":42}},\"data\":\"go:hotels\"}}";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест проверяет, что из записи читаются те же обновления с промежутками между ними.
+     */
+    @Test
+    void read_WrittenCapture_ShouldRestoreUpdatesAndTiming() throws IOException {
+        Path file = tempDir.resolve("updates.cap");
+        try (UpdateCapture.Writer writer = UpdateCapture.Writer.open(file)) {
+            writer.write(5_000_000_000L, MESSAGE.getBytes(StandardCharsets.UTF_8));
+            writer.write(5_250_000_000L, CALLBACK.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<UpdateCapture.Entry> entries = UpdateCapture.read(file);
+
+        assertEquals(2, entries.size());
+        assertEquals(0, entries.get(0).getArrivalMicros(), "Время отсчитывается от первого обновления");
+        assertEquals(250_000, entries.get(1).getArrivalMicros());
+        assertEquals("/start", entries.get(0).getUpdate().getText());
+        assertEquals("go:hotels", entries.get(1).getUpdate().getCallbackData());
+        assertEquals(4, (int) entries.get(1).getUpdate().getMessageId());
+    }
+
+    /**
+     * Тест проверяет, что после сбоя читаются сброшенные записи, а оборванная отбрасывается.
+     */
+    @Test
+    void read_TruncatedCapture_ShouldReturnFlushedUpdates() throws IOException {
+        Path file = tempDir.resolve("updates.cap");
+        UpdateCapture.Writer writer = UpdateCapture.Writer.open(file);
+        writer.write(0, MESSAGE.getBytes(StandardCharsets.UTF_8));
+        writer.flush();
+        long flushed = Files.size(file);
+        writer.write(1_000, CALLBACK.getBytes(StandardCharsets.UTF_8));
+        writer.flush();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, (int) (flushed + (bytes.length - flushed) / 2)));
+
+        List<UpdateCapture.Entry> entries = UpdateCapture.read(file);
+
+        assertEquals(1, entries.size(), "Оборванная запись должна отбрасываться");
+        assertEquals(601, entries.get(0).getUpdate().getUpdateId());
+    }
+
+    /**
+     * Тест проверяет, что файл другого формата не принимается за запись.
+     */
+    @Test
+    void read_ForeignFile_ShouldFail() throws IOException {
+        Path file = tempDir.resolve("other.cap");
+        Files.write(file, MESSAGE.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> UpdateCapture.read(file));
+    }
+
+    /**
+     * Тест проверяет, что бот записывает обновления с моментом постановки в очередь.
+     */
+    @Test
+    void record_ShouldWriteUpdatesWithQueueTime() throws IOException, TelegramApiException {
+        Path file = tempDir.resolve("recorded.cap");
+        UpdateRecorder recorder = new UpdateRecorder(file, mock(ILogger.class));
+        IncomingUpdate first = UpdateStreamParser.parseUpdate(MESSAGE.getBytes(StandardCharsets.UTF_8));
+        first.setReceivedNanos(1_000_000_000L);
+        IncomingUpdate second = UpdateStreamParser.parseUpdate(CALLBACK.getBytes(StandardCharsets.UTF_8));
+        second.setReceivedNanos(1_400_000_000L);
+
+        recorder.record(first);
+        recorder.record(second);
+        recorder.close();
+        recorder.record(first);
+
+        List<UpdateCapture.Entry> entries = UpdateCapture.read(file);
+        assertEquals(2, recorder.getRecorded(), "После закрытия обновления не записываются");
+        assertEquals(2, entries.size());
+        assertEquals(400_000, entries.get(1).getArrivalMicros());
+        assertEquals(CALLBACK, new String(entries.get(1).getUpdate().toJson(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тест проверяет, что без файла запись выключена и ничего не создает.
+     */
+    @Test
+    void record_WithoutFile_ShouldDoNothing() throws TelegramApiException {
+        UpdateRecorder recorder = new UpdateRecorder(null, mock(ILogger.class));
+
+        recorder.record(UpdateStreamParser.parseUpdate(MESSAGE.getBytes(StandardCharsets.UTF_8)));
+
+        assertFalse(recorder.isEnabled());
+        assertEquals(0, recorder.getRecorded());
+    }
+}
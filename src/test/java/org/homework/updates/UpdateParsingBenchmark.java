@@ -0,0 +1,119 @@
+package org.homework.updates;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Замер памяти, выделяемой на одно входящее обновление: полный разбор ответа getUpdates,
+ * как в библиотеке (тело в строку, затем весь граф {@link Update}), против
+ * {@link UpdateStreamParser}. Читаются те же поля, что нужны маршрутизации бота.
+ *
+ * <p>Запуск: {@code java -cp <test-classpath> org.homework.updates.UpdateParsingBenchmark}.</p>
+ */
+public final class UpdateParsingBenchmark {
+
+    private static final int UPDATES_PER_RESPONSE = 100;
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Защита от удаления результатов оптимизатором */
+    private static long sink;
+
+    private UpdateParsingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        byte[] body = response(UPDATES_PER_RESPONSE).getBytes(StandardCharsets.UTF_8);
+
+        long full = measure(() -> fullParse(body));
+        long lazy = measure(() -> streamingParse(body));
+
+        System.out.printf("Размер ответа: %d байт, обновлений: %d%n", body.length, UPDATES_PER_RESPONSE);
+        System.out.printf("Полный разбор:    %,d байт на обновление%n", full);
+        System.out.printf("Потоковый разбор: %,d байт на обновление%n", lazy);
+    }
+
+    /**
+     * @return среднее число байтов, выделенных на одно обновление
+     */
+    private static long measure(Round round) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        return allocated / ((long) MEASURED_ROUNDS * UPDATES_PER_RESPONSE);
+    }
+
+    private static void fullParse(byte[] body) throws Exception {
+        Response response = MAPPER.readValue(new String(body, StandardCharsets.UTF_8), Response.class);
+        for (Update update : response.result) {
+            if (update.hasMessage() && update.getMessage().hasText()) {
+                sink += update.getMessage().getChatId() + update.getMessage().getText().length()
+                        + update.getMessage().getFrom().getLanguageCode().length();
+            }
+        }
+    }
+
+    private static void streamingParse(byte[] body) throws Exception {
+        for (IncomingUpdate update : UpdateStreamParser.parse(body)) {
+            if (update.getText() != null) {
+                sink += update.getChatId() + update.getText().length() + update.getLanguageCode().length();
+            }
+        }
+    }
+
+    /**
+     * Ответ getUpdates с типичными текстовыми сообщениями из личных чатов.
+     */
+    private static String response(int count) {
+        StringBuilder json = new StringBuilder("{\"ok\":true,\"result\":[");
+        for (int i = 0; i < count; i++) {
+            long user = 100_000_000L + i;
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"update_id\":").append(900_000 + i)
+                    .append(",\"message\":{\"message_id\":").append(1_000 + i)
+                    .append(",\"from\":{\"id\":").append(user)
+                    .append(",\"is_bot\":false,\"first_name\":\"Иван\",\"last_name\":\"Петров\",")
+                    .append("\"username\":\"ivan_").append(i).append("\",\"language_code\":\"ru\"},")
+                    .append("\"chat\":{\"id\":").append(user)
+                    .append(",\"first_name\":\"Иван\",\"last_name\":\"Петров\",\"username\":\"ivan_").append(i)
+                    .append("\",\"type\":\"private\"},\"date\":").append(1_700_000_000 + i)
+                    .append(",\"text\":\"").append(i % 2 == 0 ? "/start" : "Да, покажи варианты").append('"')
+                    .append(i % 2 == 0 ? ",\"entities\":[{\"offset\":0,\"length\":6,\"type\":\"bot_command\"}]" : "")
+                    .append("}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    @FunctionalInterface
+    private interface Round {
+        void run() throws Exception;
+    }
+
+    /**
+     * Ответ Bot API в том виде, в каком его декодирует библиотека.
+     */
+    private static final class Response {
+        @JsonProperty("ok")
+        boolean ok;
+
+        @JsonProperty("result")
+        ArrayList<Update> result;
+    }
+}
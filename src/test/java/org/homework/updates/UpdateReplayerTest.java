@@ -0,0 +1,89 @@
+package org.homework.updates;
+
+import org.homework.i18n.MessageBundles;
+import org.homework.intent.IntentMatcher;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link UpdateReplayer}.
+ * Проверяет порядок и темп воспроизведения и группировку задержек по командам.
+ */
+class UpdateReplayerTest {
+
+    private final Function<IncomingUpdate, String> classifier =
+            UpdateReplayer.byIntent(new IntentMatcher(new MessageBundles()));
+
+    /**
+     * Тест проверяет, что без пауз обновления передаются обработчику по порядку
+     * и задержки собираются по командам.
+     */
+    @Test
+    void replay_MaxSpeed_ShouldGroupLatenciesByCommand() throws Exception {
+        List<UpdateCapture.Entry> capture = List.of(
+                entry(0, "{\"update_id\":1,\"message\":{\"chat\":{\"id\":5},\"text\":\"/start\"}}"),
+                entry(60_000_000, "{\"update_id\":2,\"message\":{\"chat\":{\"id\":5},\"text\":\"да\"}}"),
+                entry(120_000_000, "{\"update_id\":3,\"callback_query\":{\"id\":\"q\","
+                        + "\"message\":{\"message_id\":9,\"chat\":{\"id\":5}},\"data\":\"go:hotels\"}}"),
+                entry(180_000_000, "{\"update_id\":4,\"message\":{\"chat\":{\"id\":6},\"text\":\"Да\"}}"));
+        List<Integer> handled = new ArrayList<>();
+
+        UpdateReplayer.Report report = new UpdateReplayer(update -> handled.add(update.getUpdateId()), classifier)
+                .replay(capture, 0);
+
+        assertEquals(List.of(1, 2, 3, 4), handled);
+        assertEquals(1, report.count("start"));
+        assertEquals(2, report.count("yes"));
+        assertEquals(1, report.count("callback:go"));
+        assertTrue(report.getElapsedMillis() < 60_000, "Без пауз запись не должна ждать исходного темпа");
+        assertTrue(report.format().contains("callback:go"));
+    }
+
+    /**
+     * Тест проверяет, что ускоренное воспроизведение сохраняет промежутки, деленные на множитель.
+     */
+    @Test
+    void replay_WithSpeed_ShouldKeepScaledGaps() throws Exception {
+        List<UpdateCapture.Entry> capture = List.of(
+                entry(0, "{\"update_id\":1,\"inline_query\":{\"id\":\"iq\",\"query\":\"от\"}}"),
+                entry(1_000_000, "{\"update_id\":2,\"inline_query\":{\"id\":\"iq\",\"query\":\"отели\"}}"));
+        List<Long> times = new ArrayList<>();
+
+        UpdateReplayer.Report report = new UpdateReplayer(update -> times.add(System.nanoTime()), classifier)
+                .replay(capture, 10);
+
+        assertTrue(times.get(1) - times.get(0) >= 90_000_000L, "Секунда записи - 100 мс при скорости 10");
+        assertEquals(2, report.count("inline"));
+    }
+
+    /**
+     * Тест проверяет, что исключение обработчика учитывается и не прерывает воспроизведение.
+     */
+    @Test
+    void replay_HandlerFailure_ShouldCountAndContinue() throws Exception {
+        List<UpdateCapture.Entry> capture = List.of(
+                entry(0, "{\"update_id\":1,\"message\":{\"chat\":{\"id\":5},\"text\":\"?\"}}"),
+                entry(0, "{\"update_id\":2,\"message\":{\"chat\":{\"id\":5},\"text\":\"нет\"}}"));
+
+        UpdateReplayer.Report report = new UpdateReplayer(update -> {
+            if (update.getUpdateId() == 1) {
+                throw new IllegalStateException("boom");
+            }
+        }, classifier).replay(capture, 0);
+
+        assertEquals(1, report.getFailures());
+        assertEquals(1, report.count("unknown"));
+        assertEquals(1, report.count("no"));
+    }
+
+    private static UpdateCapture.Entry entry(long arrivalMicros, String json) throws TelegramApiException {
+        return new UpdateCapture.Entry(arrivalMicros, UpdateStreamParser.parseUpdate(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,114 @@
+package org.homework.updates;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для проверки функциональности {@link UpdateStreamParser}.
+ * Проверяет извлечение полей маршрутизации, пропуск лишних полей и отложенное декодирование.
+ */
+class UpdateStreamParserTest {
+
+    private static final String MESSAGE = "{\"update_id\":501,\"message\":{\"message_id\":7,"
+            + "\"from\":{\"id\":42,\"is_bot\":false,\"first_name\":\"Анна\",\"language_code\":\"en\"},"
+            + "\"chat\":{\"id\":42,\"type\":\"private\"},\"date\":1700000000,"
+            + "\"entities\":[{\"offset\":0,\"length\":6,\"type\":\"bot_command\"}],\"text\":\"/start\"}}";
+
+    private static final String CALLBACK = "{\"update_id\":502,\"callback_query\":{\"id\":\"cb-1\","
+            + "\"from\":{\"id\":43,\"language_code\":\"de\"},"
+            + "\"message\":{\"message_id\":8,\"from\":{\"id\":1,\"language_code\":\"ru\"},"
+            + "\"chat\":{\"id\":-100500},\"text\":\"Меню\"},\"data\":\"go:hotels\"}}";
+
+    /**
+     * Тест проверяет извлечение текста, чата и языка из сообщения.
+     */
+    @Test
+    void parse_Message_ShouldExtractRoutingFields() throws TelegramApiException {
+        List<IncomingUpdate> updates = parse("{\"ok\":true,\"result\":[" + MESSAGE + "]}");
+
+        assertEquals(1, updates.size());
+        IncomingUpdate update = updates.get(0);
+        assertEquals(501, update.getUpdateId());
+        assertEquals(42L, (long) update.getChatId());
+        assertEquals("/start", update.getText());
+        assertEquals("en", update.getLanguageCode());
+        assertFalse(update.isCallbackQuery());
+    }
+
+    /**
+     * Тест проверяет, что у нажатия берутся язык автора и чат сообщения с кнопкой,
+     * но не текст и отправитель этого сообщения.
+     */
+    @Test
+    void parse_CallbackQuery_ShouldExtractQueryFields() throws TelegramApiException {
+        List<IncomingUpdate> updates = parse("{\"ok\":true,\"result\":[" + MESSAGE + "," + CALLBACK + "]}");
+
+        IncomingUpdate query = updates.get(1);
+        assertTrue(query.isCallbackQuery());
+        assertEquals("cb-1", query.getCallbackQueryId());
+        assertEquals("go:hotels", query.getCallbackData());
+        assertEquals(-100500L, (long) query.getChatId());
+        assertEquals(8, (int) query.getMessageId(), "Номер сообщения с кнопкой для правки на месте");
+        assertEquals("de", query.getLanguageCode());
+        assertNull(query.getText());
+    }
+
+    /**
+     * Тест проверяет извлечение текста, автора и языка из inline-запроса.
+     */
+    @Test
+    void parse_InlineQuery_ShouldExtractQueryFields() throws TelegramApiException {
+        List<IncomingUpdate> updates = parse("{\"ok\":true,\"result\":[{\"update_id\":503,\"inline_query\":"
+                + "{\"id\":\"iq-7\",\"from\":{\"id\":44,\"is_bot\":false,\"language_code\":\"uk\"},"
+                + "\"query\":\"круиз\",\"offset\":\"\"}}]}");
+
+        IncomingUpdate query = updates.get(0);
+        assertTrue(query.isInlineQuery());
+        assertFalse(query.isCallbackQuery());
+        assertEquals("iq-7", query.getInlineQueryId());
+        assertEquals("круиз", query.getText());
+        assertEquals(44L, (long) query.getChatId());
+        assertEquals("uk", query.getLanguageCode());
+    }
+
+    /**
+     * Тест проверяет, что полный объект декодируется из JSON своего обновления.
+     */
+    @Test
+    void toUpdate_ParsedUpdate_ShouldDecodeFullObject() throws TelegramApiException {
+        List<IncomingUpdate> updates = parse("{\"ok\":true,\"result\":[" + MESSAGE + "," + CALLBACK + "]}");
+
+        Update message = updates.get(0).toUpdate();
+        Update query = updates.get(1).toUpdate();
+
+        assertEquals(501, (int) message.getUpdateId());
+        assertEquals("/start", message.getMessage().getText());
+        assertEquals("Анна", message.getMessage().getFrom().getFirstName());
+        assertEquals("go:hotels", query.getCallbackQuery().getData());
+        assertSame(message, updates.get(0).toUpdate(), "Обновление декодируется один раз");
+    }
+
+    /**
+     * Тест проверяет разбор пустого ответа и ответа с ошибкой.
+     */
+    @Test
+    void parse_EmptyAndErrorResponses_ShouldReturnEmptyOrThrow() throws TelegramApiException {
+        assertTrue(parse("{\"ok\":true,\"result\":[]}").isEmpty());
+
+        TelegramApiRequestException error = assertThrows(TelegramApiRequestException.class,
+                () -> parse("{\"ok\":false,\"error_code\":409,\"description\":\"Conflict\"}"));
+        assertTrue(error.getMessage().contains("409"));
+        assertThrows(TelegramApiException.class, () -> parse("{\"ok\":true,\"result\":["));
+    }
+
+    private static List<IncomingUpdate> parse(String json) throws TelegramApiException {
+        return UpdateStreamParser.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+}